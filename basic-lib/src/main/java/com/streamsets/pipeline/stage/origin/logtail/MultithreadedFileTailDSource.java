@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ConfigGroups;
+import com.streamsets.pipeline.api.ExecutionMode;
+import com.streamsets.pipeline.api.GenerateResourceBundle;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
+
+@StageDef(
+    version = 1,
+    label = "File Tail Multithreaded",
+    description = "Tails files using multiple threads, each file is always read by the same thread. " +
+        "It handles rolling files within the same directory",
+    icon = "fileTail.png",
+    execution = {ExecutionMode.STANDALONE, ExecutionMode.EDGE},
+    outputStreams = FileTailOutputStreams.class,
+    recordsByRef = true,
+    resetOffset = true,
+    producesEvents = true,
+    onlineHelpRefUrl ="index.html?contextID=task_unq_wdw_yq"
+)
+@ConfigGroups(Groups.class)
+@GenerateResourceBundle
+public class MultithreadedFileTailDSource extends DPushSource {
+
+  @ConfigDefBean
+  public FileTailConfigBean conf;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of threads reading files. The files matched by the paths and globs are distributed " +
+          "across threads, a file is always read by the same thread",
+      displayPosition = 55,
+      group = "FILES",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int numberOfThreads;
+
+  @Override
+  protected PushSource createPushSource() {
+    return new MultithreadedFileTailSource(conf, numberOfThreads);
+  }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.codahale.metrics.Counter;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.io.FileAssigner;
+import com.streamsets.pipeline.lib.io.LiveFileChunk;
+import com.streamsets.pipeline.lib.io.MultiFileInfo;
+import com.streamsets.pipeline.lib.io.MultiFileReader;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.streamsets.pipeline.stage.origin.logtail.FileTailSource.FILE_TAIL_CONF_PREFIX;
+import static com.streamsets.pipeline.stage.origin.logtail.FileTailSource.FILE_TAIL_DATA_FORMAT_CONFIG_PREFIX;
+
+/**
+ * Multithreaded variant of {@link FileTailSource}.
+ * <p/>
+ * Every worker thread owns a {@link MultiFileReader} over all the configured file entries and runs its own batches.
+ * The files the paths and globs resolve to are spread across the readers by a shared {@link FileAssigner}, files
+ * showing up later go to the thread with the fewest files. As a file is always read by the same thread, lines of a
+ * file are delivered in order. Offsets are committed per file key using the same file key to offset entries the poll variant keeps in its
+ * JSON offset, an offset left by {@link FileTailSource} is picked up on the first run.
+ */
+public class MultithreadedFileTailSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(MultithreadedFileTailSource.class);
+
+  private final FileTailConfigBean conf;
+  private final int scanIntervalSecs;
+  private final int numberOfThreads;
+
+  private final List<MultiFileReader> readers = new ArrayList<>();
+  private long maxWaitTimeMillis;
+  private DataParserFactory parserFactory;
+  private String outputLane;
+  private String metadataLane;
+
+  public MultithreadedFileTailSource(FileTailConfigBean conf, int numberOfThreads) {
+    this(conf, numberOfThreads, 20);
+  }
+
+  MultithreadedFileTailSource(FileTailConfigBean conf, int numberOfThreads, int scanIntervalSecs) {
+    this.conf = conf;
+    this.numberOfThreads = numberOfThreads;
+    this.scanIntervalSecs = scanIntervalSecs;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = super.init();
+
+    List<MultiFileInfo> dirInfos = FileTailUtil.validateAndGetDirInfos(getContext(), conf, issues);
+    if (!dirInfos.isEmpty()) {
+      // every reader resolves all the entries, the assigner decides which reader reads each file
+      FileAssigner fileAssigner = new FileAssigner(numberOfThreads);
+      try {
+        int scanIntervalSecs = (getContext().isPreview()) ? 0 : this.scanIntervalSecs;
+        for (int i = 0; i < numberOfThreads; i++) {
+          readers.add(new MultiFileReader(
+              dirInfos,
+              Charset.forName(conf.dataFormatConfig.charset),
+              FileTailUtil.getMaxLineLength(conf),
+              conf.postProcessing,
+              conf.archiveDir,
+              true,
+              scanIntervalSecs,
+              conf.allowLateDirectories,
+              getContext().isPreview(),
+              fileAssigner,
+              i
+          ));
+        }
+      } catch (IOException ex) {
+        issues.add(
+            getContext().createConfigIssue(
+                Groups.FILES.name(),
+                FILE_TAIL_CONF_PREFIX + "fileInfos",
+                Errors.TAIL_02,
+                ex.toString(),
+                ex
+            )
+        );
+      }
+    }
+
+    conf.dataFormatConfig.init(
+        getContext(),
+        conf.dataFormat,
+        Groups.FILES.name(),
+        FILE_TAIL_DATA_FORMAT_CONFIG_PREFIX,
+        !conf.multiLineMainPattern.isEmpty(),
+        issues
+    );
+    parserFactory = conf.dataFormatConfig.getParserFactory();
+
+    maxWaitTimeMillis = conf.maxWaitTimeSecs * 1000;
+    outputLane = getContext().getOutputLanes().get(0);
+    metadataLane = getContext().getOutputLanes().get(1);
+
+    return issues;
+  }
+
+  @Override
+  public void destroy() {
+    for (MultiFileReader reader : readers) {
+      IOUtils.closeQuietly(reader);
+    }
+    readers.clear();
+    super.destroy();
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    int batchSize = Math.min(conf.batchSize, maxBatchSize);
+    Map<String, String> offsetMap = getOffsetMap(lastOffsets);
+
+    SafeScheduledExecutorService executorService =
+        new SafeScheduledExecutorService(readers.size(), "FileTail_Source_Worker_");
+    ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<>(executorService);
+    List<Future<Void>> futures = new ArrayList<>(readers.size());
+    try {
+      for (MultiFileReader reader : readers) {
+        futures.add(completionService.submit(new FileTailWorker(reader, new HashMap<>(offsetMap), batchSize)));
+      }
+
+      // a worker only finishes before the pipeline stops if it failed, in that case we fail the pipeline
+      int completed = 0;
+      while (completed < futures.size()) {
+        Future<Void> future = completionService.poll(100, TimeUnit.MILLISECONDS);
+        if (future != null) {
+          completed++;
+          future.get();
+        }
+      }
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof StageException) {
+        throw (StageException) cause;
+      }
+      throw new StageException(Errors.TAIL_21, cause.toString(), cause);
+    } catch (InterruptedException ex) {
+      LOG.error("Interrupted while waiting for the file tail workers to finish: {}", ex.toString(), ex);
+      Thread.currentThread().interrupt();
+    } finally {
+      for (Future<Void> future : futures) {
+        future.cancel(true);
+      }
+      executorService.shutdownNow();
+    }
+  }
+
+  /*
+    Offsets are kept per file key. If the pipeline ran before with the poll variant of the origin its JSON offset map
+    is unpacked into per file key offsets and the poll offset is removed.
+  */
+  private Map<String, String> getOffsetMap(Map<String, String> lastOffsets) throws StageException {
+    Map<String, String> offsetMap = new HashMap<>(lastOffsets);
+    String pollSourceOffset = offsetMap.remove(Source.POLL_SOURCE_OFFSET_KEY);
+    if (pollSourceOffset != null) {
+      for (Map.Entry<String, String> entry : FileTailSource.deserializeOffsetMap(pollSourceOffset).entrySet()) {
+        offsetMap.putIfAbsent(entry.getKey(), entry.getValue());
+        getContext().commitOffset(entry.getKey(), entry.getValue());
+      }
+      getContext().commitOffset(Source.POLL_SOURCE_OFFSET_KEY, null);
+    }
+    return offsetMap;
+  }
+
+  private class FileTailWorker implements Callable<Void> {
+    private final MultiFileReader reader;
+    private final int batchSize;
+    private final Map<String, Counter> offsetLagMetric = new HashMap<>();
+    private final Map<String, Counter> pendingFilesMetric = new HashMap<>();
+    private final Map<String, String> offsetMap;
+
+    FileTailWorker(MultiFileReader reader, Map<String, String> offsetMap, int batchSize) {
+      this.reader = reader;
+      this.offsetMap = offsetMap;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public Void call() throws StageException {
+      while (!getContext().isStopped()) {
+        produceBatch();
+      }
+      return null;
+    }
+
+    // same flow as FileTailSource.produce(), see the comments there
+    private void produceBatch() throws StageException {
+      int recordCounter = 0;
+      long startTime = System.currentTimeMillis();
+      BatchContext batchContext = getContext().startBatch();
+      ErrorRecordHandler errorRecordHandler = new DefaultErrorRecordHandler(getContext(), batchContext);
+
+      FileTailUtil.setOffsets(reader, offsetMap);
+
+      long remaining = maxWaitTimeMillis;
+      while (recordCounter < batchSize && remaining > 0 && !getContext().isStopped()) {
+        LiveFileChunk chunk = reader.next(remaining);
+        if (chunk != null) {
+          recordCounter += FileTailUtil.addRecords(
+              chunk,
+              parserFactory,
+              errorRecordHandler,
+              batchContext.getBatchMaker(),
+              outputLane
+          );
+        }
+        remaining = maxWaitTimeMillis - (System.currentTimeMillis() - startTime);
+      }
+
+      boolean metadataGenerated = FileTailUtil.addMetadataAndEvents(
+          getContext(),
+          batchContext,
+          reader.getEvents(),
+          new Date(startTime),
+          batchContext.getBatchMaker(),
+          metadataLane
+      );
+      if (!metadataGenerated) {
+        reader.purge();
+      }
+
+      Map<String, String> newOffsetMap = FileTailUtil.getOffsets(reader);
+
+      // if the batch did not make it, the next batch starts again from the last committed offsets
+      if (getContext().processBatch(batchContext)) {
+        for (Map.Entry<String, String> entry : newOffsetMap.entrySet()) {
+          if (!Objects.equals(entry.getValue(), offsetMap.get(entry.getKey()))) {
+            getContext().commitOffset(entry.getKey(), entry.getValue());
+          }
+        }
+        // merged, the offsets of files this reader has not found yet are needed when it finds them
+        offsetMap.putAll(newOffsetMap);
+        FileTailUtil.updateOffsetLagMetric(getContext(), reader, offsetMap, offsetLagMetric);
+        FileTailUtil.updatePendingFilesMetric(getContext(), reader, pendingFilesMetric);
+      }
+    }
+  }
+
+}
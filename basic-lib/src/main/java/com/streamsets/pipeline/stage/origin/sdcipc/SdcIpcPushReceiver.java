@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.credential.CredentialValue;
+import com.streamsets.pipeline.api.ext.ContextExtensions;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.http.HttpReceiver;
+import com.streamsets.pipeline.stage.destination.sdcipc.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SDC RPC receiver for the multithreaded SDC RPC origin. Every POST request is processed as its own batch on the
+ * Jetty thread that received it, records are read from the request body straight into the batch.
+ */
+public class SdcIpcPushReceiver implements HttpReceiver {
+  private static final Logger LOG = LoggerFactory.getLogger(SdcIpcPushReceiver.class);
+
+  private final Configs configs;
+  private final int maxObjectLen;
+  private PushSource.Context context;
+
+  public SdcIpcPushReceiver(Configs configs) {
+    this.configs = configs;
+    maxObjectLen = configs.maxRecordSize * 1000 * 1000;
+  }
+
+  @Override
+  public List<Stage.ConfigIssue> init(Stage.Context context) {
+    this.context = (PushSource.Context) context;
+    return new ArrayList<>();
+  }
+
+  @Override
+  public void destroy() {
+    //NOP
+  }
+
+  @Override
+  public CredentialValue getAppId() {
+    return configs.getAppId();
+  }
+
+  @Override
+  public boolean isAppIdViaQueryParamAllowed() {
+    return configs.isAppIdViaQueryParamAllowed();
+  }
+
+  @Override
+  public String getUriPath() {
+    return Constants.IPC_PATH;
+  }
+
+  @Override
+  public boolean validate(HttpServletRequest req, HttpServletResponse res) throws IOException {
+    String contentType = req.getContentType();
+    if (!Constants.APPLICATION_BINARY.equals(contentType)) {
+      res.sendError(
+          HttpServletResponse.SC_BAD_REQUEST,
+          Utils.format("Wrong content-type '{}', expected '{}'", contentType, Constants.APPLICATION_BINARY)
+      );
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean process(HttpServletRequest req, InputStream is, HttpServletResponse resp) throws IOException {
+    // Create new batch up front so records go to the batch as they are read from the request
+    BatchContext batchContext = context.startBatch();
+    BatchMaker batchMaker = batchContext.getBatchMaker();
+
+    int count = 0;
+    try (RecordReader reader = ((ContextExtensions) context).createRecordReader(is, 0, maxObjectLen)) {
+      Record record = reader.readRecord();
+      while (record != null) {
+        batchMaker.addRecord(record);
+        count++;
+        record = reader.readRecord();
+      }
+    }
+    LOG.debug("Got '{}' records from '{}'", count, req.getRemoteAddr());
+
+    return context.processBatch(batchContext);
+  }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.http.HttpConfigs;
+import com.streamsets.pipeline.lib.http.HttpReceiver;
+import com.streamsets.pipeline.lib.http.HttpReceiverServer;
+import com.streamsets.pipeline.stage.destination.sdcipc.Constants;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import java.util.concurrent.BlockingQueue;
+
+public class SdcIpcPushReceiverServer extends HttpReceiverServer {
+
+  public SdcIpcPushReceiverServer(HttpConfigs configs, HttpReceiver receiver, BlockingQueue<Exception> errorQueue) {
+    super(configs, receiver, errorQueue);
+  }
+
+  @Override
+  public void addReceiverServlet(Stage.Context context, ServletContextHandler contextHandler) {
+    super.addReceiverServlet(context, contextHandler);
+    contextHandler.addServlet(new ServletHolder(new PingServlet()), Constants.PING_PATH);
+  }
+
+}
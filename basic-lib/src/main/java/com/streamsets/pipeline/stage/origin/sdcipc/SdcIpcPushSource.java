@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.streamsets.pipeline.lib.http.AbstractHttpReceiverServer;
+import com.streamsets.pipeline.lib.httpsource.AbstractHttpServerPushSource;
+
+import java.util.List;
+
+public class SdcIpcPushSource extends AbstractHttpServerPushSource<SdcIpcPushReceiver> {
+
+  private final PushConfigs configs;
+
+  public SdcIpcPushSource(PushConfigs configs) {
+    super(configs, new SdcIpcPushReceiver(configs));
+    this.configs = configs;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = configs.init(getContext());
+    issues.addAll(getReceiver().init(getContext()));
+    if (issues.isEmpty()) {
+      issues.addAll(super.init());
+    }
+    return issues;
+  }
+
+  @Override
+  protected AbstractHttpReceiverServer getHttpReceiver() {
+    return new SdcIpcPushReceiverServer(configs, getReceiver(), getErrorQueue());
+  }
+
+  @Override
+  public void destroy() {
+    super.destroy();
+    configs.destroy();
+  }
+
+}
@@ -50,7 +50,6 @@ public class MultithreadedUDPSource extends BasePushSource {
   public static final String PACKET_QUEUE_GAUGE_NAME = "Packet Queue";
 
   private final SafeScheduledExecutorService executorService;
-  private long recordCount;
   private UDPConsumingServer udpServer;
   private AbstractParser parser;
 
@@ -78,13 +77,13 @@ public class MultithreadedUDPSource extends BasePushSource {
     List<ConfigIssue> issues = new ArrayList<>();
 
     boolean valid = configs.init(getContext(), issues);
-    this.recordCount = 0;
     if (valid && issues.isEmpty()) {
       parser = configs.getParser();
       final List<InetSocketAddress> addresses = configs.getAddresses();
       if (!addresses.isEmpty()) {
         final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
-        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
+        // one queue per receiver thread, the packets of a receiver thread all go to the same queue
+        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize, configs.numThreads);
         udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
         try {
           udpServer.listen();
@@ -122,10 +121,6 @@ public class MultithreadedUDPSource extends BasePushSource {
     super.destroy();
   }
 
-  private String getOffset() {
-    return Long.toString(recordCount);
-  }
-
   @Override
   public int getNumberOfThreads() {
     return numWorkerThreads;
@@ -147,61 +142,71 @@ public class MultithreadedUDPSource extends BasePushSource {
           public void run() {
             BatchContext batchContext = null;
             long remainingTime = configs.maxWaitTime;
+            int batchRecordCount = 0;
+            final List<DatagramPacket> packets = new ArrayList<>(finalMaxBatchSize);
             while (!getContext().isStopped()) {
               if (batchContext == null) {
                 batchContext = getContext().startBatch();
               }
 
-              final long startingRecordCount = recordCount;
               try {
                 long start = System.currentTimeMillis();
-                //ParseResult result = incomingQueue.poll(remainingTime, TimeUnit.MILLISECONDS);
 
-                final DatagramPacket packet = handler.getPacketQueue().poll(remainingTime, TimeUnit.MILLISECONDS);
-                List<Record> records = null;
-                if (packet != null) {
-                  if (LOG.isTraceEnabled()) {
-                    LOG.trace("Took packet; new size: {}", handler.getPacketQueue().size());
-                  }
-
-                  try {
-                    records = parser.parse(packet.content(), packet.recipient(), packet.sender());
-                  } catch (OnRecordErrorException ex) {
-                    getContext().reportError(ex.getErrorCode(), ex.getParams());
-                  } catch (Exception e) {
-                    getContext().reportError(e);
-                    continue;
-                  } finally {
-                    packet.release();
-                  }
-                }
-                long elapsedTime = System.currentTimeMillis() - start;
-                if (elapsedTime > 0) {
-                  remainingTime -= elapsedTime;
+                packets.clear();
+                handler.drainPackets(threadNumber, packets, finalMaxBatchSize, remainingTime, TimeUnit.MILLISECONDS);
+                if (IS_TRACE_ENABLED && !packets.isEmpty()) {
+                  LOG.trace("Took {} packets; new size: {}", packets.size(), handler.getPacketQueueSize());
                 }
 
-                if (records != null) {
-                  if (IS_TRACE_ENABLED) {
-                    LOG.trace("Found {} records", records.size());
-                  }
-                  for (Record record : records) {
-                    if (IS_TRACE_ENABLED) {
-                      LOG.trace("Processed {} records", (recordCount - startingRecordCount));
+                int released = 0;
+                try {
+                  for (int i = 0; i < packets.size(); i++) {
+                    final DatagramPacket packet = packets.get(i);
+                    List<Record> records = null;
+                    try {
+                      records = parser.parse(packet.content(), packet.recipient(), packet.sender());
+                    } catch (OnRecordErrorException ex) {
+                      getContext().reportError(ex.getErrorCode(), ex.getParams());
+                    } catch (Exception e) {
+                      getContext().reportError(e);
+                    } finally {
+                      packet.release();
+                      released++;
                     }
 
-                    batchContext.getBatchMaker().addRecord(record);
-
-                    if (++recordCount % finalMaxBatchSize == 0) {
-                      getContext().processBatch(batchContext);
-                      batchContext = getContext().startBatch();
+                    if (records != null) {
+                      if (IS_TRACE_ENABLED) {
+                        LOG.trace("Found {} records", records.size());
+                      }
+                      for (Record record : records) {
+                        batchContext.getBatchMaker().addRecord(record);
+
+                        if (++batchRecordCount == finalMaxBatchSize) {
+                          getContext().processBatch(batchContext);
+                          batchContext = getContext().startBatch();
+                          batchRecordCount = 0;
+                        }
+                      }
                     }
                   }
+                } finally {
+                  // the packets not parsed yet when processing a batch failed
+                  for (int i = released; i < packets.size(); i++) {
+                    packets.get(i).release();
+                  }
+                  packets.clear();
+                }
+
+                long elapsedTime = System.currentTimeMillis() - start;
+                if (elapsedTime > 0) {
+                  remainingTime -= elapsedTime;
                 }
 
                 if (remainingTime <= 0) {
                   remainingTime = configs.maxWaitTime;
                   getContext().processBatch(batchContext);
                   batchContext = getContext().startBatch();
+                  batchRecordCount = 0;
                 }
               } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
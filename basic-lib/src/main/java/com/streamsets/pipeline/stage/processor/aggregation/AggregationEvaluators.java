@@ -158,6 +158,13 @@ public class AggregationEvaluators {
     }
   }
 
+  /**
+   * Returns an estimate of the memory retained by the aggregated data of all the time windows kept.
+   */
+  public long estimateSize() {
+    return aggregators.getDataProvider().estimateSize();
+  }
+
   public void evaluate(Record record) throws StageException {
     for (AggregationEvaluator evaluator : evaluators) {
       evaluator.evaluate(record);
@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.EventRecord;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.SingleLaneProcessor;
+import com.streamsets.pipeline.lib.memory.MemoryAccountant;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -36,6 +37,7 @@ public class AggregationProcessor extends SingleLaneProcessor {
   private final AggregationConfigBean config;
   private AggregationEvaluators evaluators;
   private BlockingQueue<EventRecord> eventRecordsQueue;
+  private MemoryAccountant windowsAccountant;
 
   public AggregationProcessor(AggregationConfigBean config) {
     this.config = config;
@@ -58,6 +60,10 @@ public class AggregationProcessor extends SingleLaneProcessor {
             evaluators = new AggregationEvaluators(getContext(), config, eventRecordsQueue);
             evaluators.init();
             stageRunnerSharedMap.put(EVALUATORS, evaluators);
+            // the evaluators are shared, only the runner that created them accounts for them
+            if (MemoryAccountant.isEnabled(getContext())) {
+              windowsAccountant = new MemoryAccountant(getContext(), "windows");
+            }
           }
         }
       }
@@ -75,6 +81,9 @@ public class AggregationProcessor extends SingleLaneProcessor {
       evaluators.evaluate(record);
       singleLaneBatchMaker.addRecord(record);
     }
+    if (windowsAccountant != null) {
+      windowsAccountant.set(evaluators.estimateSize());
+    }
     publishEventRecordsIfAny();
   }
 
@@ -91,4 +91,15 @@ public abstract class AggregatorData<A extends Aggregator, T> {
    */
   public abstract void aggregate(Aggregator.Aggregatable<A> aggregatable);
 
+  /**
+   * Returns an estimate of the memory retained by the data.
+   * <p/>
+   * The default estimate fits the simple aggregators, the data object with a couple of boxed numbers.
+   *
+   * @return an estimate of the memory retained by the data, in bytes.
+   */
+  public long estimateSize() {
+    return 64;
+  }
+
 }
@@ -250,6 +250,29 @@ public class AggregatorDataProvider {
     return data.get(aggregator);
   }
 
+  /**
+   * Returns an estimate of the memory retained by the data of the live DataWindow and of the closed ones kept.
+   *
+   * @return an estimate of the memory retained by the data, in bytes.
+   */
+  public long estimateSize() {
+    long size = estimateSize(data);
+    for (DataWindow dataWindow : dataWindowList) {
+      size += estimateSize(dataWindow.data);
+    }
+    return size;
+  }
+
+  private static long estimateSize(Map<Aggregator, AggregatorData> data) {
+    long size = 0;
+    if (data != null) {
+      for (AggregatorData aggregatorData : data.values()) {
+        size += aggregatorData.estimateSize();
+      }
+    }
+    return size;
+  }
+
   private Map<Aggregator, AggregatorData> aggregateDataWindows(Map<Aggregator, AggregatorData> result) {
     int windowSize = dataWindowList.size();
     if (WindowType.SLIDING == windowType && windowSize > 0) {
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 
 import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.memory.SizeEstimator;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +29,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Group-by Aggregator supporting all Simple Aggregators as group-by element.
  */
 public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator<GroupByAggregator, Map<String, T>> {
+  private static final int GROUPS_SAMPLE_SIZE = 16;
 
   public static class GroupByAggregatable implements Aggregatable<GroupByAggregator> {
     private String name;
@@ -124,6 +126,31 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
       }
     }
 
+    /**
+     * Estimates the groups from a sample of them, all the groups have the same kind of data.
+     */
+    @Override
+    public long estimateSize() {
+      rwLock.readLock().lock();
+      try {
+        int count = groups.size();
+        if (count == 0) {
+          return super.estimateSize();
+        }
+        int samples = 0;
+        long sampled = 0;
+        for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
+          sampled += SizeEstimator.ofString(group.getKey()) + group.getValue().estimateSize();
+          if (++samples == GROUPS_SAMPLE_SIZE) {
+            break;
+          }
+        }
+        return super.estimateSize() + SizeEstimator.ofHashMap(count, false) + sampled * count / samples;
+      } finally {
+        rwLock.readLock().unlock();
+      }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public Aggregatable<GroupByAggregator<A, T>> getAggregatable() {
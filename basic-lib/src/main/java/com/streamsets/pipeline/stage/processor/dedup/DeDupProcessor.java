@@ -27,6 +27,7 @@ import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.base.RecordProcessor;
 import com.streamsets.pipeline.lib.cache.CacheCleaner;
 import com.streamsets.pipeline.lib.hashing.HashingUtil;
+import com.streamsets.pipeline.lib.memory.MemoryAccountant;
 import com.streamsets.pipeline.lib.queue.XEvictingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +48,7 @@ public class DeDupProcessor extends RecordProcessor {
   private final  SelectFields compareFields;
   private final  List<String> fieldsToCompare;
   private CacheCleaner cacheCleaner;
+  private MemoryAccountant cacheAccountant;
 
   public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
       SelectFields compareFields, List<String> fieldsToCompare) {
@@ -111,6 +113,10 @@ public class DeDupProcessor extends RecordProcessor {
             cacheBuilder.recordStats();
           }
           hashCache = cacheBuilder.build();
+          // the cache is shared, only the runner that created it accounts for it
+          if (MemoryAccountant.isEnabled(getContext())) {
+            cacheAccountant = new MemoryAccountant(getContext(), "hashCache");
+          }
 
           runnerSharedMap.put(CACHE_KEY, hashCache);
         } else {
@@ -154,6 +160,9 @@ public class DeDupProcessor extends RecordProcessor {
       cacheCleaner.periodicCleanUp();
     }
     super.process(batch, batchMaker);
+    if (cacheAccountant != null) {
+      cacheAccountant.set(hashCache.size() * MEMORY_USAGE_PER_HASH);
+    }
   }
 
   @Override
@@ -34,6 +34,7 @@ public enum Errors implements ErrorCode {
   GEOIP_11("Record '{}' does not contain input field '{}'"),
   GEOIP_12("Field type '{}' is only supported for the following database types: {}"),
   GEOIP_13("IP cannot be null"),
+  GEOIP_14("Field type '{}' is not supported with precomputed IP ranges"),
   ;
 
 
@@ -27,7 +27,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 import java.util.List;
 
 @StageDef(
-    version=4,
+    version=5,
     label="Geo IP",
     description = "IP address geolocation using a Maxmind GeoIP2 database file",
     icon="globe.png",
@@ -74,8 +74,20 @@ public class GeolocationDProcessor extends DProcessor {
   @ValueChooserModel(GeolocationMissingAddressEnumChooserValues.class)
   public GeolocationMissingAddressAction missingAddressAction;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Precompute IP Ranges",
+      description = "Loads the IP ranges of the databases in memory with the values of the mapped fields on start up. " +
+          "Faster lookups for many distinct addresses, at the cost of memory and start up time",
+      displayPosition = 40,
+      group = "GEOLOCATION"
+  )
+  public boolean precomputeRanges;
+
   @Override
   protected Processor createProcessor() {
-    return new GeolocationProcessor(dbConfigs, missingAddressAction, fieldTypeConverterConfigs);
+    return new GeolocationProcessor(dbConfigs, missingAddressAction, fieldTypeConverterConfigs, precomputeRanges);
   }
 }
@@ -51,6 +51,10 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -68,21 +72,47 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  // too large to be kept for every distinct record of a database
+  private static final Set<GeolocationField> FULL_JSON_FIELDS = EnumSet.of(
+      GeolocationField.COUNTRY_FULL_JSON,
+      GeolocationField.CITY_FULL_JSON,
+      GeolocationField.ANONYMOUS_IP_FULL_JSON,
+      GeolocationField.DOMAIN_FULL_JSON,
+      GeolocationField.CONNECTION_TYPE_FULL_JSON,
+      GeolocationField.ISP_FULL_JSON
+  );
+
   private final List<GeolocationDatabaseConfig> dbConfigs;
   private final List<GeolocationFieldConfig> configs;
   private final GeolocationMissingAddressAction missingAddressAction;
+  private final boolean precomputeRanges;
   private Map<GeolocationDBType, DatabaseReader> readers = Maps.newHashMap();
+  private Map<GeolocationDBType, File> databases = Maps.newHashMap();
   private LoadingCache<Field, Map<GeolocationDBType, AbstractResponse>> responseCache;
+  // with precomputed ranges, the tables of all the databases and the table and column of each field config
+  private GeolocationRangeTable[] rangeTables;
+  private GeolocationRangeTable[] configTables;
+  private int[] configColumns;
   private DefaultErrorRecordHandler errorRecordHandler;
 
   public GeolocationProcessor(
       List<GeolocationDatabaseConfig> dbConfigs,
       GeolocationMissingAddressAction missingAddressAction,
       List<GeolocationFieldConfig> configs
+  ) {
+    this(dbConfigs, missingAddressAction, configs, false);
+  }
+
+  public GeolocationProcessor(
+      List<GeolocationDatabaseConfig> dbConfigs,
+      GeolocationMissingAddressAction missingAddressAction,
+      List<GeolocationFieldConfig> configs,
+      boolean precomputeRanges
   ) {
     this.dbConfigs = dbConfigs;
     this.missingAddressAction = missingAddressAction;
     this.configs = configs;
+    this.precomputeRanges = precomputeRanges;
   }
 
   @Override
@@ -113,32 +143,12 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
             // the place.
             DatabaseReader reader = new DatabaseReader.Builder(database).build();
             supportedFields.addAll(dbConfig.geoIP2DBType.supportedFields);
-            switch (dbConfig.geoIP2DBType) {
-              case COUNTRY:
-                reader.country(KNOWN_GOOD_ADDRESS);
-                break;
-              case CITY:
-                reader.city(KNOWN_GOOD_ADDRESS);
-                break;
-              case DOMAIN:
-                reader.domain(KNOWN_GOOD_ADDRESS);
-                break;
-              case ANONYMOUS_IP:
-                reader.anonymousIp(KNOWN_GOOD_ADDRESS);
-                break;
-              case ISP:
-                reader.isp(KNOWN_GOOD_ADDRESS);
-                break;
-              case CONNECTION_TYPE:
-                reader.connectionType(KNOWN_GOOD_ADDRESS);
-                break;
-              default:
-                throw new IllegalStateException(Utils.format("Unknown configuration value: ", dbConfig.geoIP2DBType));
-            }
+            lookup(dbConfig.geoIP2DBType, reader, KNOWN_GOOD_ADDRESS);
 
             // Store the reader for later -- currently only supports one database per type, but it's unclear if there's
             // any reason to have more than one per type.
             readers.put(dbConfig.geoIP2DBType, reader);
+            databases.put(dbConfig.geoIP2DBType, database);
           } catch (IOException ex) {
             result.add(getContext().createConfigIssue("GEOLOCATION", "dbConfigs", Errors.GEOIP_01, database.getPath(),
                 ex));
@@ -162,6 +172,9 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
       if (!supportedFields.contains(config.targetType)) {
         result.add(getContext().createConfigIssue("GEOLOCATION", "fieldTypeConverterConfigs", Errors.GEOIP_12,
             config.targetType, config.targetType.supportedDbTypes));
+      } else if (precomputeRanges && FULL_JSON_FIELDS.contains(config.targetType)) {
+        result.add(getContext().createConfigIssue("GEOLOCATION", "fieldTypeConverterConfigs", Errors.GEOIP_14,
+            config.targetType));
       }
     }
 
@@ -176,11 +189,123 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
       }
     }
 
-    createResponseCache();
+    if (!precomputeRanges) {
+      createResponseCache();
+    } else if (result.isEmpty()) {
+      try {
+        createRangeTables();
+      } catch (IOException ex) {
+        result.add(getContext().createConfigIssue("GEOLOCATION", "dbConfigs", Errors.GEOIP_01, ex));
+        LOG.info(Utils.format(Errors.GEOIP_01.getMessage(), ex), ex);
+      } catch (GeoIp2Exception ex) {
+        result.add(getContext().createConfigIssue("GEOLOCATION", "dbConfigs", Errors.GEOIP_07, ex));
+        LOG.error(Utils.format(Errors.GEOIP_07.getMessage(), ex), ex);
+      }
+    }
 
     return result;
   }
 
+  private void createRangeTables() throws IOException, GeoIp2Exception {
+    // the fields to load from each database
+    Map<GeolocationDBType, List<GeolocationField>> columns = new EnumMap<>(GeolocationDBType.class);
+    for (GeolocationDBType dbType : readers.keySet()) {
+      columns.put(dbType, new ArrayList<>());
+    }
+    for (GeolocationFieldConfig config : configs) {
+      List<GeolocationField> fields = columns.get(getDbType(config.targetType));
+      if (!fields.contains(config.targetType)) {
+        fields.add(config.targetType);
+      }
+    }
+
+    // every database has a table, an address missing from any of them is a missing address like with the cache
+    Map<GeolocationDBType, GeolocationRangeTable> tables = new EnumMap<>(GeolocationDBType.class);
+    for (Map.Entry<GeolocationDBType, List<GeolocationField>> entry : columns.entrySet()) {
+      final GeolocationDBType dbType = entry.getKey();
+      final List<GeolocationField> fields = entry.getValue();
+      final DatabaseReader reader = readers.get(dbType);
+      long start = System.currentTimeMillis();
+      GeolocationRangeTable table = GeolocationRangeTable.load(databases.get(dbType), address -> {
+        Object[] values = new Object[fields.size()];
+        if (!fields.isEmpty()) {
+          Map<GeolocationDBType, AbstractResponse> responses = Collections.singletonMap(
+              dbType,
+              lookup(dbType, reader, address)
+          );
+          for (int i = 0; i < values.length; i++) {
+            values[i] = getValue(fields.get(i), responses);
+          }
+        }
+        return values;
+      });
+      LOG.info(
+          "Precomputed {} IP ranges with {} distinct records of the {} database in {} ms",
+          table.size(),
+          table.getRowCount(),
+          dbType,
+          System.currentTimeMillis() - start
+      );
+      tables.put(dbType, table);
+    }
+
+    rangeTables = tables.values().toArray(new GeolocationRangeTable[tables.size()]);
+    configTables = new GeolocationRangeTable[configs.size()];
+    configColumns = new int[configs.size()];
+    for (int i = 0; i < configs.size(); i++) {
+      GeolocationDBType dbType = getDbType(configs.get(i).targetType);
+      configTables[i] = tables.get(dbType);
+      configColumns[i] = columns.get(dbType).indexOf(configs.get(i).targetType);
+    }
+  }
+
+  // the database a field is read from, the country database is preferred for the fields the city one has too
+  private GeolocationDBType getDbType(GeolocationField field) {
+    if (field.supportedDbTypes.contains(GeolocationDBType.COUNTRY) && readers.containsKey(GeolocationDBType.COUNTRY)) {
+      return GeolocationDBType.COUNTRY;
+    }
+    for (GeolocationDBType dbType : field.supportedDbTypes) {
+      if (readers.containsKey(dbType)) {
+        return dbType;
+      }
+    }
+    throw new IllegalStateException(Utils.format("No database for field: {}", field));
+  }
+
+  private Object getPrecomputedValue(int configIndex, InetAddress address) throws AddressNotFoundException {
+    byte[] bytes = address.getAddress();
+    for (GeolocationRangeTable table : rangeTables) {
+      if (table != configTables[configIndex] && table.getRow(bytes) < 0) {
+        throw new AddressNotFoundException(Utils.format("The address {} is not in the database.", address));
+      }
+    }
+    int row = configTables[configIndex].getRow(bytes);
+    if (row < 0) {
+      throw new AddressNotFoundException(Utils.format("The address {} is not in the database.", address));
+    }
+    return configTables[configIndex].getValue(row, configColumns[configIndex]);
+  }
+
+  private static AbstractResponse lookup(GeolocationDBType dbType, DatabaseReader reader, InetAddress address)
+      throws IOException, GeoIp2Exception {
+    switch (dbType) {
+      case COUNTRY:
+        return reader.country(address);
+      case CITY:
+        return reader.city(address);
+      case ANONYMOUS_IP:
+        return reader.anonymousIp(address);
+      case DOMAIN:
+        return reader.domain(address);
+      case ISP:
+        return reader.isp(address);
+      case CONNECTION_TYPE:
+        return reader.connectionType(address);
+      default:
+        throw new IllegalStateException(Utils.format("Unknown configuration value: ", dbType));
+    }
+  }
+
   private void createResponseCache() {
     responseCache = CacheBuilder.newBuilder().maximumSize(1000).build(
         new CacheLoader<Field, Map<GeolocationDBType, AbstractResponse>>() {
@@ -191,28 +316,7 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
             // available databases.
             for (Map.Entry<GeolocationDBType, DatabaseReader> entry : readers.entrySet()) {
               DatabaseReader reader = Utils.checkNotNull(entry.getValue(), "DatabaseReader");
-              AbstractResponse resp = null;
-              switch (entry.getKey()) {
-                case COUNTRY:
-                  resp = reader.country(toAddress(field));
-                  break;
-                case CITY:
-                  resp = reader.city(toAddress(field));
-                  break;
-                case ANONYMOUS_IP:
-                  resp = reader.anonymousIp(toAddress(field));
-                  break;
-                case DOMAIN:
-                  resp = reader.domain(toAddress(field));
-                  break;
-                case ISP:
-                  resp = reader.isp(toAddress(field));
-                  break;
-                case CONNECTION_TYPE:
-                  resp =  reader.connectionType(toAddress(field));
-                  break;
-              }
-              responses.put(entry.getKey(), resp);
+              responses.put(entry.getKey(), lookup(entry.getKey(), reader, toAddress(field)));
             }
 
             return responses;
@@ -231,7 +335,8 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
     try {
-      for (GeolocationFieldConfig config : configs) {
+      for (int i = 0; i < configs.size(); i++) {
+        GeolocationFieldConfig config = configs.get(i);
         Field field = record.get(config.inputFieldName);
 
         if(field == null) {
@@ -240,117 +345,16 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
         }
 
         try {
-          Map<GeolocationDBType, AbstractResponse> responses = responseCache.get(field);
-          Location location = null;
-          switch (config.targetType) {
-            // Multiple databases support country name and ISO code, so we need to figure out which ones are available
-            case COUNTRY_NAME:
-              String name;
-              if (responses.containsKey(GeolocationDBType.COUNTRY)) {
-                CountryResponse countryResp = (CountryResponse) responses.get(GeolocationDBType.COUNTRY);
-                name = countryResp.getCountry().getName();
-              } else {
-                CityResponse cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
-                name = cityResp.getCountry().getName();
-              }
-              record.set(config.outputFieldName, Field.create(name));
-              break;
-            case COUNTRY_ISO_CODE:
-              String isoCode;
-              if (responses.containsKey(GeolocationDBType.COUNTRY)) {
-                CountryResponse countryResp = (CountryResponse) responses.get(GeolocationDBType.COUNTRY);
-                isoCode = countryResp.getCountry().getIsoCode();
-              } else {
-                CityResponse cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
-                isoCode = cityResp.getCountry().getIsoCode();
-              }
-              record.set(config.outputFieldName, Field.create(isoCode));
-              break;
-            case CITY_NAME:
-              CityResponse cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
-              record.set(config.outputFieldName, Field.create(cityResp.getCity().getName()));
-              break;
-            case LATITUDE:
-              cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
-              location = cityResp.getLocation();
-              record.set(config.outputFieldName, Field.create(Field.Type.DOUBLE, location == null ? null : location.getLatitude()));
-              break;
-            case LONGITUDE:
-              cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
-              location = cityResp.getLocation();
-              record.set(config.outputFieldName, Field.create(Field.Type.DOUBLE, location == null ? null : location.getLongitude()));
-              break;
-            case IS_ANONYMOUS:
-              AnonymousIpResponse anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
-              record.set(config.outputFieldName, Field.create(anonResp.isAnonymous()));
-              break;
-            case IS_ANONYMOUS_VPN:
-              anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
-              record.set(config.outputFieldName, Field.create(anonResp.isAnonymousVpn()));
-              break;
-            case IS_HOSTING_PROVIDER:
-              anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
-              record.set(config.outputFieldName, Field.create(anonResp.isHostingProvider()));
-              break;
-            case IS_PUBLIC_PROXY:
-              anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
-              record.set(config.outputFieldName, Field.create(anonResp.isPublicProxy()));
-              break;
-            case IS_TOR_EXIT_NODE:
-              anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
-              record.set(config.outputFieldName, Field.create(anonResp.isTorExitNode()));
-              break;
-            case DOMAIN:
-              DomainResponse domainResp = (DomainResponse) responses.get(GeolocationDBType.DOMAIN);
-              record.set(config.outputFieldName, Field.create(domainResp.getDomain()));
-              break;
-            case CONNECTION_TYPE:
-              ConnectionTypeResponse connResp = (ConnectionTypeResponse) responses.get(GeolocationDBType.CONNECTION_TYPE);
-              record.set(config.outputFieldName, Field.create(connResp.getConnectionType().toString()));
-              break;
-            case AUTONOMOUS_SYSTEM_NUMBER:
-              IspResponse ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
-              record.set(config.outputFieldName, Field.create(ispResp.getAutonomousSystemNumber()));
-              break;
-            case AUTONOMOUS_SYSTEM_ORG:
-              ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
-              record.set(config.outputFieldName, Field.create(ispResp.getAutonomousSystemOrganization()));
-              break;
-            case ISP:
-              ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
-              record.set(config.outputFieldName, Field.create(ispResp.getIsp()));
-              break;
-            case ORGANIZATION:
-              ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
-              record.set(config.outputFieldName, Field.create(ispResp.getOrganization()));
-              break;
-
-            case CITY_FULL_JSON:
-              cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
-              record.set(config.outputFieldName, Field.create(cityResp.toJson()));
-              break;
-            case COUNTRY_FULL_JSON:
-              CountryResponse countryResp = (CountryResponse) responses.get(GeolocationDBType.COUNTRY);
-              record.set(config.outputFieldName, Field.create(countryResp.toJson()));
-              break;
-            case ANONYMOUS_IP_FULL_JSON:
-              anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
-              record.set(config.outputFieldName, Field.create(anonResp.toJson()));
-              break;
-            case DOMAIN_FULL_JSON:
-              domainResp = (DomainResponse) responses.get(GeolocationDBType.DOMAIN);
-              record.set(config.outputFieldName, Field.create(domainResp.toJson()));
-              break;
-            case CONNECTION_TYPE_FULL_JSON:
-              connResp = (ConnectionTypeResponse) responses.get(GeolocationDBType.CONNECTION_TYPE);
-              record.set(config.outputFieldName, Field.create(connResp.toJson()));
-              break;
-            case ISP_FULL_JSON:
-              ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
-              record.set(config.outputFieldName, Field.create(ispResp.toJson()));
-              break;
-            default:
-              throw new IllegalStateException(Utils.format("Unknown configuration value: ", config.targetType));
+          Object value;
+          if (precomputeRanges) {
+            value = getPrecomputedValue(i, toAddress(field));
+          } else {
+            value = getValue(config.targetType, responseCache.get(field));
+          }
+          record.set(config.outputFieldName, Field.create(config.targetType.fieldType, value));
+        } catch (UnknownHostException | AddressNotFoundException ex) {
+          if (!onMissingAddress(record, field, config, ex)) {
+            return;
           }
         } catch (ExecutionException ex) {
           Throwable cause = ex.getCause();
@@ -358,18 +362,8 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
             cause = ex;
           }
           if (cause instanceof UnknownHostException || cause instanceof AddressNotFoundException) {
-            switch (missingAddressAction) {
-              case TO_ERROR:
-                LOG.debug(Utils.format(Errors.GEOIP_02.getMessage(), field.getValue(), config.inputFieldName, cause.getMessage()), cause);
-                errorRecordHandler.onError(new OnRecordErrorException(record, Errors.GEOIP_02, field.getValue(), config.inputFieldName, cause.getMessage()));
-                return;
-              case REPLACE_WITH_NULLS:
-                record.set(config.outputFieldName, Field.create(config.targetType.fieldType, null));
-                break;
-              case IGNORE:
-                break;
-              default:
-                throw new IllegalStateException(Utils.format("Unknown configuration value: ", missingAddressAction));
+            if (!onMissingAddress(record, field, config, cause)) {
+              return;
             }
             continue;
           }
@@ -387,6 +381,119 @@ public class  GeolocationProcessor extends SingleLaneRecordProcessor {
     batchMaker.addRecord(record);
   }
 
+  /**
+   * Applies the missing address action.
+   *
+   * @return false if the record was sent to error.
+   */
+  private boolean onMissingAddress(Record record, Field field, GeolocationFieldConfig config, Throwable cause)
+      throws StageException {
+    switch (missingAddressAction) {
+      case TO_ERROR:
+        LOG.debug(Utils.format(Errors.GEOIP_02.getMessage(), field.getValue(), config.inputFieldName, cause.getMessage()), cause);
+        errorRecordHandler.onError(new OnRecordErrorException(record, Errors.GEOIP_02, field.getValue(), config.inputFieldName, cause.getMessage()));
+        return false;
+      case REPLACE_WITH_NULLS:
+        record.set(config.outputFieldName, Field.create(config.targetType.fieldType, null));
+        return true;
+      case IGNORE:
+        return true;
+      default:
+        throw new IllegalStateException(Utils.format("Unknown configuration value: ", missingAddressAction));
+    }
+  }
+
+  /**
+   * Returns the value of the given field from the responses of the databases.
+   */
+  private static Object getValue(GeolocationField targetType, Map<GeolocationDBType, AbstractResponse> responses) {
+    Location location;
+    switch (targetType) {
+      // Multiple databases support country name and ISO code, so we need to figure out which ones are available
+      case COUNTRY_NAME:
+        if (responses.containsKey(GeolocationDBType.COUNTRY)) {
+          CountryResponse countryResp = (CountryResponse) responses.get(GeolocationDBType.COUNTRY);
+          return countryResp.getCountry().getName();
+        } else {
+          CityResponse cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
+          return cityResp.getCountry().getName();
+        }
+      case COUNTRY_ISO_CODE:
+        if (responses.containsKey(GeolocationDBType.COUNTRY)) {
+          CountryResponse countryResp = (CountryResponse) responses.get(GeolocationDBType.COUNTRY);
+          return countryResp.getCountry().getIsoCode();
+        } else {
+          CityResponse cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
+          return cityResp.getCountry().getIsoCode();
+        }
+      case CITY_NAME:
+        CityResponse cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
+        return cityResp.getCity().getName();
+      case LATITUDE:
+        cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
+        location = cityResp.getLocation();
+        return location == null ? null : location.getLatitude();
+      case LONGITUDE:
+        cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
+        location = cityResp.getLocation();
+        return location == null ? null : location.getLongitude();
+      case IS_ANONYMOUS:
+        AnonymousIpResponse anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
+        return anonResp.isAnonymous();
+      case IS_ANONYMOUS_VPN:
+        anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
+        return anonResp.isAnonymousVpn();
+      case IS_HOSTING_PROVIDER:
+        anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
+        return anonResp.isHostingProvider();
+      case IS_PUBLIC_PROXY:
+        anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
+        return anonResp.isPublicProxy();
+      case IS_TOR_EXIT_NODE:
+        anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
+        return anonResp.isTorExitNode();
+      case DOMAIN:
+        DomainResponse domainResp = (DomainResponse) responses.get(GeolocationDBType.DOMAIN);
+        return domainResp.getDomain();
+      case CONNECTION_TYPE:
+        ConnectionTypeResponse connResp = (ConnectionTypeResponse) responses.get(GeolocationDBType.CONNECTION_TYPE);
+        return connResp.getConnectionType().toString();
+      case AUTONOMOUS_SYSTEM_NUMBER:
+        IspResponse ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
+        return ispResp.getAutonomousSystemNumber();
+      case AUTONOMOUS_SYSTEM_ORG:
+        ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
+        return ispResp.getAutonomousSystemOrganization();
+      case ISP:
+        ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
+        return ispResp.getIsp();
+      case ORGANIZATION:
+        ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
+        return ispResp.getOrganization();
+
+      case CITY_FULL_JSON:
+        cityResp = (CityResponse) responses.get(GeolocationDBType.CITY);
+        return cityResp.toJson();
+      case COUNTRY_FULL_JSON:
+        CountryResponse countryResp = (CountryResponse) responses.get(GeolocationDBType.COUNTRY);
+        return countryResp.toJson();
+      case ANONYMOUS_IP_FULL_JSON:
+        anonResp = (AnonymousIpResponse) responses.get(GeolocationDBType.ANONYMOUS_IP);
+        return anonResp.toJson();
+      case DOMAIN_FULL_JSON:
+        domainResp = (DomainResponse) responses.get(GeolocationDBType.DOMAIN);
+        return domainResp.toJson();
+      case CONNECTION_TYPE_FULL_JSON:
+        connResp = (ConnectionTypeResponse) responses.get(GeolocationDBType.CONNECTION_TYPE);
+        return connResp.toJson();
+      case ISP_FULL_JSON:
+        ispResp = (IspResponse) responses.get(GeolocationDBType.ISP);
+        return ispResp.toJson();
+      default:
+        throw new IllegalStateException(Utils.format("Unknown configuration value: ", targetType));
+    }
+  }
+
   @VisibleForTesting
   InetAddress toAddress(Field field) throws UnknownHostException, OnRecordErrorException {
     switch (field.getType()) {
@@ -44,6 +44,12 @@ public class GeolocationProcessorUpgrader implements StageUpgrader {
         // fall through
       case 3:
         upgradeV3ToV4(configs);
+        if (toVersion == 4) {
+          break;
+        }
+        // fall through
+      case 4:
+        upgradeV4ToV5(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -85,4 +91,8 @@ public class GeolocationProcessorUpgrader implements StageUpgrader {
     dbConfigs.add(dbConfig);
     configs.add(new Config("dbConfigs", dbConfigs));
   }
+
+  private void upgradeV4ToV5(List<Config> configs) {
+    configs.add(new Config("precomputeRanges", false));
+  }
 }
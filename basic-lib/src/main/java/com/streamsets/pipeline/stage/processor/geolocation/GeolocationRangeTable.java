@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.geolocation;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.maxmind.geoip2.exception.AddressNotFoundException;
+import com.maxmind.geoip2.exception.GeoIp2Exception;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In memory table of the IP ranges of a MaxMind database, with the values of the selected fields for each range.
+ * <p/>
+ * The networks of the database are merged into contiguous ranges sharing the same data. The ranges are kept as sorted
+ * arrays of start addresses, a lookup is a binary search on them that doesn't allocate anything. The values are
+ * loaded once per distinct data record of the database, strings are interned.
+ */
+class GeolocationRangeTable {
+
+  /**
+   * Loads the values of the fields for a data record of the database.
+   */
+  interface ValueLoader {
+
+    /**
+     * @param address an address of a network of the data record.
+     */
+    Object[] load(InetAddress address) throws IOException, GeoIp2Exception;
+  }
+
+  private final boolean ipv6;
+  private final long[] startHigh;
+  private final long[] startLow;
+  private final int[] rows;
+  private final long[] aliasHigh;
+  private final long[] aliasLow;
+  private final int[] aliasLength;
+  private final Object[][] values;
+
+  private GeolocationRangeTable(Builder builder) {
+    ipv6 = builder.ipv6;
+    startHigh = Arrays.copyOf(builder.startHigh, builder.size);
+    startLow = Arrays.copyOf(builder.startLow, builder.size);
+    rows = Arrays.copyOf(builder.rows, builder.size);
+    aliasHigh = new long[builder.aliases.size()];
+    aliasLow = new long[builder.aliases.size()];
+    aliasLength = new int[builder.aliases.size()];
+    for (int i = 0; i < aliasLength.length; i++) {
+      long[] alias = builder.aliases.get(i);
+      aliasHigh[i] = alias[0];
+      aliasLow[i] = alias[1];
+      aliasLength[i] = (int) alias[2];
+    }
+    values = builder.values.toArray(new Object[builder.values.size()][]);
+  }
+
+  /**
+   * Walks the given database to build its table.
+   */
+  static GeolocationRangeTable load(File database, ValueLoader loader) throws IOException, GeoIp2Exception {
+    MaxMindSearchTree tree = new MaxMindSearchTree(database);
+    Builder builder = new Builder(tree.isIpv6(), loader);
+    try {
+      tree.walk(builder);
+    } catch (LoaderException ex) {
+      throw ex.getCause();
+    }
+    return new GeolocationRangeTable(builder);
+  }
+
+  int size() {
+    return rows.length;
+  }
+
+  int getRowCount() {
+    return values.length;
+  }
+
+  /**
+   * Returns the row of the range containing the given address, -1 if the address is not in the database.
+   */
+  int getRow(byte[] address) {
+    long high;
+    long low;
+    if (address.length == 4) {
+      high = 0;
+      low = toLong(address, 0, 4);
+    } else {
+      if (!ipv6) {
+        return -1;
+      }
+      high = toLong(address, 0, 8);
+      low = toLong(address, 8, 8);
+      for (int i = 0; i < aliasLength.length; i++) {
+        if (isInNetwork(high, low, aliasHigh[i], aliasLow[i], aliasLength[i])) {
+          // the IPv4 address follows the alias prefix
+          low = getBits(high, low, aliasLength[i], 32);
+          high = 0;
+          break;
+        }
+      }
+    }
+    int lower = 0;
+    int upper = startLow.length - 1;
+    while (lower < upper) {
+      int middle = (lower + upper + 1) >>> 1;
+      if (compare(startHigh[middle], startLow[middle], high, low) <= 0) {
+        lower = middle;
+      } else {
+        upper = middle - 1;
+      }
+    }
+    return rows[lower];
+  }
+
+  /**
+   * Returns the value of the given field for the given row.
+   *
+   * @param column index of the field in the values returned by the {@link ValueLoader}.
+   */
+  Object getValue(int row, int column) {
+    return values[row][column];
+  }
+
+  private static long toLong(byte[] bytes, int offset, int length) {
+    long value = 0;
+    for (int i = offset; i < offset + length; i++) {
+      value = (value << 8) | (bytes[i] & 0xFF);
+    }
+    return value;
+  }
+
+  private static int compare(long high1, long low1, long high2, long low2) {
+    int result = Long.compareUnsigned(high1, high2);
+    return (result != 0) ? result : Long.compareUnsigned(low1, low2);
+  }
+
+  private static boolean isInNetwork(long high, long low, long networkHigh, long networkLow, int prefixLength) {
+    return getBits(high, low, 0, prefixLength) == getBits(networkHigh, networkLow, 0, prefixLength)
+        && (prefixLength <= 64 || getBits(high, low, 64, prefixLength - 64) == getBits(networkHigh, networkLow, 64, prefixLength - 64));
+  }
+
+  // returns count (up to 64) bits of the 128 bits address starting at the given bit, from the most significant
+  private static long getBits(long high, long low, int from, int count) {
+    count = Math.min(count, 64);
+    if (count == 0) {
+      return 0;
+    }
+    long bits;
+    if (from == 0) {
+      bits = high;
+    } else if (from < 64) {
+      bits = (high << from) | (low >>> (64 - from));
+    } else {
+      bits = low << (from - 64);
+    }
+    return bits >>> (64 - count);
+  }
+
+  // checked exceptions of the loader, thrown through the walk of the tree
+  private static class LoaderException extends IOException {
+    private final GeoIp2Exception geoIp2Exception;
+
+    LoaderException(GeoIp2Exception cause) {
+      super(cause);
+      this.geoIp2Exception = cause;
+    }
+
+    @Override
+    public synchronized GeoIp2Exception getCause() {
+      return geoIp2Exception;
+    }
+  }
+
+  private static class Builder implements MaxMindSearchTree.Visitor {
+    private final boolean ipv6;
+    private final ValueLoader loader;
+    private final Interner<String> strings = Interners.newStrongInterner();
+    private final Map<Long, Integer> recordRows = new HashMap<>();
+    private final List<Object[]> values = new ArrayList<>();
+    private final List<long[]> aliases = new ArrayList<>();
+    private long[] startHigh = new long[1024];
+    private long[] startLow = new long[1024];
+    private int[] rows = new int[1024];
+    private int size;
+
+    Builder(boolean ipv6, ValueLoader loader) {
+      this.ipv6 = ipv6;
+      this.loader = loader;
+    }
+
+    @Override
+    public void network(long high, long low, int prefixLength, long record) throws IOException {
+      int row = (record == MaxMindSearchTree.NO_DATA) ? -1 : getRow(high, low, record);
+      // adjacent networks with the same data are merged in a single range
+      if (size > 0 && rows[size - 1] == row) {
+        return;
+      }
+      if (size == rows.length) {
+        startHigh = Arrays.copyOf(startHigh, size * 2);
+        startLow = Arrays.copyOf(startLow, size * 2);
+        rows = Arrays.copyOf(rows, size * 2);
+      }
+      startHigh[size] = high;
+      startLow[size] = low;
+      rows[size] = row;
+      size++;
+    }
+
+    @Override
+    public void ipv4Alias(long high, long low, int prefixLength) {
+      aliases.add(new long[] {high, low, prefixLength});
+    }
+
+    private int getRow(long high, long low, long record) throws IOException {
+      if (ipv6 && high == 0 && (low >>> 32) == 0xFFFFL) {
+        // IPv4 mapped addresses are looked up as IPv4 addresses, they can't be used to load the record
+        return -1;
+      }
+      Integer row = recordRows.get(record);
+      if (row == null) {
+        row = -1;
+        byte[] address = new byte[ipv6 ? 16 : 4];
+        for (int i = 0; i < address.length; i++) {
+          int shift = 8 * (address.length - 1 - i);
+          address[i] = (byte) ((shift >= 64) ? high >>> (shift - 64) : low >>> shift);
+        }
+        try {
+          Object[] recordValues = loader.load(InetAddress.getByAddress(address));
+          for (int i = 0; i < recordValues.length; i++) {
+            if (recordValues[i] instanceof String) {
+              recordValues[i] = strings.intern((String) recordValues[i]);
+            }
+          }
+          row = values.size();
+          values.add(recordValues);
+        } catch (AddressNotFoundException ex) {
+          // the record has no data for the database type
+        } catch (GeoIp2Exception ex) {
+          throw new LoaderException(ex);
+        }
+        recordRows.put(record, row);
+      }
+      return row;
+    }
+  }
+}
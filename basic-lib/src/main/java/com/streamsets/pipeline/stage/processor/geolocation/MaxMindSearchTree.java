@@ -0,0 +1,263 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.geolocation;
+
+import com.maxmind.db.InvalidDatabaseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the binary search tree of a MaxMind DB file, as described in the
+ * <a href="https://maxmind.github.io/MaxMind-DB/">MaxMind DB file format specification</a>.
+ * <p/>
+ * The {@link com.maxmind.geoip2.DatabaseReader} can only look up single addresses, walking the tree gives all the
+ * networks of the database in address order. The data records are not decoded, the networks only carry the tree
+ * record pointing to their data, the same for all the networks sharing the same data.
+ * <p/>
+ * Addresses are handled as 128 bits unsigned numbers split in two longs, IPv4 addresses of an IPv4 database are in
+ * the low bits, IPv4 addresses of an IPv6 database are in the ::/96 network.
+ */
+class MaxMindSearchTree {
+  private static final byte[] METADATA_START_MARKER = {
+      (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 'M', 'a', 'x', 'M', 'i', 'n', 'd', '.', 'c', 'o', 'm'
+  };
+  private static final int METADATA_MAX_SIZE = 128 * 1024;
+  private static final int IPV4_DEPTH_IN_IPV6 = 96;
+
+  /**
+   * Receives the networks of the tree in address order.
+   */
+  interface Visitor {
+
+    /**
+     * @param record tree record of the network, {@link #NO_DATA} if the network has no data.
+     */
+    void network(long high, long low, int prefixLength, long record) throws IOException;
+
+    /**
+     * The network is an alias of the IPv4 networks, the IPv4 address is in the 32 bits following the prefix.
+     */
+    void ipv4Alias(long high, long low, int prefixLength) throws IOException;
+  }
+
+  static final long NO_DATA = -1;
+
+  private final ByteBuffer buffer;
+  private final long nodeCount;
+  private final int recordSize;
+  private final int nodeByteSize;
+  private final int ipVersion;
+  private final long ipv4StartNode;
+
+  MaxMindSearchTree(File database) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(database, "r")) {
+      buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+    }
+    Map<?, ?> metadata = readMetadata();
+    nodeCount = getNumber(metadata, "node_count");
+    recordSize = (int) getNumber(metadata, "record_size");
+    ipVersion = (int) getNumber(metadata, "ip_version");
+    if (recordSize != 24 && recordSize != 28 && recordSize != 32) {
+      throw new InvalidDatabaseException("Unsupported record size " + recordSize);
+    }
+    nodeByteSize = recordSize / 4;
+
+    long node = 0;
+    if (ipVersion == 6) {
+      for (int i = 0; i < IPV4_DEPTH_IN_IPV6 && node < nodeCount; i++) {
+        node = readRecord(node, 0);
+      }
+    }
+    ipv4StartNode = node;
+  }
+
+  boolean isIpv6() {
+    return ipVersion == 6;
+  }
+
+  /**
+   * Visits all the networks of the tree. The aliases of the IPv4 networks in an IPv6 tree are not expanded, they are
+   * given as a single network without data.
+   */
+  void walk(Visitor visitor) throws IOException {
+    walk(visitor, 0, 0, 0L, 0L);
+  }
+
+  private void walk(Visitor visitor, long node, int depth, long high, long low) throws IOException {
+    int bits = isIpv6() ? 128 : 32;
+    for (int bit = 0; bit < 2; bit++) {
+      long childHigh = high;
+      long childLow = low;
+      if (bit == 1) {
+        int position = bits - 1 - depth;
+        if (position >= 64) {
+          childHigh |= 1L << (position - 64);
+        } else {
+          childLow |= 1L << position;
+        }
+      }
+      long record = readRecord(node, bit);
+      int childDepth = depth + 1;
+      if (record < nodeCount) {
+        if (childDepth > bits) {
+          throw new InvalidDatabaseException("The search tree is deeper than the addresses");
+        }
+        boolean ipv4Start = childDepth == IPV4_DEPTH_IN_IPV6 && childHigh == 0 && childLow == 0;
+        if (isIpv6() && record == ipv4StartNode && !ipv4Start) {
+          visitor.ipv4Alias(childHigh, childLow, childDepth);
+          visitor.network(childHigh, childLow, childDepth, NO_DATA);
+        } else {
+          walk(visitor, record, childDepth, childHigh, childLow);
+        }
+      } else {
+        visitor.network(childHigh, childLow, childDepth, (record == nodeCount) ? NO_DATA : record);
+      }
+    }
+  }
+
+  private long readRecord(long node, int index) throws InvalidDatabaseException {
+    if (node < 0 || node >= nodeCount) {
+      throw new InvalidDatabaseException("Invalid node " + node + " in the search tree");
+    }
+    int offset = (int) (node * nodeByteSize);
+    switch (recordSize) {
+      case 24:
+        return readUnsigned(offset + index * 3, 3);
+      case 28:
+        int middle = buffer.get(offset + 3) & 0xFF;
+        if (index == 0) {
+          return ((long) (middle & 0xF0) << 20) | readUnsigned(offset, 3);
+        }
+        return ((long) (middle & 0x0F) << 24) | readUnsigned(offset + 4, 3);
+      default:
+        return readUnsigned(offset + index * 4, 4);
+    }
+  }
+
+  private long readUnsigned(int offset, int size) {
+    long value = 0;
+    for (int i = 0; i < size; i++) {
+      value = (value << 8) | (buffer.get(offset + i) & 0xFF);
+    }
+    return value;
+  }
+
+  private Map<?, ?> readMetadata() throws InvalidDatabaseException {
+    int limit = buffer.limit();
+    int start = -1;
+    for (int i = limit - METADATA_START_MARKER.length; i >= Math.max(0, limit - METADATA_MAX_SIZE) && start < 0; i--) {
+      boolean found = true;
+      for (int j = 0; j < METADATA_START_MARKER.length && found; j++) {
+        found = buffer.get(i + j) == METADATA_START_MARKER[j];
+      }
+      if (found) {
+        start = i + METADATA_START_MARKER.length;
+      }
+    }
+    if (start < 0) {
+      throw new InvalidDatabaseException("Could not find the metadata of the database");
+    }
+    Object metadata = new MetadataDecoder(start).decode();
+    if (!(metadata instanceof Map)) {
+      throw new InvalidDatabaseException("Invalid metadata in the database");
+    }
+    return (Map<?, ?>) metadata;
+  }
+
+  private static long getNumber(Map<?, ?> metadata, String key) throws InvalidDatabaseException {
+    Object value = metadata.get(key);
+    if (!(value instanceof Number)) {
+      throw new InvalidDatabaseException("Missing '" + key + "' in the metadata of the database");
+    }
+    return ((Number) value).longValue();
+  }
+
+  /**
+   * Decodes the metadata section, which uses the data section format without pointers.
+   */
+  private class MetadataDecoder {
+    private int position;
+
+    MetadataDecoder(int position) {
+      this.position = position;
+    }
+
+    Object decode() throws InvalidDatabaseException {
+      int control = next();
+      int type = control >>> 5;
+      if (type == 0) {
+        type = 7 + next();
+      }
+      int size = control & 0x1F;
+      if (size >= 29) {
+        int bytes = size - 28;
+        size = (int) readUnsigned(position, bytes) + ((bytes == 1) ? 29 : (bytes == 2) ? 285 : 65821);
+        position += bytes;
+      }
+      switch (type) {
+        case 2:
+          byte[] utf8 = new byte[size];
+          for (int i = 0; i < size; i++) {
+            utf8[i] = (byte) next();
+          }
+          return new String(utf8, StandardCharsets.UTF_8);
+        case 3:
+        case 4:
+        case 10:
+        case 15:
+          // doubles, bytes, 128 bits integers and floats are not needed
+          position += (type == 3) ? 8 : (type == 15) ? 4 : size;
+          return null;
+        case 5:
+        case 6:
+        case 8:
+        case 9:
+          long value = readUnsigned(position, size);
+          position += size;
+          return value;
+        case 7:
+          Map<Object, Object> map = new HashMap<>();
+          for (int i = 0; i < size; i++) {
+            map.put(decode(), decode());
+          }
+          return map;
+        case 11:
+          List<Object> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(decode());
+          }
+          return list;
+        case 14:
+          return size != 0;
+        default:
+          throw new InvalidDatabaseException("Unexpected type " + type + " in the metadata of the database");
+      }
+    }
+
+    private int next() {
+      return buffer.get(position++) & 0xFF;
+    }
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.FileRollMode;
+import com.streamsets.pipeline.config.PostProcessingOptions;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestMultithreadedFileTailSource {
+  private final static int SCAN_INTERVAL = 0; //using zero forces synchronous file discovery
+
+  private static FileTailConfigBean createConfig(List<FileInfo> fileInfos) {
+    FileTailConfigBean conf = new FileTailConfigBean();
+    conf.dataFormat = DataFormat.TEXT;
+    conf.multiLineMainPattern = "";
+    conf.batchSize = 2;
+    conf.maxWaitTimeSecs = 1;
+    conf.fileInfos = fileInfos;
+    conf.postProcessing = PostProcessingOptions.NONE;
+    conf.dataFormatConfig.textMaxLineLen = 1024;
+    return conf;
+  }
+
+  private static FileInfo createFile(int lines) throws Exception {
+    File testDataDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDataDir.mkdirs());
+    File file = new File(testDataDir, "log.txt");
+    appendLines(file, 0, lines);
+    FileInfo fileInfo = new FileInfo();
+    fileInfo.tag = "";
+    fileInfo.fileFullPath = file.getAbsolutePath();
+    fileInfo.fileRollMode = FileRollMode.REVERSE_COUNTER;
+    fileInfo.firstFile = "";
+    fileInfo.patternForToken = "";
+    return fileInfo;
+  }
+
+  // a glob entry matching log.txt in the given number of sub directories
+  private static FileInfo createGlobFiles(File testDataDir, int dirs, int lines) throws Exception {
+    for (int i = 0; i < dirs; i++) {
+      createGlobFile(testDataDir, "dir" + i, lines);
+    }
+    FileInfo fileInfo = new FileInfo();
+    fileInfo.tag = "";
+    fileInfo.fileFullPath = testDataDir.getAbsolutePath() + "/*/log.txt";
+    fileInfo.fileRollMode = FileRollMode.REVERSE_COUNTER;
+    fileInfo.firstFile = "";
+    fileInfo.patternForToken = "";
+    return fileInfo;
+  }
+
+  private static void createGlobFile(File testDataDir, String dir, int lines) throws Exception {
+    File subDir = new File(testDataDir, dir);
+    Assert.assertTrue(subDir.mkdirs());
+    appendLines(new File(subDir, "log.txt"), 0, lines);
+  }
+
+  private static void appendLines(File file, int start, int count) throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (int i = start; i < start + count; i++) {
+      lines.add(String.valueOf(i));
+    }
+    Files.write(file.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  // runs the origin until the expected number of records is received, returns the records by file
+  private static Map<String, List<Integer>> runUntil(
+      MultithreadedFileTailSource source,
+      Map<String, String> lastOffsets,
+      int expectedRecords,
+      Map<String, String> committedOffsets
+  ) throws Exception {
+    return runUntil(source, lastOffsets, expectedRecords, committedOffsets, new HashMap<>(), 0, () -> null);
+  }
+
+  // also collects the threads that read each file and runs the trigger once after the given number of records
+  private static Map<String, List<Integer>> runUntil(
+      MultithreadedFileTailSource source,
+      Map<String, String> lastOffsets,
+      int expectedRecords,
+      Map<String, String> committedOffsets,
+      Map<String, Set<String>> threadsByFile,
+      int triggerRecords,
+      Callable<?> trigger
+  ) throws Exception {
+    Map<String, List<Integer>> recordsByFile = new HashMap<>();
+    AtomicBoolean triggered = new AtomicBoolean();
+    PushSourceRunner runner = new PushSourceRunner.Builder(MultithreadedFileTailDSource.class, source)
+        .addOutputLane("lane").addOutputLane("metadata")
+        .build();
+    runner.runInit();
+    try {
+      List<Integer> count = Collections.synchronizedList(new ArrayList<>());
+      runner.runProduce(lastOffsets, 10, output -> {
+        synchronized (recordsByFile) {
+          for (Record record : output.getRecords().get("lane")) {
+            String file = record.getHeader().getAttribute(HeaderAttributeConstants.FILE);
+            recordsByFile.computeIfAbsent(file, k -> new ArrayList<>())
+                .add(Integer.parseInt(record.get("/text").getValueAsString()));
+            threadsByFile.computeIfAbsent(file, k -> new HashSet<>()).add(Thread.currentThread().getName());
+            count.add(1);
+          }
+          if (count.size() >= triggerRecords && !triggered.getAndSet(true)) {
+            try {
+              trigger.call();
+            } catch (Exception ex) {
+              throw new RuntimeException(ex);
+            }
+          }
+          if (count.size() >= expectedRecords) {
+            runner.setStop();
+          }
+        }
+      });
+      runner.waitOnProduce();
+      committedOffsets.putAll(runner.getOffsets());
+    } finally {
+      runner.runDestroy();
+    }
+    return recordsByFile;
+  }
+
+  @Test
+  public void testFilesShardedAcrossThreads() throws Exception {
+    List<FileInfo> fileInfos = Arrays.asList(createFile(5), createFile(5), createFile(5));
+    MultithreadedFileTailSource source =
+        new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL);
+
+    Map<String, String> offsets = new HashMap<>();
+    Map<String, List<Integer>> recordsByFile = runUntil(source, new HashMap<>(), 15, offsets);
+
+    Assert.assertEquals(2, source.getNumberOfThreads());
+    Assert.assertEquals(3, recordsByFile.size());
+    for (FileInfo fileInfo : fileInfos) {
+      // lines of a file are always delivered in order
+      Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), recordsByFile.get(fileInfo.fileFullPath));
+    }
+    Assert.assertEquals(3, offsets.size());
+  }
+
+  @Test
+  public void testMoreThreadsThanFiles() throws Exception {
+    List<FileInfo> fileInfos = Collections.singletonList(createFile(3));
+    MultithreadedFileTailSource source =
+        new MultithreadedFileTailSource(createConfig(fileInfos), 4, SCAN_INTERVAL);
+
+    Map<String, List<Integer>> recordsByFile = runUntil(source, new HashMap<>(), 3, new HashMap<>());
+
+    // the extra threads wait for files showing up later
+    Assert.assertEquals(4, source.getNumberOfThreads());
+    Assert.assertEquals(Arrays.asList(0, 1, 2), recordsByFile.get(fileInfos.get(0).fileFullPath));
+  }
+
+  @Test
+  public void testGlobFilesShardedAcrossThreads() throws Exception {
+    File testDataDir = new File("target", UUID.randomUUID().toString());
+    List<FileInfo> fileInfos = Collections.singletonList(createGlobFiles(testDataDir, 4, 5));
+    MultithreadedFileTailSource source =
+        new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL);
+
+    Map<String, String> offsets = new HashMap<>();
+    Map<String, Set<String>> threadsByFile = new HashMap<>();
+    Map<String, List<Integer>> recordsByFile =
+        runUntil(source, new HashMap<>(), 20, offsets, threadsByFile, 0, () -> null);
+
+    // the files of a single glob entry are read by both threads, each file by only one of them
+    Assert.assertEquals(4, recordsByFile.size());
+    Set<String> threads = new HashSet<>();
+    for (Map.Entry<String, List<Integer>> entry : recordsByFile.entrySet()) {
+      Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), entry.getValue());
+      Assert.assertEquals(1, threadsByFile.get(entry.getKey()).size());
+      threads.addAll(threadsByFile.get(entry.getKey()));
+    }
+    Assert.assertEquals(2, threads.size());
+    Assert.assertEquals(4, offsets.size());
+  }
+
+  @Test
+  public void testNewGlobFilesAssigned() throws Exception {
+    File testDataDir = new File("target", UUID.randomUUID().toString());
+    List<FileInfo> fileInfos = Collections.singletonList(createGlobFiles(testDataDir, 1, 2));
+    MultithreadedFileTailSource source =
+        new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL);
+
+    Map<String, Set<String>> threadsByFile = new HashMap<>();
+    Map<String, List<Integer>> recordsByFile = runUntil(
+        source,
+        new HashMap<>(),
+        8,
+        new HashMap<>(),
+        threadsByFile,
+        2,
+        () -> {
+          for (int i = 1; i < 4; i++) {
+            createGlobFile(testDataDir, "dir" + i, 2);
+          }
+          return null;
+        }
+    );
+
+    Assert.assertEquals(4, recordsByFile.size());
+    Set<String> threads = new HashSet<>();
+    for (Map.Entry<String, List<Integer>> entry : recordsByFile.entrySet()) {
+      Assert.assertEquals(Arrays.asList(0, 1), entry.getValue());
+      Assert.assertEquals(1, threadsByFile.get(entry.getKey()).size());
+      threads.addAll(threadsByFile.get(entry.getKey()));
+    }
+    // the files showing up later also go to the idle thread
+    Assert.assertEquals(2, threads.size());
+  }
+
+  @Test
+  public void testResumeFromOffsets() throws Exception {
+    List<FileInfo> fileInfos = Arrays.asList(createFile(3), createFile(3));
+    Map<String, String> offsets = new HashMap<>();
+    runUntil(new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL), new HashMap<>(), 6, offsets);
+
+    appendLines(new File(fileInfos.get(0).fileFullPath), 3, 2);
+    appendLines(new File(fileInfos.get(1).fileFullPath), 3, 1);
+
+    Map<String, List<Integer>> recordsByFile = runUntil(
+        new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL),
+        offsets,
+        3,
+        new HashMap<>()
+    );
+    Assert.assertEquals(Arrays.asList(3, 4), recordsByFile.get(fileInfos.get(0).fileFullPath));
+    Assert.assertEquals(Collections.singletonList(3), recordsByFile.get(fileInfos.get(1).fileFullPath));
+  }
+
+  @Test
+  public void testResumeFromPollSourceOffset() throws Exception {
+    List<FileInfo> fileInfos = Arrays.asList(createFile(3), createFile(3));
+    Map<String, String> offsets = new HashMap<>();
+    runUntil(new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL), new HashMap<>(), 6, offsets);
+
+    // the poll variant keeps the same file key to offset entries in a single JSON offset
+    Map<String, String> pollOffsets = new HashMap<>();
+    pollOffsets.put(
+        Source.POLL_SOURCE_OFFSET_KEY,
+        new ObjectMapper().writeValueAsString(offsets)
+    );
+    appendLines(new File(fileInfos.get(0).fileFullPath), 3, 1);
+
+    Map<String, String> newOffsets = new HashMap<>();
+    Map<String, List<Integer>> recordsByFile = runUntil(
+        new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL),
+        pollOffsets,
+        1,
+        newOffsets
+    );
+    Assert.assertEquals(Collections.singletonList(3), recordsByFile.get(fileInfos.get(0).fileFullPath));
+    Assert.assertFalse(newOffsets.containsKey(Source.POLL_SOURCE_OFFSET_KEY));
+    Assert.assertEquals(offsets.keySet(), newOffsets.keySet());
+  }
+
+}
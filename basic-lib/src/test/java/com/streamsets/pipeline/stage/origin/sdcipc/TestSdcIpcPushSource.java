@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.credential.CredentialValue;
+import com.streamsets.pipeline.api.ext.ContextExtensions;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.lib.http.AbstractHttpReceiverServer;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.stage.destination.sdcipc.Constants;
+import com.streamsets.testing.NetworkUtils;
+import org.awaitility.Duration;
+import org.iq80.snappy.SnappyFramedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+
+public class TestSdcIpcPushSource {
+
+  private PushConfigs createConfigs() throws Exception {
+    PushConfigs configs = new PushConfigs();
+    configs.appId = () -> "appId";
+    configs.tlsConfigBean.tlsEnabled = false;
+    configs.port = NetworkUtils.getRandomPort();
+    configs.maxRecordSize = 10;
+    configs.maxConcurrentRequests = 4;
+    return configs;
+  }
+
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    PushConfigs configs = createConfigs();
+    SdcIpcPushSource source = new SdcIpcPushSource(configs);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SdcIpcDPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    runner.runInit();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      // Block the first batches until all requests are in flight so that we know they are processed in parallel
+      CountDownLatch inFlight = new CountDownLatch(4);
+      List<Record> received = Collections.synchronizedList(new ArrayList<>());
+      runner.runProduce(Collections.emptyMap(), 10, output -> {
+        received.addAll(output.getRecords().get("lane"));
+        inFlight.countDown();
+        try {
+          inFlight.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      });
+
+      AbstractHttpReceiverServer server = (AbstractHttpReceiverServer) Whitebox.getInternalState(source, "server");
+      await().atMost(Duration.TEN_SECONDS).until(server::isRunning);
+
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        final boolean compressed = i % 2 == 0;
+        futures.add(executor.submit(() -> {
+          Record r1 = RecordCreator.create();
+          r1.set(Field.create(true));
+          Record r2 = RecordCreator.create();
+          r2.set(Field.create(false));
+          return sendRecords(configs.appId, runner.getContext(), "localhost:" + configs.port, compressed,
+              ImmutableList.of(r1, r2));
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        Assert.assertTrue(future.get(20, TimeUnit.SECONDS));
+      }
+      Assert.assertEquals(8, received.size());
+      Assert.assertTrue(runner.getErrors().isEmpty());
+
+      // invalid appId
+      Record r = RecordCreator.create();
+      r.set(Field.create(true));
+      Assert.assertFalse(
+          sendRecords(() -> "invalid", runner.getContext(), "localhost:" + configs.port, false, ImmutableList.of(r))
+      );
+
+      // ping
+      HttpURLConnection conn = getConnection(Constants.PING_PATH, () -> "nop", runner.getContext(),
+          "localhost:" + configs.port);
+      Assert.assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
+
+      runner.setStop();
+      runner.waitOnProduce();
+    } finally {
+      executor.shutdownNow();
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testWrongContentType() throws Exception {
+    PushConfigs configs = createConfigs();
+    SdcIpcPushSource source = new SdcIpcPushSource(configs);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SdcIpcDPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    runner.runInit();
+    try {
+      runner.runProduce(Collections.emptyMap(), 10, output -> Assert.fail("No batch expected"));
+      AbstractHttpReceiverServer server = (AbstractHttpReceiverServer) Whitebox.getInternalState(source, "server");
+      await().atMost(Duration.TEN_SECONDS).until(server::isRunning);
+
+      HttpURLConnection conn = getConnection(Constants.IPC_PATH, configs.appId, runner.getContext(),
+          "localhost:" + configs.port);
+      conn.setRequestMethod("POST");
+      conn.setRequestProperty(Constants.CONTENT_TYPE_HEADER, "text/plain");
+      conn.setDoOutput(true);
+      conn.getOutputStream().write("Hello".getBytes());
+      Assert.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, conn.getResponseCode());
+
+      runner.setStop();
+      runner.waitOnProduce();
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private HttpURLConnection getConnection(
+      String path,
+      CredentialValue appId,
+      Stage.Context context,
+      String hostPort
+  ) throws Exception {
+    com.streamsets.pipeline.stage.destination.sdcipc.Configs config =
+        new com.streamsets.pipeline.stage.destination.sdcipc.Configs();
+    // always valid to be able to init the config
+    config.appId = () -> "appId";
+    config.connectionTimeOutMs = 1000;
+    config.readTimeOutMs = 10000;
+    config.hostPorts = ImmutableList.of(hostPort);
+    config.tlsConfigBean.tlsEnabled = false;
+    config.hostVerification = false;
+    List<Stage.ConfigIssue> issues = config.init(context);
+    // now setting the appId we want to test
+    config.appId = appId;
+    if (issues.isEmpty()) {
+      return config.createConnection(hostPort, path);
+    } else {
+      throw new IOException(issues.toString());
+    }
+  }
+
+  private boolean sendRecords(
+      CredentialValue appId,
+      Stage.Context context,
+      String hostPort,
+      boolean compressed,
+      List<Record> records
+  ) throws Exception {
+    ContextExtensions ext = (ContextExtensions) context;
+    HttpURLConnection conn = getConnection(Constants.IPC_PATH, appId, context, hostPort);
+    conn.setRequestMethod("POST");
+    conn.setRequestProperty(Constants.CONTENT_TYPE_HEADER, Constants.APPLICATION_BINARY);
+    if (compressed) {
+      conn.setRequestProperty(Constants.X_SDC_COMPRESSION_HEADER, Constants.SNAPPY_COMPRESSION);
+    }
+    conn.setDefaultUseCaches(false);
+    conn.setDoOutput(true);
+    conn.setDoInput(true);
+    OutputStream os = conn.getOutputStream();
+    if (compressed) {
+      os = new SnappyFramedOutputStream(os);
+    }
+    RecordWriter writer = ext.createRecordWriter(os);
+    for (Record record : records) {
+      writer.write(record);
+    }
+    writer.close();
+    return conn.getResponseCode() == HttpURLConnection.HTTP_OK;
+  }
+
+}
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 
 import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.lib.memory.SizeEstimator;
 import com.streamsets.pipeline.stage.processor.aggregation.WindowType;
 import org.junit.Assert;
 import org.junit.Test;
@@ -70,4 +71,28 @@ public class TestGroupByAggregator {
     aggregators.stop();
   }
 
+  @Test
+  public void testEstimateSize() {
+    Aggregators aggregators = new Aggregators(3, WindowType.ROLLING);
+    GroupByAggregator aggregator = aggregators.createGroupBy("g", CountAggregator.class);
+    aggregators.start(1);
+    AggregatorDataProvider provider = aggregators.getDataProvider();
+
+    long empty = provider.estimateSize();
+    for (int i = 0; i < 1000; i++) {
+      aggregator.process("group" + i, 1L);
+    }
+    long groups = provider.estimateSize();
+    Assert.assertTrue(groups > empty + 1000 * (64 + SizeEstimator.ofString("group0")));
+
+    // closed windows are retained until evicted
+    aggregators.roll(2);
+    Assert.assertEquals(groups + empty, provider.estimateSize());
+    aggregators.roll(3);
+    aggregators.roll(4);
+    Assert.assertEquals(3 * empty, provider.estimateSize());
+
+    aggregators.stop();
+  }
+
 }
@@ -15,12 +15,14 @@
  */
 package com.streamsets.pipeline.stage.processor.dedup;
 
+import com.codahale.metrics.Counter;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.memory.MemoryAccountant;
 import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.StageRunner;
@@ -131,6 +133,43 @@ public class TestDeDupProcessor {
     }
   }
 
+  @Test
+  public void testCacheMemoryAccounting() throws Exception {
+    Processor processor = new DeDupProcessor(4, 1, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST);
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .addStageSdcConfiguration(MemoryAccountant.ACCOUNTING_CONFIG, "true")
+        .build();
+    runner.runInit();
+    try {
+      Counter hashCache = runner.getContext().getCounter(MemoryAccountant.METRIC_PREFIX + "hashCache");
+      Assert.assertEquals(0, hashCache.getCount());
+      runner.runProcess(ImmutableList.of(createRecordWithValue("a"), createRecordWithValue("b")));
+      Assert.assertEquals(2 * 85, hashCache.getCount());
+      runner.runProcess(ImmutableList.of(createRecordWithValue("a"), createRecordWithValue("c")));
+      Assert.assertEquals(3 * 85, hashCache.getCount());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testCacheMemoryAccountingDisabled() throws Exception {
+    Processor processor = new DeDupProcessor(4, 1, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST);
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+    try {
+      runner.runProcess(ImmutableList.of(createRecordWithValue("a"), createRecordWithValue("b")));
+      Assert.assertNull(runner.getContext().getCounter(MemoryAccountant.METRIC_PREFIX + "hashCache"));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
   @Test
   public void testUniqueSingleBatchSpecifiedFields() throws Exception {
     Processor processor = new DeDupProcessor(4, 1, SelectFields.SPECIFIED_FIELDS, Arrays.asList("/value"));
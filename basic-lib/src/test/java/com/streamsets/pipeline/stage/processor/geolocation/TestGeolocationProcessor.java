@@ -47,6 +47,7 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 @RunWith(Parameterized.class)
 public class TestGeolocationProcessor {
@@ -619,4 +620,116 @@ public class TestGeolocationProcessor {
     }
   }
 
+  private static GeolocationFieldConfig createFieldConfig(String input, String output, GeolocationField type) {
+    GeolocationFieldConfig config = new GeolocationFieldConfig();
+    config.inputFieldName = input;
+    config.outputFieldName = output;
+    config.targetType = type;
+    return config;
+  }
+
+  private List<GeolocationDatabaseConfig> createCountryAndCityDbConfigs() {
+    List<GeolocationDatabaseConfig> dbConfigs = new ArrayList<>();
+    GeolocationDatabaseConfig dbConfig = new GeolocationDatabaseConfig();
+    dbConfig.geoIP2DBFile = countryDb.getAbsolutePath();
+    dbConfig.geoIP2DBType = GeolocationDBType.COUNTRY;
+    dbConfigs.add(dbConfig);
+    dbConfig = new GeolocationDatabaseConfig();
+    dbConfig.geoIP2DBFile = cityDb.getAbsolutePath();
+    dbConfig.geoIP2DBType = GeolocationDBType.CITY;
+    dbConfigs.add(dbConfig);
+    return dbConfigs;
+  }
+
+  private List<Record> lookup(
+      List<GeolocationFieldConfig> configs,
+      GeolocationMissingAddressAction missingAddressAction,
+      boolean precomputeRanges,
+      List<String> ips
+  ) throws StageException {
+    ProcessorRunner runner = new ProcessorRunner.Builder(GeolocationDProcessor.class)
+        .addConfiguration("fieldTypeConverterConfigs", configs)
+        .addConfiguration("dbConfigs", createCountryAndCityDbConfigs())
+        .addConfiguration("missingAddressAction", missingAddressAction)
+        .addConfiguration("precomputeRanges", precomputeRanges)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("a").build();
+    runner.runInit();
+    try {
+      List<Record> records = new ArrayList<>();
+      for (String ip : ips) {
+        Map<String, Field> map = new LinkedHashMap<>();
+        map.put("ipAsString", Field.create(ip));
+        Record record = RecordCreator.create("s", "s:" + ip);
+        record.set(Field.create(map));
+        records.add(record);
+      }
+      StageRunner.Output output = runner.runProcess(records);
+      List<Record> result = new ArrayList<>(output.getRecords().get("a"));
+      result.addAll(runner.getErrorRecords());
+      return result;
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testPrecomputedRangesLookup() throws Exception {
+    List<GeolocationFieldConfig> configs = ImmutableList.of(
+        createFieldConfig("/ipAsString", "/country", GeolocationField.COUNTRY_NAME),
+        createFieldConfig("/ipAsString", "/isoCode", GeolocationField.COUNTRY_ISO_CODE),
+        createFieldConfig("/ipAsString", "/city", GeolocationField.CITY_NAME),
+        createFieldConfig("/ipAsString", "/lat", GeolocationField.LATITUDE),
+        createFieldConfig("/ipAsString", "/lon", GeolocationField.LONGITUDE)
+    );
+
+    List<Record> records = lookup(configs, GeolocationMissingAddressAction.TO_ERROR, true, ImmutableList.of(ip));
+    Assert.assertEquals(1, records.size());
+    Assert.assertNull(records.get(0).getHeader().getErrorCode());
+    Assert.assertEquals("United States", records.get(0).get("/country").getValueAsString());
+    Assert.assertEquals("US", records.get(0).get("/isoCode").getValueAsString());
+    if (!ip.contains(":")) {
+      Assert.assertEquals("Minneapolis", records.get(0).get("/city").getValueAsString());
+    }
+
+    // Same results as the lookups through the database readers, for addresses all over the IPv4 and IPv6 spaces
+    List<String> ips = new ArrayList<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      byte[] address = new byte[(i % 2 == 0) ? 4 : 16];
+      random.nextBytes(address);
+      if (address.length == 16 && i % 4 == 1) {
+        // most of the IPv6 networks are in 2000::/3
+        address[0] = (byte) (0x20 | (address[0] & 0x1F));
+      }
+      ips.add(InetAddress.getByAddress(address).getHostAddress());
+    }
+    for (GeolocationMissingAddressAction action : GeolocationMissingAddressAction.values()) {
+      List<Record> expected = lookup(configs, action, false, ips);
+      List<Record> actual = lookup(configs, action, true, ips);
+      Assert.assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        Assert.assertEquals(expected.get(i).getHeader().getSourceId(), actual.get(i).getHeader().getSourceId());
+        Assert.assertEquals(expected.get(i).getHeader().getErrorCode(), actual.get(i).getHeader().getErrorCode());
+        Assert.assertEquals(expected.get(i).get(), actual.get(i).get());
+      }
+    }
+  }
+
+  @Test
+  public void testPrecomputedRangesFullJson() throws Exception {
+    List<GeolocationFieldConfig> configs = ImmutableList.of(
+        createFieldConfig("/ipAsString", "/city", GeolocationField.CITY_FULL_JSON)
+    );
+    ProcessorRunner runner = new ProcessorRunner.Builder(GeolocationDProcessor.class)
+        .addConfiguration("fieldTypeConverterConfigs", configs)
+        .addConfiguration("dbConfigs", createCountryAndCityDbConfigs())
+        .addConfiguration("missingAddressAction", GeolocationMissingAddressAction.TO_ERROR)
+        .addConfiguration("precomputeRanges", true)
+        .addOutputLane("a").build();
+    List<Stage.ConfigIssue> configErrors = runner.runValidateConfigs();
+    Assert.assertEquals(String.valueOf(configErrors), 1, configErrors.size());
+    Assert.assertTrue(String.valueOf(configErrors.get(0)),
+        String.valueOf(configErrors.get(0)).contains(Errors.GEOIP_14.name()));
+  }
 }
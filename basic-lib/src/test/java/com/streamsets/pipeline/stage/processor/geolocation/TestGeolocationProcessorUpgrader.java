@@ -78,6 +78,17 @@ public class TestGeolocationProcessorUpgrader {
     assertEquals("COUNTRY", dbConfigs.get(0).get("geoIP2DBType"));
   }
 
+  @Test
+  public void testV4ToV5() throws Exception {
+    List<Config> configs = new ArrayList<>();
+
+    GeolocationProcessorUpgrader upgrader = new GeolocationProcessorUpgrader();
+
+    upgrader.upgrade("a", "b", "c", 4, 5, configs);
+
+    assertEquals(false, getConfigsAsMap(configs).get("precomputeRanges"));
+  }
+
   private static Map<String, Object> getConfigsAsMap(List<Config> configs) {
     HashMap<String, Object> map = new HashMap<>();
     for (Config c : configs) {
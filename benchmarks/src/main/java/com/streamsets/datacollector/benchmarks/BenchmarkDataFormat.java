@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmarks;
+
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.OriginAvroSchemaSource;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data formats covered by the parser and generator benchmarks, configured the way the stages configure them.
+ * The records must be {@link RandomRecordGenerator.Shape#FLAT} ones, the only shape all the formats can represent.
+ */
+public enum BenchmarkDataFormat {
+  JSON {
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(String avroSchema) {
+      return new DataGeneratorFactoryBuilder(getTargetContext(), DataGeneratorFormat.JSON)
+          .setMode(com.streamsets.pipeline.api.ext.json.Mode.MULTIPLE_OBJECTS)
+          .build();
+    }
+
+    @Override
+    public DataParserFactory createParserFactory() {
+      return new DataParserFactoryBuilder(getSourceContext(), DataParserFormat.JSON)
+          .setMode(JsonMode.MULTIPLE_OBJECTS)
+          .setMaxDataLen(MAX_DATA_LEN)
+          .build();
+    }
+  },
+  DELIMITED {
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(String avroSchema) {
+      return new DataGeneratorFactoryBuilder(getTargetContext(), DataGeneratorFormat.DELIMITED)
+          .setMode(CsvMode.CSV)
+          .setMode(CsvHeader.WITH_HEADER)
+          .build();
+    }
+
+    @Override
+    public DataParserFactory createParserFactory() {
+      return new DataParserFactoryBuilder(getSourceContext(), DataParserFormat.DELIMITED)
+          .setMode(CsvMode.CSV)
+          .setMode(CsvHeader.WITH_HEADER)
+          .setMode(CsvRecordType.LIST_MAP)
+          .setMaxDataLen(MAX_DATA_LEN)
+          .build();
+    }
+  },
+  AVRO {
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(String avroSchema) {
+      return new DataGeneratorFactoryBuilder(getTargetContext(), DataGeneratorFormat.AVRO)
+          .setConfig(AvroSchemaHelper.SCHEMA_KEY, avroSchema)
+          .build();
+    }
+
+    @Override
+    public DataParserFactory createParserFactory() {
+      return new DataParserFactoryBuilder(getSourceContext(), DataParserFormat.AVRO)
+          .setConfig(AvroSchemaHelper.SCHEMA_SOURCE_KEY, OriginAvroSchemaSource.SOURCE)
+          .setMaxDataLen(MAX_DATA_LEN)
+          .setOverRunLimit(MAX_DATA_LEN)
+          .build();
+    }
+  },
+  ;
+
+  private static final int MAX_DATA_LEN = 1024 * 1024;
+
+  /**
+   * @param avroSchema schema of the records, only used by the formats that need one.
+   */
+  public abstract DataGeneratorFactory createGeneratorFactory(String avroSchema);
+
+  public abstract DataParserFactory createParserFactory();
+
+  /**
+   * Writes the records in this format, to be parsed back by the parser benchmarks.
+   */
+  public byte[] generate(List<Record> records, String avroSchema) throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try (DataGenerator generator = createGeneratorFactory(avroSchema).getGenerator(os)) {
+      for (Record record : records) {
+        generator.write(record);
+      }
+    }
+    return os.toByteArray();
+  }
+
+  private static Stage.Context getSourceContext() {
+    return ContextInfoCreator.createSourceContext(
+        RandomRecordGenerator.STAGE_CREATOR,
+        false,
+        OnRecordError.TO_ERROR,
+        Collections.<String>emptyList()
+    );
+  }
+
+  private static Stage.Context getTargetContext() {
+    return ContextInfoCreator.createTargetContext(RandomRecordGenerator.STAGE_CREATOR, false, OnRecordError.TO_ERROR);
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmarks;
+
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates the records the benchmarks work on, the same way the Dev Data Generator origin
+ * ({@code RandomDataGeneratorSource}) does, but deterministically: the same shape, number of fields and seed always
+ * produce the same records, so results can be compared between runs and releases.
+ * <p/>
+ * The type of a field only depends on its position, the seed only changes the values.
+ */
+public class RandomRecordGenerator {
+  public static final long DEFAULT_SEED = 42;
+  public static final String STAGE_CREATOR = "benchmark";
+  public static final String HEADER_ATTRIBUTE = "source";
+
+  private static final Field.Type[] TYPES = {
+      Field.Type.STRING, Field.Type.INTEGER, Field.Type.LONG, Field.Type.DOUBLE, Field.Type.BOOLEAN
+  };
+  private static final Map<Field.Type, String> AVRO_TYPES = new HashMap<>();
+
+  static {
+    AVRO_TYPES.put(Field.Type.STRING, "string");
+    AVRO_TYPES.put(Field.Type.INTEGER, "int");
+    AVRO_TYPES.put(Field.Type.LONG, "long");
+    AVRO_TYPES.put(Field.Type.DOUBLE, "double");
+    AVRO_TYPES.put(Field.Type.BOOLEAN, "boolean");
+  }
+
+  private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+  private static final int NESTED_DEPTH = 3;
+  private static final int NESTED_LIST_SIZE = 3;
+
+  public enum Shape {
+    /** List-map root with scalar fields only, the records can be written as delimited and Avro data. */
+    FLAT,
+    /** Map root with scalar fields, a list of maps and a nested map, nested three levels deep. */
+    NESTED,
+  }
+
+  private final Shape shape;
+  private final int fields;
+  private final Random random;
+  private long counter;
+
+  public RandomRecordGenerator(Shape shape, int fields) {
+    this(shape, fields, DEFAULT_SEED);
+  }
+
+  public RandomRecordGenerator(Shape shape, int fields, long seed) {
+    this.shape = shape;
+    this.fields = fields;
+    this.random = new Random(seed);
+  }
+
+  public static String getFieldName(int index) {
+    return "f" + index;
+  }
+
+  public Record next() {
+    Record record = new RecordImpl(STAGE_CREATOR, STAGE_CREATOR + "::" + counter++, null, null);
+    record.getHeader().setAttribute(HEADER_ATTRIBUTE, STAGE_CREATOR);
+    switch (shape) {
+      case FLAT:
+        record.set(Field.createListMap(createScalars()));
+        break;
+      case NESTED:
+        record.set(createNested(NESTED_DEPTH));
+        break;
+      default:
+        throw new IllegalStateException("Unknown shape: " + shape);
+    }
+    return record;
+  }
+
+  public List<Record> next(int count) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(next());
+    }
+    return records;
+  }
+
+  /**
+   * Returns the Avro schema of the {@link Shape#FLAT} records.
+   */
+  public String getAvroSchema() {
+    StringBuilder schema = new StringBuilder("{\"type\":\"record\",\"name\":\"benchmark\",\"fields\":[");
+    for (int i = 0; i < fields; i++) {
+      if (i > 0) {
+        schema.append(',');
+      }
+      schema.append("{\"name\":\"").append(getFieldName(i)).append("\",\"type\":\"")
+          .append(AVRO_TYPES.get(TYPES[i % TYPES.length])).append("\"}");
+    }
+    return schema.append("]}").toString();
+  }
+
+  private LinkedHashMap<String, Field> createScalars() {
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    for (int i = 0; i < fields; i++) {
+      map.put(getFieldName(i), createScalar(TYPES[i % TYPES.length]));
+    }
+    return map;
+  }
+
+  private Field createNested(int depth) {
+    Map<String, Field> map = createScalars();
+    if (depth > 1) {
+      List<Field> list = new ArrayList<>(NESTED_LIST_SIZE);
+      for (int i = 0; i < NESTED_LIST_SIZE; i++) {
+        list.add(Field.create(createScalars()));
+      }
+      map.put("items", Field.create(list));
+      map.put("nested", createNested(depth - 1));
+    }
+    return Field.create(map);
+  }
+
+  private Field createScalar(Field.Type type) {
+    switch (type) {
+      case STRING:
+        return Field.create(createString(5 + random.nextInt(20)));
+      case INTEGER:
+        return Field.create(random.nextInt(100000));
+      case LONG:
+        return Field.create(random.nextLong());
+      case DOUBLE:
+        return Field.create(random.nextDouble() * 1000);
+      case BOOLEAN:
+        return Field.create(random.nextBoolean());
+      default:
+        throw new IllegalStateException("Unsupported type: " + type);
+    }
+  }
+
+  private String createString(int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import com.streamsets.datacollector.benchmarks.RandomRecordGenerator;
+import com.streamsets.datacollector.definition.ConcreteELDefinitionExtractor;
+import com.streamsets.pipeline.api.el.ELEvalException;
+import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.lib.el.MathEL;
+import com.streamsets.pipeline.lib.el.RecordEL;
+import com.streamsets.pipeline.lib.el.StringEL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of typical record expressions, the way processors evaluate them for every record of a batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ELEvaluatorBenchmark {
+
+  @Param({
+      "${record:value('/f0')}",
+      "${str:toUpper(record:value('/f0'))}",
+      "${record:value('/f1') * 2 + 1 > 100}",
+      "${math:floor(record:value('/f3'))}",
+      "${record:attribute('source') == 'benchmark' && record:exists('/f2')}",
+      "${str:concat(record:value('/f0'), '-suffix')}"
+  })
+  public String expression;
+
+  private ELEvaluator evaluator;
+  private ELVars variables;
+
+  @Setup
+  public void setUp() {
+    evaluator = new ELEvaluator(
+        "benchmark",
+        ConcreteELDefinitionExtractor.get(),
+        RecordEL.class,
+        StringEL.class,
+        MathEL.class
+    );
+    variables = evaluator.createVariables();
+    RecordEL.setRecordInContext(variables, new RandomRecordGenerator(RandomRecordGenerator.Shape.FLAT, 10).next());
+  }
+
+  @Benchmark
+  public Object evaluate() throws ELEvalException {
+    return evaluator.evaluate(variables, expression, Object.class);
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingTimeWindowReservoir;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a metrics refresh for a WebSocket subscriber: serializing the whole registry versus updating the
+ * {@link MetricsDeltaEncoder} and encoding the delta, when only a couple of stages of the pipeline process records.
+ * The scores are per refresh.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsDeltaEncoderBenchmark {
+
+  @Param({"10", "100"})
+  public int stages;
+
+  private MetricRegistry metrics;
+  private ObjectWriter fullWriter;
+  private MetricsDeltaEncoder encoder;
+  private Object subscriber;
+  private int refresh;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    metrics = new MetricRegistry();
+    for (int i = 0; i < stages; i++) {
+      String stage = "stage" + i;
+      long value = i;
+      metrics.counter(stage + ".inputRecords.counter");
+      metrics.counter(stage + ".outputRecords.counter");
+      metrics.register(stage + ".inputRecords.meter", new ExtendedMeter());
+      metrics.register(stage + ".outputRecords.meter", new ExtendedMeter());
+      metrics.histogram(stage + ".inputRecords.histogramM5");
+      metrics.register(stage + ".batchProcessing.timer", new Timer(new SlidingTimeWindowReservoir(60, TimeUnit.SECONDS)));
+      metrics.register(stage + ".runtime.gauge", (Gauge<Long>) () -> value);
+    }
+    fullWriter = ObjectMapperFactory.get().writer();
+    encoder = new MetricsDeltaEncoder(ObjectMapperFactory.getOneLine());
+    subscriber = new Object();
+    encoder.update(metrics);
+    encoder.encode(subscriber, true);
+  }
+
+  private void processRecords() {
+    String stage = "stage" + (refresh++ % 2);
+    metrics.counter(stage + ".inputRecords.counter").inc();
+    metrics.counter(stage + ".outputRecords.counter").inc();
+  }
+
+  @Benchmark
+  public String fullSnapshot() throws JsonProcessingException {
+    processRecords();
+    return fullWriter.writeValueAsString(metrics);
+  }
+
+  @Benchmark
+  public String delta() throws JsonProcessingException {
+    processRecords();
+    encoder.update(metrics);
+    return encoder.encode(subscriber, true);
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.streamsets.datacollector.benchmarks.RandomRecordGenerator;
+import com.streamsets.pipeline.api.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field access by path and deep copy of {@link RecordImpl}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordImplBenchmark {
+
+  @Param({"FLAT", "NESTED"})
+  public RandomRecordGenerator.Shape shape;
+
+  @Param({"10", "50"})
+  public int fields;
+
+  private RecordImpl record;
+  private String[] paths;
+  private Field[] values;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    record = (RecordImpl) new RandomRecordGenerator(shape, fields).next();
+    List<String> fieldPaths = record.getEscapedFieldPathsOrdered();
+    paths = fieldPaths.toArray(new String[fieldPaths.size()]);
+    values = new Field[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      values[i] = record.get(paths[i]);
+    }
+  }
+
+  // cycles through all the fields, the deeper ones included
+  private int nextIndex() {
+    next = (next + 1) % paths.length;
+    return next;
+  }
+
+  @Benchmark
+  public Field getByPath() {
+    return record.get(paths[nextIndex()]);
+  }
+
+  @Benchmark
+  public Field setByPath() {
+    int index = nextIndex();
+    return record.set(paths[index], values[index]);
+  }
+
+  @Benchmark
+  public boolean hasByPath() {
+    return record.has(paths[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<String> fieldPaths() {
+    return record.getEscapedFieldPathsOrdered();
+  }
+
+  @Benchmark
+  public RecordImpl deepClone() {
+    return record.clone();
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.streamsets.datacollector.benchmarks.RandomRecordGenerator;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading SDC records in every {@link RecordEncoding}, as done for the SDC Record data format and the
+ * error records. The scores are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordEncodingBenchmark {
+  private static final int RECORDS = 1000;
+
+  @Param({"JSON1", "KRYO1", "DICT1"})
+  public RecordEncoding encoding;
+
+  @Param({"FLAT", "NESTED"})
+  public RandomRecordGenerator.Shape shape;
+
+  private List<Record> records;
+  private byte[] data;
+
+  @Setup
+  public void setUp() throws IOException {
+    records = new RandomRecordGenerator(shape, 10).next(RECORDS);
+    data = write();
+  }
+
+  private byte[] write() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(encoding, os);
+    for (Record record : records) {
+      writer.write(record);
+    }
+    writer.close();
+    return os.toByteArray();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public byte[] writeRecords() throws IOException {
+    return write();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void readRecords(Blackhole blackhole) throws IOException {
+    try (RecordReader reader = RecordWriterReaderFactory.createRecordReader(new ByteArrayInputStream(data), 0, -1)) {
+      Record record;
+      while ((record = reader.readRecord()) != null) {
+        blackhole.consume(record);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.streamsets.datacollector.benchmarks.RandomRecordGenerator;
+import com.streamsets.pipeline.api.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving the output lane of a stage to the input lanes of the stages it feeds, as the pipeline does between stages.
+ * When a lane feeds more than one stage every stage gets its own copy of the records.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FullPipeBatchBenchmark {
+  private static final String INPUT_LANE = "stage::o";
+
+  @Param({"FLAT", "NESTED"})
+  public RandomRecordGenerator.Shape shape;
+
+  @Param({"1000"})
+  public int batchSize;
+
+  @Param({"1", "3"})
+  public int outputLanes;
+
+  private List<Record> records;
+  private List<String> lanes;
+
+  @Setup
+  public void setUp() {
+    records = new RandomRecordGenerator(shape, 10).next(batchSize);
+    lanes = new ArrayList<>(outputLanes);
+    for (int i = 0; i < outputLanes; i++) {
+      lanes.add(INPUT_LANE + "--stage" + i + "::i");
+    }
+  }
+
+  private FullPipeBatch createPipeBatch() {
+    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, batchSize, false);
+    pipeBatch.getFullPayload().put(INPUT_LANE, records);
+    return pipeBatch;
+  }
+
+  @Benchmark
+  public Map<String, List<Record>> moveLane() {
+    FullPipeBatch pipeBatch = createPipeBatch();
+    pipeBatch.moveLane(INPUT_LANE, lanes.get(0));
+    return pipeBatch.getFullPayload();
+  }
+
+  @Benchmark
+  public Map<String, List<Record>> moveLaneCopying() {
+    FullPipeBatch pipeBatch = createPipeBatch();
+    pipeBatch.moveLaneCopying(INPUT_LANE, lanes);
+    return pipeBatch.getFullPayload();
+  }
+
+}
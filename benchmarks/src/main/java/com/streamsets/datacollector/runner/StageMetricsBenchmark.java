@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.metrics.RollupMetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per batch cost of the stage metrics of a pipeline: updating the Codahale metrics of every stage on every batch
+ * versus recording the batches in {@link StageStats} and rolling them up on registry lookups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageMetricsBenchmark {
+
+  @Param({"100"})
+  public int stages;
+
+  @Param({"1", "2"})
+  public int outputLanes;
+
+  // batches between two lookups of the registry, as done by the metrics refresh of the UI for instance
+  @Param({"100"})
+  public int batchesPerLookup;
+
+  private StageStats[] direct;
+  private StageStats[] deferred;
+  private RollupMetricRegistry deferredRegistry;
+  private int batch;
+
+  @Setup
+  public void setUp() {
+    MetricRegistry directRegistry = new MetricRegistry();
+    deferredRegistry = new RollupMetricRegistry();
+    direct = new StageStats[stages];
+    deferred = new StageStats[stages];
+    for (int i = 0; i < stages; i++) {
+      direct[i] = new StageStats(createMetrics(directRegistry, "stage.s" + i), false);
+      deferred[i] = new StageStats(createMetrics(deferredRegistry, "stage.s" + i), true);
+      deferredRegistry.addRollup(deferred[i]);
+    }
+  }
+
+  private StageStats.Metrics createMetrics(MetricRegistry registry, String key) {
+    StageStats.Metrics metrics = new StageStats.Metrics();
+    metrics.processingTimer = MetricsConfigurator.createStageTimer(registry, key + ".batchProcessing", "p", "0");
+    metrics.inputRecordsMeter = MetricsConfigurator.createStageMeter(registry, key + ".inputRecords", "p", "0");
+    metrics.outputRecordsMeter = MetricsConfigurator.createStageMeter(registry, key + ".outputRecords", "p", "0");
+    metrics.errorRecordsMeter = MetricsConfigurator.createStageMeter(registry, key + ".errorRecords", "p", "0");
+    metrics.stageErrorMeter = MetricsConfigurator.createStageMeter(registry, key + ".stageErrors", "p", "0");
+    metrics.inputRecordsCounter = MetricsConfigurator.createStageCounter(registry, key + ".inputRecords", "p", "0");
+    metrics.outputRecordsCounter = MetricsConfigurator.createStageCounter(registry, key + ".outputRecords", "p", "0");
+    metrics.errorRecordsCounter = MetricsConfigurator.createStageCounter(registry, key + ".errorRecords", "p", "0");
+    metrics.stageErrorCounter = MetricsConfigurator.createStageCounter(registry, key + ".stageErrors", "p", "0");
+    metrics.inputRecordsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(registry, key + ".inputRecords", "p", "0");
+    metrics.outputRecordsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(registry, key + ".outputRecords", "p", "0");
+    metrics.errorRecordsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(registry, key + ".errorRecords", "p", "0");
+    metrics.stageErrorsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(registry, key + ".stageErrors", "p", "0");
+    metrics.outputRecordsPerLaneCounter = new Counter[outputLanes];
+    metrics.outputRecordsPerLaneMeter = new Meter[outputLanes];
+    for (int lane = 0; lane < outputLanes; lane++) {
+      String laneKey = key + ":lane" + lane + ".outputRecords";
+      metrics.outputRecordsPerLaneCounter[lane] = MetricsConfigurator.createStageCounter(registry, laneKey, "p", "0");
+      metrics.outputRecordsPerLaneMeter[lane] = MetricsConfigurator.createStageMeter(registry, laneKey, "p", "0");
+    }
+    return metrics;
+  }
+
+  private void recordBatch(StageStats[] stats) {
+    for (StageStats stageStats : stats) {
+      for (int lane = 0; lane < outputLanes; lane++) {
+        stageStats.recordLane(lane, 1000 / outputLanes);
+      }
+      stageStats.recordBatch(2, 1000, 1, 999, 0);
+    }
+  }
+
+  @Benchmark
+  public void directUpdates() {
+    recordBatch(direct);
+  }
+
+  @Benchmark
+  public void deferredUpdates() {
+    recordBatch(deferred);
+  }
+
+  @Benchmark
+  public void deferredUpdatesWithLookups() {
+    recordBatch(deferred);
+    if (++batch % batchesPerLookup == 0) {
+      deferredRegistry.getCounters();
+    }
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Finding the first page of pipelines of the store, walking the indexes of the {@link PipelineCatalog} or sorting all
+ * the pipelines as the store did before the catalog. The scores are per page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineCatalogBenchmark {
+  private static final int PAGE_SIZE = 50;
+
+  @Param({"1000", "10000"})
+  public int pipelines;
+
+  @Param({"LAST_MODIFIED", "TITLE"})
+  public PipelineCatalog.SortKey sortKey;
+
+  private List<PipelineInfo> pipelineInfos;
+  private PipelineCatalog catalog;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(0);
+    pipelineInfos = new ArrayList<>(pipelines);
+    for (int i = 0; i < pipelines; i++) {
+      Map<String, Object> metadata = (random.nextInt(2) == 0)
+          ? ImmutableMap.of("labels", ImmutableList.of("label" + random.nextInt(10)))
+          : null;
+      pipelineInfos.add(new PipelineInfo(
+          "pipeline" + i,
+          "Title " + random.nextInt(pipelines),
+          "description",
+          new Date(random.nextInt(pipelines)),
+          new Date(random.nextInt(pipelines)),
+          "user" + random.nextInt(5),
+          "user",
+          "0",
+          UUID.randomUUID(),
+          true,
+          metadata,
+          "3.7.0",
+          "sdc"
+      ));
+    }
+    catalog = new PipelineCatalog(pipelineInfos);
+  }
+
+  @Benchmark
+  public PipelineCatalog.Page find() {
+    return catalog.find(null, null, null, sortKey, false, 0, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public PipelineCatalog.Page sort() {
+    List<PipelineInfo> sorted = pipelineInfos.stream()
+        .sorted(sortKey.getComparator())
+        .collect(Collectors.toList());
+    return new PipelineCatalog.Page(sorted.subList(0, Math.min(PAGE_SIZE, sorted.size())), sorted.size());
+  }
+
+}
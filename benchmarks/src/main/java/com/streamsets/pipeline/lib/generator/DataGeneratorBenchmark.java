@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.datacollector.benchmarks.BenchmarkDataFormat;
+import com.streamsets.datacollector.benchmarks.RandomRecordGenerator;
+import com.streamsets.pipeline.api.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing records with the commonlib data generators. The scores are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataGeneratorBenchmark {
+  private static final int RECORDS = 1000;
+
+  @Param({"JSON", "DELIMITED", "AVRO"})
+  public BenchmarkDataFormat format;
+
+  @Param({"10", "50"})
+  public int fields;
+
+  private DataGeneratorFactory factory;
+  private List<Record> records;
+  private ByteArrayOutputStream os;
+
+  @Setup
+  public void setUp() {
+    RandomRecordGenerator generator = new RandomRecordGenerator(RandomRecordGenerator.Shape.FLAT, fields);
+    records = generator.next(RECORDS);
+    factory = format.createGeneratorFactory(generator.getAvroSchema());
+    os = new ByteArrayOutputStream();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public int generate() throws Exception {
+    os.reset();
+    try (DataGenerator generator = factory.getGenerator(os)) {
+      for (Record record : records) {
+        generator.write(record);
+      }
+    }
+    return os.size();
+  }
+
+}
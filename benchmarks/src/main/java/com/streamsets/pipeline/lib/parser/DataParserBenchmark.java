@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.datacollector.benchmarks.BenchmarkDataFormat;
+import com.streamsets.datacollector.benchmarks.RandomRecordGenerator;
+import com.streamsets.pipeline.api.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing records with the commonlib data parsers, from data written by the matching data generators.
+ * The scores are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataParserBenchmark {
+  private static final int RECORDS = 1000;
+
+  @Param({"JSON", "DELIMITED", "AVRO"})
+  public BenchmarkDataFormat format;
+
+  @Param({"10", "50"})
+  public int fields;
+
+  private DataParserFactory factory;
+  private byte[] data;
+
+  @Setup
+  public void setUp() throws Exception {
+    RandomRecordGenerator generator = new RandomRecordGenerator(RandomRecordGenerator.Shape.FLAT, fields);
+    data = format.generate(generator.next(RECORDS), generator.getAvroSchema());
+    factory = format.createParserFactory();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void parse(Blackhole blackhole) throws Exception {
+    try (DataParser parser = factory.getParser("benchmark", data)) {
+      Record record;
+      while ((record = parser.parse()) != null) {
+        blackhole.consume(record);
+      }
+    }
+  }
+
+}
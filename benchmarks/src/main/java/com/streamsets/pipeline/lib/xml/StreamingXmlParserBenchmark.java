@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.xml;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the records of a generated XML document with the StreamingXmlParser, on top of the XMLEventReader or of the
+ * XMLStreamReader cursor. The scores are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingXmlParserBenchmark {
+  private static final int RECORDS = 1000;
+  // every ninth record is followed by an 'other' element, also a record
+  private static final int PARSED_RECORDS = RECORDS + RECORDS / 9 + 1;
+  private static final Map<String, String> NAMESPACES = ImmutableMap.of("a", "urn:a");
+
+  @Param({"false", "true"})
+  public boolean useCursor;
+
+  private String xml;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- generated -->\n");
+    sb.append("<root xmlns:a=\"urn:a\" xmlns:b=\"urn:b\">\n");
+    for (int i = 0; i < RECORDS; i++) {
+      if (i % 10 == 0) {
+        if (i > 0) {
+          sb.append("  </batch>\n");
+        }
+        sb.append("  <?batch start?>\n");
+        sb.append("  <batch type=\"t").append((i / 10) % 3).append("\">\n");
+      }
+      String element = (i % 5 == 0) ? "a:record" : "record";
+      sb.append("    <").append(element);
+      sb.append(" id=\"").append(i).append("\" b:ref=\"r").append(i % 7).append("\">\n");
+      sb.append("      <name>name ").append(i).append(" &amp; more</name>\n");
+      sb.append("      <price currency=\"EUR\">").append(i * 3 / 2.0).append("</price>\n");
+      sb.append("      <!-- items -->\n");
+      sb.append("      <items>");
+      for (int j = 0; j < i % 4; j++) {
+        sb.append("<item>").append(j).append("</item>");
+      }
+      sb.append("</items>\n");
+      sb.append("      <note><![CDATA[<not> an element ").append(i).append("]]></note>\n");
+      sb.append("      <meta xmlns=\"urn:m").append(i % 2).append("\"><k>v").append(i).append("</k><empty/></meta>\n");
+      sb.append("    </").append(element).append(">\n");
+      if (i % 9 == 0) {
+        sb.append("    <other><record>nested ").append(i).append("</record></other>\n");
+      }
+    }
+    sb.append("  </batch>\n</root>\n");
+    xml = sb.toString();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PARSED_RECORDS)
+  public void parse(Blackhole blackhole) throws Exception {
+    StreamingXmlParser parser = new StreamingXmlParser(
+        new StringReader(xml),
+        "/root/batch/*",
+        NAMESPACES,
+        0,
+        true,
+        useCursor
+    );
+    try {
+      Field field;
+      while ((field = parser.read()) != null) {
+        blackhole.consume(field);
+      }
+    } finally {
+      parser.close();
+    }
+  }
+
+}
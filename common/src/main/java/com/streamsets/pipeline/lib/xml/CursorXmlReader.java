@@ -0,0 +1,329 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.xml;
+
+import com.google.common.base.Strings;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.xml.xpath.MatchStatus;
+import com.streamsets.pipeline.lib.xml.xpath.XPathMatchingEventTracker;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the records of a {@link StreamingXmlParser} straight from an {@link XMLStreamReader} cursor, without
+ * allocating an {@code XMLEvent} for every start tag, attribute, character run and end tag.
+ * <p/>
+ * The current event of the cursor is the next event to consume, the same event {@code XMLEventReader.peek()} returns
+ * in the event based parser, so reader positions are the same for both. Record element matching uses the same
+ * per-depth matchers, compiled once from the record element XPath, fed from the cursor.
+ */
+class CursorXmlReader {
+  private final StreamingXmlParser parser;
+  private final XMLStreamReader reader;
+  private final XPathMatchingEventTracker tracker;
+  private final boolean useFieldAttributesInsteadOfFields;
+
+  private boolean endOfDocument;
+  // the current event is a record START_ELEMENT, already matched and on the parser element name stack
+  private boolean atRecordStart;
+
+  CursorXmlReader(
+      StreamingXmlParser parser,
+      XMLStreamReader reader,
+      String recordElement,
+      Map<String, String> namespaces,
+      boolean documentAsRecord,
+      long initialPosition,
+      boolean useFieldAttributesInsteadOfFields
+  ) throws XMLStreamException {
+    this.parser = parser;
+    this.reader = reader;
+    this.tracker = new XPathMatchingEventTracker(recordElement, namespaces);
+    this.useFieldAttributesInsteadOfFields = useFieldAttributesInsteadOfFields;
+    while (hasNext() && !isEvent(XMLStreamConstants.END_DOCUMENT) && !isEvent(XMLStreamConstants.START_ELEMENT)) {
+      consume();
+    }
+    if (!documentAsRecord) {
+      //consuming root
+      if (!hasNext() || !isEvent(XMLStreamConstants.START_ELEMENT)) {
+        throw new XMLStreamException("The document does not have a root element", reader.getLocation());
+      }
+      parser.pushElementName(elementName());
+      atRecordStart = tracker.startElement(reader) == MatchStatus.ELEMENT_MATCH;
+      if (!atRecordStart) {
+        next();
+      }
+    }
+    if (initialPosition > 0) {
+      if (atRecordStart) {
+        next();
+        atRecordStart = false;
+      }
+      //fastforward to initial position
+      while (hasNext() && reader.getLocation().getCharacterOffset() < initialPosition) {
+        if (isEvent(XMLStreamConstants.START_ELEMENT)) {
+          parser.pushElementName(elementName());
+        } else if (isEvent(XMLStreamConstants.END_ELEMENT)) {
+          parser.popElementName();
+        }
+        consume();
+        parser.fastForwardLeaseReader();
+      }
+    }
+  }
+
+  Field read() throws XMLStreamException, ObjectLengthException {
+    Field field = null;
+    if (hasNext()) {
+      // we need to skip first level elements that are not the record delimiter and we have to ignore record delimiter
+      // elements deeper than first level
+      while (!atRecordStart && hasNext()) {
+        if (isEvent(XMLStreamConstants.START_ELEMENT)) {
+          parser.pushElementName(elementName());
+          atRecordStart = tracker.startElement(reader) == MatchStatus.ELEMENT_MATCH;
+          if (!atRecordStart) {
+            next();
+          }
+        } else {
+          if (isEvent(XMLStreamConstants.END_ELEMENT)) {
+            parser.popElementName();
+            tracker.endElement();
+          }
+          next();
+        }
+      }
+      if (atRecordStart) {
+        atRecordStart = false;
+        field = parse();
+        parser.updateLastParsedFieldXpathPrefix();
+        // parse consumes the end element of the record, so remove it from the stack
+        parser.popElementName();
+      }
+    }
+    return field;
+  }
+
+  long getPosition() throws XMLStreamException {
+    return hasNext() ? reader.getLocation().getCharacterOffset() : -1;
+  }
+
+  void close() throws XMLStreamException {
+    reader.close();
+  }
+
+  private boolean isEvent(int eventType) {
+    return reader.getEventType() == eventType;
+  }
+
+  private boolean isCharacters() {
+    int eventType = reader.getEventType();
+    return eventType == XMLStreamConstants.CHARACTERS ||
+        eventType == XMLStreamConstants.CDATA ||
+        eventType == XMLStreamConstants.SPACE;
+  }
+
+  private boolean isIgnorable() {
+    int eventType = reader.getEventType();
+    return eventType == XMLStreamConstants.PROCESSING_INSTRUCTION || eventType == XMLStreamConstants.COMMENT;
+  }
+
+  private boolean hasNext() throws XMLStreamException {
+    while (!endOfDocument && isIgnorable()) {
+      reader.next();
+    }
+    return !endOfDocument;
+  }
+
+  // moves past the current event without tracking it, the caller already did if it was an element
+  private void next() throws XMLStreamException {
+    if (isEvent(XMLStreamConstants.END_DOCUMENT)) {
+      endOfDocument = true;
+    } else {
+      reader.next();
+    }
+  }
+
+  private void consume() throws XMLStreamException {
+    if (isEvent(XMLStreamConstants.START_ELEMENT)) {
+      tracker.startElement(reader);
+    } else if (isEvent(XMLStreamConstants.END_ELEMENT)) {
+      tracker.endElement();
+    }
+    next();
+  }
+
+  private String elementName() {
+    return parser.getNameAndTrackNs(reader.getNamespaceURI(), reader.getPrefix(), reader.getLocalName());
+  }
+
+  private String name(String namePrefix, String uri, String prefix, String localPart) {
+    String name = parser.getNameAndTrackNs(uri, prefix, localPart);
+    return (namePrefix == null) ? name : namePrefix + name;
+  }
+
+  // namespace declarations are named as the JDK names Namespace events, in the xmlns attribute namespace
+  private String namespaceName(String namePrefix, String declaredPrefix) {
+    return name(
+        namePrefix,
+        XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+        XMLConstants.XMLNS_ATTRIBUTE,
+        Strings.nullToEmpty(declaredPrefix)
+    );
+  }
+
+  private void addAttributeFields(Map<String, Field> map) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      map.put(
+          name(
+              StreamingXmlParser.ATTR_PREFIX_KEY,
+              reader.getAttributeNamespace(i),
+              reader.getAttributePrefix(i),
+              reader.getAttributeLocalName(i)
+          ),
+          Field.create(reader.getAttributeValue(i))
+      );
+    }
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      map.put(
+          namespaceName(StreamingXmlParser.NS_PREFIX_KEY, reader.getNamespacePrefix(i)),
+          Field.create(reader.getNamespaceURI(i))
+      );
+    }
+  }
+
+  // attribute parts (namespace, prefix, local name, value) followed by namespace declarations (prefix, uri),
+  // they are named once the element content has been parsed, as the event based parser does
+  private String[] captureAttributes() {
+    int attributeCount = reader.getAttributeCount();
+    int namespaceCount = reader.getNamespaceCount();
+    if (attributeCount == 0 && namespaceCount == 0) {
+      return null;
+    }
+    String[] attributes = new String[attributeCount * 4 + namespaceCount * 2];
+    int pos = 0;
+    for (int i = 0; i < attributeCount; i++) {
+      attributes[pos++] = reader.getAttributeNamespace(i);
+      attributes[pos++] = reader.getAttributePrefix(i);
+      attributes[pos++] = reader.getAttributeLocalName(i);
+      attributes[pos++] = reader.getAttributeValue(i);
+    }
+    for (int i = 0; i < namespaceCount; i++) {
+      attributes[pos++] = reader.getNamespacePrefix(i);
+      attributes[pos++] = reader.getNamespaceURI(i);
+    }
+    return attributes;
+  }
+
+  private void setFieldAttributes(Field field, String[] attributes, int attributeCount) {
+    int pos = 0;
+    for (int i = 0; i < attributeCount; i++, pos += 4) {
+      field.setAttribute(
+          name(StreamingXmlParser.XMLATTR_ATTRIBUTE_PREFIX, attributes[pos], attributes[pos + 1], attributes[pos + 2]),
+          attributes[pos + 3]
+      );
+    }
+    for (; pos < attributes.length; pos += 2) {
+      field.setAttribute(namespaceName(null, attributes[pos]), attributes[pos + 1]);
+    }
+  }
+
+  // the cursor is on the START_ELEMENT, already tracked, and is left after the matching END_ELEMENT
+  @SuppressWarnings("unchecked")
+  private Field parse() throws XMLStreamException, ObjectLengthException {
+    final String namespaceUri = Strings.nullToEmpty(reader.getNamespaceURI());
+    final String localName = reader.getLocalName();
+    Map<String, Field> map = new LinkedHashMap<>();
+    String[] attributes = null;
+    int attributeCount = 0;
+    if (useFieldAttributesInsteadOfFields) {
+      attributeCount = reader.getAttributeCount();
+      attributes = captureAttributes();
+    } else {
+      addAttributeFields(map);
+    }
+    next();
+
+    Map<String, Object> contents = new LinkedHashMap<>();
+    boolean maybeText = true;
+    while (hasNext() && !isEvent(XMLStreamConstants.END_ELEMENT)) {
+      if (isCharacters()) {
+        // If this set of characters is all whitespace, ignore.
+        if (reader.isWhiteSpace()) {
+          next();
+          continue;
+        }
+        String text = reader.getText();
+        next();
+        if (hasNext() && isEvent(XMLStreamConstants.END_ELEMENT) && maybeText) {
+          contents.put(StreamingXmlParser.VALUE_KEY, Field.create(text));
+        } else if (hasNext() && isEvent(XMLStreamConstants.START_ELEMENT)) {
+          String subNamespaceUri = reader.getNamespaceURI();
+          String subPrefix = reader.getPrefix();
+          String subLocalName = reader.getLocalName();
+          tracker.startElement(reader);
+          Field subField = parse();
+          parser.addContent(contents, name(null, subNamespaceUri, subPrefix, subLocalName), subField);
+          if (hasNext() && isCharacters()) {
+            next();
+          }
+        } else if (maybeText) {
+          throw new XMLStreamException(Utils.format(
+              "Unexpected XMLEvent '{}', it should be START_ELEMENT or END_ELEMENT", text), reader.getLocation());
+        }
+      } else if (isEvent(XMLStreamConstants.START_ELEMENT)) {
+        String name = elementName();
+        tracker.startElement(reader);
+        Field field = parse();
+        parser.addContent(contents, name, field);
+      } else {
+        throw new XMLStreamException(Utils.format("Unexpected XMLEvent '{}', it should be START_ELEMENT or CHARACTERS",
+                                                  reader.getEventType()), reader.getLocation());
+      }
+      maybeText = false;
+    }
+    if (hasNext()) {
+      if (!localName.equals(reader.getLocalName()) ||
+          !namespaceUri.equals(Strings.nullToEmpty(reader.getNamespaceURI()))) {
+        throw new XMLStreamException(Utils.format("Unexpected EndElement '{}', it should be '{}'",
+                                                  reader.getLocalName(), localName),
+                                     reader.getLocation());
+      }
+      tracker.endElement();
+      next();
+      for (Map.Entry<String, Object> entry : contents.entrySet()) {
+        if (entry.getValue() instanceof Field) {
+          map.put(entry.getKey(), (Field) entry.getValue());
+        } else {
+          map.put(entry.getKey(), Field.create((List<Field>)entry.getValue()));
+        }
+      }
+    }
+    final Field field = Field.create(map);
+
+    if (attributes != null) {
+      setFieldAttributes(field, attributes, attributeCount);
+    }
+    return field;
+  }
+}
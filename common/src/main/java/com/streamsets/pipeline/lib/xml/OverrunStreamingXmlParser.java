@@ -55,7 +55,13 @@ public class OverrunStreamingXmlParser  extends StreamingXmlParser {
   public OverrunStreamingXmlParser(OverrunReader reader, String recordElement, Map<String, String> namespaces,
       long initialPosition, int maxObjectLen, boolean useFieldAttributesInsteadOfFields)
       throws IOException, XMLStreamException {
-    super(reader, recordElement, namespaces, initialPosition, useFieldAttributesInsteadOfFields);
+    this(reader, recordElement, namespaces, initialPosition, maxObjectLen, useFieldAttributesInsteadOfFields, false);
+  }
+
+  public OverrunStreamingXmlParser(OverrunReader reader, String recordElement, Map<String, String> namespaces,
+      long initialPosition, int maxObjectLen, boolean useFieldAttributesInsteadOfFields, boolean useCursor)
+      throws IOException, XMLStreamException {
+    super(reader, recordElement, namespaces, initialPosition, useFieldAttributesInsteadOfFields, useCursor);
     countingReader = (OverrunReader) getReader();
     countingReader.setEnabled(true);
     this.maxObjectLen = maxObjectLen;
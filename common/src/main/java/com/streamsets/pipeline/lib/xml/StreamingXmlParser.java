@@ -49,13 +49,14 @@ public class StreamingXmlParser {
 
   public static final String VALUE_KEY = "value";
   public static final String ATTR_PREFIX_KEY = "attr|";
-  private static final String NS_PREFIX_KEY = "ns|";
+  static final String NS_PREFIX_KEY = "ns|";
   public static final String GENERATED_NAMESPACE_PREFIX = "ns";
   public static final String XPATH_KEY = "xpath";
   public static final String XMLATTR_ATTRIBUTE_PREFIX = "xmlAttr:";
 
   private final Reader reader;
   private final XPathMatchingEventReader xmlEventReader;
+  private final CursorXmlReader cursorReader;
   private final boolean useFieldAttributesInsteadOfFields;
   private String recordElement;
   private boolean closed;
@@ -96,6 +97,20 @@ public class StreamingXmlParser {
       Map<String, String> namespaces,
       long initialPosition,
       boolean useFieldAttributesInsteadOfFields
+  )
+      throws IOException, XMLStreamException {
+    this(reader, recordElement, namespaces, initialPosition, useFieldAttributesInsteadOfFields, false);
+  }
+
+  // with useCursor the document is read through the XMLStreamReader cursor API instead of allocating an XMLEvent for
+  // every parsing event; records, reader positions and namespace mappings are the same either way
+  public StreamingXmlParser(
+      Reader reader,
+      String recordElement,
+      Map<String, String> namespaces,
+      long initialPosition,
+      boolean useFieldAttributesInsteadOfFields,
+      boolean useCursor
   )
       throws IOException, XMLStreamException {
     this.reader = reader;
@@ -109,6 +124,20 @@ public class StreamingXmlParser {
     factory.setProperty("javax.xml.stream.isCoalescing", true);
     factory.setProperty("javax.xml.stream.isSupportingExternalEntities", false);
     factory.setProperty("javax.xml.stream.supportDTD", false);
+    if (useCursor) {
+      this.xmlEventReader = null;
+      this.cursorReader = new CursorXmlReader(
+          this,
+          factory.createXMLStreamReader(reader),
+          this.recordElement,
+          namespaces,
+          Strings.isNullOrEmpty(recordElement),
+          initialPosition,
+          useFieldAttributesInsteadOfFields
+      );
+      return;
+    }
+    this.cursorReader = null;
     this.xmlEventReader = new XPathMatchingEventReader(factory.createXMLEventReader(reader), this.recordElement, namespaces);
     while (hasNext(xmlEventReader) && !peek(xmlEventReader).isEndDocument() && !peek(xmlEventReader).isStartElement()) {
       read(xmlEventReader);
@@ -124,7 +153,13 @@ public class StreamingXmlParser {
     if (initialPosition > 0) {
       //fastforward to initial position
       while (hasNext(xmlEventReader) && peek(xmlEventReader).getLocation().getCharacterOffset() < initialPosition) {
-        read(xmlEventReader);
+        XMLEvent event = read(xmlEventReader);
+        // keep the element stack in sync, record elements may be nested deeper than the first level
+        if (event.isStartElement()) {
+          elementNameStack.addFirst(getNameAndTrackNs(event.asStartElement().getName()));
+        } else if (event.isEndElement()) {
+          elementNameStack.removeFirst();
+        }
         fastForwardLeaseReader();
       }
       xmlEventReader.clearLastMatch();
@@ -146,7 +181,11 @@ public class StreamingXmlParser {
   public void close() {
     closed = true;
     try {
-      xmlEventReader.close();
+      if (cursorReader != null) {
+        cursorReader.close();
+      } else {
+        xmlEventReader.close();
+      }
     } catch (Exception ex) {
       // NOP
     }
@@ -156,11 +195,14 @@ public class StreamingXmlParser {
   }
 
   private String getNameAndTrackNs(QName name) {
-    final String uri = name.getNamespaceURI();
+    return getNameAndTrackNs(name.getNamespaceURI(), name.getPrefix(), name.getLocalPart());
+  }
+
+  String getNameAndTrackNs(String uri, String namePrefix, String localPart) {
     if (!Strings.isNullOrEmpty(uri)) {
       String prefix;
       if (!namespaceUriToPrefix.containsKey(uri)) {
-        prefix = name.getPrefix();
+        prefix = namePrefix;
         if (Strings.isNullOrEmpty(prefix)) {
           //generate a new namespace prefix for it
           prefix = GENERATED_NAMESPACE_PREFIX + generatedNsPrefixCount++;
@@ -169,17 +211,32 @@ public class StreamingXmlParser {
       } else {
         prefix = namespaceUriToPrefix.get(uri);
       }
-      return prefix + ":" + name.getLocalPart();
+      return prefix + ":" + localPart;
     } else {
       // element is in no namespace
-      return name.getLocalPart();
+      return localPart;
     }
   }
 
+  void pushElementName(String name) {
+    elementNameStack.addFirst(name);
+  }
+
+  void popElementName() {
+    elementNameStack.removeFirst();
+  }
+
+  void updateLastParsedFieldXpathPrefix() {
+    lastParsedFieldXpathPrefix = getXpathPrefix();
+  }
+
   public Field read() throws IOException, XMLStreamException {
     if (closed) {
       throw new IOException("The parser has been closed");
     }
+    if (cursorReader != null) {
+      return cursorReader.read();
+    }
     Field field = null;
     if (hasNext(xmlEventReader)) {
       int depth = 0;
@@ -213,6 +270,9 @@ public class StreamingXmlParser {
   }
 
   public long getReaderPosition() throws XMLStreamException {
+    if (cursorReader != null) {
+      return cursorReader.getPosition();
+    }
     return (hasNext(xmlEventReader)) ? peek(xmlEventReader).getLocation().getCharacterOffset() : -1;
   }
 
@@ -286,7 +346,7 @@ public class StreamingXmlParser {
   }
 
   @SuppressWarnings("unchecked")
-  private void addContent(Map<String, Object> contents, String name, Field field) throws
+  void addContent(Map<String, Object> contents, String name, Field field) throws
       XMLStreamException,
       ObjectLengthException {
     throwIfOverMaxObjectLength();
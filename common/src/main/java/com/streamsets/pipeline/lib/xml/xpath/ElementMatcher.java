@@ -15,9 +15,13 @@
  */
 package com.streamsets.pipeline.lib.xml.xpath;
 
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.StartElement;
 
 public interface ElementMatcher {
 
   boolean checkStartElement(StartElement startElement);
+
+  // reader must be positioned on a START_ELEMENT
+  boolean checkStartElement(XMLStreamReader reader);
 }
@@ -19,9 +19,9 @@ import com.google.common.base.Strings;
 import com.streamsets.pipeline.lib.xml.Constants;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -38,7 +38,7 @@ class ElementMatcherImpl implements ElementMatcher {
   private int numElementsSeen = 0;
 
   private final String namespacePrefix;
-  private final Map<String, String> namespaces = new HashMap<>();
+  private final String namespaceUri;
   private final boolean ignoreNamespaces;
 
   ElementMatcherImpl(String xPathPart, Map<String, String> namespaces, boolean ignoreNamespaces) {
@@ -53,8 +53,11 @@ class ElementMatcherImpl implements ElementMatcher {
       namespacePrefix = null;
     }
 
-    if (namespaces != null) {
-      this.namespaces.putAll(namespaces);
+    // resolved once, the prefix is not looked up again for every element
+    if (namespacePrefix != null && namespaces != null) {
+      namespaceUri = namespaces.get(namespacePrefix);
+    } else {
+      namespaceUri = null;
     }
 
     final int qualifierStart = xPathLocalPart.lastIndexOf('[');
@@ -82,7 +85,8 @@ class ElementMatcherImpl implements ElementMatcher {
 
   @Override
   public boolean checkStartElement(StartElement startElement) {
-    if (wildcardElement || isQualifiedMatch(startElement.getName())) {
+    final QName name = startElement.getName();
+    if (wildcardElement || isQualifiedMatch(name.getNamespaceURI(), name.getLocalPart())) {
       numElementsSeen++;
       if (byIndex) {
         return numElementsSeen == index;
@@ -90,8 +94,28 @@ class ElementMatcherImpl implements ElementMatcher {
         final Iterator<?> attrIter = startElement.getAttributes();
         while (attrIter.hasNext()) {
           Attribute attrib = (Attribute) attrIter.next();
-          if (attrib.getName().getLocalPart().equals(attributeName) &&
-              (Constants.WILDCARD.equals(attributeValue)) || attrib.getValue().equals(attributeValue)) {
+          if (isAttributeMatch(attrib.getName().getLocalPart(), attrib.getValue())) {
+            return true;
+          }
+        }
+        return false;
+      } else {
+        return true;
+      }
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean checkStartElement(XMLStreamReader reader) {
+    if (wildcardElement || isQualifiedMatch(reader.getNamespaceURI(), reader.getLocalName())) {
+      numElementsSeen++;
+      if (byIndex) {
+        return numElementsSeen == index;
+      } else if (byAttribute) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+          if (isAttributeMatch(reader.getAttributeLocalName(i), reader.getAttributeValue(i))) {
             return true;
           }
         }
@@ -104,15 +128,19 @@ class ElementMatcherImpl implements ElementMatcher {
     }
   }
 
-  private boolean isQualifiedMatch(QName elementQName) {
+  private boolean isAttributeMatch(String localName, String value) {
+    return localName.equals(attributeName) && (Constants.WILDCARD.equals(attributeValue)) ||
+        value.equals(attributeValue);
+  }
+
+  private boolean isQualifiedMatch(String namespaceUri, String localName) {
     boolean namespaceMatches;
     if (namespacePrefix == null) {
       // xpath has no prefix; the element should therefore also have no namespace if namespaces are not ignored
-      namespaceMatches = ignoreNamespaces || Strings.isNullOrEmpty(elementQName.getNamespaceURI());
+      namespaceMatches = ignoreNamespaces || Strings.isNullOrEmpty(namespaceUri);
     } else {
-      namespaceMatches = namespaces.containsKey(namespacePrefix) &&
-          namespaces.get(namespacePrefix).equals(elementQName.getNamespaceURI());
+      namespaceMatches = this.namespaceUri != null && this.namespaceUri.equals(namespaceUri);
     }
-    return elementQName.getLocalPart().equals(this.elementName) && namespaceMatches;
+    return localName.equals(this.elementName) && namespaceMatches;
   }
 }
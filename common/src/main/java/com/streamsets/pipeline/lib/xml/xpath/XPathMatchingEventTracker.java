@@ -19,6 +19,7 @@ import com.google.common.base.Strings;
 import com.streamsets.pipeline.api.impl.XMLChar;
 import com.streamsets.pipeline.lib.xml.Constants;
 
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.XMLEvent;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -57,37 +58,68 @@ public class XPathMatchingEventTracker {
 
   public MatchStatus isMatch(XMLEvent event) {
     if (event.isStartElement()) {
-      depth++;
-
-      if (depth > matchersByDepth.size()) {
-        return MatchStatus.ELEMENT_NOT_MATCH;
-      } else if (depth-1 > matchesThroughDepth) {
+      final ElementMatcher matcher = enterElement();
+      if (matcher == null) {
         return MatchStatus.ELEMENT_NOT_MATCH;
-      } else {
-        final ElementMatcher matcher = matchersByDepth.get(depth-1);
-        if (matcher.checkStartElement(event.asStartElement())) {
-          matchesThroughDepth = depth;
-          if (matchesThroughDepth == matchersByDepth.size()) {
-            // we have matched all levels through the current
-            return MatchStatus.ELEMENT_MATCH;
-          } else {
-            // at least one more level needs to match
-            return MatchStatus.UNDETERMINED;
-          }
-        } else {
-          // did not match at this level
-          return MatchStatus.ELEMENT_NOT_MATCH;
-        }
       }
+      return matched(matcher.checkStartElement(event.asStartElement()));
     } else if (event.isEndElement()) {
-      depth--;
-      if (matchesThroughDepth > depth) {
-        matchesThroughDepth = depth;
-      }
+      exitElement();
       return MatchStatus.UNDETERMINED;
     } else {
       return MatchStatus.UNDETERMINED;
     }
   }
 
+  /**
+   * Cursor equivalent of {@link #isMatch(XMLEvent)} for a START_ELEMENT, the reader must be positioned on it.
+   */
+  public MatchStatus startElement(XMLStreamReader reader) {
+    final ElementMatcher matcher = enterElement();
+    return (matcher == null) ? MatchStatus.ELEMENT_NOT_MATCH : matched(matcher.checkStartElement(reader));
+  }
+
+  /**
+   * Cursor equivalent of {@link #isMatch(XMLEvent)} for an END_ELEMENT.
+   */
+  public void endElement() {
+    exitElement();
+  }
+
+  // returns the matcher for the new depth, or null if the element cannot match at this depth
+  private ElementMatcher enterElement() {
+    depth++;
+
+    if (depth > matchersByDepth.size()) {
+      return null;
+    } else if (depth-1 > matchesThroughDepth) {
+      return null;
+    } else {
+      return matchersByDepth.get(depth-1);
+    }
+  }
+
+  private MatchStatus matched(boolean elementMatches) {
+    if (elementMatches) {
+      matchesThroughDepth = depth;
+      if (matchesThroughDepth == matchersByDepth.size()) {
+        // we have matched all levels through the current
+        return MatchStatus.ELEMENT_MATCH;
+      } else {
+        // at least one more level needs to match
+        return MatchStatus.UNDETERMINED;
+      }
+    } else {
+      // did not match at this level
+      return MatchStatus.ELEMENT_NOT_MATCH;
+    }
+  }
+
+  private void exitElement() {
+    depth--;
+    if (matchesThroughDepth > depth) {
+      matchesThroughDepth = depth;
+    }
+  }
+
 }
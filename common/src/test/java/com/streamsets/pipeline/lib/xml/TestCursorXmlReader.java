@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.xml;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class TestCursorXmlReader {
+
+  private static final Map<String, String> NAMESPACES = ImmutableMap.of("myns", "x", "a", "urn:a");
+
+  private Reader getXml(String name) throws Exception {
+    return new InputStreamReader(Thread.currentThread().getContextClassLoader().getResourceAsStream(name));
+  }
+
+  // document with nested lists, attributes, default and prefixed namespaces, CDATA, comments and processing
+  // instructions, every 'batch' holds 10 records, one in five in the 'a' namespace, and every ninth record is
+  // followed by an 'other' element
+  private static String generateXml(int records) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- generated -->\n");
+    sb.append("<root xmlns:a=\"urn:a\" xmlns:b=\"urn:b\">\n");
+    for (int i = 0; i < records; i++) {
+      if (i % 10 == 0) {
+        if (i > 0) {
+          sb.append("  </batch>\n");
+        }
+        sb.append("  <?batch start?>\n");
+        sb.append("  <batch type=\"t").append((i / 10) % 3).append("\">\n");
+      }
+      String element = (i % 5 == 0) ? "a:record" : "record";
+      sb.append("    <").append(element);
+      sb.append(" id=\"").append(i).append("\" b:ref=\"r").append(i % 7).append("\">\n");
+      sb.append("      <name>name ").append(i).append(" &amp; more</name>\n");
+      sb.append("      <price currency=\"EUR\">").append(i * 3 / 2.0).append("</price>\n");
+      sb.append("      <!-- items -->\n");
+      sb.append("      <items>");
+      for (int j = 0; j < i % 4; j++) {
+        sb.append("<item>").append(j).append("</item>");
+      }
+      sb.append("</items>\n");
+      sb.append("      <note><![CDATA[<not> an element ").append(i).append("]]></note>\n");
+      sb.append("      <meta xmlns=\"urn:m").append(i % 2).append("\"><k>v").append(i).append("</k><empty/></meta>\n");
+      sb.append("    </").append(element).append(">\n");
+      if (i % 9 == 0) {
+        sb.append("    <other><record>nested ").append(i).append("</record></other>\n");
+      }
+    }
+    sb.append("  </batch>\n</root>\n");
+    return sb.toString();
+  }
+
+  private static StreamingXmlParser createParser(
+      String xml,
+      String recordElement,
+      long initialPosition,
+      boolean useFieldAttributesInsteadOfFields,
+      boolean useCursor
+  ) throws Exception {
+    return new StreamingXmlParser(
+        new StringReader(xml),
+        recordElement,
+        NAMESPACES,
+        initialPosition,
+        useFieldAttributesInsteadOfFields,
+        useCursor
+    );
+  }
+
+  private static void assertFieldEquals(String path, Field expected, Field actual) {
+    Assert.assertEquals(path, expected.getType(), actual.getType());
+    Assert.assertEquals(path, expected.getAttributes(), actual.getAttributes());
+    switch (expected.getType()) {
+      case MAP:
+        Map<String, Field> expectedMap = expected.getValueAsMap();
+        Map<String, Field> actualMap = actual.getValueAsMap();
+        Assert.assertEquals(path, expectedMap.keySet(), actualMap.keySet());
+        for (Map.Entry<String, Field> entry : expectedMap.entrySet()) {
+          assertFieldEquals(path + "/" + entry.getKey(), entry.getValue(), actualMap.get(entry.getKey()));
+        }
+        break;
+      case LIST:
+        List<Field> expectedList = expected.getValueAsList();
+        List<Field> actualList = actual.getValueAsList();
+        Assert.assertEquals(path, expectedList.size(), actualList.size());
+        for (int i = 0; i < expectedList.size(); i++) {
+          assertFieldEquals(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+        }
+        break;
+      default:
+        Assert.assertEquals(path, expected.getValue(), actual.getValue());
+    }
+  }
+
+  // reads both parsers to the end checking they return the same fields, positions and xpath prefixes
+  private static int assertSameRecords(StreamingXmlParser expected, StreamingXmlParser actual) throws Exception {
+    Assert.assertEquals(expected.getReaderPosition(), actual.getReaderPosition());
+    int records = 0;
+    Field expectedField = expected.read();
+    while (expectedField != null) {
+      Field actualField = actual.read();
+      Assert.assertNotNull("record " + records, actualField);
+      assertFieldEquals("record " + records, expectedField, actualField);
+      Assert.assertEquals(expected.getReaderPosition(), actual.getReaderPosition());
+      Assert.assertEquals(expected.getLastParsedFieldXpathPrefix(), actual.getLastParsedFieldXpathPrefix());
+      records++;
+      expectedField = expected.read();
+    }
+    Assert.assertNull(actual.read());
+    Assert.assertEquals(-1, actual.getReaderPosition());
+    Assert.assertEquals(expected.getNamespaceUriToPrefixMappings(), actual.getNamespaceUriToPrefixMappings());
+    expected.close();
+    actual.close();
+    return records;
+  }
+
+  @Test
+  public void testSameRecordsAsEventParserForTestFiles() throws Exception {
+    Map<String, String> files = ImmutableMap.<String, String>builder()
+        .put("TestStreamingXmlParser-records.xml", "record")
+        .put("TestStreamingXmlParser-docAsRecord.xml", "")
+        .put("TestStreamingXmlParser-whitespaces.xml", "")
+        .put("com/streamsets/pipeline/lib/xml/TestStreamingXmlParser-namespaced-records.xml", "myns:record")
+        .put(
+            "com/streamsets/pipeline/lib/xml/TestStreamingXmlParser-complex-records.xml",
+            "root[1]/toplevel[3]/blargh[@theone='yes']/record"
+        )
+        .build();
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      for (boolean useFieldAttributes : Arrays.asList(true, false)) {
+        Assert.assertTrue(file.getKey(), 0 < assertSameRecords(
+            new StreamingXmlParser(getXml(file.getKey()), file.getValue(), NAMESPACES, 0, useFieldAttributes, false),
+            new StreamingXmlParser(getXml(file.getKey()), file.getValue(), NAMESPACES, 0, useFieldAttributes, true)
+        ));
+      }
+    }
+  }
+
+  @Test
+  public void testSameRecordsAsEventParserForGeneratedDocument() throws Exception {
+    String xml = generateXml(200);
+    Map<String, Integer> recordElements = ImmutableMap.<String, Integer>builder()
+        .put("", 1)
+        .put("batch", 20)
+        .put("/root/batch/record", 160)
+        .put("/root/batch/a:record", 40)
+        .put("/root/batch/*", 223)
+        .put("/root/batch[@type='t1']/*", 77)
+        .put("/root/batch[2]/record", 8)
+        .put("/root/*/*/record", 23)
+        .build();
+    for (Map.Entry<String, Integer> recordElement : recordElements.entrySet()) {
+      for (boolean useFieldAttributes : Arrays.asList(true, false)) {
+        Assert.assertEquals(
+            recordElement.getKey(),
+            (int) recordElement.getValue(),
+            assertSameRecords(
+                createParser(xml, recordElement.getKey(), 0, useFieldAttributes, false),
+                createParser(xml, recordElement.getKey(), 0, useFieldAttributes, true)
+            )
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testSameRecordsFromInitialPosition() throws Exception {
+    String xml = generateXml(100);
+    List<Long> positions = new ArrayList<>();
+    StreamingXmlParser parser = createParser(xml, "/root/batch/*", 0, true, true);
+    while (parser.read() != null) {
+      positions.add(parser.getReaderPosition());
+    }
+    parser.close();
+    // 100 records and 12 'other' elements
+    Assert.assertEquals(112, positions.size());
+
+    for (int record : Arrays.asList(0, 1, 9, 10, 55, 110)) {
+      long position = positions.get(record);
+      Assert.assertEquals(
+          "position " + position,
+          111 - record,
+          assertSameRecords(
+              createParser(xml, "/root/batch/*", position, true, false),
+              createParser(xml, "/root/batch/*", position, true, true)
+          )
+      );
+    }
+  }
+
+  @Test
+  public void testMismatchedEndElement() throws Exception {
+    StreamingXmlParser parser = createParser("<root><record><a>1</b></record></root>", "record", 0, true, true);
+    try {
+      parser.read();
+      Assert.fail();
+    } catch (javax.xml.stream.XMLStreamException ex) {
+      // expected
+    }
+    parser.close();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spreads the files of several {@link MultiFileReader}s that read the same file infos, so every file the paths and
+ * globs resolve to is read by exactly one reader.
+ * <p/>
+ * A file is assigned when a reader finds it for the first time, whichever reader that is, to the reader with the
+ * fewest active files, and it stays with that reader. Files that go away are released, so the files showing up later
+ * go to the readers with the least work.
+ */
+public class FileAssigner {
+  private final Map<String, Integer> owners = new HashMap<>();
+  private final Set<String> activeFiles = new HashSet<>();
+  private final int[] activeFileCounts;
+
+  public FileAssigner(int readers) {
+    Utils.checkArgument(readers > 0, "readers must be greater than zero");
+    activeFileCounts = new int[readers];
+  }
+
+  public int getReaders() {
+    return activeFileCounts.length;
+  }
+
+  /**
+   * Returns if the given reader reads the file with the given key, assigning the file first if it is a new one.
+   */
+  public synchronized boolean assign(int reader, String fileKey) {
+    Integer owner = owners.get(fileKey);
+    if (owner == null) {
+      owner = 0;
+      for (int i = 1; i < activeFileCounts.length; i++) {
+        if (activeFileCounts[i] < activeFileCounts[owner]) {
+          owner = i;
+        }
+      }
+      owners.put(fileKey, owner);
+    }
+    // counted even when another reader found it, so files found together do not all go to the same reader
+    if (activeFiles.add(fileKey)) {
+      activeFileCounts[owner]++;
+    }
+    return owner == reader;
+  }
+
+  /**
+   * Releases a file the given reader does not read anymore, it keeps its reader if it shows up again.
+   */
+  public synchronized void release(int reader, String fileKey) {
+    Integer owner = owners.get(fileKey);
+    if (owner != null && owner == reader && activeFiles.remove(fileKey)) {
+      activeFileCounts[owner]--;
+    }
+  }
+
+  /**
+   * Number of active files of the given reader.
+   */
+  public synchronized int getActiveFiles(int reader) {
+    return activeFileCounts[reader];
+  }
+
+}
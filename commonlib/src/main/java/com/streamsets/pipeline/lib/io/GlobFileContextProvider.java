@@ -116,6 +116,8 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
   private Map<Path, MultiFileInfo> nonExistingPaths = new HashMap<Path, MultiFileInfo>();
   private ScheduledExecutorService executor;
   private DirectoryPathCreationWatcher directoryWatcher = null;
+  private final FileAssigner fileAssigner;
+  private final int readerIndex;
 
   public GlobFileContextProvider(
       boolean allowForLateDirectoryCreation,
@@ -127,7 +129,39 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
       String archiveDir,
       FileEventPublisher eventPublisher,
       boolean inPreviewMode) throws IOException {
+    this(
+        allowForLateDirectoryCreation,
+        fileInfos,
+        scanIntervalSecs,
+        charset,
+        maxLineLength,
+        postProcessing,
+        archiveDir,
+        eventPublisher,
+        inPreviewMode,
+        null,
+        0
+    );
+  }
+
+  /**
+   * @param fileAssigner if not <code>null</code>, only the files assigned to the reader with the given index are read.
+   */
+  public GlobFileContextProvider(
+      boolean allowForLateDirectoryCreation,
+      List<MultiFileInfo> fileInfos,
+      int scanIntervalSecs,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      FileEventPublisher eventPublisher,
+      boolean inPreviewMode,
+      FileAssigner fileAssigner,
+      int readerIndex) throws IOException {
     super();
+    this.fileAssigner = fileAssigner;
+    this.readerIndex = readerIndex;
     // if scan interval is zero the GlobFileInfo will work synchronously and it won't require an executor
     globFileInfos = new CopyOnWriteArrayList<GlobFileInfo>();
     fileContexts = new ArrayList<>();
@@ -163,6 +197,9 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
     if (fileInfo.getFileRollMode() == FileRollMode.PATTERN
         && !GlobFilePathUtil.hasGlobWildcard(fileInfo.getFileFullPath().replaceAll("\\$\\{"+"PATTERN"+"\\}", "")))
     {
+      if (!isAssigned(fileInfo)) {
+        return;
+      }
       fileContexts.add(
           new FileContext(
               fileInfo,
@@ -208,6 +245,10 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
 
   private Map<FileContext, GlobFileInfo> fileToGlobFile = new HashMap<>();
 
+  private boolean isAssigned(MultiFileInfo fileInfo) {
+    return fileAssigner == null || fileAssigner.assign(readerIndex, fileInfo.getFileKey());
+  }
+
   private void findNewFileContexts() throws IOException {
     //Thread fail safe
     Iterator<GlobFileInfo> iterator = globFileInfos.iterator();
@@ -215,8 +256,13 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
       GlobFileInfo globfileInfo = iterator.next();
       Set<Path> found = globfileInfo.find();
       for (Path path : found) {
+        MultiFileInfo fileInfo = globfileInfo.getFileInfo(path);
+        if (!isAssigned(fileInfo)) {
+          LOG.debug("'{}' is read by another reader", fileInfo.getFileFullPath());
+          continue;
+        }
         FileContext fileContext = new FileContext(
-            globfileInfo.getFileInfo(path),
+            fileInfo,
             charset,
             maxLineLength,
             postProcessing,
@@ -243,6 +289,9 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
         if (fileToGlobFile.containsKey(fileContext)) {
           fileToGlobFile.get(fileContext).forget(fileContext.getMultiFileInfo());
         }
+        if (fileAssigner != null) {
+          fileAssigner.release(readerIndex, fileContext.getMultiFileInfo().getFileKey());
+        }
         LOG.debug("Removed '{}'", fileContext);
         purgedAtLeastOne = true;
       }
@@ -79,6 +79,43 @@ public class MultiFileReader implements Closeable {
       int scanIntervalSecs,
       boolean allowForLateDirectoryCreation,
       boolean inPreviewMode
+  ) throws IOException {
+    this(
+        fileInfos,
+        charset,
+        maxLineLength,
+        postProcessing,
+        archiveDir,
+        globbing,
+        scanIntervalSecs,
+        allowForLateDirectoryCreation,
+        inPreviewMode,
+        null,
+        0
+    );
+  }
+
+  /**
+   * Creates a <code>MultiFileReader</code> that shares the files the given file infos resolve to with other readers
+   * of the same file infos, it only reads the files the {@link FileAssigner} assigns to the given reader index.
+   *
+   * @param fileAssigner assigner shared by the readers, <code>null</code> to read all the files, globbing must be
+   * enabled otherwise.
+   * @param readerIndex index of this reader in the assigner.
+   * @throws IOException thrown if there was an IO error while creating the reader.
+   */
+  public MultiFileReader(
+      List<MultiFileInfo> fileInfos,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      boolean globbing,
+      int scanIntervalSecs,
+      boolean allowForLateDirectoryCreation,
+      boolean inPreviewMode,
+      FileAssigner fileAssigner,
+      int readerIndex
   ) throws IOException {
     Utils.checkNotNull(fileInfos, "fileInfos");
     Utils.checkArgument(!fileInfos.isEmpty(), "fileInfos cannot be empty");
@@ -88,6 +125,11 @@ public class MultiFileReader implements Closeable {
     Utils.checkArgument(
         postProcessing != PostProcessingOptions.ARCHIVE || (archiveDir != null && !archiveDir.isEmpty()),
         "archiveDir cannot be empty if postProcessing is ARCHIVE");
+    Utils.checkArgument(fileAssigner == null || globbing, "fileAssigner requires globbing");
+    Utils.checkArgument(
+        fileAssigner == null || (readerIndex >= 0 && readerIndex < fileAssigner.getReaders()),
+        "readerIndex out of range"
+    );
 
     archiveDir = (postProcessing == PostProcessingOptions.ARCHIVE) ? archiveDir : null;
     this.inPreviewMode = inPreviewMode;
@@ -111,7 +153,9 @@ public class MultiFileReader implements Closeable {
         postProcessing,
         archiveDir,
         eventPublisher,
-        inPreviewMode
+        inPreviewMode,
+        fileAssigner,
+        readerIndex
     ) : new ExactFileContextProvider(
         fileInfos,
         charset,
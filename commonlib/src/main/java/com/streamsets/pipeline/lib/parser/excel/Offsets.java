@@ -22,8 +22,10 @@ import java.util.Optional;
 
 public class Offsets {
   public static String offsetOf(Row row) {
-    String sheetName = row.getSheet().getSheetName();
-    int rowNum = row.getRowNum();
+    return offsetOf(row.getSheet().getSheetName(), row.getRowNum());
+  }
+
+  public static String offsetOf(String sheetName, int rowNum) {
     return String.format("%s::%d", sheetName, rowNum);
   }
 
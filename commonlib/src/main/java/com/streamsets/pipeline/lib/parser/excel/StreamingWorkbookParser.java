@@ -0,0 +1,275 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. See accompanying LICENSE file.
+ */
+package com.streamsets.pipeline.lib.parser.excel;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.ProtoConfigurableEntity.Context;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.config.ExcelHeader;
+import com.streamsets.pipeline.lib.parser.AbstractDataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
+import com.streamsets.pipeline.lib.parser.excel.XlsxRowReader.XlsxCell;
+import com.streamsets.pipeline.lib.parser.excel.XlsxRowReader.XlsxRow;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parser for XLSX workbooks that reads the sheets row by row instead of loading the whole workbook like
+ * {@link WorkbookParser}. Records, field names, header handling and offsets are the same as with
+ * {@link WorkbookParser}.
+ *
+ * The workbook is copied to a temporary file first, as the zip entries of a stream can only be read in the order they
+ * are stored.
+ */
+public class StreamingWorkbookParser extends AbstractDataParser {
+
+  private final WorkbookParserSettings settings;
+  private final Context context;
+  private Path file;
+  private OPCPackage pkg;
+  private XlsxRowReader rowReader;
+  private XlsxRow pendingRow;
+  private String offset;
+  private boolean eof;
+  private String currentSheet;
+
+  // headers of the sheet that is being read
+  private List<Field> headers;
+
+  public StreamingWorkbookParser(
+      WorkbookParserSettings settings,
+      Context context,
+      InputStream is,
+      String offsetId
+  ) throws DataParserException {
+    this.settings = requireNonNull(settings);
+    this.context = requireNonNull(context);
+    this.offset = requireNonNull(offsetId);
+    this.currentSheet = null; // default to blank.   Used to figure out when sheet changes
+
+    try {
+      open(requireNonNull(is));
+
+      pendingRow = nextRow();
+      if (pendingRow == null) {
+        throw new DataParserException(Errors.EXCEL_PARSER_04);
+      }
+
+      Optional<Offsets.Offset> startOffset = Offsets.parse(offsetId);
+      if (startOffset.isPresent()) {
+        String startSheetName = startOffset.get().getSheetName();
+        int startRowNum = startOffset.get().getRowNum();
+        XlsxRow row = nextRow();
+        while (row != null) {
+          // if a sheet has blank rows at the top then the starting row number may be higher than a default offset of
+          // zero or one, thus the >= compare
+          if (startSheetName.equals(row.getSheetName()) && row.getRowNum() >= startRowNum) {
+            pendingRow = row;
+            // used in comparison later to see if we've moved to new sheet
+            this.currentSheet = row.isFirstRowOfSheet() ? null : row.getSheetName();
+            break;
+          }
+          row = nextRow();
+        }
+      }
+    } catch (DataParserException | RuntimeException e) {
+      closeQuietly();
+      throw e;
+    }
+  }
+
+  private void open(InputStream is) throws DataParserException {
+    try {
+      file = Files.createTempFile("sdc-workbook-", ".xlsx");
+      Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+      pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+      rowReader = new XlsxRowReader(pkg);
+    } catch (IOException e) {
+      closeQuietly();
+      throw new DataParserException(Errors.EXCEL_PARSER_01, e);
+    } catch (OpenXML4JException | SAXException | XMLStreamException | UnsupportedFileFormatException e) {
+      closeQuietly();
+      throw new DataParserException(Errors.EXCEL_PARSER_02, e);
+    }
+  }
+
+  private XlsxRow nextRow() throws DataParserException {
+    if (pendingRow != null) {
+      XlsxRow row = pendingRow;
+      pendingRow = null;
+      return row;
+    }
+    XlsxRow row;
+    try {
+      row = rowReader.next();
+    } catch (IOException | XMLStreamException e) {
+      throw new DataParserException(Errors.EXCEL_PARSER_01, e);
+    }
+    // Headers are in the first row of each sheet
+    if (row != null && row.isFirstRowOfSheet() && settings.getHeader() == ExcelHeader.WITH_HEADER) {
+      headers = readHeaders(row);
+    }
+    return row;
+  }
+
+  private static List<Field> readHeaders(XlsxRow hdrRow) throws DataParserException {
+    List<Field> sheetHeaders = new ArrayList<>();
+    // if the table happens to have blank columns in front of it, loop through and artificially add those as headers
+    // This helps in the matching of headers to data later as the indexes will line up properly.
+    for (int columnNum = 0; columnNum < hdrRow.getFirstCellNum(); columnNum++) {
+      sheetHeaders.add(Field.create(""));
+    }
+    for (int columnNum = hdrRow.getFirstCellNum(); columnNum < hdrRow.getLastCellNum(); columnNum++) {
+      XlsxCell cell = hdrRow.getCell(columnNum);
+      if (cell == null) {
+        sheetHeaders.add(Field.create(""));
+      } else if (cell.getUnsupportedType() != null) {
+        throw new DataParserException(Errors.EXCEL_PARSER_05, cell.getUnsupportedType());
+      } else {
+        sheetHeaders.add(cell.getValue());
+      }
+    }
+    return sheetHeaders;
+  }
+
+  @Override
+  public Record parse() throws DataParserException {
+    XlsxRow currentRow = nextRow();
+    if (currentRow == null) {
+      eof = true;
+      return null;
+    }
+
+    // skip over rows that have cells but all cells are of BLANK celltype.
+    while (currentRow.isBlank()) {
+      currentRow = nextRow();
+      if (currentRow == null) {
+        // end of file and this last row is blank.  Bail out.
+        eof = true;
+        return null;
+      }
+    }
+
+    // see if a new worksheet has been entered.
+    if (this.currentSheet == null || ! this.currentSheet.equals(currentRow.getSheetName())) {
+      this.currentSheet = currentRow.getSheetName();
+      // if header is expected, then jump over this row
+      if (settings.getHeader() == ExcelHeader.WITH_HEADER || settings.getHeader() == ExcelHeader.IGNORE_HEADER) {
+        currentRow = nextRow();  // move to the next row to parse as data
+        if (currentRow == null) {
+          eof = true;
+          return null;
+        }
+      }
+    }
+
+    offset = Offsets.offsetOf(currentRow.getSheetName(), currentRow.getRowNum());
+    Record record = context.createRecord(offset);
+    updateRecordWithCellValues(currentRow, record);
+    return record;
+  }
+
+  @Override
+  public String getOffset() {
+    return eof ? "-1" : offset;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (rowReader != null) {
+        rowReader.close();
+      }
+    } finally {
+      rowReader = null;
+      closeQuietly();
+    }
+  }
+
+  private void closeQuietly() {
+    if (pkg != null) {
+      // read only packages are closed without saving
+      pkg.revert();
+      pkg = null;
+    }
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        file.toFile().deleteOnExit();
+      }
+      file = null;
+    }
+  }
+
+  private void updateRecordWithCellValues(XlsxRow row, Record record) throws DataParserException {
+    LinkedHashMap<String, Field> output = new LinkedHashMap<>();
+    String columnHeader;
+    Set<String> unsupportedCellTypes = new HashSet<>();
+    for (int columnNum = row.getFirstCellNum(); columnNum < row.getLastCellNum(); columnNum++) {
+      if (headers == null) {
+        columnHeader = String.valueOf(columnNum);
+      } else {
+        if (columnNum >= headers.size()) {
+          columnHeader = String.valueOf(columnNum);   // no header for this column.  mismatch
+        } else {
+          columnHeader = headers.get(columnNum).getValueAsString();
+        }
+      }
+
+      XlsxCell cell = row.getCell(columnNum);
+      if (cell == null) {
+        output.put(columnHeader, Field.create(""));
+      } else {
+        output.put(columnHeader, cell.getValue());
+        if (cell.getUnsupportedType() != null) {
+          unsupportedCellTypes.add(cell.getUnsupportedType().name());
+        }
+      }
+    }
+
+    // Set interesting metadata about the row
+    Record.Header hdr = record.getHeader();
+    hdr.setAttribute("worksheet", row.getSheetName());
+    hdr.setAttribute("row",  Integer.toString(row.getRowNum()));
+    hdr.setAttribute("firstCol", Integer.toString(row.getFirstCellNum()));
+    hdr.setAttribute("lastCol", Integer.toString(row.getLastCellNum()));
+    record.set(Field.createListMap(output));
+    if (unsupportedCellTypes.size() > 0) {
+      throw new RecoverableDataParserException(record, Errors.EXCEL_PARSER_05, StringUtils.join(unsupportedCellTypes, ", "));
+    }
+  }
+}
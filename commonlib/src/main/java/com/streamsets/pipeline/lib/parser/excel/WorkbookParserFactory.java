@@ -21,6 +21,7 @@ import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.jetbrains.annotations.NotNull;
@@ -52,14 +53,28 @@ public class WorkbookParserFactory extends DataParserFactory {
 
   @NotNull
   private DataParser createParser(InputStream is, String offset) throws DataParserException {
-    Workbook workbook = open(is);
-
     WorkbookParserSettings workbookSettings = WorkbookParserSettings.builder()
         .withHeader(getSettings().getMode(ExcelHeader.class))
         .build();
+
+    // XLSX workbooks are streamed, the legacy binary format needs the whole workbook in memory
+    InputStream workbookStream = FileMagic.prepareToCheckMagic(is);
+    if (isOoxml(workbookStream)) {
+      return new StreamingWorkbookParser(workbookSettings, getSettings().getContext(), workbookStream, offset);
+    }
+
+    Workbook workbook = open(workbookStream);
     return new WorkbookParser(workbookSettings, getSettings().getContext(), workbook, offset);
   }
 
+  private boolean isOoxml(InputStream is) throws DataParserException {
+    try {
+      return FileMagic.valueOf(is) == FileMagic.OOXML;
+    } catch (IOException e) {
+      throw new DataParserException(Errors.EXCEL_PARSER_01, e);
+    }
+  }
+
   private Workbook open(InputStream is) throws DataParserException {
     try {
       return WorkbookFactory.create(is);
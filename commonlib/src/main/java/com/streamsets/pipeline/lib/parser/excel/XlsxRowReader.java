@@ -0,0 +1,388 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. See accompanying LICENSE file.
+ */
+package com.streamsets.pipeline.lib.parser.excel;
+
+import com.streamsets.pipeline.api.Field;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads the rows of all worksheets of an XLSX package in workbook order, pulling the sheet XML so that only the
+ * current row is held in memory. Cell values are converted the same way {@link Cells} converts the cells of a POI
+ * workbook.
+ */
+class XlsxRowReader implements Closeable {
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  private final ReadOnlySharedStringsTable strings;
+  private final StylesTable styles;
+  private final boolean date1904;
+  private final XSSFReader.SheetIterator sheets;
+
+  private InputStream sheetStream;
+  private XMLStreamReader sheetReader;
+  private String sheetName;
+  private int lastRowNum;
+
+  XlsxRowReader(OPCPackage pkg) throws IOException, OpenXML4JException, SAXException, XMLStreamException {
+    XSSFReader reader = new XSSFReader(pkg);
+    this.strings = new ReadOnlySharedStringsTable(pkg);
+    this.styles = reader.getStylesTable();
+    try (InputStream workbook = reader.getWorkbookData()) {
+      this.date1904 = isDate1904(workbook);
+    }
+    this.sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  private static boolean isDate1904(InputStream workbook) throws XMLStreamException {
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(workbook);
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT && "workbookPr".equals(reader.getLocalName())) {
+          String date1904 = reader.getAttributeValue(null, "date1904");
+          return "1".equals(date1904) || "true".equals(date1904);
+        }
+      }
+      return false;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Returns the next row of the workbook or null once all worksheets have been read.
+   */
+  XlsxRow next() throws IOException, XMLStreamException {
+    while (true) {
+      if (sheetReader == null) {
+        if (!sheets.hasNext()) {
+          return null;
+        }
+        sheetStream = sheets.next();
+        sheetName = sheets.getSheetName();
+        sheetReader = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+        lastRowNum = -1;
+      }
+      while (sheetReader.hasNext()) {
+        if (sheetReader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+          return readRow();
+        }
+      }
+      closeSheet();
+    }
+  }
+
+  private XlsxRow readRow() throws XMLStreamException {
+    String ref = sheetReader.getAttributeValue(null, "r");
+    int rowNum = ref == null ? lastRowNum + 1 : Integer.parseInt(ref) - 1;
+    XlsxRow row = new XlsxRow(sheetName, rowNum, lastRowNum == -1);
+    lastRowNum = rowNum;
+    int lastColumn = -1;
+    while (sheetReader.hasNext()) {
+      int event = sheetReader.next();
+      if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+        XlsxCell cell = readCell(lastColumn);
+        lastColumn = cell.getColumn();
+        row.cells.add(cell);
+      } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+        break;
+      }
+    }
+    return row;
+  }
+
+  private XlsxCell readCell(int lastColumn) throws XMLStreamException {
+    String ref = sheetReader.getAttributeValue(null, "r");
+    int column = ref == null ? lastColumn + 1 : new CellReference(ref).getCol();
+    String type = sheetReader.getAttributeValue(null, "t");
+    String style = sheetReader.getAttributeValue(null, "s");
+    String value = null;
+    String formula = null;
+    StringBuilder inlineString = null;
+    int phoneticDepth = 0;
+    while (sheetReader.hasNext()) {
+      int event = sheetReader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        switch (sheetReader.getLocalName()) {
+          case "v":
+            value = sheetReader.getElementText();
+            break;
+          case "f":
+            formula = sheetReader.getElementText();
+            break;
+          case "is":
+            inlineString = new StringBuilder();
+            break;
+          case "rPh":
+            phoneticDepth++;
+            break;
+          case "t":
+            String text = sheetReader.getElementText();
+            if (inlineString != null && phoneticDepth == 0) {
+              inlineString.append(text);
+            }
+            break;
+          default:
+            break;
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        if ("rPh".equals(sheetReader.getLocalName())) {
+          phoneticDepth--;
+        } else if ("c".equals(sheetReader.getLocalName())) {
+          break;
+        }
+      }
+    }
+    return toCell(column, type, style, value, formula, inlineString == null ? null : inlineString.toString());
+  }
+
+  private XlsxCell toCell(int column, String type, String style, String value, String formula, String inlineString) {
+    boolean isFormula = formula != null;
+    if (type == null) {
+      type = "n";
+    }
+    switch (type) {
+      case "inlineStr":
+        return new XlsxCell(column, Field.create(inlineString == null ? "" : inlineString));
+      case "s":
+        if (value == null) {
+          return XlsxCell.blank(column);
+        }
+        return new XlsxCell(column, Field.create(strings.getEntryAt(Integer.parseInt(value))));
+      case "b":
+        if (value == null) {
+          return XlsxCell.blank(column);
+        }
+        return new XlsxCell(column, Field.create("1".equals(value) || "true".equals(value)));
+      case "e":
+        // same as DataFormatter: the formula for formula cells, the error text otherwise
+        return XlsxCell.unsupported(column, CellType.ERROR, Field.create(isFormula ? formula : value));
+      case "n":
+        if (value == null) {
+          return XlsxCell.blank(column);
+        }
+        return new XlsxCell(column, parseNumeric(Double.parseDouble(value), style, isFormula));
+      default:
+        // formula string results and ISO dates
+        return new XlsxCell(column, Field.create(value == null ? "" : value));
+    }
+  }
+
+  private Field parseNumeric(double rawValue, String style, boolean isFormula) {
+    int formatIndex = 0;
+    String formatString = null;
+    if (styles != null && styles.getNumCellStyles() > 0) {
+      XSSFCellStyle cellStyle = styles.getStyleAt(style == null ? 0 : Integer.parseInt(style));
+      if (cellStyle != null) {
+        formatIndex = cellStyle.getDataFormat();
+        formatString = cellStyle.getDataFormatString();
+      }
+    }
+    if (formatString == null) {
+      formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+    }
+
+    if (formatString != null
+        && DateUtil.isValidExcelDate(rawValue)
+        && DateUtil.isADateFormat(formatIndex, formatString)) {
+      // It's a date, not a number
+      Date dt = DateUtil.getJavaDate(rawValue, date1904);
+      // if raw number is < 1 then it's a time component only, otherwise date.
+      return rawValue < 1 ? Field.createTime(dt) : Field.createDate(dt);
+    }
+
+    // formulas are shown with the evaluated value, plain numbers with the cell format
+    String displayValue = isFormula || formatString == null
+        ? String.valueOf(rawValue)
+        : Cells.dataFormatter.formatRawCellContents(rawValue, formatIndex, formatString);
+    boolean numericallyEquivalent = false;
+    try {
+      numericallyEquivalent = Double.parseDouble(displayValue) == rawValue;
+    } catch (NumberFormatException e) { }
+
+    // some machinations to handle integer values going in without decimal vs. with .0 for rawValue
+    return Field.create(numericallyEquivalent ? new BigDecimal(displayValue) : BigDecimal.valueOf(rawValue));
+  }
+
+  private void closeSheet() throws IOException, XMLStreamException {
+    try {
+      sheetReader.close();
+    } finally {
+      sheetReader = null;
+      sheetStream.close();
+      sheetStream = null;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (sheetReader != null) {
+      try {
+        closeSheet();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  /**
+   * Row of a worksheet with the cells that are present in the sheet XML, ordered by column.
+   */
+  static final class XlsxRow {
+    private final String sheetName;
+    private final int rowNum;
+    private final boolean firstRowOfSheet;
+    private final List<XlsxCell> cells;
+
+    private XlsxRow(String sheetName, int rowNum, boolean firstRowOfSheet) {
+      this.sheetName = sheetName;
+      this.rowNum = rowNum;
+      this.firstRowOfSheet = firstRowOfSheet;
+      this.cells = new ArrayList<>();
+    }
+
+    String getSheetName() {
+      return sheetName;
+    }
+
+    int getRowNum() {
+      return rowNum;
+    }
+
+    boolean isFirstRowOfSheet() {
+      return firstRowOfSheet;
+    }
+
+    /**
+     * Same as {@link org.apache.poi.ss.usermodel.Row#getFirstCellNum()}, -1 for a row without cells.
+     */
+    int getFirstCellNum() {
+      return cells.isEmpty() ? -1 : cells.get(0).getColumn();
+    }
+
+    /**
+     * Same as {@link org.apache.poi.ss.usermodel.Row#getLastCellNum()}, one past the last column or -1.
+     */
+    int getLastCellNum() {
+      return cells.isEmpty() ? -1 : cells.get(cells.size() - 1).getColumn() + 1;
+    }
+
+    /**
+     * Returns the cell in the given column or null if the sheet doesn't have one.
+     */
+    XlsxCell getCell(int column) {
+      int low = 0;
+      int high = cells.size() - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int midColumn = cells.get(mid).getColumn();
+        if (midColumn < column) {
+          low = mid + 1;
+        } else if (midColumn > column) {
+          high = mid - 1;
+        } else {
+          return cells.get(mid);
+        }
+      }
+      return null;
+    }
+
+    boolean isBlank() {
+      for (XlsxCell cell : cells) {
+        if (!cell.isBlank()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  static final class XlsxCell {
+    private final int column;
+    private final Field value;
+    private final boolean blank;
+    private final CellType unsupportedType;
+
+    private XlsxCell(int column, Field value, boolean blank, CellType unsupportedType) {
+      this.column = column;
+      this.value = value;
+      this.blank = blank;
+      this.unsupportedType = unsupportedType;
+    }
+
+    XlsxCell(int column, Field value) {
+      this(column, value, false, null);
+    }
+
+    static XlsxCell blank(int column) {
+      return new XlsxCell(column, Field.create(""), true, null);
+    }
+
+    static XlsxCell unsupported(int column, CellType cellType, Field valueAsString) {
+      return new XlsxCell(column, valueAsString, false, cellType);
+    }
+
+    int getColumn() {
+      return column;
+    }
+
+    /**
+     * The parsed value, or the value as string for unsupported cell types.
+     */
+    Field getValue() {
+      return value;
+    }
+
+    boolean isBlank() {
+      return blank;
+    }
+
+    /**
+     * The cell type if the value couldn't be parsed, null otherwise.
+     */
+    CellType getUnsupportedType() {
+      return unsupportedType;
+    }
+  }
+}
@@ -110,13 +110,15 @@ public class XmlCharDataParser extends AbstractDataParser {
     this.maxObjectLen = maxObjectLen;
     this.includeXpath = includeXpath;
     try {
+      // the cursor based parser does not allocate an XMLEvent for every parsing event
       parser = new OverrunStreamingXmlParser(
           reader,
           recordElement,
           namespaces,
           readerOffset,
           maxObjectLen,
-          useFieldAttributesInsteadOfFields
+          useFieldAttributesInsteadOfFields,
+          true
       );
     } catch (XMLStreamException ex) {
       throw new IOException(ex);
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer/multi-consumer ring buffer.
+ * <p/>
+ * Every slot carries a sequence number telling producers and consumers whose turn it is on the slot, so
+ * {@link #offer(Object)} and {@link #poll()} only contend on a single CAS of the tail or head counter. The capacity is
+ * rounded up to the next power of two.
+ */
+public class BoundedRingBuffer<E> {
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+
+  public BoundedRingBuffer(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be greater than zero");
+    Preconditions.checkArgument(capacity <= 1 << 30, "capacity cannot be greater than 2^30");
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    mask = size - 1;
+    elements = new AtomicReferenceArray<>(size);
+    sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Adds the element if there is room, returns <code>false</code> if the buffer is full.
+   */
+  public boolean offer(E element) {
+    Preconditions.checkNotNull(element, "element cannot be null");
+    while (true) {
+      long pos = tail.get();
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          elements.lazySet(index, element);
+          // volatile write, publishes the element and orders it before any later read of waiting consumers
+          sequences.set(index, pos + 1);
+          return true;
+        }
+      } else if (diff < 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Removes and returns the oldest element, returns <code>null</code> if the buffer is empty.
+   */
+  public E poll() {
+    while (true) {
+      long pos = head.get();
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          E element = elements.get(index);
+          elements.lazySet(index, null);
+          sequences.lazySet(index, pos + mask + 1);
+          return element;
+        }
+      } else if (diff < 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Moves up to <code>max</code> elements to the given collection, returns the number of elements moved.
+   */
+  public int drainTo(Collection<? super E> collection, int max) {
+    int count = 0;
+    while (count < max) {
+      E element = poll();
+      if (element == null) {
+        break;
+      }
+      collection.add(element);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Approximate number of elements in the buffer.
+   */
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+}
@@ -22,11 +22,26 @@ import io.netty.channel.socket.DatagramPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Hands datagram packets received by the Netty event loops over to worker threads.
+ * <p/>
+ * Packets go into one of several lock-free ring buffers, one per event loop thread. Each event loop thread always
+ * writes to the same ring, and each worker drains its own ring first, taking as many packets as it can per call, then
+ * steals from the other rings before going to sleep. Producers only take a lock to wake up workers when some worker
+ * is actually waiting.
+ * <p/>
+ * A shared counter admits at most the packet queue size packets over all the rings, packets beyond it are dropped.
+ * Every ring can still hold the whole packet queue size: how the packets are spread over the event loops depends on
+ * the channels and on the traffic, a single event loop may well receive all of them.
+ */
 @ChannelHandler.Sharable
 public class PacketQueueUDPHandler extends SimpleChannelInboundHandler<DatagramPacket> {
   private static final Logger LOG = LoggerFactory.getLogger(PacketQueueUDPHandler.class);
@@ -39,12 +54,33 @@ public class PacketQueueUDPHandler extends SimpleChannelInboundHandler<DatagramP
   private AtomicLong droppedPacketCount = new AtomicLong();
   private AtomicLong queuedPacketCount = new AtomicLong();
 
-  private final BlockingDeque<DatagramPacket> queue;
+  private final int packetQueueSize;
+  private final AtomicInteger admittedPackets = new AtomicInteger();
+  private final BoundedRingBuffer<DatagramPacket>[] rings;
+  private final AtomicInteger nextProducerRing = new AtomicInteger();
+  private final ThreadLocal<Integer> producerRing;
+
+  private final AtomicInteger waitingConsumers = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
 
   public PacketQueueUDPHandler(Map<String, Object> gaugeMap, int packetQueueSize) {
+    this(gaugeMap, packetQueueSize, 1);
+  }
+
+  /**
+   * @param numQueues number of event loop threads that receive packets.
+   */
+  @SuppressWarnings("unchecked")
+  public PacketQueueUDPHandler(Map<String, Object> gaugeMap, int packetQueueSize, int numQueues) {
     this.gaugeMap = gaugeMap;
+    this.packetQueueSize = packetQueueSize;
 
-    queue = new LinkedBlockingDeque<>(packetQueueSize);
+    rings = new BoundedRingBuffer[numQueues];
+    for (int i = 0; i < numQueues; i++) {
+      rings[i] = new BoundedRingBuffer<>(packetQueueSize);
+    }
+    producerRing = ThreadLocal.withInitial(() -> Math.floorMod(nextProducerRing.getAndIncrement(), rings.length));
   }
 
   @Override
@@ -61,18 +97,93 @@ public class PacketQueueUDPHandler extends SimpleChannelInboundHandler<DatagramP
   @Override
   protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) throws Exception {
     packet.retain();
-    final boolean succeeded = queue.offer(packet);
+    boolean succeeded = false;
+    if (admittedPackets.incrementAndGet() <= packetQueueSize) {
+      succeeded = rings[producerRing.get()].offer(packet);
+    }
     if (succeeded) {
       gaugeMap.put(GAUGE_NUM_QUEUED_PACKETS, queuedPacketCount.incrementAndGet());
-      gaugeMap.put(GAUGE_PACKET_QUEUE_SIZE, queue.size());
+      gaugeMap.put(GAUGE_PACKET_QUEUE_SIZE, getPacketQueueSize());
+      if (waitingConsumers.get() > 0) {
+        lock.lock();
+        try {
+          notEmpty.signal();
+        } finally {
+          lock.unlock();
+        }
+      }
     } else {
+      admittedPackets.decrementAndGet();
       gaugeMap.put(GAUGE_NUM_DROPPED_PACKETS, droppedPacketCount.incrementAndGet());
       // allow Netty to collect the buffer
       packet.release();
     }
   }
 
-  public BlockingDeque<DatagramPacket> getPacketQueue() {
-    return queue;
+  /**
+   * Number of queues the packets are spread over.
+   */
+  public int getNumQueues() {
+    return rings.length;
+  }
+
+  /**
+   * Approximate number of packets waiting in all the queues.
+   */
+  public int getPacketQueueSize() {
+    int size = 0;
+    for (BoundedRingBuffer<DatagramPacket> ring : rings) {
+      size += ring.size();
+    }
+    return size;
+  }
+
+  /**
+   * Moves up to <code>max</code> packets to the given list, waiting up to the given time if there are none.
+   * <p/>
+   * The queue with the given index, modulo the number of queues, is drained first, the other queues are only used
+   * when it is empty. The caller owns the returned packets and must release them.
+   *
+   * @return the number of packets added to the list, zero if the wait time elapsed without packets.
+   */
+  public int drainPackets(int queueIndex, List<DatagramPacket> packets, int max, long waitTime, TimeUnit unit)
+      throws InterruptedException {
+    int count = drainPackets(queueIndex, packets, max);
+    if (count == 0 && waitTime > 0) {
+      long remainingNanos = unit.toNanos(waitTime);
+      waitingConsumers.incrementAndGet();
+      try {
+        while (count == 0 && remainingNanos > 0) {
+          lock.lock();
+          try {
+            // re-check under the lock, producers signal under the same lock so a packet cannot be missed
+            if (getPacketQueueSize() == 0) {
+              remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+          } finally {
+            lock.unlock();
+          }
+          count = drainPackets(queueIndex, packets, max);
+        }
+      } finally {
+        waitingConsumers.decrementAndGet();
+      }
+    }
+    if (count > 0) {
+      gaugeMap.put(GAUGE_PACKET_QUEUE_SIZE, getPacketQueueSize());
+    }
+    return count;
   }
+
+  private int drainPackets(int queueIndex, List<DatagramPacket> packets, int max) {
+    int count = 0;
+    for (int i = 0; i < rings.length && count < max; i++) {
+      count += rings[(queueIndex + i) % rings.length].drainTo(packets, max - count);
+    }
+    if (count > 0) {
+      admittedPackets.addAndGet(-count);
+    }
+    return count;
+  }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFileAssigner {
+
+  @Test
+  public void testFilesSpreadAcrossReaders() {
+    FileAssigner assigner = new FileAssigner(2);
+
+    // reader 0 finds both files first, the second one goes to reader 1
+    Assert.assertTrue(assigner.assign(0, "a"));
+    Assert.assertFalse(assigner.assign(0, "b"));
+    Assert.assertTrue(assigner.assign(1, "b"));
+    Assert.assertFalse(assigner.assign(1, "a"));
+    Assert.assertEquals(1, assigner.getActiveFiles(0));
+    Assert.assertEquals(1, assigner.getActiveFiles(1));
+
+    // a file found again by its reader is not counted twice
+    Assert.assertTrue(assigner.assign(0, "a"));
+    Assert.assertEquals(1, assigner.getActiveFiles(0));
+  }
+
+  @Test
+  public void testReleasedFiles() {
+    FileAssigner assigner = new FileAssigner(2);
+    Assert.assertTrue(assigner.assign(0, "a"));
+    Assert.assertTrue(assigner.assign(1, "b"));
+
+    // only the reader of a file releases it
+    assigner.release(1, "a");
+    Assert.assertEquals(1, assigner.getActiveFiles(0));
+    assigner.release(0, "a");
+    Assert.assertEquals(0, assigner.getActiveFiles(0));
+
+    // new files go to the reader with the fewest active files, released files keep their reader
+    Assert.assertFalse(assigner.assign(1, "c"));
+    Assert.assertFalse(assigner.assign(1, "a"));
+    Assert.assertEquals(2, assigner.getActiveFiles(0));
+    Assert.assertEquals(1, assigner.getActiveFiles(1));
+  }
+
+}
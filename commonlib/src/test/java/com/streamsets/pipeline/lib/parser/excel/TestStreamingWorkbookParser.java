@@ -0,0 +1,396 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. See accompanying LICENSE file
+ */
+package com.streamsets.pipeline.lib.parser.excel;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.ExcelHeader;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestStreamingWorkbookParser {
+  private static final List<String> XLSX_FILES = Arrays.asList(
+      "/excel/FormatTest.xlsx",
+      "/excel/TestBlankCells.xlsx",
+      "/excel/TestErrorCells.xlsx",
+      "/excel/TestExcel.xlsx",
+      "/excel/TestExcelEmptyRowsCols.xlsx",
+      "/excel/TestFormulas.xlsx",
+      "/excel/TestLessTabular.xlsx",
+      "/excel/TestMultipleSheets.xlsx",
+      "/excel/TestOffset.xlsx",
+      "/excel/TestRealSheet.xlsx",
+      "/excel/TestRealSheet2.xlsx"
+  );
+
+  // WorkbookParser fails reading headers of empty sheets and of header rows with missing cells
+  private static final List<String> DOM_HEADER_FAILURES = Arrays.asList(
+      "/excel/TestLessTabular.xlsx",
+      "/excel/TestRealSheet2.xlsx"
+  );
+
+  private File testDir;
+
+  @Before
+  public void setUp() throws Exception {
+    testDir = new File("target", UUID.randomUUID().toString());
+    assertTrue(testDir.mkdirs());
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = testDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    testDir.delete();
+  }
+
+  private Stage.Context getContext() {
+    return ContextInfoCreator.createSourceContext("i", false, OnRecordError.TO_ERROR, Collections.EMPTY_LIST);
+  }
+
+  private static WorkbookParserSettings settings(ExcelHeader header) {
+    return WorkbookParserSettings.builder().withHeader(header).build();
+  }
+
+  /**
+   * Parsed row, compared by the record fields, its header attributes and the parser offset after it.
+   */
+  private static class ParsedRow {
+    private final Field field;
+    private final String attributes;
+    private final String offset;
+    private final boolean recoverableError;
+
+    ParsedRow(Record record, String offset, boolean recoverableError) {
+      this.field = record.get();
+      this.attributes = record.getHeader().getAttribute("worksheet") + "/" + record.getHeader().getAttribute("row") +
+          "/" + record.getHeader().getAttribute("firstCol") + "/" + record.getHeader().getAttribute("lastCol");
+      this.offset = offset;
+      this.recoverableError = recoverableError;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ParsedRow)) {
+        return false;
+      }
+      ParsedRow other = (ParsedRow) o;
+      return field.equals(other.field) && attributes.equals(other.attributes) && offset.equals(other.offset) &&
+          recoverableError == other.recoverableError;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(field, attributes, offset, recoverableError);
+    }
+
+    @Override
+    public String toString() {
+      return attributes + " @" + offset + (recoverableError ? " (error) " : " ") + field;
+    }
+  }
+
+  private static List<ParsedRow> parseAll(DataParser parser) throws Exception {
+    List<ParsedRow> rows = new ArrayList<>();
+    try {
+      while (true) {
+        try {
+          Record record = parser.parse();
+          if (record == null) {
+            break;
+          }
+          rows.add(new ParsedRow(record, parser.getOffset(), false));
+        } catch (RecoverableDataParserException e) {
+          rows.add(new ParsedRow(e.getUnparsedRecord(), parser.getOffset(), true));
+        }
+      }
+      assertEquals("-1", parser.getOffset());
+    } finally {
+      parser.close();
+    }
+    return rows;
+  }
+
+  private List<ParsedRow> parseWithWorkbookParser(File file, ExcelHeader header, String offset) throws Exception {
+    try (InputStream is = new FileInputStream(file)) {
+      return parseAll(new WorkbookParser(settings(header), getContext(), WorkbookFactory.create(is), offset));
+    }
+  }
+
+  private List<ParsedRow> parseWithStreamingParser(File file, ExcelHeader header, String offset) throws Exception {
+    try (InputStream is = new FileInputStream(file)) {
+      return parseAll(new StreamingWorkbookParser(settings(header), getContext(), is, offset));
+    }
+  }
+
+  private File copyResource(String path) throws Exception {
+    File file = new File(testDir, new File(path).getName());
+    try (InputStream is = getClass().getResourceAsStream(path)) {
+      java.nio.file.Files.copy(is, file.toPath());
+    }
+    return file;
+  }
+
+  /**
+   * Writes a workbook with the given number of sheets and rows per sheet, each sheet has a header row, a few blank
+   * rows and leading blank columns, and cells of all supported types.
+   */
+  private File createWorkbook(int sheets, int rows) throws Exception {
+    File file = new File(testDir, "generated-" + sheets + "-" + rows + ".xlsx");
+    SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+    try {
+      CellStyle dateStyle = workbook.createCellStyle();
+      dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+      CellStyle timeStyle = workbook.createCellStyle();
+      timeStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("hh:mm:ss"));
+      CellStyle decimalStyle = workbook.createCellStyle();
+      decimalStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("0.00"));
+      long day = 24 * 60 * 60 * 1000L;
+      for (int s = 0; s < sheets; s++) {
+        Sheet sheet = workbook.createSheet("Sheet" + s);
+        int firstColumn = s % 2;
+        Row header = sheet.createRow(s);
+        String[] names = {"name", "count", "price", "date", "time", "flag", "blank", "note"};
+        for (int c = 0; c < names.length; c++) {
+          header.createCell(firstColumn + c).setCellValue(names[c] + s);
+        }
+        for (int r = 1; r <= rows; r++) {
+          Row row = sheet.createRow(s + r);
+          if (r % 50 == 0) {
+            // row that only has blank cells
+            row.createCell(firstColumn).setCellStyle(dateStyle);
+            continue;
+          }
+          row.createCell(firstColumn).setCellValue("name-" + s + "-" + r);
+          row.createCell(firstColumn + 1).setCellValue(r);
+          Cell price = row.createCell(firstColumn + 2);
+          price.setCellValue(r * 1.25);
+          price.setCellStyle(decimalStyle);
+          Cell date = row.createCell(firstColumn + 3);
+          date.setCellValue(new Date(1500000000000L + r * day));
+          date.setCellStyle(dateStyle);
+          Cell time = row.createCell(firstColumn + 4);
+          time.setCellValue((r % 24) / 24.0 + 0.001);
+          time.setCellStyle(timeStyle);
+          row.createCell(firstColumn + 5).setCellValue(r % 3 == 0);
+          if (r % 7 != 0) {
+            row.createCell(firstColumn + 7).setCellValue("note " + r);
+          }
+        }
+      }
+      try (OutputStream os = new FileOutputStream(file)) {
+        workbook.write(os);
+      }
+    } finally {
+      workbook.dispose();
+      workbook.close();
+    }
+    return file;
+  }
+
+  @Test
+  public void testSameRecordsAsWorkbookParserForTestFiles() throws Exception {
+    for (String path : XLSX_FILES) {
+      File file = copyResource(path);
+      for (ExcelHeader header : ExcelHeader.values()) {
+        if (DOM_HEADER_FAILURES.contains(path) && header == ExcelHeader.WITH_HEADER) {
+          continue;
+        }
+        assertEquals(
+            path + " " + header,
+            parseWithWorkbookParser(file, header, "0"),
+            parseWithStreamingParser(file, header, "0")
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testIncompleteHeaders() throws Exception {
+    for (String path : DOM_HEADER_FAILURES) {
+      File file = copyResource(path);
+      assertEquals(
+          path,
+          parseWithWorkbookParser(file, ExcelHeader.IGNORE_HEADER, "0").size(),
+          parseWithStreamingParser(file, ExcelHeader.WITH_HEADER, "0").size()
+      );
+    }
+  }
+
+  @Test
+  public void testSameRecordsAsWorkbookParserForGeneratedWorkbook() throws Exception {
+    File file = createWorkbook(3, 500);
+    for (ExcelHeader header : ExcelHeader.values()) {
+      List<ParsedRow> expected = parseWithWorkbookParser(file, header, "0");
+      assertEquals(header.name(), expected, parseWithStreamingParser(file, header, "0"));
+      assertFalse(expected.isEmpty());
+    }
+  }
+
+  @Test
+  public void testSameRecordsAsWorkbookParserFromOffset() throws Exception {
+    File file = createWorkbook(3, 200);
+    List<String> offsets = Arrays.asList(
+        "Sheet0::0",
+        "Sheet0::57",
+        "Sheet1::1",
+        "Sheet1::150",
+        "Sheet2::2",
+        "Sheet2::201",
+        "Missing::3"
+    );
+    for (String offset : offsets) {
+      for (ExcelHeader header : ExcelHeader.values()) {
+        assertEquals(
+            offset + " " + header,
+            parseWithWorkbookParser(file, header, offset),
+            parseWithStreamingParser(file, header, offset)
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testHeadersOfEachSheet() throws Exception {
+    File file = createWorkbook(2, 3);
+    try (InputStream is = new FileInputStream(file)) {
+      StreamingWorkbookParser parser = new StreamingWorkbookParser(
+          settings(ExcelHeader.WITH_HEADER),
+          getContext(),
+          is,
+          "0"
+      );
+      Record record = parser.parse();
+      assertEquals("name-0-1", record.get("/name0").getValueAsString());
+      assertEquals("Sheet0::1", parser.getOffset());
+      parser.parse();
+      parser.parse();
+      record = parser.parse();
+      assertEquals("name-1-1", record.get("/name1").getValueAsString());
+      assertEquals(Field.Type.DATE, record.get("/date1").getType());
+      assertEquals(Field.Type.TIME, record.get("/time1").getType());
+      assertEquals(Field.Type.BOOLEAN, record.get("/flag1").getType());
+      assertEquals("", record.get("/blank1").getValueAsString());
+      assertEquals("Sheet1::2", parser.getOffset());
+      parser.parse();
+      parser.parse();
+      assertNull(parser.parse());
+      assertEquals("-1", parser.getOffset());
+      parser.close();
+    }
+  }
+
+  @Test
+  public void testFactoryParsesXlsxAndXls() throws Exception {
+    DataParserFactory factory = new DataParserFactoryBuilder(getContext(), DataParserFormat.EXCEL)
+        .setMode(ExcelHeader.WITH_HEADER)
+        .setMaxDataLen(-1)
+        .build();
+
+    for (String path : Arrays.asList("/excel/TestExcel.xlsx", "/excel/TestExcelOlderVersionWithMacros.xls")) {
+      try (InputStream is = getClass().getResourceAsStream(path)) {
+        DataParser parser = factory.getParser("id", is, "0");
+        Record record = parser.parse();
+        assertNotNull(path, record);
+        assertFalse(path, record.get().getValueAsListMap().isEmpty());
+        parser.close();
+      }
+    }
+  }
+
+  @Test(expected = DataParserException.class)
+  public void testInvalidWorkbook() throws Exception {
+    File file = new File(testDir, "invalid.xlsx");
+    java.nio.file.Files.write(file.toPath(), "PK not really a zip".getBytes());
+    try (InputStream is = new FileInputStream(file)) {
+      new StreamingWorkbookParser(settings(ExcelHeader.NO_HEADER), getContext(), is, "0");
+    }
+  }
+
+  @Test
+  public void testBoundedHeap() throws Exception {
+    int sheets = 3;
+    int rows = 50000;
+    File file = createWorkbook(sheets, rows);
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    System.gc();
+    long baseline = memory.getHeapMemoryUsage().getUsed();
+    long maxRetained = 0;
+    int records = 0;
+    try (InputStream is = new FileInputStream(file)) {
+      StreamingWorkbookParser parser = new StreamingWorkbookParser(
+          settings(ExcelHeader.WITH_HEADER),
+          getContext(),
+          is,
+          "0"
+      );
+      while (parser.parse() != null) {
+        if (++records % 10000 == 0) {
+          System.gc();
+          maxRetained = Math.max(maxRetained, memory.getHeapMemoryUsage().getUsed() - baseline);
+        }
+      }
+      parser.close();
+    }
+
+    // all data rows but the blank ones
+    assertEquals(sheets * (rows - rows / 50), records);
+    // the whole workbook as POI DOM takes several hundred MB, streaming only holds the current row
+    assertTrue("Retained heap " + maxRetained, maxRetained < 32 * 1024 * 1024);
+  }
+}
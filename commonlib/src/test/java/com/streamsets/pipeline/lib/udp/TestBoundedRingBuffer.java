@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestBoundedRingBuffer {
+
+  @Test
+  public void testCapacityAndOrdering() {
+    BoundedRingBuffer<Integer> ring = new BoundedRingBuffer<>(3);
+    Assert.assertEquals(4, ring.capacity());
+    Assert.assertTrue(ring.isEmpty());
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(ring.offer(i));
+    }
+    Assert.assertFalse(ring.offer(4));
+    Assert.assertEquals(4, ring.size());
+    Assert.assertEquals(0, (int) ring.poll());
+
+    List<Integer> drained = new ArrayList<>();
+    Assert.assertEquals(2, ring.drainTo(drained, 2));
+    Assert.assertEquals(1, (int) drained.get(0));
+    Assert.assertEquals(2, (int) drained.get(1));
+    Assert.assertEquals(3, (int) ring.poll());
+    Assert.assertNull(ring.poll());
+
+    // wrap around
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(ring.offer(i));
+      Assert.assertEquals(i, (int) ring.poll());
+    }
+  }
+
+  @Test
+  public void testConcurrentProducersAndConsumers() throws Exception {
+    final BoundedRingBuffer<Long> ring = new BoundedRingBuffer<>(1024);
+    final int producers = 4;
+    final int consumers = 4;
+    final long perProducer = 100000;
+    final AtomicLong consumedSum = new AtomicLong();
+    final AtomicLong consumedCount = new AtomicLong();
+    final CountDownLatch producersDone = new CountDownLatch(producers);
+    ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+    try {
+      for (int p = 0; p < producers; p++) {
+        executor.submit(() -> {
+          for (long i = 1; i <= perProducer; i++) {
+            while (!ring.offer(i)) {
+              Thread.yield();
+            }
+          }
+          producersDone.countDown();
+        });
+      }
+      List<Future<?>> consumerFutures = new ArrayList<>();
+      for (int c = 0; c < consumers; c++) {
+        consumerFutures.add(executor.submit(() -> {
+          List<Long> batch = new ArrayList<>();
+          while (producersDone.getCount() > 0 || !ring.isEmpty()) {
+            batch.clear();
+            if (ring.drainTo(batch, 100) == 0) {
+              Thread.yield();
+            }
+            for (Long value : batch) {
+              consumedSum.addAndGet(value);
+              consumedCount.incrementAndGet();
+            }
+          }
+        }));
+      }
+      for (Future<?> future : consumerFutures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(producers * perProducer, consumedCount.get());
+    Assert.assertEquals(producers * (perProducer * (perProducer + 1) / 2), consumedSum.get());
+  }
+
+  @Test
+  public void testPacketHandlerDrain() throws Exception {
+    Map<String, Object> gauges = new ConcurrentHashMap<>();
+    PacketQueueUDPHandler handler = new PacketQueueUDPHandler(gauges, 4, 2);
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+    InetSocketAddress address = new InetSocketAddress("127.0.0.1", 2000);
+    for (int i = 0; i < 6; i++) {
+      channel.writeInbound(new DatagramPacket(Unpooled.wrappedBuffer(new byte[]{(byte) i}), address, address));
+    }
+    // all packets come from the same event loop thread, so they all go to the same queue
+    Assert.assertEquals(4L, gauges.get(PacketQueueUDPHandler.GAUGE_NUM_QUEUED_PACKETS));
+    Assert.assertEquals(2L, gauges.get(PacketQueueUDPHandler.GAUGE_NUM_DROPPED_PACKETS));
+    Assert.assertEquals(4, handler.getPacketQueueSize());
+
+    // worker 1 steals from the queue of worker 0
+    List<DatagramPacket> packets = new ArrayList<>();
+    Assert.assertEquals(4, handler.drainPackets(1, packets, 10, 10, TimeUnit.MILLISECONDS));
+    for (int i = 0; i < 4; i++) {
+      Assert.assertEquals(i, packets.get(i).content().readByte());
+    }
+    packets.forEach(DatagramPacket::release);
+
+    packets.clear();
+    long start = System.currentTimeMillis();
+    Assert.assertEquals(0, handler.drainPackets(0, packets, 10, 50, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(System.currentTimeMillis() - start >= 40);
+    channel.finish();
+  }
+
+  @Test
+  public void testPacketHandlerSingleProducerQueueSize() throws Exception {
+    Map<String, Object> gauges = new ConcurrentHashMap<>();
+    int packetQueueSize = 1000;
+    PacketQueueUDPHandler handler = new PacketQueueUDPHandler(gauges, packetQueueSize, 8);
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+    InetSocketAddress address = new InetSocketAddress("127.0.0.1", 2000);
+    for (int i = 0; i < packetQueueSize; i++) {
+      channel.writeInbound(new DatagramPacket(Unpooled.wrappedBuffer(new byte[]{(byte) i}), address, address));
+    }
+    // a single event loop thread can fill the whole configured queue size
+    Assert.assertEquals((long) packetQueueSize, gauges.get(PacketQueueUDPHandler.GAUGE_NUM_QUEUED_PACKETS));
+    Assert.assertNull(gauges.get(PacketQueueUDPHandler.GAUGE_NUM_DROPPED_PACKETS));
+    Assert.assertEquals(packetQueueSize, handler.getPacketQueueSize());
+
+    List<DatagramPacket> packets = new ArrayList<>();
+    Assert.assertEquals(packetQueueSize, handler.drainPackets(5, packets, 2 * packetQueueSize, 0, TimeUnit.MILLISECONDS));
+    packets.forEach(DatagramPacket::release);
+    channel.finish();
+  }
+
+  @Test
+  public void testPacketHandlerQueueSizeOverAllProducers() throws Exception {
+    Map<String, Object> gauges = new ConcurrentHashMap<>();
+    int producers = 4;
+    int packetQueueSize = 8;
+    PacketQueueUDPHandler handler = new PacketQueueUDPHandler(gauges, packetQueueSize, producers);
+    InetSocketAddress address = new InetSocketAddress("127.0.0.1", 2000);
+
+    // every producer thread writes to its own queue, the queues together still hold at most the queue size
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < packetQueueSize; i++) {
+          DatagramPacket packet = new DatagramPacket(Unpooled.wrappedBuffer(new byte[]{(byte) i}), address, address);
+          handler.channelRead0(null, packet);
+          packet.release();
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    Assert.assertEquals(packetQueueSize, handler.getPacketQueueSize());
+    Assert.assertEquals((long) packetQueueSize, gauges.get(PacketQueueUDPHandler.GAUGE_NUM_QUEUED_PACKETS));
+    Assert.assertEquals(
+        (long) (producers - 1) * packetQueueSize,
+        gauges.get(PacketQueueUDPHandler.GAUGE_NUM_DROPPED_PACKETS)
+    );
+
+    List<DatagramPacket> packets = new ArrayList<>();
+    Assert.assertEquals(packetQueueSize, handler.drainPackets(0, packets, 2 * packetQueueSize, 0, TimeUnit.SECONDS));
+    packets.forEach(DatagramPacket::release);
+
+    // draining makes room again
+    DatagramPacket packet = new DatagramPacket(Unpooled.wrappedBuffer(new byte[]{0}), address, address);
+    handler.channelRead0(null, packet);
+    packet.release();
+    Assert.assertEquals(1, handler.getPacketQueueSize());
+  }
+
+}
@@ -31,7 +31,7 @@ import java.lang.management.ManagementFactory;
 public class MetricsModule {
 
   @Provides @Singleton MetricRegistry provideMetrics() {
-    MetricRegistry metrics = new MetricRegistry();
+    MetricRegistry metrics = new RollupMetricRegistry();
     metrics.register("jvm.memory", new MemoryUsageGaugeSet());
     metrics.register("jvm.garbage", new GarbageCollectorMetricSet());
     metrics.register("jvm.threads", new ThreadStatesGaugeSet());
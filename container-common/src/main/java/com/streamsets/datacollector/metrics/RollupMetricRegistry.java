@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Metric registry that lets metrics be updated lazily: the registered rollups, which bring their metrics up to date,
+ * run every time the metrics of the registry are looked up.
+ * <p/>
+ * Metric references kept outside of the registry (like the JMX ones) only see the values as of the last lookup or
+ * the last time the owner of the rollup ran it.
+ */
+public class RollupMetricRegistry extends MetricRegistry {
+  private final List<Runnable> rollups = new CopyOnWriteArrayList<>();
+
+  public void addRollup(Runnable rollup) {
+    rollups.add(rollup);
+  }
+
+  public void removeRollup(Runnable rollup) {
+    rollups.remove(rollup);
+  }
+
+  public void rollup() {
+    for (Runnable rollup : rollups) {
+      rollup.run();
+    }
+  }
+
+  @Override
+  public SortedMap<String, Gauge> getGauges(MetricFilter filter) {
+    rollup();
+    return super.getGauges(filter);
+  }
+
+  @Override
+  public SortedMap<String, Counter> getCounters(MetricFilter filter) {
+    rollup();
+    return super.getCounters(filter);
+  }
+
+  @Override
+  public SortedMap<String, Histogram> getHistograms(MetricFilter filter) {
+    rollup();
+    return super.getHistograms(filter);
+  }
+
+  @Override
+  public SortedMap<String, Meter> getMeters(MetricFilter filter) {
+    rollup();
+    return super.getMeters(filter);
+  }
+
+  @Override
+  public SortedMap<String, Timer> getTimers(MetricFilter filter) {
+    rollup();
+    return super.getTimers(filter);
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    rollup();
+    return super.getMetrics();
+  }
+
+}
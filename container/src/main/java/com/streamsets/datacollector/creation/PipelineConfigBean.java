@@ -62,7 +62,7 @@ import java.util.Map;
 @ConfigGroups(PipelineGroups.class)
 public class PipelineConfigBean implements Stage {
 
-  public static final int VERSION = 11;
+  public static final int VERSION = 12;
 
   public static final String DEFAULT_STATS_AGGREGATOR_LIBRARY_NAME = "streamsets-datacollector-basic-lib";
 
@@ -428,6 +428,21 @@ public class PipelineConfigBean implements Stage {
   )
   public long runnerIdleTIme = 60;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Scheduling Latency Target (ms)",
+      description = "When the data collector runs pipelines with cooperative scheduling, maximum wait between an " +
+          "empty batch and the next one. Use 0 for the latency target of the data collector",
+      min = 0,
+      dependencies = @Dependency(
+          configName = "executionMode", triggeredByValues = "STANDALONE"
+      ),
+      displayPosition = 215
+  )
+  public long schedulingLatencyTarget = 0;
+
   @ConfigDef(required = true,
       type = ConfigDef.Type.MODEL,
       defaultValue = "[]",
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.alerts.AlertEventListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
 import com.streamsets.datacollector.metrics.MetricsEventListener;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.dc.execution.manager.standalone.ThreadUsage;
@@ -147,6 +148,35 @@ public class EventListenerManager {
     }
   }
 
+  /**
+   * Notifies the metrics listeners of the pipeline, listeners supporting deltas only get the metrics that changed
+   * since their previous notification.
+   */
+  public void broadcastMetrics(String pipelineName, MetricsDeltaEncoder metricsDeltaEncoder) {
+    if(metricsEventListenerMap.containsKey(pipelineName) && metricsEventListenerMap.get(pipelineName).size() > 0) {
+      List<MetricsEventListener> metricsEventListenerListCopy;
+      synchronized (metricsEventListenerMap) {
+        metricsEventListenerListCopy = new ArrayList<>(metricsEventListenerMap.get(pipelineName));
+      }
+
+      for(MetricsEventListener metricsEventListener : metricsEventListenerListCopy) {
+        try {
+          String metrics = metricsDeltaEncoder.encode(
+              metricsEventListener,
+              metricsEventListener.isDeltaSupported()
+          );
+          if (metrics != null && !metricsEventListener.offerNotification(metrics)) {
+            // the listener missed changes, it gets a full snapshot next time
+            metricsDeltaEncoder.forget(metricsEventListener);
+          }
+        } catch(Exception ex) {
+          metricsDeltaEncoder.forget(metricsEventListener);
+          LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
+        }
+      }
+    }
+  }
+
   public void broadcastMetrics(String pipelineName, String metricsJSONStr) {
     if(metricsEventListenerMap.containsKey(pipelineName) && metricsEventListenerMap.get(pipelineName).size() > 0) {
       List<MetricsEventListener> metricsEventListenerListCopy;
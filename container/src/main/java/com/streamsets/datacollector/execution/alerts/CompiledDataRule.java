@@ -0,0 +1,245 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.alerts;
+
+import com.google.common.collect.EvictingQueue;
+import com.streamsets.datacollector.alerts.AlertsUtil;
+import com.streamsets.datacollector.config.DataRuleDefinition;
+import com.streamsets.datacollector.definition.ConcreteELDefinitionExtractor;
+import com.streamsets.datacollector.el.ELEvaluator;
+import com.streamsets.datacollector.el.ELVariables;
+import com.streamsets.datacollector.el.RuleELRegistry;
+import com.streamsets.datacollector.execution.runner.common.SampledRecord;
+import com.streamsets.datacollector.util.ObserverException;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.el.ELEvalException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.el.RecordEL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Data rule prepared for evaluation on the pipeline runner threads.
+ *
+ * The EL evaluators are created once per rule configuration and the EL variables are kept per runner thread. Evaluated
+ * and matching record counts go to striped counters, so runners don't contend on them. Only the records retained as
+ * samples for the rule are copied. The data observer thread periodically collects the accumulated results to update
+ * the rule metrics and raise alerts.
+ */
+public class CompiledDataRule {
+
+  // Upper bounds for the alert texts and errors that are kept between two collections
+  static final int MAX_ALERT_TEXTS = 100;
+  static final int MAX_ERRORS = 10;
+
+  private final DataRuleDefinition dataRuleDefinition;
+  private final ELEvaluator conditionEvaluator;
+  private final ELEvaluator alertTextEvaluator;
+  private final ThreadLocal<ELVariables> elVars;
+
+  private final LongAdder evaluatedRecords;
+  private final LongAdder matchingRecords;
+  private long collectedEvaluatedRecords;
+  private long collectedMatchingRecords;
+
+  // Guarded by this
+  private EvictingQueue<SampledRecord> sampledRecords;
+  private List<String> alertTexts;
+  private List<String> errors;
+  private final int sampledRecordsToRetain;
+
+  public CompiledDataRule(
+      DataRuleDefinition dataRuleDefinition,
+      Map<String, Object> pipelineELContext,
+      int sampledRecordsToRetain
+  ) {
+    this.dataRuleDefinition = dataRuleDefinition;
+    this.conditionEvaluator = new ELEvaluator(
+        "el",
+        false,
+        ConcreteELDefinitionExtractor.get(),
+        RuleELRegistry.getRuleELs(dataRuleDefinition.getFamily())
+    );
+    this.alertTextEvaluator = new ELEvaluator(
+        "alertInfo",
+        false,
+        ConcreteELDefinitionExtractor.get(),
+        RuleELRegistry.getRuleELs(RuleELRegistry.ALERT)
+    );
+    this.elVars = ThreadLocal.withInitial(() -> {
+      ELVariables variables = new ELVariables();
+      variables.addContextVariable(DataRuleEvaluator.PIPELINE_CONTEXT, pipelineELContext);
+      variables.addContextVariable(DataRuleEvaluator.RULE_ID_CONTEXT, dataRuleDefinition.getId());
+      return variables;
+    });
+    this.evaluatedRecords = new LongAdder();
+    this.matchingRecords = new LongAdder();
+    this.sampledRecordsToRetain = sampledRecordsToRetain;
+    this.sampledRecords = EvictingQueue.create(sampledRecordsToRetain);
+    this.alertTexts = new ArrayList<>();
+    this.errors = new ArrayList<>();
+  }
+
+  public DataRuleDefinition getDataRuleDefinition() {
+    return dataRuleDefinition;
+  }
+
+  /**
+   * Evaluates the rule condition for the given record, a faulty condition is recorded as an error and doesn't match.
+   */
+  public boolean evaluate(Record record) {
+    try {
+      return AlertsUtil.evaluateRecord(record, dataRuleDefinition.getCondition(), elVars.get(), conditionEvaluator);
+    } catch (ObserverException e) {
+      addError(e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Resolves the alert text for a matching record, unless enough alert texts are already waiting for collection.
+   * Must be called right after {@link #evaluate(Record)} on the same thread as the condition might set alert info.
+   */
+  public void addAlertText(Record record) {
+    synchronized (this) {
+      if (alertTexts.size() >= MAX_ALERT_TEXTS) {
+        return;
+      }
+    }
+    String alertText = resolveAlertText(record);
+    synchronized (this) {
+      alertTexts.add(alertText);
+    }
+  }
+
+  public synchronized void addSampledRecord(SampledRecord sampledRecord) {
+    sampledRecords.add(sampledRecord);
+  }
+
+  /**
+   * Adds the counts of one batch, the evaluated count is added first so that a concurrent collection never sees more
+   * matching than evaluated records.
+   */
+  public void addCounts(int evaluatedRecordCount, int matchingRecordCount) {
+    evaluatedRecords.add(evaluatedRecordCount);
+    matchingRecords.add(matchingRecordCount);
+  }
+
+  /**
+   * Returns what was accumulated since the previous collection. Must only be called from a single thread.
+   */
+  public Results collect() {
+    long matching = matchingRecords.sum();
+    long evaluated = evaluatedRecords.sum();
+    Results results;
+    synchronized (this) {
+      results = new Results(
+          evaluated - collectedEvaluatedRecords,
+          matching - collectedMatchingRecords,
+          alertTexts.isEmpty() ? Collections.<String>emptyList() : alertTexts,
+          sampledRecords.isEmpty() ? Collections.<SampledRecord>emptyList() : new ArrayList<>(sampledRecords),
+          errors.isEmpty() ? Collections.<String>emptyList() : errors
+      );
+      if (!alertTexts.isEmpty()) {
+        alertTexts = new ArrayList<>();
+      }
+      if (!sampledRecords.isEmpty()) {
+        sampledRecords = EvictingQueue.create(sampledRecordsToRetain);
+      }
+      if (!errors.isEmpty()) {
+        errors = new ArrayList<>();
+      }
+    }
+    collectedEvaluatedRecords = evaluated;
+    collectedMatchingRecords = matching;
+    return results;
+  }
+
+  private String resolveAlertText(Record record) {
+    String alertText = dataRuleDefinition.getAlertText();
+    if (alertText == null) {
+      alertText = "";
+    }
+    try {
+      ELVariables variables = elVars.get();
+      RecordEL.setRecordInContext(variables, record);
+      return alertTextEvaluator.eval(variables, alertText, String.class);
+    } catch (ELEvalException e) {
+      addError(Utils.format(
+          "Error resolving rule '{}' alert text '{}', reason: {}",
+          dataRuleDefinition.getId(),
+          dataRuleDefinition.getAlertText(),
+          e.toString()
+      ));
+      return "[Could not resolve alert info]: " + dataRuleDefinition.getAlertText();
+    }
+  }
+
+  private synchronized void addError(String error) {
+    if (errors.size() < MAX_ERRORS) {
+      errors.add(error);
+    }
+  }
+
+  /**
+   * Evaluation results of a data rule between two collections.
+   */
+  public static class Results {
+    private final long evaluatedRecordCount;
+    private final long matchingRecordCount;
+    private final List<String> alertTexts;
+    private final List<SampledRecord> sampledRecords;
+    private final List<String> errors;
+
+    Results(
+        long evaluatedRecordCount,
+        long matchingRecordCount,
+        List<String> alertTexts,
+        List<SampledRecord> sampledRecords,
+        List<String> errors
+    ) {
+      this.evaluatedRecordCount = evaluatedRecordCount;
+      this.matchingRecordCount = matchingRecordCount;
+      this.alertTexts = alertTexts;
+      this.sampledRecords = sampledRecords;
+      this.errors = errors;
+    }
+
+    public long getEvaluatedRecordCount() {
+      return evaluatedRecordCount;
+    }
+
+    public long getMatchingRecordCount() {
+      return matchingRecordCount;
+    }
+
+    public List<String> getAlertTexts() {
+      return alertTexts;
+    }
+
+    public List<SampledRecord> getSampledRecords() {
+      return sampledRecords;
+    }
+
+    public List<String> getErrors() {
+      return errors;
+    }
+  }
+}
@@ -146,18 +146,7 @@ public class DataRuleEvaluator {
       elVars.addContextVariable(RULE_ID_CONTEXT, dataRuleDefinition.getId());
 
       //cache all sampled records for this data rule definition in an evicting queue
-      EvictingQueue<SampledRecord> sampledRecords = ruleToSampledRecordsMap.get(dataRuleDefinition.getId());
-      if (sampledRecords == null) {
-        int maxSize = configuration.get(
-            Constants.SAMPLED_RECORDS_MAX_CACHE_SIZE_KEY,
-            Constants.SAMPLED_RECORDS_MAX_CACHE_SIZE_DEFAULT);
-        int size = dataRuleDefinition.getSamplingRecordsToRetain();
-        if (size > maxSize) {
-          size = maxSize;
-        }
-        sampledRecords = EvictingQueue.create(size);
-        ruleToSampledRecordsMap.put(dataRuleDefinition.getId(), sampledRecords);
-      }
+      EvictingQueue<SampledRecord> sampledRecords = getSampledRecordsQueue(ruleToSampledRecordsMap);
       //Meter
       //evaluate sample set of records for condition
       int matchingRecordCount = 0;
@@ -176,120 +165,171 @@ public class DataRuleEvaluator {
         }
       }
 
-      if (dataRuleDefinition.isAlertEnabled()) {
-        //Keep the counters and meters ready before execution
-        //batch record counter - cummulative sum of records per batch
-        Counter evaluatedRecordCounter =
-            MetricsConfigurator.getCounter(metrics, LaneResolver.getPostFixedLaneForObserver(
-                lane));
-        if (evaluatedRecordCounter == null) {
-          evaluatedRecordCounter = MetricsConfigurator.createCounter(metrics, LaneResolver.getPostFixedLaneForObserver(
-              lane), name, rev);
-          if (metricRegistryJson != null) {
-            CounterJson counterJson =
-              metricRegistryJson.getCounters().get(
-                LaneResolver.getPostFixedLaneForObserver(lane) + MetricsConfigurator.COUNTER_SUFFIX);
-            evaluatedRecordCounter.inc(counterJson.getCount());
-          }
+      updateMetricsAndAlert(lane, evaluatedRecordCount, matchingRecordCount, alertTextForMatchRecords);
+    }
+  }
+
+  /**
+   * Applies the results that were accumulated by a {@link CompiledDataRule} on the pipeline runner threads.
+   */
+  public void evaluateRule(CompiledDataRule.Results results, String lane,
+      Map<String, EvictingQueue<SampledRecord>> ruleToSampledRecordsMap) {
+
+    for (String error : results.getErrors()) {
+      //A faulty condition or alert text should not take down rest of the alerts with it.
+      LOG.error("Error processing rule definition '{}', reason: {}", dataRuleDefinition.getId(), error);
+      alertManager.alertException(error, dataRuleDefinition);
+    }
+
+    if (dataRuleDefinition.isEnabled() && results.getEvaluatedRecordCount() > 0) {
+      EvictingQueue<SampledRecord> sampledRecords = getSampledRecordsQueue(ruleToSampledRecordsMap);
+      sampledRecords.addAll(results.getSampledRecords());
+      updateMetricsAndAlert(
+          lane,
+          results.getEvaluatedRecordCount(),
+          results.getMatchingRecordCount(),
+          results.getAlertTexts()
+      );
+    }
+  }
+
+  private EvictingQueue<SampledRecord> getSampledRecordsQueue(
+      Map<String, EvictingQueue<SampledRecord>> ruleToSampledRecordsMap
+  ) {
+    EvictingQueue<SampledRecord> sampledRecords = ruleToSampledRecordsMap.get(dataRuleDefinition.getId());
+    if (sampledRecords == null) {
+      int maxSize = configuration.get(
+          Constants.SAMPLED_RECORDS_MAX_CACHE_SIZE_KEY,
+          Constants.SAMPLED_RECORDS_MAX_CACHE_SIZE_DEFAULT);
+      int size = dataRuleDefinition.getSamplingRecordsToRetain();
+      if (size > maxSize) {
+        size = maxSize;
+      }
+      sampledRecords = EvictingQueue.create(size);
+      ruleToSampledRecordsMap.put(dataRuleDefinition.getId(), sampledRecords);
+    }
+    return sampledRecords;
+  }
+
+  private void updateMetricsAndAlert(
+      String lane,
+      long evaluatedRecordCount,
+      long matchingRecordCount,
+      List<String> alertTextForMatchRecords
+  ) {
+    if (dataRuleDefinition.isAlertEnabled()) {
+      //Keep the counters and meters ready before execution
+      //batch record counter - cummulative sum of records per batch
+      Counter evaluatedRecordCounter =
+          MetricsConfigurator.getCounter(metrics, LaneResolver.getPostFixedLaneForObserver(
+              lane));
+      if (evaluatedRecordCounter == null) {
+        evaluatedRecordCounter = MetricsConfigurator.createCounter(metrics, LaneResolver.getPostFixedLaneForObserver(
+            lane), name, rev);
+        if (metricRegistryJson != null) {
+          CounterJson counterJson =
+            metricRegistryJson.getCounters().get(
+              LaneResolver.getPostFixedLaneForObserver(lane) + MetricsConfigurator.COUNTER_SUFFIX);
+          evaluatedRecordCounter.inc(counterJson.getCount());
         }
-        //counter for the matching records - cummulative sum of records that match criteria
-        Counter matchingRecordCounter =
-            MetricsConfigurator.getCounter(metrics, USER_PREFIX + dataRuleDefinition.getId());
-        if (matchingRecordCounter == null) {
-          matchingRecordCounter =
-            MetricsConfigurator.createCounter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name, rev);
-          if (metricRegistryJson != null) {
-            CounterJson counterJson =
-              metricRegistryJson.getCounters().get(
-                USER_PREFIX + dataRuleDefinition.getId() + MetricsConfigurator.COUNTER_SUFFIX);
-            matchingRecordCounter.inc(counterJson.getCount());
-          }
+      }
+      //counter for the matching records - cummulative sum of records that match criteria
+      Counter matchingRecordCounter =
+          MetricsConfigurator.getCounter(metrics, USER_PREFIX + dataRuleDefinition.getId());
+      if (matchingRecordCounter == null) {
+        matchingRecordCounter =
+          MetricsConfigurator.createCounter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name, rev);
+        if (metricRegistryJson != null) {
+          CounterJson counterJson =
+            metricRegistryJson.getCounters().get(
+              USER_PREFIX + dataRuleDefinition.getId() + MetricsConfigurator.COUNTER_SUFFIX);
+          matchingRecordCounter.inc(counterJson.getCount());
         }
+      }
 
-        evaluatedRecordCounter.inc(evaluatedRecordCount);
-        matchingRecordCounter.inc(matchingRecordCount);
+      evaluatedRecordCounter.inc(evaluatedRecordCount);
+      matchingRecordCounter.inc(matchingRecordCount);
 
-        double threshold;
-        try {
-          threshold = Double.parseDouble(dataRuleDefinition.getThresholdValue());
-        } catch (NumberFormatException e) {
-          //Soft error for now as we don't want this alert to stop other rules
-          LOG.error("Error interpreting threshold '{}' as a number", dataRuleDefinition.getThresholdValue(), e);
-          return;
-        }
-        switch (dataRuleDefinition.getThresholdType()) {
-          case COUNT:
-            if (matchingRecordCounter.getCount() > threshold) {
-              if (dataRuleDefinition instanceof DriftRuleDefinition) {
-                if (isStatAggregationEnabled()) {
-                  createAndEnqueDataRuleRecord(dataRuleDefinition, evaluatedRecordCount, matchingRecordCount, alertTextForMatchRecords);
-                } else {
-                  for (String alertText : alertTextForMatchRecords) {
-                    alertManager.alert(
-                        matchingRecordCounter.getCount(),
-                        ruleDefinitionsConfigBean,
-                        AlertManagerHelper.cloneRuleWithResolvedAlertText(dataRuleDefinition, alertText)
-                    );
-                  }
-                }
-              } else if (dataRuleDefinition instanceof DataRuleDefinition) {
-                if (isStatAggregationEnabled()) {
-                  createAndEnqueDataRuleRecord(
-                      dataRuleDefinition,
-                      evaluatedRecordCount,
-                      matchingRecordCount,
-                      alertTextForMatchRecords
-                  );
-                } else {
+      double threshold;
+      try {
+        threshold = Double.parseDouble(dataRuleDefinition.getThresholdValue());
+      } catch (NumberFormatException e) {
+        //Soft error for now as we don't want this alert to stop other rules
+        LOG.error("Error interpreting threshold '{}' as a number", dataRuleDefinition.getThresholdValue(), e);
+        return;
+      }
+      switch (dataRuleDefinition.getThresholdType()) {
+        case COUNT:
+          if (matchingRecordCounter.getCount() > threshold) {
+            if (dataRuleDefinition instanceof DriftRuleDefinition) {
+              if (isStatAggregationEnabled()) {
+                createAndEnqueDataRuleRecord(dataRuleDefinition, evaluatedRecordCount, matchingRecordCount, alertTextForMatchRecords);
+              } else {
+                for (String alertText : alertTextForMatchRecords) {
                   alertManager.alert(
                       matchingRecordCounter.getCount(),
                       ruleDefinitionsConfigBean,
-                      AlertManagerHelper.cloneRuleWithResolvedAlertText(
-                          dataRuleDefinition,
-                          alertTextForMatchRecords.get(0)
-                      )
+                      AlertManagerHelper.cloneRuleWithResolvedAlertText(dataRuleDefinition, alertText)
                   );
                 }
-              } else {
-                throw new RuntimeException(Utils.format(
-                    "Unexpected RuleDefinition class '{}'",
-                    dataRuleDefinition.getClass().getName()
-                ));
               }
-            }
-            break;
-          case PERCENTAGE:
-            if ((matchingRecordCounter.getCount() * 100.0 / evaluatedRecordCounter.getCount()) > threshold
-                && evaluatedRecordCounter.getCount() >= dataRuleDefinition.getMinVolume()) {
-              if(isStatAggregationEnabled()) {
+            } else if (dataRuleDefinition instanceof DataRuleDefinition) {
+              if (isStatAggregationEnabled()) {
                 createAndEnqueDataRuleRecord(
                     dataRuleDefinition,
                     evaluatedRecordCount,
                     matchingRecordCount,
                     alertTextForMatchRecords
                 );
-              } else {
+              } else if (!alertTextForMatchRecords.isEmpty()) {
                 alertManager.alert(
-                  matchingRecordCounter.getCount(),
-                  ruleDefinitionsConfigBean,
-                  AlertManagerHelper.cloneRuleWithResolvedAlertText(
-                      dataRuleDefinition,
-                      alertTextForMatchRecords.get(0)
-                  )
+                    matchingRecordCounter.getCount(),
+                    ruleDefinitionsConfigBean,
+                    AlertManagerHelper.cloneRuleWithResolvedAlertText(
+                        dataRuleDefinition,
+                        alertTextForMatchRecords.get(0)
+                    )
                 );
               }
+            } else {
+              throw new RuntimeException(Utils.format(
+                  "Unexpected RuleDefinition class '{}'",
+                  dataRuleDefinition.getClass().getName()
+              ));
             }
-            break;
-        }
+          }
+          break;
+        case PERCENTAGE:
+          if ((matchingRecordCounter.getCount() * 100.0 / evaluatedRecordCounter.getCount()) > threshold
+              && evaluatedRecordCounter.getCount() >= dataRuleDefinition.getMinVolume()) {
+            if(isStatAggregationEnabled()) {
+              createAndEnqueDataRuleRecord(
+                  dataRuleDefinition,
+                  evaluatedRecordCount,
+                  matchingRecordCount,
+                  alertTextForMatchRecords
+              );
+            } else if (!alertTextForMatchRecords.isEmpty()) {
+              alertManager.alert(
+                matchingRecordCounter.getCount(),
+                ruleDefinitionsConfigBean,
+                AlertManagerHelper.cloneRuleWithResolvedAlertText(
+                    dataRuleDefinition,
+                    alertTextForMatchRecords.get(0)
+                )
+              );
+            }
+          }
+          break;
       }
+    }
 
-      if (dataRuleDefinition.isMeterEnabled() && matchingRecordCount > 0) {
-        Meter meter = MetricsConfigurator.getMeter(metrics, USER_PREFIX + dataRuleDefinition.getId());
-        if (meter == null) {
-          meter = MetricsConfigurator.createMeter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name ,rev);
-        }
-        meter.mark(matchingRecordCount);
+    if (dataRuleDefinition.isMeterEnabled() && matchingRecordCount > 0) {
+      Meter meter = MetricsConfigurator.getMeter(metrics, USER_PREFIX + dataRuleDefinition.getId());
+      if (meter == null) {
+        meter = MetricsConfigurator.createMeter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name ,rev);
       }
+      meter.mark(matchingRecordCount);
     }
   }
 
@@ -355,8 +395,8 @@ public class DataRuleEvaluator {
 
   private void createAndEnqueDataRuleRecord(
     DataRuleDefinition dataRuleDefinition,
-    int evaluatedRecordCount,
-    int matchingRecordCount,
+    long evaluatedRecordCount,
+    long matchingRecordCount,
     List<String> alertTextForMatchRecords
   ) {
     AggregatorUtil.enqueStatsRecord(
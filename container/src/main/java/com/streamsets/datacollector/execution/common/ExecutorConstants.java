@@ -24,6 +24,13 @@ public class ExecutorConstants {
   public static final int RUNNER_THREAD_POOL_SIZE_DEFAULT = 50;
   public static final int RUNNER_THREAD_POOL_SIZE_MULTIPLIER = 10;
 
+  public static final String RUNNER_COOPERATIVE_SCHEDULING_KEY = "runner.cooperative.scheduling.enabled";
+  public static final boolean RUNNER_COOPERATIVE_SCHEDULING_DEFAULT = false;
+  public static final String RUNNER_COOPERATIVE_THREAD_POOL_SIZE_KEY = "runner.cooperative.thread.pool.size";
+  public static final int RUNNER_COOPERATIVE_THREAD_POOL_SIZE_DEFAULT = 16;
+  public static final String RUNNER_COOPERATIVE_LATENCY_TARGET_KEY = "runner.cooperative.latency.target.ms";
+  public static final long RUNNER_COOPERATIVE_LATENCY_TARGET_DEFAULT = 1000;
+
   public static final String RUNNER_STOP_THREAD_POOL_SIZE_KEY = "runner_stop.thread.pool.size";
   public static final String RUNNER_STOP_THREAD_POOL_KEEP_ALIVE_TIME_KEY = "runner_stop.thread.pool.size";
   public static final int RUNNER_STOP_THREAD_POOL_KEEP_ALIVE_TIME_DEFAULT = 5;
@@ -16,6 +16,7 @@
 package com.streamsets.datacollector.execution.executor;
 
 import com.streamsets.datacollector.execution.common.ExecutorConstants;
+import com.streamsets.datacollector.execution.runner.common.BatchScheduler;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.metrics.MetricSafeScheduledExecutorService;
@@ -130,6 +131,11 @@ public class ExecutorModule {
     return new ResourceManager(configuration);
   }
 
+  @Provides @Singleton
+  BatchScheduler provideBatchScheduler(Configuration configuration) {
+    return new BatchScheduler(configuration);
+  }
+
   public static int getPreviewerSize(Configuration configuration) {
     return configuration.get(
       ExecutorConstants.PREVIEWER_THREAD_POOL_SIZE_KEY,
@@ -15,6 +15,8 @@
  */
 package com.streamsets.datacollector.execution.executor;
 
+import com.streamsets.datacollector.execution.common.ExecutorConstants;
+import com.streamsets.datacollector.execution.runner.common.BatchScheduler;
 import com.streamsets.datacollector.main.SlaveRuntimeModule;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.dc.execution.manager.standalone.ResourceManager;
@@ -78,4 +80,11 @@ public class SlaveExecutorModule {
   ResourceManager provideResourceManager(Configuration configuration) {
     return new ResourceManager(configuration);
   }
+
+  @Provides
+  @Singleton
+  BatchScheduler provideBatchScheduler() {
+    // cluster slaves always run the pipeline on its own thread
+    return new BatchScheduler(false, 1, ExecutorConstants.RUNNER_COOPERATIVE_LATENCY_TARGET_DEFAULT);
+  }
 }
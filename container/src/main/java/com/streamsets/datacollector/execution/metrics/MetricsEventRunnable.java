@@ -35,6 +35,7 @@ import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner
 import com.streamsets.datacollector.http.SnappyWriterInterceptor;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
 import com.streamsets.datacollector.restapi.bean.CounterJson;
 import com.streamsets.datacollector.restapi.bean.MeterJson;
 import com.streamsets.datacollector.restapi.bean.MetricRegistryJson;
@@ -111,6 +112,7 @@ public class MetricsEventRunnable implements Runnable {
   private boolean isPipelineStopped = false;
   private WebTarget webTarget;
   private Stopwatch stopwatch = null;
+  private final MetricsDeltaEncoder metricsDeltaEncoder = new MetricsDeltaEncoder(ObjectMapperFactory.getOneLine());
 
   @Inject
   public MetricsEventRunnable(
@@ -167,26 +169,34 @@ public class MetricsEventRunnable implements Runnable {
       if(threadHealthReporter != null) {
         threadHealthReporter.reportHealth(RUNNABLE_NAME, scheduledDelay, System.currentTimeMillis());
       }
-      ObjectMapper objectMapper = ObjectMapperFactory.get();
+      ObjectMapper objectMapper = ObjectMapperFactory.getOneLine();
       PipelineState state = pipelineStateStore.getState(name, rev);
       if (hasMetricEventListeners(state) ||
           (isDPMPipeline && (isWriteStatsToDPMDirectlyEnabled() || isStatAggregationEnabled()))) {
         // compute aggregated metrics in case of cluster mode pipeline
         // get individual pipeline metrics if non cluster mode pipeline
-        String metricsJSONStr;
+        MetricRegistryJson aggregatedMetrics = null;
+        String metricsJSONStr = null;
         if (state.getExecutionMode() == ExecutionMode.CLUSTER_BATCH
           || state.getExecutionMode() == ExecutionMode.CLUSTER_YARN_STREAMING
           || state.getExecutionMode() == ExecutionMode.CLUSTER_MESOS_STREAMING) {
-          MetricRegistryJson metricRegistryJson = getAggregatedMetrics();
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistryJson);
-        } else {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
+          aggregatedMetrics = getAggregatedMetrics();
+          metricsJSONStr = objectMapper.writer().writeValueAsString(aggregatedMetrics);
         }
         if (hasMetricEventListeners(state)) {
-          eventListenerManager.broadcastMetrics(name, metricsJSONStr);
+          if (aggregatedMetrics != null) {
+            eventListenerManager.broadcastMetrics(name, metricsJSONStr);
+          } else {
+            // only the metrics that changed since the last refresh are serialized
+            metricsDeltaEncoder.update(metricRegistry);
+            eventListenerManager.broadcastMetrics(name, metricsDeltaEncoder);
+          }
         }
         // don't queue stats record when pipeline is stopped as runner is not going to process any more batches
         if (isStatAggregationEnabled() && !isPipelineStopped) {
+          if (metricsJSONStr == null) {
+            metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
+          }
           AggregatorUtil.enqueStatsRecord(
             AggregatorUtil.createMetricJsonRecord(
                 runtimeInfo.getId(),
@@ -203,7 +213,7 @@ public class MetricsEventRunnable implements Runnable {
         } else if (isDPMPipeline && isWriteStatsToDPMDirectlyEnabled() &&
             state.getExecutionMode() != ExecutionMode.SLAVE) {
           // Write Stats to Control hub is not supported for slave nodes
-          sendMetricsToDPM(pipelineConfiguration, metricsJSONStr);
+          sendMetricsToDPM(pipelineConfiguration, aggregatedMetrics);
         }
       }
     } catch (IOException ex) {
@@ -344,7 +354,7 @@ public class MetricsEventRunnable implements Runnable {
 
   private void sendMetricsToDPM(
       PipelineConfiguration pipelineConfiguration,
-      String metricsJSONStr
+      MetricRegistryJson aggregatedMetrics
   ) throws IOException {
     if (stopwatch == null || stopwatch.elapsed(TimeUnit.MILLISECONDS) > waitTimeBetweenUpdates) {
       SDCMetricsJson sdcMetricsJson = new SDCMetricsJson();
@@ -352,7 +362,12 @@ public class MetricsEventRunnable implements Runnable {
       sdcMetricsJson.setAggregated(false);
       sdcMetricsJson.setSdcId(runtimeInfo.getId());
       sdcMetricsJson.setMasterSdcId(runtimeInfo.getMasterSDCId());
-      sdcMetricsJson.setMetrics(ObjectMapperFactory.get().readValue(metricsJSONStr, MetricRegistryJson.class));
+      if (aggregatedMetrics != null) {
+        sdcMetricsJson.setMetrics(aggregatedMetrics);
+      } else {
+        // converted through a token buffer rather than serialized to a String and parsed back
+        sdcMetricsJson.setMetrics(ObjectMapperFactory.get().convertValue(metricRegistry, MetricRegistryJson.class));
+      }
       Map<String, String> metadata = new HashMap<>();
       if (pipelineConfiguration.getMetadata() != null && !pipelineConfiguration.getMetadata().isEmpty()) {
         for (Map.Entry<String, Object> e : pipelineConfiguration.getMetadata().entrySet()) {
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.execution.common.ExecutorConstants;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the batches of many pipelines on a small pool of shared threads.
+ * <p/>
+ * A scheduled pipeline does not own a thread, every turn runs a single batch and gives the thread back. Tasks are
+ * run in order of their due time: a task whose last batch had data is due immediately and goes after the tasks that
+ * are already waiting, so busy pipelines take turns. A task whose last batch was empty waits before its next turn,
+ * the wait doubles after every empty batch up to the latency target of the task. {@link Handle#wakeUp()} makes a
+ * waiting task due immediately.
+ * <p/>
+ * Enabled with <code>runner.cooperative.scheduling.enabled</code>, the threads are only started when the first task
+ * is scheduled.
+ */
+public class BatchScheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(BatchScheduler.class);
+  private static final String THREAD_NAME = "BatchScheduler";
+
+  // wait after the first empty batch, it doubles on every other empty batch up to the latency target
+  @VisibleForTesting
+  static final long MIN_IDLE_WAIT_MILLIS = 10;
+
+  /**
+   * Pipeline executed by the scheduler.
+   */
+  public interface Task {
+
+    /**
+     * Runs a single batch.
+     *
+     * @return true if the batch had data, false if the origin was idle.
+     */
+    boolean runBatch() throws Exception;
+
+    /**
+     * Returns true when the task does not need more batches, it is checked before and after every batch.
+     */
+    boolean isDone();
+
+    /**
+     * Called once, when the task is done or a batch failed.
+     *
+     * @param error the exception thrown by the last batch, null if the task is done.
+     */
+    void done(Throwable error);
+  }
+
+  /**
+   * Handle of a scheduled task.
+   */
+  public interface Handle {
+
+    /**
+     * Makes the task due immediately, for example when new data is available or the pipeline is being stopped.
+     */
+    void wakeUp();
+  }
+
+  private enum State { WAITING, RUNNING, DONE }
+
+  private final boolean enabled;
+  private final int poolSize;
+  private final long defaultLatencyTargetMillis;
+  private final DelayQueue<ScheduledTask> queue = new DelayQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final List<Thread> threads = new ArrayList<>();
+  private volatile boolean shutdown;
+
+  @Inject
+  public BatchScheduler(Configuration configuration) {
+    this(
+        configuration.get(
+            ExecutorConstants.RUNNER_COOPERATIVE_SCHEDULING_KEY,
+            ExecutorConstants.RUNNER_COOPERATIVE_SCHEDULING_DEFAULT
+        ),
+        configuration.get(
+            ExecutorConstants.RUNNER_COOPERATIVE_THREAD_POOL_SIZE_KEY,
+            ExecutorConstants.RUNNER_COOPERATIVE_THREAD_POOL_SIZE_DEFAULT
+        ),
+        configuration.get(
+            ExecutorConstants.RUNNER_COOPERATIVE_LATENCY_TARGET_KEY,
+            ExecutorConstants.RUNNER_COOPERATIVE_LATENCY_TARGET_DEFAULT
+        )
+    );
+  }
+
+  public BatchScheduler(boolean enabled, int poolSize, long defaultLatencyTargetMillis) {
+    Utils.checkArgument(poolSize > 0, "The pool size must be greater than zero");
+    Utils.checkArgument(defaultLatencyTargetMillis >= MIN_IDLE_WAIT_MILLIS, Utils.formatL(
+        "The latency target must be at least {} ms",
+        MIN_IDLE_WAIT_MILLIS
+    ));
+    this.enabled = enabled;
+    this.poolSize = poolSize;
+    this.defaultLatencyTargetMillis = defaultLatencyTargetMillis;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long getDefaultLatencyTargetMillis() {
+    return defaultLatencyTargetMillis;
+  }
+
+  public Handle schedule(Task task) {
+    return schedule(task, defaultLatencyTargetMillis);
+  }
+
+  /**
+   * Schedules the task, its first batch is due immediately.
+   *
+   * @param latencyTargetMillis maximum wait between an empty batch and the next one.
+   */
+  public Handle schedule(Task task, long latencyTargetMillis) {
+    Utils.checkState(!shutdown, "The scheduler is shut down");
+    startThreads();
+    ScheduledTask scheduledTask = new ScheduledTask(task, Math.max(latencyTargetMillis, MIN_IDLE_WAIT_MILLIS));
+    synchronized (scheduledTask) {
+      scheduledTask.enqueue(0);
+    }
+    return scheduledTask;
+  }
+
+  /**
+   * Stops the threads, tasks still scheduled do not run again.
+   */
+  public void shutdown() {
+    shutdown = true;
+    synchronized (threads) {
+      for (Thread thread : threads) {
+        thread.interrupt();
+      }
+      threads.clear();
+    }
+  }
+
+  @VisibleForTesting
+  int getQueuedTasks() {
+    return queue.size();
+  }
+
+  private void startThreads() {
+    synchronized (threads) {
+      while (threads.size() < poolSize) {
+        Thread thread = new Thread(this::runTasks, THREAD_NAME + "-" + threads.size());
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+      }
+    }
+  }
+
+  private void runTasks() {
+    while (!shutdown) {
+      ScheduledTask task;
+      try {
+        task = queue.take();
+      } catch (InterruptedException e) {
+        LOG.debug("Batch scheduler thread interrupted");
+        return;
+      }
+      task.runTurn();
+      // a batch may interrupt the thread, for example when a pipeline is force quit
+      if (Thread.interrupted() && !shutdown) {
+        LOG.debug("Cleared interrupt of batch scheduler thread after a batch");
+      }
+    }
+  }
+
+  private class ScheduledTask implements Delayed, Handle {
+    private final Task task;
+    private final long latencyTargetMillis;
+    private State state;
+    private boolean wokenUp;
+    private long idleWaitMillis;
+    private long dueNanos;
+    private long order;
+
+    ScheduledTask(Task task, long latencyTargetMillis) {
+      this.task = task;
+      this.latencyTargetMillis = latencyTargetMillis;
+    }
+
+    // must be called holding the lock of this task
+    private void enqueue(long waitMillis) {
+      state = State.WAITING;
+      dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+      order = sequence.getAndIncrement();
+      queue.add(this);
+    }
+
+    @Override
+    public synchronized void wakeUp() {
+      if (state == State.WAITING && queue.remove(this)) {
+        idleWaitMillis = 0;
+        enqueue(0);
+      } else if (state == State.RUNNING) {
+        wokenUp = true;
+      }
+    }
+
+    void runTurn() {
+      synchronized (this) {
+        state = State.RUNNING;
+        wokenUp = false;
+      }
+      boolean hadData = false;
+      boolean done;
+      Throwable error = null;
+      try {
+        done = task.isDone();
+        if (!done) {
+          hadData = task.runBatch();
+          done = task.isDone();
+        }
+      } catch (Throwable t) {
+        error = t;
+        done = true;
+      }
+
+      if (done) {
+        synchronized (this) {
+          state = State.DONE;
+        }
+        try {
+          task.done(error);
+        } catch (Throwable t) {
+          LOG.error("Error while completing scheduled pipeline: {}", t.toString(), t);
+        }
+        return;
+      }
+
+      synchronized (this) {
+        if (hadData || wokenUp) {
+          idleWaitMillis = 0;
+        } else {
+          idleWaitMillis = Math.min(Math.max(idleWaitMillis * 2, MIN_IDLE_WAIT_MILLIS), latencyTargetMillis);
+        }
+        enqueue(idleWaitMillis);
+      }
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      ScheduledTask task = (ScheduledTask) other;
+      int compare = Long.compare(dueNanos - task.dueNanos, 0);
+      return (compare != 0) ? compare : Long.compare(order, task.order);
+    }
+  }
+}
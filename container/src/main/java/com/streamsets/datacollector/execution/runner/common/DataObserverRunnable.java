@@ -79,17 +79,7 @@ public class DataObserverRunnable implements Runnable {
         try {
           Object request = requestQueue.poll(1000, TimeUnit.MILLISECONDS);
           if (request != null) {
-            if (request instanceof DataRulesEvaluationRequest) {
-              //data monitoring
-              dataObserverRunner.handleDataRulesEvaluationRequest((DataRulesEvaluationRequest) request);
-            } else if (request instanceof RulesConfigurationChangeRequest) {
-              //configuration changes
-              dataObserverRunner.handleConfigurationChangeRequest((RulesConfigurationChangeRequest) request);
-            } else if (request instanceof PipelineErrorNotificationRequest) {
-              dataObserverRunner.handlePipelineErrorNotificationRequest((PipelineErrorNotificationRequest) request);
-            } else {
-              LOG.error("Unknown request: " + request.getClass().getName());
-            }
+            handleRequest(request);
           }
         } catch (InterruptedException e) {
           LOG.debug("Stopping the Pipeline Observer, Reason: {}", e.toString(), e);
@@ -101,6 +91,32 @@ public class DataObserverRunnable implements Runnable {
     }
   }
 
+  /**
+   * Handles the requests already in the queue without waiting for new ones. Used instead of {@link #run()} when the
+   * pipeline runs on the BatchScheduler and the observer is scheduled periodically rather than owning a thread.
+   */
+  public void processPendingRequests() {
+    threadHealthReporter.reportHealth(RUNNABLE_NAME, SCHEDULED_DELAY, System.currentTimeMillis());
+    Object request;
+    while ((request = requestQueue.poll()) != null) {
+      handleRequest(request);
+    }
+  }
+
+  private void handleRequest(Object request) {
+    if (request instanceof DataRulesEvaluationRequest) {
+      //data monitoring
+      dataObserverRunner.handleDataRulesEvaluationRequest((DataRulesEvaluationRequest) request);
+    } else if (request instanceof RulesConfigurationChangeRequest) {
+      //configuration changes
+      dataObserverRunner.handleConfigurationChangeRequest((RulesConfigurationChangeRequest) request);
+    } else if (request instanceof PipelineErrorNotificationRequest) {
+      dataObserverRunner.handlePipelineErrorNotificationRequest((PipelineErrorNotificationRequest) request);
+    } else {
+      LOG.error("Unknown request: " + request.getClass().getName());
+    }
+  }
+
   public void setMetricRegistryJson(MetricRegistryJson metricRegistryJson) {
     dataObserverRunner.setMetricRegistryJson(metricRegistryJson);
   }
@@ -22,6 +22,7 @@ import com.streamsets.datacollector.config.DataRuleDefinition;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
 import com.streamsets.datacollector.creation.RuleDefinitionsConfigBean;
 import com.streamsets.datacollector.execution.alerts.AlertManager;
+import com.streamsets.datacollector.execution.alerts.CompiledDataRule;
 import com.streamsets.datacollector.execution.alerts.DataRuleEvaluator;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
 import com.streamsets.datacollector.restapi.bean.MetricRegistryJson;
@@ -83,45 +84,44 @@ public class DataObserverRunner {
   }
 
   void handleDataRulesEvaluationRequest(DataRulesEvaluationRequest dataRulesEvaluationRequest) {
+    // Results accumulated from now on need another request
+    dataRulesEvaluationRequest.clearPending();
 
-    //This is the map of ruleId vs sampled records
-    Map<String, Map<String, List<Record>>> snapshot = dataRulesEvaluationRequest.getSnapshot();
-    for(Map.Entry<String, Map<String, List<Record>>> e : snapshot.entrySet()) {
+    RuleDefinitionsConfigBean ruleDefinitionsConfigBean = null;
+    for(Map.Entry<String, List<CompiledDataRule>> e : dataRulesEvaluationRequest.getLaneToDataRules().entrySet()) {
       String lane = e.getKey();
-      Map<String, List<Record>> ruleIdToSampledRecords = e.getValue();
-      List<DataRuleDefinition> dataRuleDefinitions = rulesConfigurationChangeRequest.getLaneToDataRuleMap().get(lane);
-
-      if (dataRuleDefinitions != null) {
-        for (DataRuleDefinition dataRuleDefinition : dataRuleDefinitions) {
-          //sampled records for that rule
-          List<Record> sampledRecords = ruleIdToSampledRecords.get(dataRuleDefinition.getId());
-          if(dataRuleDefinition.isEnabled()  && sampledRecords != null && sampledRecords.size() > 0) {
-            //evaluate rule only if it is enabled and there are sampled records.
-            RuleDefinitionsConfigBean ruleDefinitionsConfigBean = PipelineBeanCreator.get()
+      for (CompiledDataRule dataRule : e.getValue()) {
+        DataRuleDefinition dataRuleDefinition = dataRule.getDataRuleDefinition();
+        CompiledDataRule.Results results = dataRule.collect();
+        boolean evaluated = results.getEvaluatedRecordCount() > 0 || !results.getErrors().isEmpty();
+        if(dataRuleDefinition.isEnabled() && evaluated) {
+          //evaluate rule only if it is enabled and records were evaluated since the last request.
+          if (ruleDefinitionsConfigBean == null) {
+            ruleDefinitionsConfigBean = PipelineBeanCreator.get()
                 .createRuleDefinitionsConfigBean(
                     rulesConfigurationChangeRequest.getRuleDefinitions(),
                     new ArrayList<Issue>(),
                     resolvedParameters
                 );
-            DataRuleEvaluator dataRuleEvaluator = new DataRuleEvaluator(
-                name,
-                rev,
-                metrics,
-                alertManager,
-                ruleDefinitionsConfigBean,
-                pipelineELContext,
-                dataRuleDefinition,
-                configuration,
-                metricRegistryJson,
-                startsAggregatorQueue
-            );
-            dataRuleEvaluator.evaluateRule(sampledRecords, lane, ruleToSampledRecordsMap);
-          } else if (!dataRuleDefinition.isEnabled()) {
-            //If data rule is disabled, clear the sampled records for that rule
-            EvictingQueue<SampledRecord> records = ruleToSampledRecordsMap.get(dataRuleDefinition.getId());
-            if(records != null) {
-              records.clear();
-            }
+          }
+          DataRuleEvaluator dataRuleEvaluator = new DataRuleEvaluator(
+              name,
+              rev,
+              metrics,
+              alertManager,
+              ruleDefinitionsConfigBean,
+              pipelineELContext,
+              dataRuleDefinition,
+              configuration,
+              metricRegistryJson,
+              startsAggregatorQueue
+          );
+          dataRuleEvaluator.evaluateRule(results, lane, ruleToSampledRecordsMap);
+        } else if (!dataRuleDefinition.isEnabled()) {
+          //If data rule is disabled, clear the sampled records for that rule
+          EvictingQueue<SampledRecord> records = ruleToSampledRecordsMap.get(dataRuleDefinition.getId());
+          if(records != null) {
+            records.clear();
           }
         }
       }
@@ -15,8 +15,8 @@
  */
 package com.streamsets.datacollector.execution.runner.common;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.streamsets.datacollector.config.DataRuleDefinition;
+import com.streamsets.datacollector.execution.alerts.CompiledDataRule;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.Observer;
 import com.streamsets.datacollector.runner.Pipe;
@@ -39,7 +39,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 public class ProductionObserver implements Observer {
 
@@ -52,11 +51,18 @@ public class ProductionObserver implements Observer {
   private volatile RulesConfigurationChangeRequest currentConfig;
   private volatile RulesConfigurationChangeRequest newConfig;
 
+  /*Data rules of the current configuration, compiled once and evaluated inline by the pipeline runner threads. The
+  same request is handed to the data observer thread which collects the accumulated results.*/
+  private volatile DataRulesEvaluationRequest dataRulesEvaluationRequest;
+  /*State shared by the drift rules across batches and runner threads*/
+  private final Map<String, Object> pipelineELContext;
+
    /*A lane has multiple rules with different sampling percentages.
     Pick the one with highest sampling %, say n and generate n integers between 0 and 99.
     All other rules for that lane pick a subset of numbers from that generated list based on their sampling %.
     Maintain a record counter per lane that counts the records that flows through it.
-    If the counter matches a generated number, that record is picked uo, cloned and sent for evaluation.
+    If the counter matches a generated number, that record is picked up, cloned and retained as sample for the rule.
+    Every record is evaluated regardless of sampling, sampling only decides which records are copied.
     This map holds the n generated numbers for the rule with max sampling % */
   private final ThreadLocal<Map<String, Set<Integer>>> laneToMaxRecordIndexMap;
   /*This map holds the generated numbers for each rule, which is selected from the n generated numbers for the rule
@@ -72,6 +78,7 @@ public class ProductionObserver implements Observer {
   public ProductionObserver(Configuration configuration, MetricsObserverRunner metricsObserverRunner) {
     this.configuration = configuration;
     this.metricsObserverRunner = metricsObserverRunner;
+    this.pipelineELContext = Collections.synchronizedMap(new HashMap<>());
     this.laneToMaxRecordIndexMap = ThreadLocal.withInitial(HashMap::new);
     this.ruleIdToRecordIndexMap = ThreadLocal.withInitial(HashMap::new);
     this.laneToRecordCounterMap = ThreadLocal.withInitial(HashMap::new);
@@ -90,11 +97,12 @@ public class ProductionObserver implements Observer {
   }
 
   @Override
-  public void reconfigure() {
+  public synchronized void reconfigure() {
     if(currentConfig != newConfig){
       this.currentConfig = this.newConfig;
       boolean offered = false;
       LOG.debug("Reconfiguring");
+      this.dataRulesEvaluationRequest = compileDataRules(this.currentConfig);
       //update the changes rule configuration in the metrics observer
       if(metricsObserverRunner != null) {
         metricsObserverRunner.setRulesConfigurationChangeRequest(this.currentConfig);
@@ -120,34 +128,21 @@ public class ProductionObserver implements Observer {
 
   @Override
   public void observe(Pipe pipe, Map<String, List<Record>> snapshot) {
-    Map<String, Map<String, List<Record>>> laneToRecordsMap = new HashMap<>();
-    Map<String, List<Record>> ruleIdToRecordsMap = new HashMap<>();
-    Map<String, Integer> laneToRecordsSizeMap = new HashMap<>();
+    DataRulesEvaluationRequest request = this.dataRulesEvaluationRequest;
+    if (request == null) {
+      return;
+    }
     for(Map.Entry<String, List<Record>> entry : snapshot.entrySet()) {
-      String lane = entry.getKey();
-      List<Record> allRecords = entry.getValue();
-      laneToRecordsSizeMap.put(lane, allRecords.size());
-      List<DataRuleDefinition> dataRuleDefinitions = currentConfig.getLaneToDataRuleMap().get(lane);
-      if(dataRuleDefinitions != null) {
-        Map<String, List<Record>> sampleRecords = getSampleRecords(dataRuleDefinitions, allRecords, lane);
-        for(Map.Entry<String, List<Record>> e : sampleRecords.entrySet()) {
-          ruleIdToRecordsMap.put(e.getKey(), e.getValue());
-        }
+      List<CompiledDataRule> dataRules = request.getLaneToDataRules().get(entry.getKey());
+      if(dataRules != null && !entry.getValue().isEmpty()) {
+        evaluateDataRules(entry.getKey(), dataRules, entry.getValue());
       }
-      laneToRecordsMap.put(lane, ruleIdToRecordsMap);
-    }
-    boolean offered;
-    try {
-      offered = observeRequests.offer(new DataRulesEvaluationRequest(laneToRecordsMap, laneToRecordsSizeMap),
-        configuration.get(Constants.MAX_OBSERVER_REQUEST_OFFER_WAIT_TIME_MS_KEY,
-        Constants.MAX_OBSERVER_REQUEST_OFFER_WAIT_TIME_MS_DEFAULT), TimeUnit.MILLISECONDS);
-    } catch (InterruptedException e) {
-      offered = false;
     }
-    if(!offered) {
-      LOG.error("Dropping DataRules Evaluation Request as observer queue is full. " +
-        "Please resize the observer queue or decrease the sampling percentage.");
-      //reconfigure queue size or tune sampling %
+    //The results are accumulated in the compiled rules, a single waiting request is enough for the data observer to
+    //collect them. If the queue is full the results are collected with the next request.
+    if(request.markPending() && !observeRequests.offer(request)) {
+      request.clearPending();
+      LOG.debug("Observer queue is full, data rule results will be collected with the next request");
     }
   }
 
@@ -156,9 +151,26 @@ public class ProductionObserver implements Observer {
     this.newConfig = rulesConfigurationChangeRequest;
   }
 
-  @VisibleForTesting
-  Map<String, List<Record>> getSampleRecords(List<DataRuleDefinition> dataRuleDefinitions,
-                                                     List<Record> allRecords, String lane) {
+  private DataRulesEvaluationRequest compileDataRules(RulesConfigurationChangeRequest config) {
+    if(config == null || config.getLaneToDataRuleMap() == null) {
+      return null;
+    }
+    int maxSize = configuration.get(
+      Constants.SAMPLED_RECORDS_MAX_CACHE_SIZE_KEY,
+      Constants.SAMPLED_RECORDS_MAX_CACHE_SIZE_DEFAULT);
+    Map<String, List<CompiledDataRule>> laneToDataRules = new HashMap<>();
+    for(Map.Entry<String, List<DataRuleDefinition>> entry : config.getLaneToDataRuleMap().entrySet()) {
+      List<CompiledDataRule> dataRules = new ArrayList<>(entry.getValue().size());
+      for(DataRuleDefinition dataRuleDefinition : entry.getValue()) {
+        int size = Math.min(dataRuleDefinition.getSamplingRecordsToRetain(), maxSize);
+        dataRules.add(new CompiledDataRule(dataRuleDefinition, pipelineELContext, size));
+      }
+      laneToDataRules.put(entry.getKey(), dataRules);
+    }
+    return new DataRulesEvaluationRequest(laneToDataRules);
+  }
+
+  private void evaluateDataRules(String lane, List<CompiledDataRule> dataRules, List<Record> allRecords) {
 
     // Tucu's Algorithm for sampling
     /*
@@ -181,12 +193,13 @@ public class ProductionObserver implements Observer {
 
       In the first iteration, the rule with the max sampling %, for that lane is selected, which happens to be N in our
       case, and N unique integers between 0 and 99 are generated.
-      Look at "getRecordsToPickUp(List<DataRuleDefinition> dataRuleDefinitions)" method for the generation algorithm.
+      Look at "getRecordsToPickUp(double percentage)" method for the generation algorithm.
 
       rule 2 will pick up M numbers from the set of N numbers generated for rule1.
       This way we clone only N% of records and both rules share the same cloned records.
 
-      rule1 evaluates all sampled records and rule2 will evaluate its share of records from the same list.
+      Every record is evaluated against every enabled rule on the runner thread, the sampled records are only retained
+      so that they can be inspected and are not needed to compute the rule metrics.
 
       Picking up new configuration:
       -----------------------------
@@ -194,88 +207,96 @@ public class ProductionObserver implements Observer {
       When the record counter for that lane hits 100, it is reset to 0.
       At that moment all maps and counters are cleared so that in the next iteration everything is computed fresh again.
 
-      This is the moment when any changes to sampling % of data rule definitions are picked up.
-
       very Low throughput scenario:
       -----------------------------
 
       Look at the following unit test that tries to simulate the very Low throughput scenario:
-      "com.streamsets.pipeline.runner.production.TestProductionObserver.testGetSampledRecordsLowThroughput"
+      "com.streamsets.datacollector.execution.runner.common.TestProductionObserver.testGetSampledRecordsLowThroughput"
     */
 
     //record counter for this lane, reset when the count reaches 100
-    int recordCounter = 0;
-    if(laneToRecordCounterMap.get().containsKey(lane)) {
-      recordCounter = laneToRecordCounterMap.get().get(lane);
-    } else {
-      laneToRecordCounterMap.get().put(lane, recordCounter);
-    }
-    Map<String, List<Record>> sampledRecordsMap = new HashMap<>();
+    Integer counter = laneToRecordCounterMap.get().get(lane);
+    int recordCounter = counter == null ? 0 : counter;
 
     //Get the max percentage records to be sampled for this lane.
     //Generates a set n random integers, where n is max percentage for this lane [say n = 50] between 0 and 99
     //The set of integers generated is cached on a per lane basis.
-    Set<Integer> recordIndexToPickup;
-    if(laneToMaxRecordIndexMap.get().containsKey(lane)) {
-      recordIndexToPickup = laneToMaxRecordIndexMap.get().get(lane);
-    } else {
-      recordIndexToPickup = getRecordsToPickUp(dataRuleDefinitions);
-      laneToMaxRecordIndexMap.get().put(lane, recordIndexToPickup);
-    }
+    Set<Integer> recordIndexToPickup = getRecordIndexToPickUp(lane, dataRules);
 
-    //Go over all records for this lane and determine if it needs to be cloned.
+    int[] matchingRecordCounts = new int[dataRules.size()];
     for(Record record : allRecords) {
-      if(recordIndexToPickup.contains(recordCounter)) {
-        //needs to be cloned
-        Record recordClone = ((RecordImpl) record).clone();
-        for(DataRuleDefinition d : dataRuleDefinitions) {
-          //for every rule in this lane, check the integers generated for it to see if this record needs to be
-          //sampled
-          Set<Integer> recordsToPickup;
-          if (ruleIdToRecordIndexMap.get().containsKey(d.getId())) {
-            recordsToPickup = ruleIdToRecordIndexMap.get().get(d.getId());
-          } else {
-            //the integers generated to pick up records for sampling is shared between all rules for that lane.
-            //the rule with least percentage contains records which are subset of rule with max percentage.
-            //this is to minimize cloning of records.
-            recordsToPickup = getRecordsToPickUp(recordIndexToPickup, (int)d.getSamplingPercentage());
-            ruleIdToRecordIndexMap.get().put(d.getId(), recordsToPickup);
-          }
-          if (recordsToPickup.contains(recordCounter)) {
-            //this record must be picked up by this rule
-            List<Record> sampledRecords = sampledRecordsMap.get(d.getId());
-            if (sampledRecords == null) {
-              sampledRecords = new ArrayList<>();
-              sampledRecordsMap.put(d.getId(), sampledRecords);
-            }
-            sampledRecords.add(recordClone);
+      boolean sampled = recordIndexToPickup.contains(recordCounter);
+      Record recordClone = null;
+      for(int i = 0; i < dataRules.size(); i++) {
+        CompiledDataRule dataRule = dataRules.get(i);
+        if(!dataRule.getDataRuleDefinition().isEnabled()) {
+          continue;
+        }
+        boolean matched = dataRule.evaluate(record);
+        if(matched) {
+          matchingRecordCounts[i]++;
+          dataRule.addAlertText(record);
+        }
+        //for every rule in this lane, check the integers generated for it to see if this record needs to be sampled
+        if(sampled &&
+            getRecordsToPickUp(dataRule.getDataRuleDefinition(), recordIndexToPickup).contains(recordCounter)) {
+          //the clone is shared between all rules for that lane.
+          if(recordClone == null) {
+            recordClone = ((RecordImpl) record).clone();
           }
+          dataRule.addSampledRecord(new SampledRecord(recordClone, matched));
         }
       }
       recordCounter++;
       if(recordCounter == 100) {
-        //clear all records to pick up.
-        //It will be generated the next time the sampling is attempted
+        //clear all records to pick up, they are generated again for the next 100 records.
         //It will also pick up any changes done to sampling percentages of rules in the next iteration.
         recordCounter = 0;
-        for(DataRuleDefinition d : dataRuleDefinitions) {
-          ruleIdToRecordIndexMap.get().remove(d.getId());
+        for(CompiledDataRule dataRule : dataRules) {
+          ruleIdToRecordIndexMap.get().remove(dataRule.getDataRuleDefinition().getId());
         }
         laneToMaxRecordIndexMap.get().remove(lane);
+        recordIndexToPickup = getRecordIndexToPickUp(lane, dataRules);
       }
     }
     laneToRecordCounterMap.get().put(lane, recordCounter);
-    return sampledRecordsMap;
+
+    for(int i = 0; i < dataRules.size(); i++) {
+      if(dataRules.get(i).getDataRuleDefinition().isEnabled()) {
+        dataRules.get(i).addCounts(allRecords.size(), matchingRecordCounts[i]);
+      }
+    }
   }
 
-  private Set<Integer> getRecordsToPickUp(List<DataRuleDefinition> dataRuleDefinitions) {
-    //Max percentage
-    double percentage = 0;
-    for(DataRuleDefinition dataRuleDefinition : dataRuleDefinitions) {
-      if (dataRuleDefinition.getSamplingPercentage() > percentage) {
-        percentage = dataRuleDefinition.getSamplingPercentage();
+  private Set<Integer> getRecordIndexToPickUp(String lane, List<CompiledDataRule> dataRules) {
+    Set<Integer> recordIndexToPickup = laneToMaxRecordIndexMap.get().get(lane);
+    if(recordIndexToPickup == null) {
+      //Max percentage
+      double percentage = 0;
+      for(CompiledDataRule dataRule : dataRules) {
+        if (dataRule.getDataRuleDefinition().getSamplingPercentage() > percentage) {
+          percentage = dataRule.getDataRuleDefinition().getSamplingPercentage();
+        }
       }
+      recordIndexToPickup = getRecordsToPickUp(percentage);
+      laneToMaxRecordIndexMap.get().put(lane, recordIndexToPickup);
     }
+    return recordIndexToPickup;
+  }
+
+  private Set<Integer> getRecordsToPickUp(DataRuleDefinition dataRuleDefinition, Set<Integer> recordIndexToPickup) {
+    Set<Integer> recordsToPickup = ruleIdToRecordIndexMap.get().get(dataRuleDefinition.getId());
+    if(recordsToPickup == null) {
+      //the integers generated to pick up records for sampling is shared between all rules for that lane.
+      //the rule with least percentage contains records which are subset of rule with max percentage.
+      //this is to minimize cloning of records.
+      recordsToPickup = getRecordsToPickUp(recordIndexToPickup, (int) dataRuleDefinition.getSamplingPercentage());
+      ruleIdToRecordIndexMap.get().put(dataRuleDefinition.getId(), recordsToPickup);
+    }
+    return recordsToPickup;
+  }
+
+  private Set<Integer> getRecordsToPickUp(double percentage) {
     Set<Integer> recordsToPickup = new HashSet<>();
     Collections.shuffle(randomNumberSampleSpace.get());
     recordsToPickup.addAll(randomNumberSampleSpace.get().subList(0, (int) percentage));
@@ -39,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class ProductionPipeline {
 
@@ -52,6 +53,13 @@ public class ProductionPipeline {
   private final boolean isExecutingInSlave;
   private final boolean shouldRetry;
   private boolean executionFailed;
+  // state of the current execution, kept in fields as a cooperative execution completes on another thread
+  private boolean finishing;
+  private boolean errorWhileInitializing;
+  private boolean errorWhileRunning;
+  private boolean errorWhileDestroying;
+  private boolean isRecoverable;
+  private String runningErrorMsg;
 
   public ProductionPipeline(String name, String rev, PipelineConfiguration pipelineConf,
                             Configuration conf, Pipeline pipeline, boolean shouldRetry) {
@@ -80,116 +88,185 @@ public class ProductionPipeline {
   }
 
   public void run() throws StageException, PipelineRuntimeException {
-    boolean finishing = false;
-    boolean errorWhileInitializing = false;
-    boolean errorWhileRunning = false;
-    boolean errorWhileDestroying = false;
-    boolean isRecoverable = true;
-    executionFailed = false;
-    String runningErrorMsg = null;
     try {
       try {
-        LOG.debug("Initializing");
-        List<Issue> issues = null;
+        initialize();
         try {
-          issues = getPipeline().init(true);
+          stateChanged(PipelineStatus.RUNNING, null, null);
+          LOG.debug("Running");
+          pipeline.run();
+          runFinished();
         } catch (Throwable e) {
-          if (!wasStopped()) {
-            runningErrorMsg = e.toString();
-            LOG.warn("Error while starting: {}", e.toString(), e);
-            errorWhileInitializing = true;
-            stateChanged(PipelineStatus.STARTING_ERROR, e.toString(), null);
-          }
-          throw new PipelineRuntimeException(ContainerError.CONTAINER_0702, e.toString(), e);
-        }
-        if (issues.isEmpty()) {
-          try {
-            stateChanged(PipelineStatus.RUNNING, null, null);
-            LOG.debug("Running");
-            pipeline.run();
-            if (!wasStopped()) {
-              LOG.debug("Finishing");
-              stateChanged(PipelineStatus.FINISHING, null, null);
-              finishing = true;
-            }
-          } catch (Throwable e) {
-            if (!wasStopped()) {
-              runningErrorMsg = e.toString();
-              LOG.warn("Error while running: {}", runningErrorMsg, e);
-              stateChanged(PipelineStatus.RUNNING_ERROR, runningErrorMsg, null);
-              errorWhileRunning = true;
-              isRecoverable = isRecoverableThrowable(e);
-            }
-            throw e;
-          }
-        } else {
-          LOG.debug("Stopped due to validation error");
-          PipelineRuntimeException e = new PipelineRuntimeException(ContainerError.CONTAINER_0800, name,
-            issues.get(0).getMessage());
-          Map<String, Object> attributes = new HashMap<>();
-          attributes.put("issues", new IssuesJson(new Issues(issues)));
-          // We need to store the error in runningErrorMsg, so that it gets propagated to START_ERROR terminal state
-          runningErrorMsg = issues.get(0).getMessage();
-          stateChanged(PipelineStatus.STARTING_ERROR, runningErrorMsg, attributes);
-          errorWhileInitializing = true;
-          getPipeline().errorNotification(e);
+          runFailed(e);
           throw e;
         }
       } finally {
-        LOG.debug("Destroying");
+        destroy();
+      }
+    } finally {
+      MetricsConfigurator.cleanUpJmxMetrics(name, rev);
+    }
+  }
 
-        try {
-          // Determine the reason why we got all the way here
-          PipelineStopReason stopReason;
-          if(errorWhileRunning) {
-            stopReason = PipelineStopReason.FAILURE;
-          } else if(wasStopped()) {
-            stopReason = PipelineStopReason.USER_ACTION;
-          } else {
-            stopReason = PipelineStopReason.FINISHED;
-          }
-          // Destroy the pipeline
-          pipeline.destroy(true, stopReason);
-        } catch (Throwable e) {
-          LOG.warn("Error while calling destroy: " + e.toString(), e);
-          stateChanged(PipelineStatus.STOPPING_ERROR, e.toString(), null);
-          errorWhileDestroying = true;
-          // If this is the first error that happened during the execution, persist the reasoning in the message, otherwise
-          // keep the original message so that terminal state have the original error rather then any subsequent one.
-          if(runningErrorMsg == null) {
-            runningErrorMsg = e.toString();
-          }
-          throw e;
-        } finally {
-          if(errorWhileInitializing || errorWhileRunning || errorWhileDestroying) {
-            // In case of any error, persist that information
-            executionFailed = true;
-
-            // If there was any problem, we will consider retry
-            if (shouldRetry && !pipeline.shouldStopOnStageError() && !isExecutingInSlave && isRecoverable && !wasStopped()) {
-              stateChanged(PipelineStatus.RETRY, runningErrorMsg, null);
-            } else if(errorWhileInitializing) {
-              stateChanged(PipelineStatus.START_ERROR, runningErrorMsg, null);
-            } else if(errorWhileRunning) {
-              stateChanged(PipelineStatus.RUN_ERROR, runningErrorMsg, null);
-            } else if(errorWhileDestroying) {
-              stateChanged(PipelineStatus.STOP_ERROR, runningErrorMsg, null);
-            }
-          } else if(finishing) {
-            // Graceful shutdown
-            LOG.debug("Finished");
-            stateChanged(PipelineStatus.FINISHED, null, null);
-          }
-
-          if (isExecutingInSlave) {
-            LOG.debug("Calling cluster source post destroy");
-            ((ClusterSource) pipeline.getSource()).postDestroy();
-          }
+  /**
+   * Same execution as {@link #run()}, but the batches run on the given scheduler. The pipeline is initialized on the
+   * calling thread, the method returns once the first batch is scheduled. onComplete is called after the pipeline
+   * was destroyed with the error that failed the execution, or null.
+   */
+  public void runCooperatively(BatchScheduler scheduler, Consumer<Throwable> onComplete) {
+    try {
+      initialize();
+    } catch (Throwable e) {
+      onComplete.accept(destroyAfterCooperativeRun(e));
+      return;
+    }
+    try {
+      stateChanged(PipelineStatus.RUNNING, null, null);
+      LOG.debug("Running");
+      pipeline.runCooperatively(scheduler, error -> onComplete.accept(completeCooperativeRun(error)));
+    } catch (Throwable e) {
+      onComplete.accept(completeCooperativeRun(e));
+    }
+  }
+
+  private void initialize() throws PipelineRuntimeException {
+    finishing = false;
+    errorWhileInitializing = false;
+    errorWhileRunning = false;
+    errorWhileDestroying = false;
+    isRecoverable = true;
+    executionFailed = false;
+    runningErrorMsg = null;
+
+    LOG.debug("Initializing");
+    List<Issue> issues = null;
+    try {
+      issues = getPipeline().init(true);
+    } catch (Throwable e) {
+      if (!wasStopped()) {
+        runningErrorMsg = e.toString();
+        LOG.warn("Error while starting: {}", e.toString(), e);
+        errorWhileInitializing = true;
+        stateChanged(PipelineStatus.STARTING_ERROR, e.toString(), null);
+      }
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0702, e.toString(), e);
+    }
+    if (!issues.isEmpty()) {
+      LOG.debug("Stopped due to validation error");
+      PipelineRuntimeException e = new PipelineRuntimeException(ContainerError.CONTAINER_0800, name,
+        issues.get(0).getMessage());
+      Map<String, Object> attributes = new HashMap<>();
+      attributes.put("issues", new IssuesJson(new Issues(issues)));
+      // We need to store the error in runningErrorMsg, so that it gets propagated to START_ERROR terminal state
+      runningErrorMsg = issues.get(0).getMessage();
+      stateChanged(PipelineStatus.STARTING_ERROR, runningErrorMsg, attributes);
+      errorWhileInitializing = true;
+      getPipeline().errorNotification(e);
+      throw e;
+    }
+  }
+
+  private void runFinished() throws PipelineRuntimeException {
+    if (!wasStopped()) {
+      LOG.debug("Finishing");
+      stateChanged(PipelineStatus.FINISHING, null, null);
+      finishing = true;
+    }
+  }
+
+  private void runFailed(Throwable e) throws PipelineRuntimeException {
+    if (!wasStopped()) {
+      runningErrorMsg = e.toString();
+      LOG.warn("Error while running: {}", runningErrorMsg, e);
+      stateChanged(PipelineStatus.RUNNING_ERROR, runningErrorMsg, null);
+      errorWhileRunning = true;
+      isRecoverable = isRecoverableThrowable(e);
+    }
+  }
+
+  private void destroy() throws StageException, PipelineRuntimeException {
+    LOG.debug("Destroying");
+
+    try {
+      // Determine the reason why we got all the way here
+      PipelineStopReason stopReason;
+      if(errorWhileRunning) {
+        stopReason = PipelineStopReason.FAILURE;
+      } else if(wasStopped()) {
+        stopReason = PipelineStopReason.USER_ACTION;
+      } else {
+        stopReason = PipelineStopReason.FINISHED;
+      }
+      // Destroy the pipeline
+      pipeline.destroy(true, stopReason);
+    } catch (Throwable e) {
+      LOG.warn("Error while calling destroy: " + e.toString(), e);
+      stateChanged(PipelineStatus.STOPPING_ERROR, e.toString(), null);
+      errorWhileDestroying = true;
+      // If this is the first error that happened during the execution, persist the reasoning in the message, otherwise
+      // keep the original message so that terminal state have the original error rather then any subsequent one.
+      if(runningErrorMsg == null) {
+        runningErrorMsg = e.toString();
+      }
+      throw e;
+    } finally {
+      if(errorWhileInitializing || errorWhileRunning || errorWhileDestroying) {
+        // In case of any error, persist that information
+        executionFailed = true;
+
+        // If there was any problem, we will consider retry
+        if (shouldRetry && !pipeline.shouldStopOnStageError() && !isExecutingInSlave && isRecoverable && !wasStopped()) {
+          stateChanged(PipelineStatus.RETRY, runningErrorMsg, null);
+        } else if(errorWhileInitializing) {
+          stateChanged(PipelineStatus.START_ERROR, runningErrorMsg, null);
+        } else if(errorWhileRunning) {
+          stateChanged(PipelineStatus.RUN_ERROR, runningErrorMsg, null);
+        } else if(errorWhileDestroying) {
+          stateChanged(PipelineStatus.STOP_ERROR, runningErrorMsg, null);
         }
+      } else if(finishing) {
+        // Graceful shutdown
+        LOG.debug("Finished");
+        stateChanged(PipelineStatus.FINISHED, null, null);
+      }
+
+      if (isExecutingInSlave) {
+        LOG.debug("Calling cluster source post destroy");
+        ((ClusterSource) pipeline.getSource()).postDestroy();
+      }
+    }
+  }
+
+  // Same transitions as the catch block around pipeline.run() in run()
+  private Throwable completeCooperativeRun(Throwable error) {
+    if (error == null) {
+      try {
+        runFinished();
+      } catch (Throwable e) {
+        error = e;
+      }
+    }
+    if (error != null) {
+      try {
+        runFailed(error);
+      } catch (Throwable e) {
+        error = e;
+      }
+    }
+    return destroyAfterCooperativeRun(error);
+  }
+
+  private Throwable destroyAfterCooperativeRun(Throwable error) {
+    try {
+      destroy();
+    } catch (Throwable e) {
+      if (error == null) {
+        error = e;
       }
     } finally {
       MetricsConfigurator.cleanUpJmxMetrics(name, rev);
     }
+    return error;
   }
 
   /**
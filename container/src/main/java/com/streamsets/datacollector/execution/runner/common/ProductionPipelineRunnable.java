@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ProductionPipelineRunnable implements Runnable {
 
@@ -44,11 +45,22 @@ public class ProductionPipelineRunnable implements Runnable {
   private final List<Future<?>> relatedTasks;
   private volatile boolean isStopped = false;
   private final CountDownLatch countDownLatch;
+  private final BatchScheduler batchScheduler;
+  // set when the pipeline runs on the batch scheduler, until its execution completes
+  private final AtomicBoolean runningCooperatively = new AtomicBoolean(false);
 
   public ProductionPipelineRunnable(ThreadHealthReporter threadHealthReporter,
                                     StandaloneRunner runner, ProductionPipeline pipeline,
                                     String name, String rev, List<Future<?>> relatedTasks) {
+    this(threadHealthReporter, runner, pipeline, name, rev, relatedTasks, null);
+  }
+
+  public ProductionPipelineRunnable(ThreadHealthReporter threadHealthReporter,
+                                    StandaloneRunner runner, ProductionPipeline pipeline,
+                                    String name, String rev, List<Future<?>> relatedTasks,
+                                    BatchScheduler batchScheduler) {
     this.runner = runner;
+    this.batchScheduler = batchScheduler;
     this.pipeline = pipeline;
     this.rev = rev;
     this.name = name;
@@ -62,6 +74,10 @@ public class ProductionPipelineRunnable implements Runnable {
     if (isStopped) {
       throw new IllegalStateException(Utils.format("Pipeline is stopped, cannot start the pipeline '{}::{}'", name, rev));
     }
+    if (isCooperative()) {
+      runCooperatively();
+      return;
+    }
     String originalThreadName = Thread.currentThread().getName();
     try {
       PipelineInfo info = pipeline.getPipelineConf().getInfo();
@@ -95,6 +111,44 @@ public class ProductionPipelineRunnable implements Runnable {
     }
   }
 
+  /**
+   * Returns true if the pipeline batches run on the batch scheduler rather than on the thread calling {@link #run()}.
+   */
+  public boolean isCooperative() {
+    return batchScheduler != null && batchScheduler.isEnabled() && pipeline.getPipeline().isPollSource();
+  }
+
+  private void runCooperatively() {
+    runningCooperatively.set(true);
+    try {
+      pipeline.runCooperatively(batchScheduler, this::cooperativeRunCompleted);
+    } finally {
+      // the pipeline is initialized on this thread, don't leave its context behind
+      PipelineEL.unsetConstantsInContext();
+      JobEL.unsetConstantsInContext();
+    }
+  }
+
+  private void cooperativeRunCompleted(Throwable error) {
+    // forceQuit() might have completed the execution already
+    if (!runningCooperatively.compareAndSet(true, false)) {
+      return;
+    }
+    synchronized (relatedTasks) {
+      try {
+        if (error instanceof Error) {
+          LOG.error("A JVM error occurred while running the pipeline, {}", error.toString(), error);
+        } else if (error != null && !pipeline.wasStopped()) {
+          LOG.error("An exception occurred while running the pipeline, {}", error.toString(), error);
+        }
+        cancelTask();
+      } finally {
+        postStop();
+        countDownLatch.countDown();
+      }
+    }
+  }
+
   public void stop(boolean nodeProcessShutdown) throws PipelineException {
     this.isStopped = true;
     this.nodeProcessShutdown = nodeProcessShutdown;
@@ -122,6 +176,10 @@ public class ProductionPipelineRunnable implements Runnable {
         runningThread = null;
         cancelTask();
         postStop();
+      } else if (runningCooperatively.compareAndSet(true, false)) {
+        // the batch in progress, if any, is left to complete on its scheduler thread
+        cancelTask();
+        postStop();
       }
     }
     countDownLatch.countDown();
@@ -91,6 +91,7 @@ import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -108,6 +109,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
@@ -168,6 +170,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private volatile int snapshotBatchSize;
   // Exception thrown while executing the pipeline
   private volatile Throwable exceptionFromExecution = null;
+  // Handle of the pipeline when it runs on the BatchScheduler
+  private volatile BatchScheduler.Handle schedulerHandle;
+  // Latency target of the pipeline on the BatchScheduler, 0 for the default latency target of the scheduler
+  private long schedulingLatencyTargetMillis;
   /*Cache last N error records per stage in memory*/
   private final Map<String, EvictingQueue<Record>> stageToErrorRecordsMap;
   /*Cache last N error messages in memory*/
@@ -304,6 +310,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     rateLimiter = RateLimiter.create(rateLimit.doubleValue());
   }
 
+  public void setSchedulingLatencyTarget(long schedulingLatencyTargetMillis) {
+    this.schedulingLatencyTargetMillis = schedulingLatencyTargetMillis;
+  }
+
   public void setOffsetTracker(SourceOffsetTracker offsetTracker) {
     this.offsetTracker = offsetTracker;
   }
@@ -398,13 +408,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       }
 
     } catch (Throwable throwable) {
-      LOG.error("Pipeline execution failed", throwable);
-      sendPipelineErrorNotificationRequest(throwable);
-      errorNotification(originPipe, pipes, throwable);
-
-      if(supportBundleManager != null) {
-        supportBundleManager.uploadNewBundleOnError();
-      }
+      notifyExecutionFailure(throwable);
 
       Throwables.propagateIfInstanceOf(throwable, StageException.class);
       Throwables.propagateIfInstanceOf(throwable, PipelineRuntimeException.class);
@@ -412,6 +416,126 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     }
   }
 
+  /**
+   * Runs the pipeline on the given scheduler instead of the calling thread, one batch per scheduler turn. Only poll
+   * origins can run this way as push origins own the threads that run their batches.
+   *
+   * The method returns right after scheduling the first batch, onComplete is called on a scheduler thread with the
+   * exception that failed the execution or null when the pipeline finished or was stopped.
+   */
+  public void runCooperatively(
+    SourcePipe originPipe,
+    List<PipeRunner> pipes,
+    BadRecordsHandler badRecordsHandler,
+    StatsAggregationHandler statsAggregationHandler,
+    BatchScheduler scheduler,
+    Consumer<Throwable> onComplete
+  ) {
+    Utils.checkState(
+        !(originPipe.getStage().getStage() instanceof PushSource),
+        "Push origins can't run on the batch scheduler"
+    );
+    this.originPipe = originPipe;
+    this.pipes = pipes;
+    this.badRecordsHandler = badRecordsHandler;
+    this.statsAggregationHandler = statsAggregationHandler;
+    this.runnerPool = new RunnerPool<>(pipes, pipeContext.getRuntimeStats(), runnersHistogram);
+
+    // And we're officially running!
+    this.running = true;
+
+    CooperativeTask task = new CooperativeTask(onComplete);
+    if (schedulingLatencyTargetMillis > 0) {
+      schedulerHandle = scheduler.schedule(task, schedulingLatencyTargetMillis);
+    } else {
+      schedulerHandle = scheduler.schedule(task);
+    }
+    if (stop || finished) {
+      // stop() might have been called before the handle was available
+      schedulerHandle.wakeUp();
+    }
+  }
+
+  /**
+   * Batches of a poll origin pipeline run on the scheduler threads, every turn restores the logging and EL context
+   * that the pipeline runnable thread would otherwise keep for the whole execution.
+   */
+  private class CooperativeTask implements BatchScheduler.Task {
+    private final Consumer<Throwable> onComplete;
+    private final Map<String, String> loggingContext;
+    private final String threadName;
+
+    CooperativeTask(Consumer<Throwable> onComplete) {
+      this.onComplete = onComplete;
+      this.loggingContext = MDC.getCopyOfContextMap();
+      this.threadName = Utils.format("{}-{}", ProductionPipelineRunnable.RUNNABLE_NAME, pipelineName);
+    }
+
+    @Override
+    public boolean runBatch() throws Exception {
+      String originalThreadName = enterContext();
+      try {
+        if (threadHealthReporter != null) {
+          threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
+        }
+        return runPollSourceBatch();
+      } finally {
+        exitContext(originalThreadName);
+      }
+    }
+
+    @Override
+    public boolean isDone() {
+      return isPollSourceDone();
+    }
+
+    @Override
+    public void done(Throwable error) {
+      schedulerHandle = null;
+      String originalThreadName = enterContext();
+      try {
+        if (error != null) {
+          notifyExecutionFailure(error);
+        }
+        onComplete.accept(error);
+      } finally {
+        exitContext(originalThreadName);
+      }
+    }
+
+    private String enterContext() {
+      String originalThreadName = Thread.currentThread().getName();
+      Thread.currentThread().setName(threadName);
+      if (loggingContext != null) {
+        MDC.setContextMap(loggingContext);
+      }
+      PipelineEL.setConstantsInContext(
+          pipelineConfiguration,
+          originPipe.getStage().getContext().getUserContext(),
+          pipelineStartTime
+      );
+      JobEL.setConstantsInContext(parameters);
+      return originalThreadName;
+    }
+
+    private void exitContext(String originalThreadName) {
+      PipelineEL.unsetConstantsInContext();
+      JobEL.unsetConstantsInContext();
+      MDC.clear();
+      Thread.currentThread().setName(originalThreadName);
+    }
+  }
+
+  private void notifyExecutionFailure(Throwable throwable) {
+    LOG.error("Pipeline execution failed", throwable);
+    sendPipelineErrorNotificationRequest(throwable);
+    errorNotification(originPipe, pipes, throwable);
+
+    if(supportBundleManager != null) {
+      supportBundleManager.uploadNewBundleOnError();
+    }
+  }
+
   private void runPushSource() throws StageException, PipelineRuntimeException {
     // This object will receive delegated calls from the push origin callbacks
     originPipe.getStage().setPushSourceContextDelegate(this);
@@ -542,65 +666,83 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   public void setFinished() {
     finished = true;
     ((StageContext)originPipe.getStage().getContext()).setStop(true);
+    BatchScheduler.Handle handle = schedulerHandle;
+    if (handle != null) {
+      handle.wakeUp();
+    }
   }
 
   public void runPollSource() throws StageException, PipelineException {
-    while (!offsetTracker.isFinished() && !stop && !finished) {
+    while (!isPollSourceDone()) {
       if (threadHealthReporter != null) {
         threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
       }
+      runPollSourceBatch();
+    }
+  }
 
-      for (BatchListener batchListener : batchListenerList) {
-        batchListener.preBatch();
-      }
+  private boolean isPollSourceDone() {
+    return offsetTracker.isFinished() || stop || finished;
+  }
 
-      if(observer != null) {
-        observer.reconfigure();
-      }
+  /**
+   * Runs a single batch of a poll origin pipeline.
+   *
+   * @return true if the origin produced any record, false for an empty batch.
+   */
+  private boolean runPollSourceBatch() throws StageException, PipelineException {
+    for (BatchListener batchListener : batchListenerList) {
+      batchListener.preBatch();
+    }
 
-      // Start of the batch execution
-      long start = System.currentTimeMillis();
-      FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+    if(observer != null) {
+      observer.reconfigure();
+    }
+
+    // Start of the batch execution
+    long start = System.currentTimeMillis();
+    FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+
+    // Run origin
+    Map<String, Long> memoryConsumedByStage = new HashMap<>();
+    Map<String, Object> stageBatchMetrics = new HashMap<>();
+    processPipe(
+      originPipe,
+      pipeBatch,
+      false,
+      null,
+      null,
+      memoryConsumedByStage,
+      stageBatchMetrics
+    );
 
-      // Run origin
-      Map<String, Long> memoryConsumedByStage = new HashMap<>();
-      Map<String, Object> stageBatchMetrics = new HashMap<>();
-      processPipe(
-        originPipe,
+    // Since the origin already run, the FullPipeBatch will have a new offset
+    String newOffset = pipeBatch.getNewOffset();
+
+    try {
+      // Run rest of the pipeline
+      runSourceLessBatch(
+        start,
         pipeBatch,
-        false,
-        null,
-        null,
+        Source.POLL_SOURCE_OFFSET_KEY,
+        newOffset,
         memoryConsumedByStage,
         stageBatchMetrics
       );
+    } catch (Throwable t) {
+      // We try to create partial batch on processing failure
+      createFailureBatch(pipeBatch);
 
-      // Since the origin already run, the FullPipeBatch will have a new offset
-      String newOffset = pipeBatch.getNewOffset();
-
-      try {
-        // Run rest of the pipeline
-        runSourceLessBatch(
-          start,
-          pipeBatch,
-          Source.POLL_SOURCE_OFFSET_KEY,
-          newOffset,
-          memoryConsumedByStage,
-          stageBatchMetrics
-        );
-      } catch (Throwable t) {
-        // We try to create partial batch on processing failure
-        createFailureBatch(pipeBatch);
-
-        Throwables.propagateIfInstanceOf(t, StageException.class);
-        Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
-        Throwables.propagate(t);
-      }
+      Throwables.propagateIfInstanceOf(t, StageException.class);
+      Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
+      Throwables.propagate(t);
+    }
 
-      for (BatchListener batchListener : batchListenerList) {
-        batchListener.postBatch();
-      }
+    for (BatchListener batchListener : batchListenerList) {
+      batchListener.postBatch();
     }
+
+    return pipeBatch.getInputRecords() > 0;
   }
 
   @Override
@@ -772,6 +914,11 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
    */
   public void stop() throws PipelineException {
     this.stop = true;
+    BatchScheduler.Handle handle = schedulerHandle;
+    if (handle != null) {
+      // don't wait for the idle wait of a cooperatively scheduled pipeline to expire
+      handle.wakeUp();
+    }
     if(batchesToCapture > 0) {
       cancelSnapshot(this.snapshotName);
       snapshotStore.deleteSnapshot(pipelineName, revision, snapshotName);
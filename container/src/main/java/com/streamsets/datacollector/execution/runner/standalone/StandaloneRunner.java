@@ -31,6 +31,7 @@ import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.RuleDefinition;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.config.StageConfiguration;
+import com.streamsets.datacollector.config.StageDefinition;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
 import com.streamsets.datacollector.creation.PipelineConfigBean;
 import com.streamsets.datacollector.el.JobEL;
@@ -47,6 +48,7 @@ import com.streamsets.datacollector.execution.StateListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.execution.metrics.MetricsEventRunnable;
 import com.streamsets.datacollector.execution.runner.RetryUtils;
+import com.streamsets.datacollector.execution.runner.common.BatchScheduler;
 import com.streamsets.datacollector.execution.runner.common.Constants;
 import com.streamsets.datacollector.execution.runner.common.DataObserverRunnable;
 import com.streamsets.datacollector.execution.runner.common.MetricObserverRunnable;
@@ -86,8 +88,10 @@ import com.streamsets.dc.execution.manager.standalone.ThreadUsage;
 import com.streamsets.lib.security.http.RemoteSSOService;
 import com.streamsets.pipeline.api.ErrorListener;
 import com.streamsets.pipeline.api.ExecutionMode;
+import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.StageType;
 import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
@@ -140,6 +144,7 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
   @Inject SnapshotStore snapshotStore;
   @Inject @Named("runnerExecutor") SafeScheduledExecutorService runnerExecutor;
   @Inject ResourceManager resourceManager;
+  @Inject BatchScheduler batchScheduler;
 
   private final ObjectGraph objectGraph;
   private String pipelineTitle = null;
@@ -158,6 +163,7 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
   private volatile boolean isClosed;
   private UpdateChecker updateChecker;
   private volatile String metricsForRetry;
+  private volatile ThreadUsage threadUsage = ThreadUsage.STANDALONE;
   private final List<ErrorListener> errorListeners;
 
   private static final Map<PipelineStatus, Set<PipelineStatus>> VALID_TRANSITIONS =
@@ -657,7 +663,7 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
     getEventListenerManager().broadcastStateChange(
         fromState,
         pipelineState,
-        ThreadUsage.STANDALONE,
+        threadUsage,
         OffsetFileUtil.getOffsets(getRuntimeInfo(), getName(), getRev())
     );
   }
@@ -695,7 +701,8 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
     checkState(VALID_TRANSITIONS.get(fromState.getStatus()).contains(PipelineStatus.STARTING), ContainerError.CONTAINER_0102,
         fromState.getStatus(), PipelineStatus.STARTING);
 
-    if(!resourceManager.requestRunnerResources(ThreadUsage.STANDALONE)) {
+    threadUsage = getThreadUsage();
+    if(!resourceManager.requestRunnerResources(threadUsage)) {
       throw new PipelineRunnerException(ContainerError.CONTAINER_0166, getName());
     }
     LOG.info("Preparing to start pipeline '{}::{}'", getName(), getRev());
@@ -704,6 +711,28 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
     token = UUID.randomUUID().toString();
   }
 
+  /**
+   * Pipelines with a poll origin don't hold a runner thread when they run on the batch scheduler.
+   */
+  private ThreadUsage getThreadUsage() {
+    if (!batchScheduler.isEnabled()) {
+      return ThreadUsage.STANDALONE;
+    }
+    try {
+      PipelineConfiguration pipelineConfiguration = getPipelineStore().load(getName(), getRev());
+      for (StageConfiguration stageConf : pipelineConfiguration.getStages()) {
+        StageDefinition stageDef = getStageLibrary().getStage(stageConf.getLibrary(), stageConf.getStageName(), false);
+        if (stageDef != null && stageDef.getType() == StageType.SOURCE) {
+          return PushSource.class.isAssignableFrom(stageDef.getStageClass()) ?
+              ThreadUsage.STANDALONE : ThreadUsage.COOPERATIVE;
+        }
+      }
+    } catch (PipelineException e) {
+      LOG.warn("Can't determine the origin of pipeline '{}::{}': {}", getName(), getRev(), e.toString(), e);
+    }
+    return ThreadUsage.STANDALONE;
+  }
+
   @Override
   public void prepareForStop(String user) throws PipelineStoreException, PipelineRunnerException {
     LOG.info("Preparing to stop pipeline");
@@ -827,6 +856,7 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
         if (pipelineConfigBean.rateLimit > 0) {
           runner.setRateLimit(pipelineConfigBean.rateLimit);
         }
+        runner.setSchedulingLatencyTarget(pipelineConfigBean.schedulingLatencyTarget);
         ProductionPipelineBuilder builder = objectGraph.get(ProductionPipelineBuilder.class);
 
         //register email notifier & webhook notifier with event listener manager
@@ -912,10 +942,29 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
 
         observerRunnable.setRequestQueue(productionObserveRequests);
         observerRunnable.setStatsQueue(statsQueue);
-        Future<?> observerFuture = runnerExecutor.submit(observerRunnable);
-        taskBuilder.add(observerFuture);
+        if (batchScheduler.isEnabled() && prodPipeline.getPipeline().isPollSource()) {
+          // The pipeline doesn't own a thread, neither does its observer
+          ScheduledFuture<?> observerFuture = runnerExecutor.scheduleWithFixedDelay(
+            observerRunnable::processPendingRequests,
+            1,
+            1,
+            TimeUnit.SECONDS
+          );
+          taskBuilder.add(observerFuture);
+        } else {
+          Future<?> observerFuture = runnerExecutor.submit(observerRunnable);
+          taskBuilder.add(observerFuture);
+        }
 
-        pipelineRunnable = new ProductionPipelineRunnable(threadHealthReporter, this, prodPipeline, getName(), getRev(), taskBuilder.build());
+        pipelineRunnable = new ProductionPipelineRunnable(
+            threadHealthReporter,
+            this,
+            prodPipeline,
+            getName(),
+            getRev(),
+            taskBuilder.build(),
+            batchScheduler
+        );
       } catch (Exception e) {
         validateAndSetStateTransition(context.getUser(), PipelineStatus.START_ERROR, e.toString(), null);
         throw e;
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.memory.MemoryAccountant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Accounts the memory consumed by a stage without walking its heap, replacing the {@link MemoryMonitor} when
+ * {@code monitor.memory.mode} is {@code accounting}.
+ * <p/>
+ * The memory consumed by the stage is the estimate of the records it output in its last batch, see
+ * {@link RecordSizeEstimator}, plus the buffers the stage reports through its {@link MemoryAccountant}s. It is updated
+ * at the end of every batch, so memory limits are enforced on the batch that exceeds them.
+ * <p/>
+ * Every few runs, as a task of the pipe {@code ResourceControlledScheduledExecutor}, the heap of the stage is walked
+ * to verify the reported buffers, a large difference is logged as a warning.
+ */
+public class MemoryAccounting implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(MemoryAccounting.class);
+
+  public static final String MODE_KEY = "monitor.memory.mode";
+  public static final String MODE_HEAP_WALK = "heap-walk";
+  public static final String MODE_ACCOUNTING = "accounting";
+  public static final String MODE_DEFAULT = MODE_HEAP_WALK;
+
+  public static final String VERIFY_EVERY_KEY = "monitor.memory.accounting.verify.every";
+  public static final int VERIFY_EVERY_DEFAULT = 12;
+
+  // estimates within a factor of 2 or 10 MB of the heap walk are considered right
+  private static final int DISCREPANCY_FACTOR = 2;
+  private static final long DISCREPANCY_MINIMUM = 10L * 1000 * 1000;
+
+  private final MetricRegistry metrics;
+  private final String stageInstanceName;
+  private final String buffersPrefix;
+  private final Counter memoryConsumed;
+  private final LongSupplier heapWalk;
+  private final int verifyEvery;
+  private volatile List<Counter> stageBuffers;
+  private volatile long batchBytes;
+  private int runs;
+
+  /**
+   * Returns if the data collector configuration enables the memory monitor in accounting mode.
+   */
+  public static boolean isEnabled(Configuration configuration) {
+    return configuration.get("monitor.memory", false) &&
+        MODE_ACCOUNTING.equals(configuration.get(MODE_KEY, MODE_DEFAULT));
+  }
+
+  /**
+   * @param memoryConsumed counter of the memory consumed by the stage, in MB.
+   * @param heapWalk walks the heap of the stage returning the bytes retained by it.
+   * @param verifyEvery number of runs between heap walks, 0 to never walk the heap.
+   */
+  public MemoryAccounting(
+      MetricRegistry metrics,
+      String stageInstanceName,
+      Counter memoryConsumed,
+      LongSupplier heapWalk,
+      int verifyEvery
+  ) {
+    this.metrics = metrics;
+    this.stageInstanceName = stageInstanceName;
+    this.buffersPrefix = "custom." + stageInstanceName + "." + MemoryAccountant.METRIC_PREFIX;
+    this.memoryConsumed = memoryConsumed;
+    this.heapWalk = heapWalk;
+    this.verifyEvery = verifyEvery;
+    findStageBuffers();
+  }
+
+  /**
+   * Accounts the records output by the stage in the batch that just completed.
+   */
+  public void batchCompleted(Map<String, List<Record>> stageOutput) {
+    batchBytes = RecordSizeEstimator.estimate(stageOutput);
+    updateMemoryConsumed();
+  }
+
+  public long getStageBuffers() {
+    long bytes = 0;
+    for (Counter counter : stageBuffers) {
+      bytes += counter.getCount();
+    }
+    return bytes;
+  }
+
+  public long getBatch() {
+    return batchBytes;
+  }
+
+  public long getRetained() {
+    return getStageBuffers() + batchBytes;
+  }
+
+  @Override
+  public void run() {
+    // runners of multithreaded pipelines may create their accountants after this one was created
+    findStageBuffers();
+    updateMemoryConsumed();
+    if (verifyEvery > 0 && ++runs % verifyEvery == 0) {
+      verify();
+    }
+  }
+
+  private void findStageBuffers() {
+    stageBuffers = new ArrayList<>(metrics.getCounters(
+        (name, metric) -> name.startsWith(buffersPrefix) && name.endsWith(MetricsConfigurator.COUNTER_SUFFIX)
+    ).values());
+  }
+
+  private void updateMemoryConsumed() {
+    memoryConsumed.inc(getRetained() / 1000000 - memoryConsumed.getCount());
+  }
+
+  private void verify() {
+    long start = System.currentTimeMillis();
+    long walked = heapWalk.getAsLong();
+    long accounted = getStageBuffers();
+    long elapsed = System.currentTimeMillis() - start;
+    if (Math.abs(walked - accounted) > DISCREPANCY_MINIMUM &&
+        (walked > accounted * DISCREPANCY_FACTOR || accounted > walked * DISCREPANCY_FACTOR)) {
+      LOG.warn(
+          "Stage {} accounted {} in buffers but the heap walk found {} ({}ms)",
+          stageInstanceName,
+          Utils.humanReadableInt(accounted),
+          Utils.humanReadableInt(walked),
+          elapsed
+      );
+    } else {
+      LOG.debug(
+          "Stage {} accounted {} in buffers, the heap walk found {} ({}ms)",
+          stageInstanceName,
+          Utils.humanReadableInt(accounted),
+          Utils.humanReadableInt(walked),
+          elapsed
+      );
+    }
+  }
+}
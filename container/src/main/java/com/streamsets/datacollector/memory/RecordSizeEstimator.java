@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.memory.SizeEstimator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap retained by records from their fields and header attributes, see {@link SizeEstimator}.
+ * <p/>
+ * Batches are estimated from a sample of their records, the records of a batch usually have the same structure.
+ */
+public final class RecordSizeEstimator {
+  static final int SAMPLE_SIZE = 16;
+
+  // RecordImpl: header and value references and the initial record flag
+  private static final long RECORD = SizeEstimator.align(12 + 2 * 4 + 1);
+  // HeaderImpl: attributes map reference
+  private static final long HEADER = SizeEstimator.align(12 + 4);
+
+  private RecordSizeEstimator() {}
+
+  public static long estimate(Record record) {
+    long size = RECORD + HEADER + SizeEstimator.ofField(record.get());
+    Map<String, Object> attributes = record.getHeader().getAllAttributes();
+    size += SizeEstimator.ofHashMap(attributes.size(), false);
+    // the attribute names are mostly constants shared by all the records, unlike field names of parsed records
+    for (Object value : attributes.values()) {
+      if (value instanceof String) {
+        size += SizeEstimator.ofString((String) value);
+      } else if (value instanceof byte[]) {
+        size += SizeEstimator.ofArray(((byte[]) value).length, 1);
+      }
+      // the source record of an error record is accounted by the batch it belongs to
+    }
+    return size;
+  }
+
+  /**
+   * Estimates the given records, sampling up to {@link #SAMPLE_SIZE} of them evenly spaced.
+   */
+  public static long estimate(List<Record> records) {
+    int count = records.size();
+    if (count == 0) {
+      return 0;
+    }
+    int samples = Math.min(count, SAMPLE_SIZE);
+    long sampled = 0;
+    for (int i = 0; i < samples; i++) {
+      sampled += estimate(records.get((int) ((long) i * count / samples)));
+    }
+    return sampled * count / samples;
+  }
+
+  /**
+   * Estimates the output of a stage, the records of every lane.
+   */
+  public static long estimate(Map<String, List<Record>> stageOutput) {
+    long size = 0;
+    for (List<Record> lane : stageOutput.values()) {
+      size += estimate(lane);
+    }
+    return size;
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Encodes the metrics of a pipeline for subscribers that are notified on every metrics refresh.
+ * <p/>
+ * On every {@link #update(MetricRegistry)} only the metrics that changed since the previous update are serialized.
+ * A subscriber receives the full snapshot, in the same JSON structure as the serialized {@link MetricRegistry}, the
+ * first time it is encoded for. Afterwards it only receives the metrics that changed since the last message it got:
+ * <pre>
+ * {"delta": true, "counters": {...}, "meters": {...}, ..., "removed": ["metric name", ...]}
+ * </pre>
+ * A counter changed if its count changed, a meter or a timer if its count or its moving average rates changed, the
+ * mean rate alone doesn't make a meter change. Gauges and histograms are compared by their serialized value, the
+ * values of a histogram can change without updates as its reservoir drops old samples.
+ * <p/>
+ * The state of a subscriber is dropped when it is garbage collected, a subscriber that reconnects with a new listener
+ * starts again from the full snapshot. So does a subscriber that missed a message, once {@link #forget(Object)} was
+ * called for it.
+ */
+public class MetricsDeltaEncoder {
+  public static final String DELTA = "delta";
+  public static final String REMOVED = "removed";
+
+  private static final String VERSION = "version";
+  private static final String GAUGES = "gauges";
+  private static final String COUNTERS = "counters";
+  private static final String HISTOGRAMS = "histograms";
+  private static final String METERS = "meters";
+  private static final String TIMERS = "timers";
+  private static final String[] SECTIONS = {GAUGES, COUNTERS, HISTOGRAMS, METERS, TIMERS};
+
+  private static class Entry {
+    private final String section;
+    private long count;
+    private double rate;
+    private JsonNode value;
+    private long changedAt;
+
+    Entry(String section) {
+      this.section = section;
+    }
+  }
+
+  private final ObjectMapper objectMapper;
+  private final JsonNode version;
+  private final SortedMap<String, Entry> entries = new TreeMap<>();
+  private final Map<String, Long> removedAt = new HashMap<>();
+  private final Map<Object, Long> subscribers = new WeakHashMap<>();
+  private long updates;
+  private String fullSnapshot;
+
+  public MetricsDeltaEncoder(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    this.version = objectMapper.valueToTree(new MetricRegistry()).get(VERSION);
+  }
+
+  /**
+   * Takes the current values of the metrics, serializing only the ones that changed.
+   */
+  public synchronized void update(MetricRegistry metricRegistry) {
+    updates++;
+    fullSnapshot = null;
+    Map<String, Entry> missing = new HashMap<>(entries);
+
+    for (Map.Entry<String, Gauge> gauge : metricRegistry.getGauges().entrySet()) {
+      update(getEntry(gauge.getKey(), GAUGES, missing), objectMapper.valueToTree(gauge.getValue()));
+    }
+    for (Map.Entry<String, Counter> counter : metricRegistry.getCounters().entrySet()) {
+      update(getEntry(counter.getKey(), COUNTERS, missing), counter.getValue(), counter.getValue().getCount(), 0);
+    }
+    for (Map.Entry<String, Histogram> histogram : metricRegistry.getHistograms().entrySet()) {
+      update(getEntry(histogram.getKey(), HISTOGRAMS, missing), objectMapper.valueToTree(histogram.getValue()));
+    }
+    for (Map.Entry<String, Meter> meter : metricRegistry.getMeters().entrySet()) {
+      Meter value = meter.getValue();
+      update(getEntry(meter.getKey(), METERS, missing), value, value.getCount(), value.getOneMinuteRate());
+    }
+    for (Map.Entry<String, Timer> timer : metricRegistry.getTimers().entrySet()) {
+      Timer value = timer.getValue();
+      update(getEntry(timer.getKey(), TIMERS, missing), value, value.getCount(), value.getOneMinuteRate());
+    }
+
+    for (String name : missing.keySet()) {
+      entries.remove(name);
+      removedAt.put(name, updates);
+    }
+    pruneRemoved();
+  }
+
+  /**
+   * Returns the message for the given subscriber, null if nothing changed since its last message.
+   *
+   * @param delta false if the subscriber only understands full snapshots.
+   */
+  public synchronized String encode(Object subscriber, boolean delta) throws JsonProcessingException {
+    Long lastUpdate = subscribers.put(subscriber, updates);
+    if (!delta || lastUpdate == null) {
+      if (fullSnapshot == null) {
+        fullSnapshot = objectMapper.writeValueAsString(getFullSnapshot());
+      }
+      return fullSnapshot;
+    }
+    ObjectNode message = getDelta(lastUpdate);
+    return (message == null) ? null : objectMapper.writeValueAsString(message);
+  }
+
+  /**
+   * Drops the state of the given subscriber, its next message is a full snapshot. To be called when the last message
+   * encoded for the subscriber was not delivered.
+   */
+  public synchronized void forget(Object subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  /**
+   * Returns all the metrics as of the last update.
+   */
+  public synchronized ObjectNode getFullSnapshot() {
+    ObjectNode snapshot = objectMapper.createObjectNode();
+    snapshot.set(VERSION, version);
+    for (String section : SECTIONS) {
+      snapshot.putObject(section);
+    }
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      ((ObjectNode) snapshot.get(entry.getValue().section)).set(entry.getKey(), entry.getValue().value);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Applies a message returned by {@link #encode(Object, boolean)} to the metrics received so far.
+   *
+   * @return the updated metrics, the message itself if it is a full snapshot.
+   */
+  public static ObjectNode apply(ObjectNode metrics, ObjectNode message) {
+    if (metrics == null || !message.path(DELTA).asBoolean(false)) {
+      return message;
+    }
+    if (message.has(REMOVED)) {
+      for (JsonNode name : message.get(REMOVED)) {
+        for (String section : SECTIONS) {
+          if (metrics.get(section) instanceof ObjectNode) {
+            ((ObjectNode) metrics.get(section)).remove(name.asText());
+          }
+        }
+      }
+    }
+    for (String section : SECTIONS) {
+      if (message.has(section)) {
+        JsonNode current = metrics.get(section);
+        ObjectNode target = (current instanceof ObjectNode) ? (ObjectNode) current : metrics.putObject(section);
+        target.setAll((ObjectNode) message.get(section));
+      }
+    }
+    return metrics;
+  }
+
+  private Entry getEntry(String name, String section, Map<String, Entry> missing) {
+    Entry entry = missing.remove(name);
+    if (entry == null || !entry.section.equals(section)) {
+      entry = new Entry(section);
+      entries.put(name, entry);
+      removedAt.remove(name);
+    }
+    return entry;
+  }
+
+  private void update(Entry entry, JsonNode value) {
+    if (entry.value == null || !entry.value.equals(value)) {
+      entry.value = value;
+      entry.changedAt = updates;
+    }
+  }
+
+  private void update(Entry entry, Metric metric, long count, double rate) {
+    if (entry.value == null || entry.count != count || Double.compare(entry.rate, rate) != 0) {
+      entry.count = count;
+      entry.rate = rate;
+      entry.value = objectMapper.valueToTree(metric);
+      entry.changedAt = updates;
+    }
+  }
+
+  private ObjectNode getDelta(long lastUpdate) {
+    ObjectNode message = null;
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      if (entry.getValue().changedAt > lastUpdate) {
+        if (message == null) {
+          message = createDelta();
+        }
+        ((ObjectNode) message.with(entry.getValue().section)).set(entry.getKey(), entry.getValue().value);
+      }
+    }
+    for (Map.Entry<String, Long> removed : removedAt.entrySet()) {
+      if (removed.getValue() > lastUpdate) {
+        if (message == null) {
+          message = createDelta();
+        }
+        ArrayNode names = message.has(REMOVED) ? (ArrayNode) message.get(REMOVED) : message.putArray(REMOVED);
+        names.add(removed.getKey());
+      }
+    }
+    return message;
+  }
+
+  private ObjectNode createDelta() {
+    ObjectNode message = objectMapper.createObjectNode();
+    message.put(DELTA, true);
+    return message;
+  }
+
+  // removals that every subscriber already received are not needed anymore
+  private void pruneRemoved() {
+    long oldestSubscriber = subscribers.isEmpty() ? updates : Collections.min(subscribers.values());
+    Iterator<Map.Entry<String, Long>> iterator = removedAt.entrySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().getValue() <= oldestSubscriber) {
+        iterator.remove();
+      }
+    }
+  }
+}
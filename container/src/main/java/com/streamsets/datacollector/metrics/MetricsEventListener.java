@@ -21,4 +21,20 @@ public interface MetricsEventListener extends EventListener {
 
   void notification(String metrics);
 
+  /**
+   * Returns true if the listener can apply the deltas produced by {@link MetricsDeltaEncoder}, listeners that don't
+   * get the full metrics on every notification.
+   */
+  default boolean isDeltaSupported() {
+    return false;
+  }
+
+  /**
+   * Same as {@link #notification(String)}, returns false if the message was discarded instead of being delivered.
+   */
+  default boolean offerNotification(String metrics) {
+    notification(metrics);
+    return true;
+  }
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+/**
+ * Wire constants of the {@link RecordEncoding#DICT1} encoding.
+ * <p/>
+ * A DICT1 stream is a sequence of records with no framing. Field names, field attribute names and header attribute
+ * names are written through a per-stream dictionary: the first occurrence of a name is written as a literal and
+ * assigned the next dictionary index, later occurrences are written as that index. Numbers are written as (zig-zag)
+ * varints, floating point numbers as their IEEE 754 bits.
+ * <p/>
+ * Every field starts with a tag byte holding the type code in the low 6 bits, {@link #NULL_VALUE_FLAG} if the value
+ * is <code>null</code> and {@link #ATTRIBUTES_FLAG} if the field has attributes.
+ */
+final class DictionaryEncoding {
+
+  // upper bound on the dictionary, once reached new names are always written as literals
+  static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+
+  static final int NULL_VALUE_FLAG = 0x80;
+  static final int ATTRIBUTES_FLAG = 0x40;
+  static final int TYPE_MASK = 0x3F;
+
+  // header attribute value tags
+  static final int HEADER_NULL = 0;
+  static final int HEADER_STRING = 1;
+  static final int HEADER_LONG = 2;
+  static final int HEADER_BYTES = 3;
+
+  // record tags
+  static final int RECORD_NO_VALUE = 0;
+  static final int RECORD_WITH_VALUE = 1;
+
+  // field type codes, these are part of the wire format and must never change
+  static final int BOOLEAN = 1;
+  static final int CHAR = 2;
+  static final int BYTE = 3;
+  static final int SHORT = 4;
+  static final int INTEGER = 5;
+  static final int LONG = 6;
+  static final int FLOAT = 7;
+  static final int DOUBLE = 8;
+  static final int DATE = 9;
+  static final int DATETIME = 10;
+  static final int TIME = 11;
+  static final int DECIMAL = 12;
+  static final int STRING = 13;
+  static final int BYTE_ARRAY = 14;
+  static final int MAP = 15;
+  static final int LIST = 16;
+  static final int LIST_MAP = 17;
+  static final int ZONED_DATETIME = 18;
+
+  private DictionaryEncoding() {}
+
+}
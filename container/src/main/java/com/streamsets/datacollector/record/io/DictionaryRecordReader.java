@@ -0,0 +1,377 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads records written by {@link DictionaryRecordWriter}.
+ * <p/>
+ * The name dictionary is built while reading, so when starting at a non zero position the records before that
+ * position are read and discarded to rebuild the dictionary.
+ */
+public class DictionaryRecordReader implements RecordReader {
+  private final InputStream inputStream;
+  private final int maxObjectLen;
+  private final List<String> dictionary;
+  private final byte[] buffer;
+  private int bufferPos;
+  private int bufferLen;
+  private long bufferStart;
+  private long recordStart;
+  private boolean eof;
+  private boolean closed;
+
+  public DictionaryRecordReader(InputStream inputStream, long initialPosition, int maxObjectLen) throws IOException {
+    this.inputStream = inputStream;
+    this.maxObjectLen = maxObjectLen;
+    dictionary = new ArrayList<>();
+    buffer = new byte[8192];
+    while (getPosition() < initialPosition) {
+      if (readRecord() == null) {
+        throw new IOException(Utils.format("Stream ended before initial position '{}'", initialPosition));
+      }
+    }
+    if (getPosition() != initialPosition) {
+      throw new IOException(Utils.format("Initial position '{}' is not a record boundary", initialPosition));
+    }
+  }
+
+  @Override
+  public String getEncoding() {
+    return RecordEncoding.DICT1.name();
+  }
+
+  @Override
+  public long getPosition() {
+    return bufferStart + bufferPos;
+  }
+
+  @Override
+  public Record readRecord() throws IOException {
+    if (closed) {
+      throw new IOException("input has been closed");
+    }
+    if (!fill()) {
+      return null;
+    }
+    recordStart = getPosition();
+    HeaderImpl header = readHeader();
+    Field value = null;
+    if (readByte() == DictionaryEncoding.RECORD_WITH_VALUE) {
+      value = readField();
+    }
+    return new RecordImpl(header, value);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      inputStream.close();
+    }
+  }
+
+  private HeaderImpl readHeader() throws IOException {
+    int size = readVarInt();
+    Map<String, Object> attributes = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      String name = readName();
+      int tag = readByte();
+      switch (tag) {
+        case DictionaryEncoding.HEADER_NULL:
+          attributes.put(name, null);
+          break;
+        case DictionaryEncoding.HEADER_STRING:
+          attributes.put(name, readString());
+          break;
+        case DictionaryEncoding.HEADER_LONG:
+          attributes.put(name, unZigZag(readVarLong()));
+          break;
+        case DictionaryEncoding.HEADER_BYTES:
+          attributes.put(name, readBytes());
+          break;
+        default:
+          throw new IOException(Utils.format("Invalid header attribute tag '{}' at '{}'", tag, getPosition()));
+      }
+    }
+    HeaderImpl header = new HeaderImpl();
+    header.overrideUserAndSystemAttributes(attributes);
+    return header;
+  }
+
+  private Field readField() throws IOException {
+    int tag = readByte();
+    int code = tag & DictionaryEncoding.TYPE_MASK;
+    Field.Type type = getType(code);
+    Map<String, String> attributes = null;
+    if ((tag & DictionaryEncoding.ATTRIBUTES_FLAG) != 0) {
+      int size = readVarInt();
+      attributes = new LinkedHashMap<>(size * 2);
+      for (int i = 0; i < size; i++) {
+        String name = readName();
+        attributes.put(name, readString());
+      }
+    }
+    Field field;
+    if ((tag & DictionaryEncoding.NULL_VALUE_FLAG) != 0) {
+      field = Field.create(type, null);
+    } else {
+      field = readValue(code, type);
+    }
+    if (attributes != null) {
+      field.setAttributes(attributes);
+    }
+    return field;
+  }
+
+  private Field readValue(int code, Field.Type type) throws IOException {
+    switch (code) {
+      case DictionaryEncoding.BOOLEAN:
+        return Field.create(readByte() != 0);
+      case DictionaryEncoding.CHAR:
+        return Field.create((char) readVarInt());
+      case DictionaryEncoding.BYTE:
+        return Field.create((byte) readByte());
+      case DictionaryEncoding.SHORT:
+        return Field.create((short) unZigZag(readVarInt()));
+      case DictionaryEncoding.INTEGER:
+        return Field.create(unZigZag(readVarInt()));
+      case DictionaryEncoding.LONG:
+        return Field.create(unZigZag(readVarLong()));
+      case DictionaryEncoding.FLOAT:
+        return Field.create(Float.intBitsToFloat(readFixedInt()));
+      case DictionaryEncoding.DOUBLE:
+        return Field.create(Double.longBitsToDouble(readFixedLong()));
+      case DictionaryEncoding.DATE:
+      case DictionaryEncoding.DATETIME:
+      case DictionaryEncoding.TIME:
+        return Field.create(type, new Date(unZigZag(readVarLong())));
+      case DictionaryEncoding.DECIMAL:
+        int scale = unZigZag(readVarInt());
+        return Field.create(new BigDecimal(new BigInteger(readBytes()), scale));
+      case DictionaryEncoding.STRING:
+        return Field.create(readString());
+      case DictionaryEncoding.BYTE_ARRAY:
+        return Field.create(readBytes());
+      case DictionaryEncoding.MAP:
+      case DictionaryEncoding.LIST_MAP:
+        int mapSize = readVarInt();
+        LinkedHashMap<String, Field> map = new LinkedHashMap<>(mapSize * 2);
+        for (int i = 0; i < mapSize; i++) {
+          String name = readName();
+          map.put(name, readField());
+        }
+        return (code == DictionaryEncoding.MAP) ? Field.create(map) : Field.createListMap(map);
+      case DictionaryEncoding.LIST:
+        int listSize = readVarInt();
+        List<Field> list = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+          list.add(readField());
+        }
+        return Field.create(list);
+      case DictionaryEncoding.ZONED_DATETIME:
+        long epochSecond = unZigZag(readVarLong());
+        int nano = readVarInt();
+        ZoneId zoneId = ZoneId.of(readName());
+        return Field.createZonedDateTime(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), zoneId));
+      default:
+        throw new IllegalStateException(Utils.format("Unexpected type code '{}'", code));
+    }
+  }
+
+  private Field.Type getType(int code) throws IOException {
+    switch (code) {
+      case DictionaryEncoding.BOOLEAN:
+        return Field.Type.BOOLEAN;
+      case DictionaryEncoding.CHAR:
+        return Field.Type.CHAR;
+      case DictionaryEncoding.BYTE:
+        return Field.Type.BYTE;
+      case DictionaryEncoding.SHORT:
+        return Field.Type.SHORT;
+      case DictionaryEncoding.INTEGER:
+        return Field.Type.INTEGER;
+      case DictionaryEncoding.LONG:
+        return Field.Type.LONG;
+      case DictionaryEncoding.FLOAT:
+        return Field.Type.FLOAT;
+      case DictionaryEncoding.DOUBLE:
+        return Field.Type.DOUBLE;
+      case DictionaryEncoding.DATE:
+        return Field.Type.DATE;
+      case DictionaryEncoding.DATETIME:
+        return Field.Type.DATETIME;
+      case DictionaryEncoding.TIME:
+        return Field.Type.TIME;
+      case DictionaryEncoding.DECIMAL:
+        return Field.Type.DECIMAL;
+      case DictionaryEncoding.STRING:
+        return Field.Type.STRING;
+      case DictionaryEncoding.BYTE_ARRAY:
+        return Field.Type.BYTE_ARRAY;
+      case DictionaryEncoding.MAP:
+        return Field.Type.MAP;
+      case DictionaryEncoding.LIST:
+        return Field.Type.LIST;
+      case DictionaryEncoding.LIST_MAP:
+        return Field.Type.LIST_MAP;
+      case DictionaryEncoding.ZONED_DATETIME:
+        return Field.Type.ZONED_DATETIME;
+      default:
+        throw new IOException(Utils.format("Invalid field type code '{}' at '{}'", code, getPosition()));
+    }
+  }
+
+  private String readName() throws IOException {
+    int ref = readVarInt();
+    if (ref == 0) {
+      String name = readString();
+      if (dictionary.size() < DictionaryEncoding.MAX_DICTIONARY_SIZE) {
+        dictionary.add(name);
+      }
+      return name;
+    }
+    if (ref > dictionary.size()) {
+      throw new IOException(Utils.format("Invalid dictionary reference '{}' at '{}'", ref, getPosition()));
+    }
+    return dictionary.get(ref - 1);
+  }
+
+  private String readString() throws IOException {
+    return new String(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readBytes() throws IOException {
+    int len = readVarInt();
+    if (len < 0 || (maxObjectLen > 0 && getPosition() - recordStart + len > maxObjectLen)) {
+      throw new IOException(Utils.format("Record at '{}' exceeds the maximum size of '{}' bytes", recordStart,
+          maxObjectLen));
+    }
+    byte[] bytes = new byte[len];
+    int offset = 0;
+    while (offset < len) {
+      if (!fill()) {
+        throw new EOFException(Utils.format("Unexpected end of stream at '{}'", getPosition()));
+      }
+      int chunk = Math.min(len - offset, bufferLen - bufferPos);
+      System.arraycopy(buffer, bufferPos, bytes, offset, chunk);
+      bufferPos += chunk;
+      offset += chunk;
+    }
+    return bytes;
+  }
+
+  private int readByte() throws IOException {
+    if (!fill()) {
+      throw new EOFException(Utils.format("Unexpected end of stream at '{}'", getPosition()));
+    }
+    return buffer[bufferPos++] & 0xFF;
+  }
+
+  private int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException(Utils.format("Malformed varint at '{}'", getPosition()));
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException(Utils.format("Malformed varint at '{}'", getPosition()));
+  }
+
+  private int readFixedInt() throws IOException {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      value = (value << 8) | readByte();
+    }
+    return value;
+  }
+
+  private long readFixedLong() throws IOException {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | readByte();
+    }
+    return value;
+  }
+
+  private static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  // returns false if there is no more data in the stream
+  private boolean fill() throws IOException {
+    if (bufferPos < bufferLen) {
+      return true;
+    }
+    if (eof) {
+      return false;
+    }
+    bufferStart += bufferLen;
+    bufferPos = 0;
+    bufferLen = 0;
+    int read = inputStream.read(buffer);
+    while (read == 0) {
+      read = inputStream.read(buffer);
+    }
+    if (read < 0) {
+      eof = true;
+      return false;
+    }
+    bufferLen = read;
+    return true;
+  }
+
+}
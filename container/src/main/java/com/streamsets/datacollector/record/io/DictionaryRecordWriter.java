@@ -0,0 +1,323 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes records using the {@link RecordEncoding#DICT1} encoding, see {@link DictionaryEncoding} for the layout.
+ */
+public class DictionaryRecordWriter implements RecordWriter {
+  private final OutputStream outputStream;
+  private final Map<String, Integer> dictionary;
+  private byte[] buffer;
+  private int count;
+  private boolean closed;
+
+  public DictionaryRecordWriter(OutputStream outputStream) {
+    this.outputStream = outputStream;
+    dictionary = new HashMap<>();
+    buffer = new byte[4096];
+  }
+
+  @Override
+  public String getEncoding() {
+    return RecordEncoding.DICT1.name();
+  }
+
+  @Override
+  public void write(Record record) throws IOException {
+    if (closed) {
+      throw new IOException("output has been closed");
+    }
+    Utils.checkNotNull(record, "record");
+    count = 0;
+    writeHeader((HeaderImpl) record.getHeader());
+    Field value = record.get();
+    if (value == null) {
+      writeByte(DictionaryEncoding.RECORD_NO_VALUE);
+    } else {
+      writeByte(DictionaryEncoding.RECORD_WITH_VALUE);
+      writeField(value);
+    }
+    outputStream.write(buffer, 0, count);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (closed) {
+      throw new IOException("output has been closed");
+    }
+    outputStream.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      outputStream.close();
+    }
+  }
+
+  private void writeHeader(HeaderImpl header) throws IOException {
+    Map<String, Object> attributes = header.getAllAttributes();
+    writeVarInt(attributes.size());
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      writeName(entry.getKey());
+      Object value = entry.getValue();
+      if (value instanceof String) {
+        writeByte(DictionaryEncoding.HEADER_STRING);
+        writeString((String) value);
+      } else if (value instanceof Long) {
+        writeByte(DictionaryEncoding.HEADER_LONG);
+        writeVarLong(zigZag((Long) value));
+      } else if (value instanceof byte[]) {
+        writeByte(DictionaryEncoding.HEADER_BYTES);
+        writeBytes((byte[]) value);
+      } else {
+        // the source record reference is not serialized by any encoding
+        writeByte(DictionaryEncoding.HEADER_NULL);
+      }
+    }
+  }
+
+  private void writeField(Field field) throws IOException {
+    int code = getTypeCode(field.getType());
+    Object value = field.getValue();
+    Map<String, String> attributes = field.getAttributes();
+    boolean hasAttributes = attributes != null && !attributes.isEmpty();
+    int tag = code;
+    if (value == null) {
+      tag |= DictionaryEncoding.NULL_VALUE_FLAG;
+    }
+    if (hasAttributes) {
+      tag |= DictionaryEncoding.ATTRIBUTES_FLAG;
+    }
+    writeByte(tag);
+    if (hasAttributes) {
+      writeVarInt(attributes.size());
+      for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        writeName(entry.getKey());
+        writeString(entry.getValue());
+      }
+    }
+    if (value != null) {
+      writeValue(code, field);
+    }
+  }
+
+  private void writeValue(int code, Field field) throws IOException {
+    switch (code) {
+      case DictionaryEncoding.BOOLEAN:
+        writeByte(field.getValueAsBoolean() ? 1 : 0);
+        break;
+      case DictionaryEncoding.CHAR:
+        writeVarInt(field.getValueAsChar());
+        break;
+      case DictionaryEncoding.BYTE:
+        writeByte(field.getValueAsByte());
+        break;
+      case DictionaryEncoding.SHORT:
+      case DictionaryEncoding.INTEGER:
+        writeVarInt(zigZag(field.getValueAsInteger()));
+        break;
+      case DictionaryEncoding.LONG:
+        writeVarLong(zigZag(field.getValueAsLong()));
+        break;
+      case DictionaryEncoding.FLOAT:
+        writeFixedInt(Float.floatToIntBits(field.getValueAsFloat()));
+        break;
+      case DictionaryEncoding.DOUBLE:
+        writeFixedLong(Double.doubleToLongBits(field.getValueAsDouble()));
+        break;
+      case DictionaryEncoding.DATE:
+      case DictionaryEncoding.DATETIME:
+      case DictionaryEncoding.TIME:
+        writeVarLong(zigZag(((Date) field.getValue()).getTime()));
+        break;
+      case DictionaryEncoding.DECIMAL:
+        BigDecimal decimal = field.getValueAsDecimal();
+        writeVarInt(zigZag(decimal.scale()));
+        writeBytes(decimal.unscaledValue().toByteArray());
+        break;
+      case DictionaryEncoding.STRING:
+        writeString(field.getValueAsString());
+        break;
+      case DictionaryEncoding.BYTE_ARRAY:
+        writeBytes(field.getValueAsByteArray());
+        break;
+      case DictionaryEncoding.MAP:
+      case DictionaryEncoding.LIST_MAP:
+        Map<String, Field> map = field.getValueAsMap();
+        writeVarInt(map.size());
+        for (Map.Entry<String, Field> entry : map.entrySet()) {
+          writeName(entry.getKey());
+          writeField(entry.getValue());
+        }
+        break;
+      case DictionaryEncoding.LIST:
+        List<Field> list = field.getValueAsList();
+        writeVarInt(list.size());
+        for (Field element : list) {
+          writeField(element);
+        }
+        break;
+      case DictionaryEncoding.ZONED_DATETIME:
+        ZonedDateTime zonedDateTime = field.getValueAsZonedDateTime();
+        writeVarLong(zigZag(zonedDateTime.toEpochSecond()));
+        writeVarInt(zonedDateTime.getNano());
+        writeName(zonedDateTime.getZone().getId());
+        break;
+      default:
+        throw new IllegalStateException(Utils.format("Unexpected type code '{}'", code));
+    }
+  }
+
+  private static int getTypeCode(Field.Type type) throws IOException {
+    switch (type) {
+      case BOOLEAN:
+        return DictionaryEncoding.BOOLEAN;
+      case CHAR:
+        return DictionaryEncoding.CHAR;
+      case BYTE:
+        return DictionaryEncoding.BYTE;
+      case SHORT:
+        return DictionaryEncoding.SHORT;
+      case INTEGER:
+        return DictionaryEncoding.INTEGER;
+      case LONG:
+        return DictionaryEncoding.LONG;
+      case FLOAT:
+        return DictionaryEncoding.FLOAT;
+      case DOUBLE:
+        return DictionaryEncoding.DOUBLE;
+      case DATE:
+        return DictionaryEncoding.DATE;
+      case DATETIME:
+        return DictionaryEncoding.DATETIME;
+      case TIME:
+        return DictionaryEncoding.TIME;
+      case DECIMAL:
+        return DictionaryEncoding.DECIMAL;
+      case STRING:
+        return DictionaryEncoding.STRING;
+      case BYTE_ARRAY:
+        return DictionaryEncoding.BYTE_ARRAY;
+      case MAP:
+        return DictionaryEncoding.MAP;
+      case LIST:
+        return DictionaryEncoding.LIST;
+      case LIST_MAP:
+        return DictionaryEncoding.LIST_MAP;
+      case ZONED_DATETIME:
+        return DictionaryEncoding.ZONED_DATETIME;
+      default:
+        throw new IOException(Utils.format("Field type '{}' is not supported by the '{}' encoding", type,
+            RecordEncoding.DICT1));
+    }
+  }
+
+  private void writeName(String name) {
+    Integer index = dictionary.get(name);
+    if (index != null) {
+      writeVarInt(index + 1);
+    } else {
+      writeVarInt(0);
+      writeString(name);
+      if (dictionary.size() < DictionaryEncoding.MAX_DICTIONARY_SIZE) {
+        dictionary.put(name, dictionary.size());
+      }
+    }
+  }
+
+  private void writeString(String str) {
+    writeBytes(str.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeBytes(byte[] bytes) {
+    writeVarInt(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, count, bytes.length);
+    count += bytes.length;
+  }
+
+  private void writeByte(int b) {
+    ensureCapacity(1);
+    buffer[count++] = (byte) b;
+  }
+
+  private void writeVarInt(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[count++] = (byte) value;
+  }
+
+  private void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[count++] = (byte) value;
+  }
+
+  private void writeFixedInt(int value) {
+    ensureCapacity(4);
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      buffer[count++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void writeFixedLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[count++] = (byte) (value >>> shift);
+    }
+  }
+
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private void ensureCapacity(int extra) {
+    if (count + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+    }
+  }
+
+}
@@ -17,7 +17,6 @@ package com.streamsets.datacollector.restapi;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
-import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
@@ -64,6 +63,7 @@ import com.streamsets.datacollector.restapi.bean.StageDefinitionJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -118,7 +118,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.Principal;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -128,6 +127,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -260,7 +260,10 @@ public class PipelineStoreResource {
   public Response getPipelinesCount() throws PipelineStoreException {
     return Response.ok()
         .type(MediaType.APPLICATION_JSON)
-        .entity(ImmutableMap.of("count", store.getPipelines().size()))
+        .entity(ImmutableMap.of(
+            "count",
+            store.findPipelines(null, null, null, PipelineCatalog.SortKey.NAME, false, 0, 0).getTotalCount()
+        ))
         .build();
   }
 
@@ -316,143 +319,57 @@ public class PipelineStoreResource {
   ) throws PipelineException {
     RestAPIUtils.injectPipelineInMDC("*");
 
-    final List<PipelineInfo> pipelineInfoList = store.getPipelines();
     final Map<String, PipelineState> pipelineStateCache = new HashMap<>();
 
-    Collection<PipelineInfo> filteredCollection = Collections2.filter(pipelineInfoList, pipelineInfo -> {
-      String title = pipelineInfo.getTitle() != null ? pipelineInfo.getTitle() : pipelineInfo.getPipelineId();
-      if (filterText != null && !title.toLowerCase().contains(filterText.toLowerCase())) {
-        return false;
-      }
-      if (label != null) {
-        try {
-          Map<String, Object> metadata = pipelineInfo.getMetadata();
-          switch (label) {
-            case SYSTEM_ALL_PIPELINES:
-              return true;
-            case SYSTEM_EDGE_PIPELINES:
-              PipelineState state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return state.getExecutionMode().equals(ExecutionMode.EDGE);
-            case SYSTEM_MICROSERVICE_PIPELINES:
-              return metadata != null && metadata.containsKey(MICROSERVICE);
-            case SYSTEM_RUNNING_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return state.getStatus().isActive();
-            case SYSTEM_NON_RUNNING_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return !state.getStatus().isActive();
-            case SYSTEM_INVALID_PIPELINES:
-              return !pipelineInfo.isValid();
-            case SYSTEM_ERROR_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              PipelineStatus status = state.getStatus();
-              return status == PipelineStatus.START_ERROR ||
-                  status == PipelineStatus.RUNNING_ERROR ||
-                  status == PipelineStatus.RUN_ERROR ||
-                  status == PipelineStatus.CONNECT_ERROR;
-            case SYSTEM_PUBLISHED_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return !isRemotePipeline(state) && metadata != null && metadata.containsKey(DPM_PIPELINE_ID);
-            case SYSTEM_DPM_CONTROLLED_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return isRemotePipeline(state);
-            case SYSTEM_LOCAL_PIPELINES:
-              return metadata == null || !metadata.containsKey(DPM_PIPELINE_ID);
-            case SHARED_WITH_ME_PIPELINES:
-              return !pipelineInfo.getCreator().equals(user);
-            default:
-              if (metadata != null && metadata.containsKey("labels")) {
-                List<String> labels = (List<String>) metadata.get("labels");
-                if (!labels.contains(label)) {
-                  return false;
-                }
-              } else {
-                return false;
-              }
-          }
-        } catch (PipelineException e) {
-          e.printStackTrace();
-        }
-      }
-      return true;
-    });
-
-    List<PipelineInfo> filteredList = new ArrayList<>(filteredCollection);
-
-    filteredList.sort((p1, p2) -> {
-      if (order.equals(Order.DESC)) {
-        PipelineInfo tmp = p1;
-        p1 = p2;
-        p2 = tmp;
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.NAME)) {
-        return p1.getPipelineId().compareTo(p2.getPipelineId());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.TITLE)) {
-        String p1Title = p1.getTitle() != null ? p1.getTitle() : p1.getPipelineId();
-        String p2Title = p2.getTitle() != null ? p2.getTitle() : p2.getPipelineId();
-        return p1Title.compareTo(p2Title);
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.LAST_MODIFIED)) {
-        return p2.getLastModified().compareTo(p1.getLastModified());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.CREATED)) {
-        return p2.getCreated().compareTo(p1.getCreated());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.CREATOR)) {
-        return p1.getCreator().compareTo(p2.getCreator());
+    // user labels are indexed by the store, system labels are evaluated for each pipeline
+    String userLabel = null;
+    Predicate<PipelineInfo> systemLabelFilter = null;
+    if (label != null && !label.equals(SYSTEM_ALL_PIPELINES)) {
+      if (DPM_ENABLED_SYSTEM_PIPELINE_LABELS.contains(label)) {
+        systemLabelFilter = pipelineInfo -> isInSystemLabel(pipelineInfo, label, pipelineStateCache);
+      } else {
+        userLabel = label;
       }
+    }
 
-      if (orderBy.equals(PipelineOrderByFields.STATUS)) {
-        try {
-          PipelineState p1State = null;
-          PipelineState p2State = null;
-
-          if (pipelineStateCache.containsKey(p1.getPipelineId())) {
-            p1State = pipelineStateCache.get(p1.getPipelineId());
-          } else {
-            p1State = manager.getPipelineState(p1.getPipelineId(), p1.getLastRev());
-            pipelineStateCache.put(p1.getPipelineId(), p1State);
-          }
-
-          if (pipelineStateCache.containsKey(p2.getPipelineId())) {
-            p2State = pipelineStateCache.get(p2.getPipelineId());
-          } else {
-            p2State = manager.getPipelineState(p2.getPipelineId(), p2.getLastRev());
-            pipelineStateCache.put(p2.getPipelineId(), p2State);
-          }
-
-          if (p1State != null && p2State != null) {
-            return p1State.getStatus().compareTo(p2State.getStatus());
-          }
-
-        } catch (PipelineException e) {
-          LOG.debug("Failed to get Pipeline State - " + e.getLocalizedMessage());
-        }
+    List<PipelineInfo> filteredList;
+    int totalCount;
+    if (orderBy.equals(PipelineOrderByFields.STATUS)) {
+      // the status is not indexed, all the matching pipelines are sorted by status before paging
+      filteredList = new ArrayList<>(store.findPipelines(
+          filterText,
+          userLabel,
+          systemLabelFilter,
+          PipelineCatalog.SortKey.NAME,
+          false,
+          0,
+          -1
+      ).getPipelines());
+      sortByStatus(filteredList, order.equals(Order.DESC), pipelineStateCache);
+      totalCount = filteredList.size();
+      int endIndex = offset + len;
+      if (len == -1 || endIndex > filteredList.size()) {
+        endIndex = filteredList.size();
       }
-
-      return 0;
-    });
+      filteredList = (offset < endIndex) ? filteredList.subList(offset, endIndex) : Collections.emptyList();
+    } else {
+      PipelineCatalog.Page page = store.findPipelines(
+          filterText,
+          userLabel,
+          systemLabelFilter,
+          PipelineCatalog.SortKey.valueOf(orderBy.name()),
+          order.equals(Order.DESC),
+          offset,
+          len
+      );
+      filteredList = page.getPipelines();
+      totalCount = page.getTotalCount();
+    }
 
     Object responseData;
 
     if (filteredList.size() > 0) {
-      int endIndex = offset + len;
-      if (len == -1 || endIndex > filteredList.size()) {
-        endIndex = filteredList.size();
-      }
-      List<PipelineInfoJson> subList = BeanHelper.wrapPipelineInfo(filteredList.subList(offset, endIndex));
+      List<PipelineInfoJson> subList = BeanHelper.wrapPipelineInfo(filteredList);
       if (includeStatus) {
         List<PipelineStateJson> statusList = new ArrayList<>(subList.size());
         for (PipelineInfoJson pipelineInfoJson: subList) {
@@ -480,10 +397,105 @@ public class PipelineStoreResource {
     return Response.ok()
         .type(MediaType.APPLICATION_JSON)
         .entity(responseData)
-        .header("TOTAL_COUNT", filteredList.size())
+        .header("TOTAL_COUNT", totalCount)
         .build();
   }
 
+  @SuppressWarnings("unchecked")
+  private boolean isInSystemLabel(
+      PipelineInfo pipelineInfo,
+      String label,
+      Map<String, PipelineState> pipelineStateCache
+  ) {
+    try {
+      Map<String, Object> metadata = pipelineInfo.getMetadata();
+      PipelineState state;
+      switch (label) {
+        case SYSTEM_EDGE_PIPELINES:
+          state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+          pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+          return state.getExecutionMode().equals(ExecutionMode.EDGE);
+        case SYSTEM_MICROSERVICE_PIPELINES:
+          return metadata != null && metadata.containsKey(MICROSERVICE);
+        case SYSTEM_RUNNING_PIPELINES:
+          state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+          pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+          return state.getStatus().isActive();
+        case SYSTEM_NON_RUNNING_PIPELINES:
+          state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+          pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+          return !state.getStatus().isActive();
+        case SYSTEM_INVALID_PIPELINES:
+          return !pipelineInfo.isValid();
+        case SYSTEM_ERROR_PIPELINES:
+          state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+          pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+          PipelineStatus status = state.getStatus();
+          return status == PipelineStatus.START_ERROR ||
+              status == PipelineStatus.RUNNING_ERROR ||
+              status == PipelineStatus.RUN_ERROR ||
+              status == PipelineStatus.CONNECT_ERROR;
+        case SYSTEM_PUBLISHED_PIPELINES:
+          state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+          pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+          return !isRemotePipeline(state) && metadata != null && metadata.containsKey(DPM_PIPELINE_ID);
+        case SYSTEM_DPM_CONTROLLED_PIPELINES:
+          state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+          pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+          return isRemotePipeline(state);
+        case SYSTEM_LOCAL_PIPELINES:
+          return metadata == null || !metadata.containsKey(DPM_PIPELINE_ID);
+        case SHARED_WITH_ME_PIPELINES:
+          return !pipelineInfo.getCreator().equals(user);
+        default:
+          return true;
+      }
+    } catch (PipelineException e) {
+      LOG.warn("Failed to get Pipeline State - " + e.getLocalizedMessage());
+    }
+    return true;
+  }
+
+  private void sortByStatus(
+      List<PipelineInfo> pipelineInfoList,
+      boolean descending,
+      Map<String, PipelineState> pipelineStateCache
+  ) {
+    pipelineInfoList.sort((p1, p2) -> {
+      if (descending) {
+        PipelineInfo tmp = p1;
+        p1 = p2;
+        p2 = tmp;
+      }
+      try {
+        PipelineState p1State = null;
+        PipelineState p2State = null;
+
+        if (pipelineStateCache.containsKey(p1.getPipelineId())) {
+          p1State = pipelineStateCache.get(p1.getPipelineId());
+        } else {
+          p1State = manager.getPipelineState(p1.getPipelineId(), p1.getLastRev());
+          pipelineStateCache.put(p1.getPipelineId(), p1State);
+        }
+
+        if (pipelineStateCache.containsKey(p2.getPipelineId())) {
+          p2State = pipelineStateCache.get(p2.getPipelineId());
+        } else {
+          p2State = manager.getPipelineState(p2.getPipelineId(), p2.getLastRev());
+          pipelineStateCache.put(p2.getPipelineId(), p2State);
+        }
+
+        if (p1State != null && p2State != null) {
+          return p1State.getStatus().compareTo(p2State.getStatus());
+        }
+
+      } catch (PipelineException e) {
+        LOG.debug("Failed to get Pipeline State - " + e.getLocalizedMessage());
+      }
+      return 0;
+    });
+  }
+
   @Path("/pipelines/delete")
   @POST
   @ApiOperation(value = "Deletes Pipelines", response = PipelineInfoJson.class,
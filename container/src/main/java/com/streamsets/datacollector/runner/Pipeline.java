@@ -30,7 +30,9 @@ import com.streamsets.datacollector.creation.ServiceBean;
 import com.streamsets.datacollector.creation.StageBean;
 import com.streamsets.datacollector.email.EmailSender;
 import com.streamsets.datacollector.event.dto.PipelineStartEvent;
+import com.streamsets.datacollector.execution.runner.common.BatchScheduler;
 import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
+import com.streamsets.datacollector.execution.runner.common.ProductionPipelineRunner;
 import com.streamsets.datacollector.lineage.LineageEventImpl;
 import com.streamsets.datacollector.lineage.LineagePublisherDelegator;
 import com.streamsets.datacollector.lineage.LineagePublisherTask;
@@ -71,6 +73,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class Pipeline {
   private static final Logger LOG = LoggerFactory.getLogger(Pipeline.class);
@@ -541,6 +544,35 @@ public class Pipeline {
     }
   }
 
+  /**
+   * Runs the pipeline batches on the given scheduler, onComplete is called once the pipeline execution is over.
+   * Only available for poll origins in a production pipeline, see {@link #isPollSource()}.
+   */
+  public void runCooperatively(BatchScheduler scheduler, Consumer<Throwable> onComplete) {
+    this.running = true;
+    runner.setObserver(observer);
+    try {
+      ((ProductionPipelineRunner) runner).runCooperatively(
+          originPipe,
+          pipes,
+          badRecordsHandler,
+          statsAggregationHandler,
+          scheduler,
+          error -> {
+            this.running = false;
+            onComplete.accept(error);
+          }
+      );
+    } catch (RuntimeException e) {
+      this.running = false;
+      throw e;
+    }
+  }
+
+  public boolean isPollSource() {
+    return !(getSource() instanceof PushSource);
+  }
+
   public boolean isRunning() {
     return running;
   }
@@ -28,6 +28,7 @@ import com.streamsets.datacollector.el.ELEvaluator;
 import com.streamsets.datacollector.el.ELVariables;
 import com.streamsets.datacollector.email.EmailException;
 import com.streamsets.datacollector.email.EmailSender;
+import com.streamsets.datacollector.memory.MemoryAccounting;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.record.io.JsonWriterReaderFactory;
@@ -53,6 +54,7 @@ import com.streamsets.pipeline.api.ext.RecordWriter;
 import com.streamsets.pipeline.api.ext.Sampler;
 import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.memory.MemoryAccountant;
 import com.streamsets.pipeline.lib.sampling.RecordSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -108,6 +110,10 @@ public abstract class ProtoContext implements ProtoConfigurableEntity.Context, C
       String resourcesDir
   ) {
     this.configuration = configuration.getSubSetConfiguration(STAGE_CONF_PREFIX, true);
+    // stages only report their buffers when they are accounted
+    if (MemoryAccounting.isEnabled(configuration)) {
+      this.configuration.set(MemoryAccountant.ACCOUNTING_CONFIG, true);
+    }
     this.configToElDefMap = configToElDefMap;
     this.constants = constants;
     this.emailSender = emailSender;
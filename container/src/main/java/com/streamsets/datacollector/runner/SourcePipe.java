@@ -141,6 +141,12 @@ public class SourcePipe extends StagePipe implements ReportErrorDelegate {
     );
   }
 
+  @Override
+  protected boolean canDeferMetrics() {
+    // push origins complete their batches on any of the origin threads
+    return false;
+  }
+
   @Override
   public void reportError(String stage, ErrorMessage errorMessage) {
     increaseStageErrorMetrics(1);
@@ -22,10 +22,12 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.memory.MemoryAccounting;
 import com.streamsets.datacollector.memory.MemoryMonitor;
 import com.streamsets.datacollector.memory.MemoryUsageCollector;
 import com.streamsets.datacollector.memory.MemoryUsageCollectorResourceBundle;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.metrics.RollupMetricRegistry;
 import com.streamsets.datacollector.restapi.bean.CounterJson;
 import com.streamsets.datacollector.restapi.bean.HistogramJson;
 import com.streamsets.datacollector.restapi.bean.MeterJson;
@@ -42,7 +44,6 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 public class StagePipe extends Pipe<StagePipe.Context> {
 
@@ -63,8 +64,8 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private Histogram outputRecordsHistogram;
   private Histogram errorRecordsHistogram;
   private Histogram stageErrorsHistogram;
-  private Map<String, Counter> outputRecordsPerLaneCounter;
-  private Map<String, Meter> outputRecordsPerLaneMeter;
+  private StageStats stageStats;
+  private MemoryAccounting memoryAccounting;
   private StagePipe.Context context;
   private final ResourceControlledScheduledExecutor scheduledExecutorService;
   private final MemoryUsageCollectorResourceBundle memoryUsageCollectorResourceBundle;
@@ -182,38 +183,55 @@ public class StagePipe extends Pipe<StagePipe.Context> {
         stageErrorsHistogram.update(stageErrorsHistogramJson.getCount());
       }
 
-      if (!getStage().getConfiguration().getOutputAndEventLanes().isEmpty()) {
-        outputRecordsPerLaneCounter = new HashMap<>();
-        outputRecordsPerLaneMeter = new HashMap<>();
-        for (String lane : getStage().getConfiguration().getOutputAndEventLanes()) {
-          Counter outputRecordsCounter =
-            MetricsConfigurator.createStageCounter(metrics, metricsKey + ":" + lane + ".outputRecords", name, rev);
-          if (metricRegistryJson != null) {
-            CounterJson counterJson =
-              metricRegistryJson.getCounters().get(
-                metricsKey + ":" + lane + ".outputRecords" + MetricsConfigurator.COUNTER_SUFFIX);
-            outputRecordsCounter.inc(counterJson.getCount());
-          }
-          outputRecordsPerLaneCounter.put(lane, outputRecordsCounter);
-
-          Meter outputRecordsMeter = MetricsConfigurator.createStageMeter(
-            metrics, metricsKey + ":" + lane + ".outputRecords", name, rev);
-          if (metricRegistryJson != null) {
-            MeterJson meterJson =
-              metricRegistryJson.getMeters().get(
-                metricsKey + ":" + lane + ".outputRecords" + MetricsConfigurator.METER_SUFFIX);
-            outputRecordsMeter.mark(meterJson.getCount());
-          }
-          outputRecordsPerLaneMeter.put(lane, outputRecordsMeter);
+      List<String> outputAndEventLanes = getStage().getConfiguration().getOutputAndEventLanes();
+      Counter[] outputRecordsPerLaneCounter = new Counter[outputAndEventLanes.size()];
+      Meter[] outputRecordsPerLaneMeter = new Meter[outputAndEventLanes.size()];
+      for (int i = 0; i < outputAndEventLanes.size(); i++) {
+        String lane = outputAndEventLanes.get(i);
+        Counter outputRecordsCounter =
+          MetricsConfigurator.createStageCounter(metrics, metricsKey + ":" + lane + ".outputRecords", name, rev);
+        if (metricRegistryJson != null) {
+          CounterJson counterJson =
+            metricRegistryJson.getCounters().get(
+              metricsKey + ":" + lane + ".outputRecords" + MetricsConfigurator.COUNTER_SUFFIX);
+          outputRecordsCounter.inc(counterJson.getCount());
         }
+        outputRecordsPerLaneCounter[i] = outputRecordsCounter;
+
+        Meter outputRecordsMeter = MetricsConfigurator.createStageMeter(
+          metrics, metricsKey + ":" + lane + ".outputRecords", name, rev);
+        if (metricRegistryJson != null) {
+          MeterJson meterJson =
+            metricRegistryJson.getMeters().get(
+              metricsKey + ":" + lane + ".outputRecords" + MetricsConfigurator.METER_SUFFIX);
+          outputRecordsMeter.mark(meterJson.getCount());
+        }
+        outputRecordsPerLaneMeter[i] = outputRecordsMeter;
       }
+      stageStats = createStageStats(metrics, outputRecordsPerLaneCounter, outputRecordsPerLaneMeter);
       this.context = pipeContext;
       if (configuration.get("monitor.memory", false)) {
-        LOG.info("Starting memory collector for {}", getStage().getInfo().getInstanceName());
-        scheduledExecutorService.submit(
-          new MemoryMonitor(memoryConsumedCounter, () -> new MemoryUsageCollector.Builder()
-            .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
-            .setStageRuntime(getStage()).build()));
+        String mode = configuration.get(MemoryAccounting.MODE_KEY, MemoryAccounting.MODE_DEFAULT);
+        if (MemoryAccounting.MODE_ACCOUNTING.equals(mode)) {
+          LOG.info("Starting memory accounting for {}", getStage().getInfo().getInstanceName());
+          memoryAccounting = new MemoryAccounting(
+              metrics,
+              getStage().getInfo().getInstanceName(),
+              memoryConsumedCounter,
+              () -> new MemoryUsageCollector.Builder()
+                  .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
+                  .setTraverseClassLoaderClasses(false)
+                  .setStageRuntime(getStage()).build().collect().getMemoryConsumed(),
+              configuration.get(MemoryAccounting.VERIFY_EVERY_KEY, MemoryAccounting.VERIFY_EVERY_DEFAULT)
+          );
+          scheduledExecutorService.submit(memoryAccounting);
+        } else {
+          LOG.info("Starting memory collector for {}", getStage().getInfo().getInstanceName());
+          scheduledExecutorService.submit(
+            new MemoryMonitor(memoryConsumedCounter, () -> new MemoryUsageCollector.Builder()
+              .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
+              .setStageRuntime(getStage()).build()));
+        }
       }
       createRuntimeStatsGauge(metrics);
 
@@ -276,17 +294,8 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     String newOffset
   ) throws StageException {
     long processingTime = System.currentTimeMillis() - startTimeInStage;
-    processingTimer.update(processingTime, TimeUnit.MILLISECONDS);
-
     int batchSize = batchImpl.getSize();
-    inputRecordsCounter.inc(batchSize);
-    inputRecordsMeter.mark(batchSize);
-    inputRecordsHistogram.update(batchSize);
-
     int stageErrorRecordCount = errorSink.getErrorRecords(getStage().getInfo().getInstanceName()).size();
-    errorRecordsCounter.inc(stageErrorRecordCount);
-    errorRecordsMeter.mark(stageErrorRecordCount);
-    errorRecordsHistogram.update(stageErrorRecordCount);
 
     int outputRecordsCount = batchMaker.getSize();
     if (isTargetOrExecutor()) {
@@ -294,31 +303,25 @@ public class StagePipe extends Pipe<StagePipe.Context> {
       //Records are sent to destination or to the error sink.
       outputRecordsCount = batchSize - stageErrorRecordCount;
     }
-    outputRecordsCounter.inc(outputRecordsCount);
-    outputRecordsMeter.mark(outputRecordsCount);
-    outputRecordsHistogram.update(outputRecordsCount);
-
     int stageErrorsCount = errorSink.getStageErrors(getStage().getInfo().getInstanceName()).size();
-    increaseStageErrorMetrics(stageErrorsCount);
 
     Map<String, Integer> outputRecordsPerLane = new HashMap<>();
-    if (!getStage().getConfiguration().getOutputLanes().isEmpty()) {
-      for (String lane : getStage().getConfiguration().getOutputLanes()) {
-        int outputRecords = batchMaker.getSize(lane);
-        outputRecordsPerLane.put(lane, outputRecords);
-        outputRecordsPerLaneCounter.get(lane).inc(outputRecords);
-        outputRecordsPerLaneMeter.get(lane).mark(outputRecords);
-      }
+    List<String> outputLanes = getStage().getConfiguration().getOutputLanes();
+    for (int i = 0; i < outputLanes.size(); i++) {
+      int outputRecords = batchMaker.getSize(outputLanes.get(i));
+      outputRecordsPerLane.put(outputLanes.get(i), outputRecords);
+      stageStats.recordLane(i, outputRecords);
     }
 
     if(!getStage().getConfiguration().getEventLanes().isEmpty()) {
       String lane = getStage().getConfiguration().getEventLanes().get(0);
       int eventRecords = eventSink.getStageEvents(getStage().getInfo().getInstanceName()).size();
       outputRecordsPerLane.put(lane, eventRecords);
-      outputRecordsPerLaneCounter.get(lane).inc(eventRecords);
-      outputRecordsPerLaneMeter.get(lane).mark(eventRecords);
+      stageStats.recordLane(outputLanes.size(), eventRecords);
     }
 
+    stageStats.recordBatch(processingTime, batchSize, stageErrorRecordCount, outputRecordsCount, stageErrorsCount);
+
     // capture stage metrics for this batch
     Map<String, Object> batchMetrics = new HashMap<>();
     batchMetrics.put(AggregatorUtil.PROCESSING_TIME, processingTime);
@@ -328,6 +331,10 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     batchMetrics.put(AggregatorUtil.STAGE_ERROR, stageErrorsCount);
     batchMetrics.put(AggregatorUtil.OUTPUT_RECORDS_PER_LANE, outputRecordsPerLane);
 
+    if (memoryAccounting != null) {
+      memoryAccounting.batchCompleted(batchMaker.getStageOutput());
+    }
+
     pipeBatch.completeStage(batchMaker);
 
     // In this is source pipe, update source-specific metrics
@@ -342,6 +349,9 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     return batchMetrics;
   }
 
+  /**
+   * Stage errors reported outside of the batches, the ones of the batches are rolled up with the other stage metrics.
+   */
   protected void increaseStageErrorMetrics(int count) {
     stageErrorCounter.inc(count);
     stageErrorMeter.mark(count);
@@ -356,6 +366,11 @@ public class StagePipe extends Pipe<StagePipe.Context> {
 
     getStage().destroy(errorSink, eventSink, processedSink);
 
+    if (stageStats != null && stageStats.isDeferred()) {
+      stageStats.run();
+      ((RollupMetricRegistry) getStage().getContext().getMetrics()).removeRollup(stageStats);
+    }
+
     pipeBatch.completeStage(this);
   }
 
@@ -367,6 +382,41 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     return batchMetrics;
   }
 
+  /**
+   * Whether the batches of the stage are always completed by the thread running the pipe, which is required for its
+   * metrics to be rolled up lazily.
+   */
+  protected boolean canDeferMetrics() {
+    return true;
+  }
+
+  private StageStats createStageStats(MetricRegistry metrics, Counter[] laneCounters, Meter[] laneMeters) {
+    StageStats.Metrics stageMetrics = new StageStats.Metrics();
+    stageMetrics.processingTimer = processingTimer;
+    stageMetrics.inputRecordsMeter = inputRecordsMeter;
+    stageMetrics.outputRecordsMeter = outputRecordsMeter;
+    stageMetrics.errorRecordsMeter = errorRecordsMeter;
+    stageMetrics.stageErrorMeter = stageErrorMeter;
+    stageMetrics.inputRecordsCounter = inputRecordsCounter;
+    stageMetrics.outputRecordsCounter = outputRecordsCounter;
+    stageMetrics.errorRecordsCounter = errorRecordsCounter;
+    stageMetrics.stageErrorCounter = stageErrorCounter;
+    stageMetrics.inputRecordsHistogram = inputRecordsHistogram;
+    stageMetrics.outputRecordsHistogram = outputRecordsHistogram;
+    stageMetrics.errorRecordsHistogram = errorRecordsHistogram;
+    stageMetrics.stageErrorsHistogram = stageErrorsHistogram;
+    stageMetrics.outputRecordsPerLaneCounter = laneCounters;
+    stageMetrics.outputRecordsPerLaneMeter = laneMeters;
+
+    boolean deferred = metrics instanceof RollupMetricRegistry && canDeferMetrics();
+    StageStats stats = new StageStats(stageMetrics, deferred);
+    if (deferred) {
+      ((RollupMetricRegistry) metrics).addRollup(stats);
+      scheduledExecutorService.submit(stats);
+    }
+    return stats;
+  }
+
   @SuppressWarnings("unchecked")
   private Gauge<Object> createRuntimeStatsGauge(MetricRegistry metricRegistry) {
     Gauge<Object> runtimeStatsGauge = MetricsConfigurator.getGauge(metricRegistry, RUNTIME_STATS_GAUGE);
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per batch metrics of a stage, kept in plain arrays by the thread running the stage and rolled up into the
+ * Codahale metrics of the stage later on.
+ * <p/>
+ * When deferred, the batches are appended to a ring that only the runner thread writes to, the metrics are updated
+ * when {@link #run()} drains it: on registry lookups, on the metrics tick, when the stage is destroyed or when the
+ * ring is full. Otherwise, for registries that can't roll up or for stages whose batches may be completed by several
+ * threads, every batch updates the metrics right away.
+ */
+public class StageStats implements Runnable {
+  static final int CAPACITY = 64;
+
+  private static final int PROCESSING_TIME = 0;
+  private static final int INPUT_RECORDS = 1;
+  private static final int ERROR_RECORDS = 2;
+  private static final int OUTPUT_RECORDS = 3;
+  private static final int STAGE_ERRORS = 4;
+  private static final int LANES = 5;
+
+  public static class Metrics {
+    Timer processingTimer;
+    Meter inputRecordsMeter;
+    Meter outputRecordsMeter;
+    Meter errorRecordsMeter;
+    Meter stageErrorMeter;
+    Counter inputRecordsCounter;
+    Counter outputRecordsCounter;
+    Counter errorRecordsCounter;
+    Counter stageErrorCounter;
+    Histogram inputRecordsHistogram;
+    Histogram outputRecordsHistogram;
+    Histogram errorRecordsHistogram;
+    Histogram stageErrorsHistogram;
+    Counter[] outputRecordsPerLaneCounter;
+    Meter[] outputRecordsPerLaneMeter;
+  }
+
+  private final Metrics metrics;
+  private final boolean deferred;
+  private final int width;
+  private final long[] ring;
+  private final long[] lanes;
+  // batches appended by the runner thread and batches already rolled up
+  private volatile long written;
+  private volatile long drained;
+
+  public StageStats(Metrics metrics, boolean deferred) {
+    this.metrics = metrics;
+    this.deferred = deferred;
+    this.width = LANES + metrics.outputRecordsPerLaneCounter.length;
+    this.ring = deferred ? new long[CAPACITY * width] : null;
+    this.lanes = new long[metrics.outputRecordsPerLaneCounter.length];
+  }
+
+  public boolean isDeferred() {
+    return deferred;
+  }
+
+  /**
+   * Records the output records of a lane for the batch being completed by {@link #recordBatch}.
+   *
+   * @param lane index of the lane in the output and event lanes of the stage.
+   */
+  public void recordLane(int lane, long records) {
+    if (deferred) {
+      lanes[lane] = records;
+    } else {
+      metrics.outputRecordsPerLaneCounter[lane].inc(records);
+      metrics.outputRecordsPerLaneMeter[lane].mark(records);
+    }
+  }
+
+  public void recordBatch(
+      long processingTime,
+      long inputRecords,
+      long errorRecords,
+      long outputRecords,
+      long stageErrors
+  ) {
+    if (!deferred) {
+      update(processingTime, inputRecords, errorRecords, outputRecords, stageErrors);
+      return;
+    }
+    long batch = written;
+    if (batch - drained >= CAPACITY) {
+      run();
+    }
+    int offset = (int) (batch % CAPACITY) * width;
+    ring[offset + PROCESSING_TIME] = processingTime;
+    ring[offset + INPUT_RECORDS] = inputRecords;
+    ring[offset + ERROR_RECORDS] = errorRecords;
+    ring[offset + OUTPUT_RECORDS] = outputRecords;
+    ring[offset + STAGE_ERRORS] = stageErrors;
+    System.arraycopy(lanes, 0, ring, offset + LANES, lanes.length);
+    written = batch + 1;
+  }
+
+  /**
+   * Rolls up the batches recorded since the last run into the metrics, may be called from any thread.
+   */
+  @Override
+  public synchronized void run() {
+    if (!deferred) {
+      return;
+    }
+    long batch = drained;
+    long last = written;
+    if (batch == last) {
+      return;
+    }
+    long inputRecords = 0;
+    long errorRecords = 0;
+    long outputRecords = 0;
+    long stageErrors = 0;
+    long[] laneRecords = new long[lanes.length];
+    for (; batch < last; batch++) {
+      int offset = (int) (batch % CAPACITY) * width;
+      metrics.processingTimer.update(ring[offset + PROCESSING_TIME], TimeUnit.MILLISECONDS);
+      metrics.inputRecordsHistogram.update(ring[offset + INPUT_RECORDS]);
+      metrics.errorRecordsHistogram.update(ring[offset + ERROR_RECORDS]);
+      metrics.outputRecordsHistogram.update(ring[offset + OUTPUT_RECORDS]);
+      metrics.stageErrorsHistogram.update(ring[offset + STAGE_ERRORS]);
+      inputRecords += ring[offset + INPUT_RECORDS];
+      errorRecords += ring[offset + ERROR_RECORDS];
+      outputRecords += ring[offset + OUTPUT_RECORDS];
+      stageErrors += ring[offset + STAGE_ERRORS];
+      for (int lane = 0; lane < laneRecords.length; lane++) {
+        laneRecords[lane] += ring[offset + LANES + lane];
+      }
+    }
+    // the slots can be reused by the runner thread from now on
+    drained = last;
+
+    metrics.inputRecordsCounter.inc(inputRecords);
+    metrics.inputRecordsMeter.mark(inputRecords);
+    metrics.errorRecordsCounter.inc(errorRecords);
+    metrics.errorRecordsMeter.mark(errorRecords);
+    metrics.outputRecordsCounter.inc(outputRecords);
+    metrics.outputRecordsMeter.mark(outputRecords);
+    metrics.stageErrorCounter.inc(stageErrors);
+    metrics.stageErrorMeter.mark(stageErrors);
+    for (int lane = 0; lane < laneRecords.length; lane++) {
+      metrics.outputRecordsPerLaneCounter[lane].inc(laneRecords[lane]);
+      metrics.outputRecordsPerLaneMeter[lane].mark(laneRecords[lane]);
+    }
+  }
+
+  private void update(long processingTime, long inputRecords, long errorRecords, long outputRecords, long stageErrors) {
+    metrics.processingTimer.update(processingTime, TimeUnit.MILLISECONDS);
+    metrics.inputRecordsCounter.inc(inputRecords);
+    metrics.inputRecordsMeter.mark(inputRecords);
+    metrics.inputRecordsHistogram.update(inputRecords);
+    metrics.errorRecordsCounter.inc(errorRecords);
+    metrics.errorRecordsMeter.mark(errorRecords);
+    metrics.errorRecordsHistogram.update(errorRecords);
+    metrics.outputRecordsCounter.inc(outputRecords);
+    metrics.outputRecordsMeter.mark(outputRecords);
+    metrics.outputRecordsHistogram.update(outputRecords);
+    metrics.stageErrorCounter.inc(stageErrors);
+    metrics.stageErrorMeter.mark(stageErrors);
+    metrics.stageErrorsHistogram.update(stageErrors);
+  }
+}
@@ -15,25 +15,38 @@
  */
 package com.streamsets.datacollector.runner.production;
 
-import com.streamsets.pipeline.api.Record;
+import com.streamsets.datacollector.execution.alerts.CompiledDataRule;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Asks the data observer to collect the results accumulated by the compiled data rules. There is a single request per
+ * rules configuration and at most one of them is waiting in the observer queue at a time.
+ */
 public class DataRulesEvaluationRequest {
 
-  private final Map<String, Map<String, List<Record>>> snapshot;
-  private final Map<String, Integer> laneToRecordsSize;
-  public DataRulesEvaluationRequest(Map<String, Map<String, List<Record>>> snapshot, Map<String, Integer> laneToRecordsSize) {
-    this.snapshot = snapshot;
-    this.laneToRecordsSize = laneToRecordsSize;
+  private final Map<String, List<CompiledDataRule>> laneToDataRules;
+  private final AtomicBoolean pending;
+
+  public DataRulesEvaluationRequest(Map<String, List<CompiledDataRule>> laneToDataRules) {
+    this.laneToDataRules = laneToDataRules;
+    this.pending = new AtomicBoolean(false);
+  }
+
+  public Map<String, List<CompiledDataRule>> getLaneToDataRules() {
+    return laneToDataRules;
   }
 
-  public Map<String, Map<String, List<Record>>> getSnapshot() {
-    return snapshot;
+  /**
+   * Returns true if the caller should enqueue this request, false if it's already waiting in the queue.
+   */
+  public boolean markPending() {
+    return pending.compareAndSet(false, true);
   }
 
-  public Map<String, Integer> getLaneToRecordsSize() {
-    return laneToRecordsSize;
+  public void clearPending() {
+    pending.set(false);
   }
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.google.common.base.Strings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In memory index of the {@link PipelineInfo} of all pipelines.
+ * <p/>
+ * Pipelines are kept ordered by each {@link SortKey} and indexed by label, so a page of pipelines is found walking an
+ * index instead of sorting the whole list for every request. Without a title filter or an additional filter finding
+ * a page costs O(offset + len).
+ */
+public class PipelineCatalog {
+  private static final String LABELS = "labels";
+
+  // a label held by fewer pipelines than 1/LABEL_SORT_RATIO of all of them is sorted instead of walking the index
+  private static final int LABEL_SORT_RATIO = 8;
+
+  public enum SortKey {
+    NAME(Comparator.comparing(PipelineInfo::getPipelineId)),
+    TITLE(Comparator.comparing(PipelineCatalog::getTitle)),
+    // most recent first
+    LAST_MODIFIED(Comparator.comparing(PipelineInfo::getLastModified, Comparator.nullsLast(Comparator.reverseOrder()))),
+    CREATED(Comparator.comparing(PipelineInfo::getCreated, Comparator.nullsLast(Comparator.reverseOrder()))),
+    CREATOR(Comparator.comparing(PipelineInfo::getCreator, Comparator.nullsLast(Comparator.naturalOrder()))),
+    ;
+
+    private final Comparator<PipelineInfo> comparator;
+
+    SortKey(Comparator<PipelineInfo> comparator) {
+      // ties are ordered by name so that every pipeline has a stable position in every index
+      this.comparator = comparator.thenComparing(PipelineInfo::getPipelineId);
+    }
+
+    public Comparator<PipelineInfo> getComparator() {
+      return comparator;
+    }
+  }
+
+  /**
+   * A page of pipelines and the number of pipelines matching the query.
+   */
+  public static class Page {
+    private final List<PipelineInfo> pipelines;
+    private final int totalCount;
+
+    public Page(List<PipelineInfo> pipelines, int totalCount) {
+      this.pipelines = pipelines;
+      this.totalCount = totalCount;
+    }
+
+    public List<PipelineInfo> getPipelines() {
+      return pipelines;
+    }
+
+    public int getTotalCount() {
+      return totalCount;
+    }
+  }
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, PipelineInfo> pipelines = new HashMap<>();
+  private final Map<SortKey, NavigableSet<PipelineInfo>> indexes = new EnumMap<>(SortKey.class);
+  private final Map<String, Set<String>> labels = new HashMap<>();
+  // labels indexed for each pipeline, the metadata of an indexed PipelineInfo may be modified afterwards
+  private final Map<String, List<String>> pipelineLabels = new HashMap<>();
+
+  public PipelineCatalog() {
+    for (SortKey sortKey : SortKey.values()) {
+      indexes.put(sortKey, new TreeSet<>(sortKey.getComparator()));
+    }
+  }
+
+  public PipelineCatalog(Collection<PipelineInfo> pipelineInfos) {
+    this();
+    for (PipelineInfo pipelineInfo : pipelineInfos) {
+      put(pipelineInfo);
+    }
+  }
+
+  public static String getTitle(PipelineInfo pipelineInfo) {
+    return pipelineInfo.getTitle() != null ? pipelineInfo.getTitle() : pipelineInfo.getPipelineId();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> getLabels(PipelineInfo pipelineInfo) {
+    Map<String, Object> metadata = pipelineInfo.getMetadata();
+    if (metadata != null && metadata.get(LABELS) instanceof List) {
+      return (List<String>) metadata.get(LABELS);
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Adds the pipeline or replaces its previous info.
+   */
+  public void put(PipelineInfo pipelineInfo) {
+    lock.writeLock().lock();
+    try {
+      removeFromIndexes(pipelines.put(pipelineInfo.getPipelineId(), pipelineInfo));
+      for (NavigableSet<PipelineInfo> index : indexes.values()) {
+        index.add(pipelineInfo);
+      }
+      List<String> indexedLabels = new ArrayList<>(getLabels(pipelineInfo));
+      pipelineLabels.put(pipelineInfo.getPipelineId(), indexedLabels);
+      for (String label : indexedLabels) {
+        labels.computeIfAbsent(label, key -> new HashSet<>()).add(pipelineInfo.getPipelineId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String pipelineId) {
+    lock.writeLock().lock();
+    try {
+      removeFromIndexes(pipelines.remove(pipelineId));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void removeFromIndexes(PipelineInfo pipelineInfo) {
+    if (pipelineInfo == null) {
+      return;
+    }
+    for (NavigableSet<PipelineInfo> index : indexes.values()) {
+      index.remove(pipelineInfo);
+    }
+    List<String> indexedLabels = pipelineLabels.remove(pipelineInfo.getPipelineId());
+    for (String label : (indexedLabels != null) ? indexedLabels : Collections.<String>emptyList()) {
+      Set<String> pipelineIds = labels.get(label);
+      if (pipelineIds != null) {
+        pipelineIds.remove(pipelineInfo.getPipelineId());
+        if (pipelineIds.isEmpty()) {
+          labels.remove(label);
+        }
+      }
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      pipelines.clear();
+      for (NavigableSet<PipelineInfo> index : indexes.values()) {
+        index.clear();
+      }
+      labels.clear();
+      pipelineLabels.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public PipelineInfo get(String pipelineId) {
+    lock.readLock().lock();
+    try {
+      return pipelines.get(pipelineId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean contains(String pipelineId) {
+    return get(pipelineId) != null;
+  }
+
+  public List<PipelineInfo> getAll() {
+    lock.readLock().lock();
+    try {
+      return new ArrayList<>(pipelines.values());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return pipelines.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds a page of pipelines.
+   *
+   * @param filterText if not empty, only pipelines whose title, or name if there is no title, contains it ignoring
+   * case.
+   * @param label if not null, only pipelines with this label.
+   * @param filter if not null, only pipelines accepted by it. It is called without holding the catalog lock, in
+   * order, for every pipeline that matches filterText and label.
+   * @param sortKey order of the pipelines.
+   * @param descending reverses the order.
+   * @param offset number of matching pipelines to skip.
+   * @param len maximum number of pipelines in the page, -1 for all of them.
+   */
+  public Page find(
+      String filterText,
+      String label,
+      Predicate<PipelineInfo> filter,
+      SortKey sortKey,
+      boolean descending,
+      int offset,
+      int len
+  ) {
+    String lowerCaseFilterText = Strings.isNullOrEmpty(filterText) ? null : filterText.toLowerCase();
+    long end = (len < 0) ? Long.MAX_VALUE : (long) offset + len;
+
+    List<PipelineInfo> candidates = null;
+    List<PipelineInfo> page = new ArrayList<>();
+    int totalCount = 0;
+    lock.readLock().lock();
+    try {
+      Iterable<PipelineInfo> ordered = descending ? indexes.get(sortKey).descendingSet() : indexes.get(sortKey);
+      int count = pipelines.size();
+      Set<String> labelPipelineIds = null;
+      if (label != null) {
+        labelPipelineIds = labels.getOrDefault(label, Collections.emptySet());
+        count = labelPipelineIds.size();
+        if (count < pipelines.size() / LABEL_SORT_RATIO) {
+          ordered = sortedPipelines(labelPipelineIds, sortKey, descending);
+          labelPipelineIds = null;
+        }
+      }
+      if (lowerCaseFilterText == null && filter == null) {
+        totalCount = count;
+      }
+      if (filter != null) {
+        candidates = new ArrayList<>();
+      }
+      int matching = 0;
+      for (PipelineInfo pipelineInfo : ordered) {
+        if (labelPipelineIds != null && !labelPipelineIds.contains(pipelineInfo.getPipelineId())) {
+          continue;
+        }
+        if (lowerCaseFilterText != null && !getTitle(pipelineInfo).toLowerCase().contains(lowerCaseFilterText)) {
+          continue;
+        }
+        if (candidates != null) {
+          candidates.add(pipelineInfo);
+          continue;
+        }
+        if (matching >= offset && matching < end) {
+          page.add(pipelineInfo);
+        }
+        matching++;
+        if (matching >= end && lowerCaseFilterText == null) {
+          // the total count is already known
+          break;
+        }
+      }
+      if (lowerCaseFilterText != null) {
+        totalCount = matching;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    if (candidates != null) {
+      for (PipelineInfo pipelineInfo : candidates) {
+        if (filter.test(pipelineInfo)) {
+          if (totalCount >= offset && totalCount < end) {
+            page.add(pipelineInfo);
+          }
+          totalCount++;
+        }
+      }
+    }
+    return new Page(page, totalCount);
+  }
+
+  private List<PipelineInfo> sortedPipelines(Set<String> pipelineIds, SortKey sortKey, boolean descending) {
+    List<PipelineInfo> sorted = new ArrayList<>(pipelineIds.size());
+    for (String pipelineId : pipelineIds) {
+      sorted.add(pipelines.get(pipelineId));
+    }
+    sorted.sort(descending ? sortKey.getComparator().reversed() : sortKey.getComparator());
+    return sorted;
+  }
+}
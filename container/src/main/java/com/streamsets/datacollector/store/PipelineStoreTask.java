@@ -24,6 +24,7 @@ import com.streamsets.datacollector.util.PipelineException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public interface PipelineStoreTask extends Task {
   // Provide upgrade path in PipelineConfigurationUpgrader when increasing
@@ -44,6 +45,23 @@ public interface PipelineStoreTask extends Task {
 
   List<PipelineInfo> getPipelines() throws PipelineStoreException;
 
+  /**
+   * Finds a page of pipelines, see {@link PipelineCatalog#find}.
+   * <p/>
+   * Stores keeping a {@link PipelineCatalog} should override this method to avoid indexing all pipelines per call.
+   */
+  default PipelineCatalog.Page findPipelines(
+      String filterText,
+      String label,
+      Predicate<PipelineInfo> filter,
+      PipelineCatalog.SortKey sortKey,
+      boolean descending,
+      int offset,
+      int len
+  ) throws PipelineStoreException {
+    return new PipelineCatalog(getPipelines()).find(filterText, label, filter, sortKey, descending, offset, len);
+  }
+
   PipelineInfo getInfo(String name) throws PipelineException;
 
   List<PipelineRevInfo> getHistory(String name) throws PipelineException;
@@ -16,7 +16,6 @@
 package com.streamsets.datacollector.store.impl;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
@@ -24,6 +23,7 @@ import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -40,6 +40,7 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class AclPipelineStoreTask implements PipelineStoreTask {
   private static final Logger LOG = LoggerFactory.getLogger(AclPipelineStoreTask.class);
@@ -113,6 +114,23 @@ public class AclPipelineStoreTask implements PipelineStoreTask {
     return new ArrayList<>(filterPipelineBasedOnReadAcl());
   }
 
+  @Override
+  public PipelineCatalog.Page findPipelines(
+      String filterText,
+      String label,
+      Predicate<PipelineInfo> filter,
+      PipelineCatalog.SortKey sortKey,
+      boolean descending,
+      int offset,
+      int len
+  ) throws PipelineStoreException {
+    Predicate<PipelineInfo> aclFilter = this::isReadGranted;
+    if (filter != null) {
+      aclFilter = aclFilter.and(filter);
+    }
+    return pipelineStore.findPipelines(filterText, label, aclFilter, sortKey, descending, offset, len);
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineException {
     aclStore.validateReadPermission(name, currentUser);
@@ -205,17 +223,16 @@ public class AclPipelineStoreTask implements PipelineStoreTask {
   }
 
   private Collection<PipelineInfo> filterPipelineBasedOnReadAcl() throws PipelineStoreException {
-    return Collections2.filter(pipelineStore.getPipelines(), new Predicate<PipelineInfo>() {
-      @Override
-      public boolean apply(PipelineInfo pipelineInfo) {
-        try {
-          return aclStore.isPermissionGranted(pipelineInfo.getPipelineId(), EnumSet.of(Action.READ), currentUser);
-        } catch (PipelineException e) {
-          LOG.warn("Failed to validate ACL");
-        }
-        return false;
-      }
-    });
+    return Collections2.filter(pipelineStore.getPipelines(), this::isReadGranted);
+  }
+
+  private boolean isReadGranted(PipelineInfo pipelineInfo) {
+    try {
+      return aclStore.isPermissionGranted(pipelineInfo.getPipelineId(), EnumSet.of(Action.READ), currentUser);
+    } catch (PipelineException e) {
+      LOG.warn("Failed to validate ACL");
+    }
+    return false;
   }
 
   @Override
@@ -20,6 +20,7 @@ import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -30,23 +31,21 @@ import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.pipeline.api.impl.Utils;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 
 public class CachePipelineStoreTask implements PipelineStoreTask {
 
   private final PipelineStoreTask pipelineStore;
-  private final ConcurrentMap<String, PipelineInfo> pipelineInfoMap;
+  private final PipelineCatalog pipelineCatalog;
   private final LockCache<String> lockCache;
 
   @Inject
   public CachePipelineStoreTask(PipelineStoreTask pipelineStore, LockCache<String> lockCache) {
     this.pipelineStore = pipelineStore;
-    pipelineInfoMap = new ConcurrentHashMap<>();
+    pipelineCatalog = new PipelineCatalog();
     this.lockCache = lockCache;
   }
 
@@ -60,7 +59,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     pipelineStore.init();
     try {
       for (PipelineInfo info: pipelineStore.getPipelines()) {
-        pipelineInfoMap.put(info.getPipelineId(), info);
+        pipelineCatalog.put(info);
       }
     } catch (PipelineStoreException e) {
       throw new RuntimeException(Utils.format("Cannot fetch list of pipelines due to: '{}'", e), e);
@@ -80,7 +79,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
   @Override
   public void stop() {
     pipelineStore.stop();
-    pipelineInfoMap.clear();
+    pipelineCatalog.clear();
   }
 
   @Override
@@ -101,7 +100,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
       PipelineConfiguration pipelineConf = pipelineStore
           .create(user, pipelineId, pipelineTitle, description, isRemote, draft);
       if (!draft) {
-        pipelineInfoMap.put(pipelineConf.getInfo().getPipelineId(), pipelineConf.getInfo());
+        pipelineCatalog.put(pipelineConf.getInfo());
       }
       return pipelineConf;
     }
@@ -111,18 +110,31 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
   public void delete(String name) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       pipelineStore.delete(name);
-      pipelineInfoMap.remove(name);
+      pipelineCatalog.remove(name);
     }
   }
 
   @Override
   public List<PipelineInfo> getPipelines() throws PipelineStoreException {
-    return Collections.unmodifiableList(new ArrayList<>(pipelineInfoMap.values()));
+    return Collections.unmodifiableList(pipelineCatalog.getAll());
+  }
+
+  @Override
+  public PipelineCatalog.Page findPipelines(
+      String filterText,
+      String label,
+      Predicate<PipelineInfo> filter,
+      PipelineCatalog.SortKey sortKey,
+      boolean descending,
+      int offset,
+      int len
+  ) {
+    return pipelineCatalog.find(filterText, label, filter, sortKey, descending, offset, len);
   }
 
   @Override
   public PipelineInfo getInfo(String name) throws PipelineStoreException {
-    PipelineInfo pipelineInfo = pipelineInfoMap.get(name);
+    PipelineInfo pipelineInfo = pipelineCatalog.get(name);
     if (pipelineInfo == null) {
       throw new PipelineStoreException(ContainerError.CONTAINER_0200, name);
     } else {
@@ -140,7 +152,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     PipelineConfiguration pipeline) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       PipelineConfiguration pipelineConf = pipelineStore.save(user, name, tag, tagDescription, pipeline);
-      pipelineInfoMap.put(name, pipelineConf.getInfo());
+      pipelineCatalog.put(pipelineConf.getInfo());
       return pipelineConf;
     }
   }
@@ -152,7 +164,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
 
   @Override
   public boolean hasPipeline(String name) {
-    return pipelineInfoMap.containsKey(name);
+    return pipelineCatalog.contains(name);
   }
 
   @Override
@@ -194,7 +206,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
   ) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       PipelineConfiguration pipelineConf = pipelineStore.saveMetadata(user, name, rev, metadata);
-      pipelineInfoMap.put(name, pipelineConf.getInfo());
+      pipelineCatalog.put(pipelineConf.getInfo());
       return pipelineConf;
     }
   }
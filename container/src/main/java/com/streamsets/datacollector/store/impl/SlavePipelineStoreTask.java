@@ -19,6 +19,7 @@ import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -27,6 +28,7 @@ import com.streamsets.datacollector.util.PipelineException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class SlavePipelineStoreTask  implements PipelineStoreTask {
 
@@ -58,6 +60,19 @@ public class SlavePipelineStoreTask  implements PipelineStoreTask {
     return pipelineStore.getPipelines();
   }
 
+  @Override
+  public PipelineCatalog.Page findPipelines(
+      String filterText,
+      String label,
+      Predicate<PipelineInfo> filter,
+      PipelineCatalog.SortKey sortKey,
+      boolean descending,
+      int offset,
+      int len
+  ) throws PipelineStoreException {
+    return pipelineStore.findPipelines(filterText, label, filter, sortKey, descending, offset, len);
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineException {
     return pipelineStore.getInfo(name);
@@ -63,11 +63,20 @@ public class BaseWebSocket extends WebSocketAdapter {
   }
 
   public void notification(String message) {
+    offerNotification(message);
+  }
+
+  /**
+   * Queues the message for the session, returns false if it was discarded.
+   */
+  public boolean offerNotification(String message) {
     if(webSocketSession != null && webSocketSession.isOpen()) {
-      if (!queue.offer(new WebSocketMessage(webSocketSession, message))) {
-        LOG.warn("WebSocket queue is full, discarding '{}' message", type);
+      if (queue.offer(new WebSocketMessage(webSocketSession, message))) {
+        return true;
       }
+      LOG.warn("WebSocket queue is full, discarding '{}' message", type);
     }
+    return false;
   }
 
 }
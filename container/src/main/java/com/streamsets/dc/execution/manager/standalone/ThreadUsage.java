@@ -19,7 +19,9 @@ public enum ThreadUsage {
 
   STANDALONE(22), //2.2 * ExecutorConstants.RUNNER_THREAD_POOL_SIZE_MULTIPLIER
   CLUSTER(2), //0.2 * ExecutorConstants.RUNNER_THREAD_POOL_SIZE_MULTIPLIER
-  SLAVE(22); //2.2 * ExecutorConstants.RUNNER_THREAD_POOL_SIZE_MULTIPLIER
+  SLAVE(22), //2.2 * ExecutorConstants.RUNNER_THREAD_POOL_SIZE_MULTIPLIER
+  // batches run on the BatchScheduler threads, only the periodic pipeline tasks use the runner pool
+  COOPERATIVE(1); //0.1 * ExecutorConstants.RUNNER_THREAD_POOL_SIZE_MULTIPLIER
 
   private int resourceCount;
 
@@ -148,4 +148,18 @@ public class TestPipelineConfigUpgrader {
     Assert.assertTrue(emrConfigList.contains(AmazonEMRConfig.LOGGING_ENABLED));
   }
 
+  @Test
+  public void testPipelineConfigUpgradeV11ToV12() throws StageException {
+    PipelineConfigUpgrader pipelineConfigUpgrader = new PipelineConfigUpgrader();
+    TestUpgraderContext context = new TestUpgraderContext("x", "y", "z", 11, 12);
+    List<Config> upgraded = pipelineConfigUpgrader.upgrade(new ArrayList<>(), context);
+
+    List<Config> latencyTargetConfigList = upgraded.stream()
+        .filter(config -> config.getName().equals("schedulingLatencyTarget"))
+        .collect(Collectors.toList());
+
+    Assert.assertEquals(1, latencyTargetConfigList.size());
+    Assert.assertEquals(0, latencyTargetConfigList.get(0).getValue());
+  }
+
 }
@@ -32,6 +32,7 @@ import com.streamsets.datacollector.execution.StateListener;
 import com.streamsets.datacollector.execution.common.ExecutorConstants;
 import com.streamsets.datacollector.execution.manager.standalone.StandaloneAndClusterPipelineManager;
 import com.streamsets.datacollector.execution.runner.common.AsyncRunner;
+import com.streamsets.datacollector.execution.runner.common.BatchScheduler;
 import com.streamsets.datacollector.execution.runner.common.PipelineRunnerException;
 import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner;
 import com.streamsets.datacollector.main.RuntimeInfo;
@@ -49,6 +50,7 @@ import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.ExecutionMode;
 import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BaseSource;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import dagger.Module;
 import dagger.ObjectGraph;
@@ -666,6 +668,69 @@ public class TestStandaloneRunner {
     mailServer.reset();
   }
 
+  private void startCooperativePipelineManager() {
+    ObjectGraph objectGraph = ObjectGraph.create(new TestUtil.TestPipelineManagerModule(), CooperativeConfigModule.class);
+    pipelineManager = new StandaloneAndClusterPipelineManager(objectGraph);
+    pipelineManager.init();
+    pipelineManager.run();
+  }
+
+  @Test(timeout = 60000)
+  public void testCooperativePipelines() throws Exception {
+    startCooperativePipelineManager();
+
+    // the runner thread pool size is 3, enough for both pipelines only if they run on the batch scheduler
+    Runner runner1 = pipelineManager.getRunner(TestUtil.MY_PIPELINE, "0");
+    runner1.start(new StartPipelineContextBuilder("admin").build());
+    waitForState(runner1, PipelineStatus.RUNNING);
+
+    Runner runner2 = pipelineManager.getRunner(TestUtil.MY_SECOND_PIPELINE, "0");
+    runner2.start(new StartPipelineContextBuilder("admin2").build());
+    waitForState(runner2, PipelineStatus.RUNNING);
+
+    // the data rule alert is raised by the observer, which runs periodically for pipelines on the batch scheduler
+    await().until(() -> !runner1.getAlerts().isEmpty());
+    assertEquals("myID", runner1.getAlerts().get(0).getRuleDefinition().getId());
+
+    runner1.getRunner(AsyncRunner.class).getDelegatingRunner().prepareForStop("admin");
+    runner1.getRunner(AsyncRunner.class).getDelegatingRunner().stop("admin");
+    waitForState(runner1, PipelineStatus.STOPPED);
+    assertEquals(PipelineStatus.RUNNING, runner2.getState().getStatus());
+
+    runner2.getRunner(AsyncRunner.class).getDelegatingRunner().prepareForStop("admin2");
+    runner2.getRunner(AsyncRunner.class).getDelegatingRunner().stop("admin2");
+    waitForState(runner2, PipelineStatus.STOPPED);
+  }
+
+  @Test(timeout = 60000)
+  public void testCooperativePipelineFinish() throws Exception {
+    startCooperativePipelineManager();
+    Runner runner = pipelineManager.getRunner(TestUtil.MY_PIPELINE, "0");
+    runner.start(new StartPipelineContextBuilder("admin").build());
+    waitForState(runner, PipelineStatus.RUNNING);
+    TestUtil.EMPTY_OFFSET = true;
+    waitForState(runner, PipelineStatus.FINISHED);
+    assertNotNull(runner.getState().getMetrics());
+  }
+
+  @Test(timeout = 60000)
+  public void testCooperativePipelineRetry() throws Exception {
+    MockStages.setSourceCapture(new BaseSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        throw new RuntimeException("Simulated failure");
+      }
+    });
+    startCooperativePipelineManager();
+    Runner runner = pipelineManager.getRunner(TestUtil.MY_PIPELINE, "0");
+    runner.start(new StartPipelineContextBuilder("admin").build());
+    waitForState(runner, PipelineStatus.RETRY);
+    assertEquals(1, runner.getState().getRetryAttempt());
+
+    runner.getRunner(AsyncRunner.class).getDelegatingRunner().prepareForStop("admin");
+    waitForState(runner, PipelineStatus.STOPPED);
+  }
+
   @Module(overrides = true, library = true)
   static class ConfigModule {
     @Provides
@@ -683,4 +748,28 @@ public class TestStandaloneRunner {
     }
   }
 
+  @Module(overrides = true, library = true)
+  static class CooperativeConfigModule {
+    @Provides
+    @Singleton
+    public Configuration provideConfiguration() {
+      Configuration configuration = new Configuration();
+      configuration.set(ExecutorConstants.RUNNER_THREAD_POOL_SIZE_KEY, 3);
+      configuration.set(ExecutorConstants.RUNNER_COOPERATIVE_SCHEDULING_KEY, true);
+      return configuration;
+    }
+
+    @Provides
+    @Singleton
+    public ResourceManager provideResourceManager(Configuration configuration) {
+      return new ResourceManager(configuration);
+    }
+
+    @Provides
+    @Singleton
+    public BatchScheduler provideBatchScheduler(Configuration configuration) {
+      return new BatchScheduler(configuration);
+    }
+  }
+
 }
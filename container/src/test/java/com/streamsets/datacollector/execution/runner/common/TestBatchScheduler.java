@@ -0,0 +1,295 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.streamsets.datacollector.util.Configuration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestBatchScheduler {
+
+  private BatchScheduler scheduler;
+
+  @After
+  public void tearDown() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * Pipeline whose origin returns the records that were offered since the last batch.
+   */
+  private static class TricklePipeline implements BatchScheduler.Task {
+    private final ConcurrentLinkedQueue<Long> records = new ConcurrentLinkedQueue<>();
+    private final Set<String> threads;
+    private final AtomicLong maxLatencyNanos;
+    private final AtomicInteger processed;
+    private final CountDownLatch doneLatch;
+    private volatile boolean stop;
+
+    TricklePipeline(Set<String> threads, AtomicLong maxLatencyNanos, AtomicInteger processed, CountDownLatch doneLatch) {
+      this.threads = threads;
+      this.maxLatencyNanos = maxLatencyNanos;
+      this.processed = processed;
+      this.doneLatch = doneLatch;
+    }
+
+    void offer() {
+      records.add(System.nanoTime());
+    }
+
+    @Override
+    public boolean runBatch() {
+      threads.add(Thread.currentThread().getName());
+      int count = 0;
+      Long produced;
+      while ((produced = records.poll()) != null) {
+        long latency = System.nanoTime() - produced;
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        count++;
+      }
+      processed.addAndGet(count);
+      return count > 0;
+    }
+
+    @Override
+    public boolean isDone() {
+      return stop && records.isEmpty();
+    }
+
+    @Override
+    public void done(Throwable error) {
+      Assert.assertNull(error);
+      doneLatch.countDown();
+    }
+  }
+
+  @Test
+  public void testManyTricklePipelinesOnFewThreads() throws Exception {
+    int pipelines = 500;
+    int threads = 16;
+    long latencyTarget = 200;
+    scheduler = new BatchScheduler(true, threads, latencyTarget);
+
+    Set<String> usedThreads = ConcurrentHashMap.newKeySet();
+    AtomicLong maxLatencyNanos = new AtomicLong();
+    AtomicInteger processed = new AtomicInteger();
+    CountDownLatch doneLatch = new CountDownLatch(pipelines);
+    List<TricklePipeline> tasks = new ArrayList<>();
+    for (int i = 0; i < pipelines; i++) {
+      TricklePipeline task = new TricklePipeline(usedThreads, maxLatencyNanos, processed, doneLatch);
+      tasks.add(task);
+      scheduler.schedule(task);
+    }
+
+    // every pipeline gets a record now and then, most of the turns are empty batches
+    Random random = new Random(0);
+    int offered = 0;
+    long end = System.currentTimeMillis() + 2000;
+    while (System.currentTimeMillis() < end) {
+      for (int i = 0; i < 50; i++) {
+        tasks.get(random.nextInt(pipelines)).offer();
+        offered++;
+      }
+      Thread.sleep(10);
+    }
+    for (TricklePipeline task : tasks) {
+      task.stop = true;
+    }
+
+    Assert.assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+    Assert.assertEquals(offered, processed.get());
+    Assert.assertEquals(0, scheduler.getQueuedTasks());
+    Assert.assertTrue(usedThreads.size() <= threads);
+    // an idle pipeline waits at most the latency target between two batches, leave room for slow machines
+    Assert.assertTrue(
+        "Max latency " + TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()) + " ms",
+        maxLatencyNanos.get() < TimeUnit.MILLISECONDS.toNanos(latencyTarget * 5)
+    );
+  }
+
+  @Test
+  public void testBusyPipelinesTakeTurns() throws Exception {
+    scheduler = new BatchScheduler(true, 1, 1000);
+    AtomicInteger[] batches = new AtomicInteger[4];
+    AtomicReference<Boolean> stop = new AtomicReference<>(false);
+    CountDownLatch doneLatch = new CountDownLatch(batches.length);
+    for (int i = 0; i < batches.length; i++) {
+      AtomicInteger counter = new AtomicInteger();
+      batches[i] = counter;
+      scheduler.schedule(new BatchScheduler.Task() {
+        @Override
+        public boolean runBatch() {
+          counter.incrementAndGet();
+          return true;
+        }
+
+        @Override
+        public boolean isDone() {
+          return stop.get();
+        }
+
+        @Override
+        public void done(Throwable error) {
+          doneLatch.countDown();
+        }
+      });
+    }
+
+    Thread.sleep(200);
+    stop.set(true);
+    Assert.assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+
+    int min = Integer.MAX_VALUE;
+    int max = 0;
+    for (AtomicInteger counter : batches) {
+      min = Math.min(min, counter.get());
+      max = Math.max(max, counter.get());
+    }
+    Assert.assertTrue(min > 0);
+    // a pipeline with data goes after the ones already waiting, on a single thread they strictly alternate
+    Assert.assertTrue("min " + min + " max " + max, max - min <= 1);
+  }
+
+  @Test
+  public void testIdleBackoffUpToLatencyTarget() throws Exception {
+    long latencyTarget = 100;
+    scheduler = new BatchScheduler(true, 1, latencyTarget);
+    List<Long> turns = new ArrayList<>();
+    CountDownLatch latch = new CountDownLatch(10);
+    scheduler.schedule(new BatchScheduler.Task() {
+      @Override
+      public boolean runBatch() {
+        synchronized (turns) {
+          turns.add(System.nanoTime());
+        }
+        latch.countDown();
+        return false;
+      }
+
+      @Override
+      public boolean isDone() {
+        return false;
+      }
+
+      @Override
+      public void done(Throwable error) {
+      }
+    });
+
+    // 0, 10, 20, 40, 80 and then the latency target, 100 ms
+    Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    synchronized (turns) {
+      long total = TimeUnit.NANOSECONDS.toMillis(turns.get(9) - turns.get(0));
+      Assert.assertTrue("Total " + total, total >= 10 + 20 + 40 + 80 + 5 * latencyTarget);
+      for (int i = 5; i < 10; i++) {
+        long wait = TimeUnit.NANOSECONDS.toMillis(turns.get(i) - turns.get(i - 1));
+        Assert.assertTrue("Wait " + wait, wait >= latencyTarget);
+      }
+    }
+  }
+
+  @Test
+  public void testWakeUp() throws Exception {
+    scheduler = new BatchScheduler(true, 1, 60000);
+    AtomicInteger batches = new AtomicInteger();
+    AtomicReference<Boolean> stop = new AtomicReference<>(false);
+    CountDownLatch doneLatch = new CountDownLatch(1);
+    BatchScheduler.Handle handle = scheduler.schedule(new BatchScheduler.Task() {
+      @Override
+      public boolean runBatch() {
+        batches.incrementAndGet();
+        return false;
+      }
+
+      @Override
+      public boolean isDone() {
+        return stop.get();
+      }
+
+      @Override
+      public void done(Throwable error) {
+        doneLatch.countDown();
+      }
+    });
+
+    // 0, 10, 20, 40, 80 and 160 ms, the next wait is 320 ms
+    while (batches.get() < 6) {
+      Thread.sleep(5);
+    }
+    long start = System.currentTimeMillis();
+    stop.set(true);
+    handle.wakeUp();
+    Assert.assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+    Assert.assertTrue(System.currentTimeMillis() - start < 300);
+    Assert.assertEquals(6, batches.get());
+  }
+
+  @Test
+  public void testDoneOnError() throws Exception {
+    scheduler = new BatchScheduler(true, 2, 1000);
+    AtomicInteger batches = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    CountDownLatch doneLatch = new CountDownLatch(1);
+    scheduler.schedule(new BatchScheduler.Task() {
+      @Override
+      public boolean runBatch() throws Exception {
+        if (batches.incrementAndGet() == 3) {
+          throw new Exception("origin failed");
+        }
+        return true;
+      }
+
+      @Override
+      public boolean isDone() {
+        return false;
+      }
+
+      @Override
+      public void done(Throwable error) {
+        failure.set(error);
+        doneLatch.countDown();
+      }
+    });
+
+    Assert.assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals("origin failed", failure.get().getMessage());
+    Thread.sleep(50);
+    Assert.assertEquals(3, batches.get());
+    Assert.assertEquals(0, scheduler.getQueuedTasks());
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    BatchScheduler defaultScheduler = new BatchScheduler(new Configuration());
+    Assert.assertFalse(defaultScheduler.isEnabled());
+    Assert.assertEquals(1000, defaultScheduler.getDefaultLatencyTargetMillis());
+  }
+}
@@ -35,9 +35,11 @@ import com.streamsets.datacollector.runner.production.DataRulesEvaluationRequest
 import com.streamsets.datacollector.runner.production.RulesConfigurationChangeRequest;
 import com.streamsets.datacollector.store.PipelineStoreTask;
 import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.Record;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -46,6 +48,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 @SuppressWarnings("unchecked")
 public class TestDataObserverRunner {
@@ -80,7 +84,8 @@ public class TestDataObserverRunner {
   public void testHandleObserverRequestAlert() {
     RulesConfigurationChangeRequest rulesConfigurationChangeRequest = createRulesConfigurationChangeRequest(true, false);
     dataObserverRunner.handleConfigurationChangeRequest(rulesConfigurationChangeRequest);
-    dataObserverRunner.handleDataRulesEvaluationRequest(createProductionObserverRequest());
+    dataObserverRunner.handleDataRulesEvaluationRequest(
+        createProductionObserverRequest(rulesConfigurationChangeRequest));
     Gauge<Object> gauge = MetricsConfigurator.getGauge(metrics, AlertsUtil.getAlertGaugeName("myId"));
     Assert.assertNotNull(gauge);
     Assert.assertEquals((long) 3, ((Map<String, Object>) gauge.getValue()).get("currentValue"));
@@ -91,7 +96,8 @@ public class TestDataObserverRunner {
   public void testHandleObserverRequestMeter() {
     RulesConfigurationChangeRequest rulesConfigurationChangeRequest = createRulesConfigurationChangeRequest(false, true);
     dataObserverRunner.handleConfigurationChangeRequest(rulesConfigurationChangeRequest);
-    dataObserverRunner.handleDataRulesEvaluationRequest(createProductionObserverRequest());
+    dataObserverRunner.handleDataRulesEvaluationRequest(
+        createProductionObserverRequest(rulesConfigurationChangeRequest));
     Meter meter = MetricsConfigurator.getMeter(metrics, AlertsUtil.getUserMetricName("myId"));
     Assert.assertNotNull(meter);
     Assert.assertEquals(3, meter.getCount());
@@ -101,7 +107,8 @@ public class TestDataObserverRunner {
   public void testHandleObserverRequestAlertAndMeter() {
     RulesConfigurationChangeRequest rulesConfigurationChangeRequest = createRulesConfigurationChangeRequest(true, true);
     dataObserverRunner.handleConfigurationChangeRequest(rulesConfigurationChangeRequest);
-    dataObserverRunner.handleDataRulesEvaluationRequest(createProductionObserverRequest());
+    dataObserverRunner.handleDataRulesEvaluationRequest(
+        createProductionObserverRequest(rulesConfigurationChangeRequest));
     Gauge<Object> gauge = MetricsConfigurator.getGauge(metrics, AlertsUtil.getAlertGaugeName("myId"));
     Assert.assertNotNull(gauge);
     Assert.assertEquals((long) 3, ((Map<String, Object>) gauge.getValue()).get("currentValue"));
@@ -112,10 +119,47 @@ public class TestDataObserverRunner {
     Assert.assertEquals(3, meter.getCount());
   }
 
-  private DataRulesEvaluationRequest createProductionObserverRequest() {
-    DataRulesEvaluationRequest request = new DataRulesEvaluationRequest(TestUtil.createSnapshot(LANE, ID),
-      TestUtil.createLaneToRecordSizeMap(LANE));
-    return request;
+  @Test
+  public void testProcessPendingRequests() {
+    ThreadHealthReporter threadHealthReporter = Mockito.mock(ThreadHealthReporter.class);
+    DataObserverRunnable dataObserverRunnable = new DataObserverRunnable(PIPELINE_NAME, REVISION, threadHealthReporter,
+        metrics, new AlertManager(PIPELINE_NAME, PIPELINE_TITLE, REVISION, null, metrics, runtimeInfo,
+        new EventListenerManager()), new Configuration(), null);
+    BlockingQueue<Object> requestQueue = new ArrayBlockingQueue<>(10);
+    dataObserverRunnable.setRequestQueue(requestQueue);
+
+    // nothing pending, returns right away
+    dataObserverRunnable.processPendingRequests();
+    Assert.assertNull(MetricsConfigurator.getGauge(metrics, AlertsUtil.getAlertGaugeName("myId")));
+
+    RulesConfigurationChangeRequest rulesConfigurationChangeRequest = createRulesConfigurationChangeRequest(true, false);
+    requestQueue.add(rulesConfigurationChangeRequest);
+    requestQueue.add(createProductionObserverRequest(rulesConfigurationChangeRequest));
+    dataObserverRunnable.processPendingRequests();
+
+    Assert.assertTrue(requestQueue.isEmpty());
+    Gauge<Object> gauge = MetricsConfigurator.getGauge(metrics, AlertsUtil.getAlertGaugeName("myId"));
+    Assert.assertNotNull(gauge);
+    Assert.assertEquals((long) 3, ((Map<String, Object>) gauge.getValue()).get("currentValue"));
+    Mockito.verify(threadHealthReporter, Mockito.times(2)).reportHealth(
+        Mockito.eq(DataObserverRunnable.RUNNABLE_NAME),
+        Mockito.anyInt(),
+        Mockito.anyLong()
+    );
+  }
+
+  private DataRulesEvaluationRequest createProductionObserverRequest(
+      RulesConfigurationChangeRequest rulesConfigurationChangeRequest
+  ) {
+    ProductionObserver productionObserver = new ProductionObserver(new Configuration(), null);
+    BlockingQueue<Object> observeRequests = new ArrayBlockingQueue<>(10);
+    productionObserver.setObserveRequests(observeRequests);
+    productionObserver.setConfiguration(rulesConfigurationChangeRequest);
+    productionObserver.reconfigure();
+    List<Record> records = TestUtil.createSnapshot(LANE, ID).get(LANE + "::s").get(ID);
+    productionObserver.observe(null, Collections.singletonMap(LANE + "::s", records));
+    Assert.assertSame(rulesConfigurationChangeRequest, observeRequests.poll());
+    return (DataRulesEvaluationRequest) observeRequests.poll();
   }
 
   private RulesConfigurationChangeRequest createRulesConfigurationChangeRequest(boolean alert, boolean meter) {
@@ -162,7 +206,8 @@ public class TestDataObserverRunner {
   public void testSampleRecords() {
     RulesConfigurationChangeRequest rulesConfigurationChangeRequest = createRulesConfigurationChangeRequest(true, false);
     dataObserverRunner.handleConfigurationChangeRequest(rulesConfigurationChangeRequest);
-    dataObserverRunner.handleDataRulesEvaluationRequest(createProductionObserverRequest());
+    dataObserverRunner.handleDataRulesEvaluationRequest(
+        createProductionObserverRequest(rulesConfigurationChangeRequest));
 
     List<SampledRecord> sampleRecords = dataObserverRunner.getSampledRecords("myId", 5);
     Assert.assertNotNull(sampleRecords);
@@ -24,6 +24,7 @@ import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.execution.Runner;
 import com.streamsets.datacollector.execution.manager.standalone.StandaloneAndClusterPipelineManager;
 import com.streamsets.datacollector.execution.runner.common.TestProductionPipeline.MyStateListener;
+import com.streamsets.datacollector.execution.runner.common.TestProductionPipeline.PersistChangesStateListener;
 import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
 import com.streamsets.datacollector.execution.snapshot.file.FileSnapshotStore;
@@ -36,9 +37,11 @@ import com.streamsets.datacollector.usagestats.StatsCollector;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.datacollector.util.TestUtil;
+import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.DeliveryGuarantee;
 import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BaseSource;
 
 import dagger.ObjectGraph;
 
@@ -49,11 +52,16 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class TestProdPipelineRunnable {
 
@@ -110,6 +118,139 @@ public class TestProdPipelineRunnable {
     Assert.assertTrue(pipeline.wasStopped());
   }
 
+  // poll origin without data that never finishes, the pipeline waits on the batch scheduler between its batches
+  private static class IdleSource extends BaseSource {
+    private final CountDownLatch destroyLatch;
+    volatile int batches;
+    volatile boolean destroying;
+
+    IdleSource(CountDownLatch destroyLatch) {
+      this.destroyLatch = destroyLatch;
+    }
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      batches++;
+      return "1";
+    }
+
+    @Override
+    public void destroy() {
+      destroying = true;
+      try {
+        destroyLatch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private ProductionPipelineRunnable createCooperativeRunnable(
+      ProductionPipeline pipeline,
+      Future<?> relatedTask,
+      BatchScheduler scheduler
+  ) throws Exception {
+    ProductionPipelineRunnable runnable = new ProductionPipelineRunnable(null, runner.getRunner(StandaloneRunner.class),
+        pipeline, TestUtil.MY_PIPELINE, "0", Collections.<Future<?>>singletonList(relatedTask), scheduler);
+    Assert.assertTrue(runnable.isCooperative());
+    pipelineStateStore.saveState("admin", TestUtil.MY_PIPELINE, "0", PipelineStatus.RUNNING, null, null, null, null, 0, 0);
+    return runnable;
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeStop() throws Exception {
+    IdleSource source = new IdleSource(new CountDownLatch(0));
+    MockStages.setSourceCapture(source);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_MOST_ONCE, false);
+    PersistChangesStateListener listener = new PersistChangesStateListener();
+    pipeline.registerStatusListener(listener);
+    Future<?> relatedTask = Mockito.mock(Future.class);
+
+    BatchScheduler scheduler = new BatchScheduler(true, 1, 60000);
+    try {
+      ProductionPipelineRunnable runnable = createCooperativeRunnable(pipeline, relatedTask, scheduler);
+      // returns once the first batch is scheduled, the origin never finishes
+      runnable.run();
+      while (source.batches < 3) {
+        Thread.sleep(5);
+      }
+      // waits for the pipeline to complete on the scheduler thread
+      runnable.stop(false);
+    } finally {
+      scheduler.shutdown();
+    }
+
+    Assert.assertTrue(pipeline.wasStopped());
+    Assert.assertTrue(source.destroying);
+    Mockito.verify(relatedTask).cancel(true);
+    Assert.assertEquals(Arrays.asList(PipelineStatus.RUNNING, PipelineStatus.STOPPED), listener.statuses);
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeForceQuit() throws Exception {
+    CountDownLatch destroyLatch = new CountDownLatch(1);
+    IdleSource source = new IdleSource(destroyLatch);
+    MockStages.setSourceCapture(source);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_MOST_ONCE, false);
+    PersistChangesStateListener listener = new PersistChangesStateListener();
+    pipeline.registerStatusListener(listener);
+    Future<?> relatedTask = Mockito.mock(Future.class);
+
+    BatchScheduler scheduler = new BatchScheduler(true, 1, 60000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ProductionPipelineRunnable runnable = createCooperativeRunnable(pipeline, relatedTask, scheduler);
+      runnable.run();
+      while (source.batches < 3) {
+        Thread.sleep(5);
+      }
+
+      // the stop wakes the waiting pipeline up, which gets stuck destroying its origin on the scheduler thread
+      Future<?> stop = executor.submit(() -> {
+        runnable.stop(false);
+        return null;
+      });
+      while (!source.destroying) {
+        Thread.sleep(5);
+      }
+      Assert.assertFalse(stop.isDone());
+
+      runnable.forceQuit();
+      stop.get(10, TimeUnit.SECONDS);
+      Mockito.verify(relatedTask).cancel(true);
+      Assert.assertEquals(Arrays.asList(PipelineStatus.RUNNING, PipelineStatus.STOPPED), listener.statuses);
+
+      // let the destroy complete, the only scheduler thread then runs the next task
+      destroyLatch.countDown();
+      CountDownLatch nextTaskDone = new CountDownLatch(1);
+      scheduler.schedule(new BatchScheduler.Task() {
+        @Override
+        public boolean runBatch() {
+          return false;
+        }
+
+        @Override
+        public boolean isDone() {
+          return true;
+        }
+
+        @Override
+        public void done(Throwable error) {
+          nextTaskDone.countDown();
+        }
+      });
+      Assert.assertTrue(nextTaskDone.await(10, TimeUnit.SECONDS));
+    } finally {
+      destroyLatch.countDown();
+      executor.shutdownNow();
+      scheduler.shutdown();
+    }
+
+    // the completion of the execution after the force quit doesn't stop the pipeline a second time
+    Mockito.verify(relatedTask, Mockito.times(1)).cancel(true);
+    Assert.assertEquals(Arrays.asList(PipelineStatus.RUNNING, PipelineStatus.STOPPED), listener.statuses);
+  }
+
   private ProductionPipeline createProductionPipeline(DeliveryGuarantee deliveryGuarantee, boolean captureNextBatch)
     throws StageException, PipelineException {
     RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
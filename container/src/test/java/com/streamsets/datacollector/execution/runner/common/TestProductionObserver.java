@@ -17,8 +17,11 @@ package com.streamsets.datacollector.execution.runner.common;
 
 import com.streamsets.datacollector.config.DataRuleDefinition;
 import com.streamsets.datacollector.config.ThresholdType;
+import com.streamsets.datacollector.execution.alerts.CompiledDataRule;
 import com.streamsets.datacollector.execution.alerts.TestUtil;
 import com.streamsets.datacollector.execution.runner.common.ProductionObserver;
+import com.streamsets.datacollector.runner.production.DataRulesEvaluationRequest;
+import com.streamsets.datacollector.runner.production.RulesConfigurationChangeRequest;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.pipeline.api.Record;
 
@@ -27,10 +30,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class TestProductionObserver {
 
@@ -40,40 +45,47 @@ public class TestProductionObserver {
   private static final int NUMBER_OF_BATCHES = 1000;
 
   private static ProductionObserver productionObserver;
+  private static BlockingQueue<Object> observeRequests;
+  private DataRulesEvaluationRequest request;
 
   @Before
   public void setUp() {
     productionObserver = new ProductionObserver(new Configuration(), null);
-    productionObserver.setObserveRequests(new ArrayBlockingQueue<>(10));
+    observeRequests = new ArrayBlockingQueue<>(10);
+    productionObserver.setObserveRequests(observeRequests);
   }
 
   @Test
   public void testGetSampledRecords() {
     long timestamp = System.currentTimeMillis();
     List<DataRuleDefinition> dataRuleDefinitions = new ArrayList<>();
-    dataRuleDefinitions.add(new DataRuleDefinition(ID+1, "myRule", LANE + "::s", 100 /*Sampling %*/, 5,
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+1, "myRule", LANE + "::s", 100 /*Sampling %*/, 100,
       "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
       timestamp));
-    dataRuleDefinitions.add(new DataRuleDefinition(ID+2, "myRule", LANE + "::s", 50 /*Sampling %*/, 5,
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+2, "myRule", LANE + "::s", 50 /*Sampling %*/, 100,
       "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
       timestamp));
-    dataRuleDefinitions.add(new DataRuleDefinition(ID+3, "myRule", LANE + "::s", 25 /*Sampling %*/, 5,
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+3, "myRule", LANE + "::s", 25 /*Sampling %*/, 100,
       "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
       timestamp));
-    dataRuleDefinitions.add(new DataRuleDefinition(ID+4, "myRule", LANE + "::s", 10 /*Sampling %*/, 5,
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+4, "myRule", LANE + "::s", 10 /*Sampling %*/, 100,
       "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
       timestamp));
+    configure(dataRuleDefinitions);
 
     //Generates 100 records
-    List<Record> allRecords = TestUtil.createRecords(500);
+    List<Record> allRecords = TestUtil.createRecords(100);
 
-    Map<String, List<Record>> sampleRecords = productionObserver.getSampleRecords(dataRuleDefinitions, allRecords,
-      LANE);
+    Map<String, Integer> ruleIdToSampledRecordsSize = new HashMap<>();
+    for(int i = 0; i < 5; i++) {
+      productionObserver.observe(null, Collections.singletonMap(LANE + "::s", allRecords));
+      collectSampledRecordsSize(ruleIdToSampledRecordsSize);
+    }
 
-    Assert.assertEquals(500, sampleRecords.get(ID + 1).size());
-    Assert.assertEquals(250, sampleRecords.get(ID + 2).size());
-    Assert.assertEquals(125, sampleRecords.get(ID + 3).size());
-    Assert.assertEquals(50, sampleRecords.get(ID + 4).size());
+    Assert.assertEquals(500, ruleIdToSampledRecordsSize.get(ID + 1).intValue());
+    Assert.assertEquals(250, ruleIdToSampledRecordsSize.get(ID + 2).intValue());
+    Assert.assertEquals(125, ruleIdToSampledRecordsSize.get(ID + 3).intValue());
+    Assert.assertEquals(50, ruleIdToSampledRecordsSize.get(ID + 4).intValue());
   }
 
   @Test
@@ -98,26 +110,15 @@ public class TestProductionObserver {
     dataRuleDefinitions.add(new DataRuleDefinition(ID+5, "myRule", LANE + "::s", 5 /* Sampling % */, 5,
       "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
       timestamp));
+    configure(dataRuleDefinitions);
 
     //Generates 100 records
     List<Record> allRecords = TestUtil.createRecords(NUMBER_OF_RECORDS_PER_BATCH);
 
     Map<String, Integer> ruleIdToSampledRecordsSize = new HashMap<>();
-    ruleIdToSampledRecordsSize.put(ID + 1, 0);
-    ruleIdToSampledRecordsSize.put(ID + 2, 0);
-    ruleIdToSampledRecordsSize.put(ID + 3, 0);
-    ruleIdToSampledRecordsSize.put(ID + 4, 0);
-    ruleIdToSampledRecordsSize.put(ID + 5, 0);
-
     for(int i = 0; i < NUMBER_OF_BATCHES; i++) {
-      Map<String, List<Record>> sampleRecords = productionObserver.getSampleRecords(dataRuleDefinitions, allRecords,
-        LANE);
-      for(int j = 1; j < 6; j++) {
-        if(sampleRecords.containsKey(ID + j)) {
-          ruleIdToSampledRecordsSize.put(ID + j,
-            ruleIdToSampledRecordsSize.get(ID + j) + sampleRecords.get(ID + j).size());
-        }
-      }
+      productionObserver.observe(null, Collections.singletonMap(LANE + "::s", allRecords));
+      collectSampledRecordsSize(ruleIdToSampledRecordsSize);
     }
 
     Assert.assertEquals(3000, ruleIdToSampledRecordsSize.get(ID + 1).intValue());
@@ -132,4 +133,97 @@ public class TestProductionObserver {
     System.out.println("Records for rule myID4 : " + ruleIdToSampledRecordsSize.get(ID + 4));
     System.out.println("Records for rule myID5 : " + ruleIdToSampledRecordsSize.get(ID + 5));*/
   }
+
+  @Test
+  public void testAllRecordsEvaluated() {
+    long timestamp = System.currentTimeMillis();
+    List<DataRuleDefinition> dataRuleDefinitions = new ArrayList<>();
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+1, "myRule", LANE + "::s", 10 /*Sampling %*/, 5,
+      "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
+      timestamp));
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+2, "myRule", LANE + "::s", 1 /*Sampling %*/, 5,
+      "${record:value(\"/name\")=='streamsets'}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
+      timestamp));
+    dataRuleDefinitions.add(new DataRuleDefinition(ID+3, "myRule", LANE + "::s", 100 /*Sampling %*/, 5,
+      "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, false,
+      timestamp));
+    configure(dataRuleDefinitions);
+
+    List<Record> allRecords = TestUtil.createRecords(1000);
+    for(int i = 0; i < 10; i++) {
+      productionObserver.observe(null, Collections.singletonMap(LANE + "::s", allRecords));
+    }
+
+    List<CompiledDataRule> dataRules = getRequest().getLaneToDataRules().get(LANE + "::s");
+    CompiledDataRule.Results results = dataRules.get(0).collect();
+    Assert.assertEquals(10000, results.getEvaluatedRecordCount());
+    Assert.assertEquals(0, results.getMatchingRecordCount());
+    Assert.assertTrue(results.getAlertTexts().isEmpty());
+    Assert.assertEquals(5, results.getSampledRecords().size());
+
+    results = dataRules.get(1).collect();
+    Assert.assertEquals(10000, results.getEvaluatedRecordCount());
+    Assert.assertEquals(10000, results.getMatchingRecordCount());
+    //alert texts are capped between two collections
+    Assert.assertEquals(100, results.getAlertTexts().size());
+    Assert.assertEquals("alertText", results.getAlertTexts().get(0));
+    Assert.assertTrue(results.getErrors().isEmpty());
+
+    //disabled rules are not evaluated
+    results = dataRules.get(2).collect();
+    Assert.assertEquals(0, results.getEvaluatedRecordCount());
+    Assert.assertTrue(results.getSampledRecords().isEmpty());
+
+    //results are only reported once
+    results = dataRules.get(1).collect();
+    Assert.assertEquals(0, results.getEvaluatedRecordCount());
+    Assert.assertEquals(0, results.getMatchingRecordCount());
+    Assert.assertTrue(results.getAlertTexts().isEmpty());
+  }
+
+  @Test
+  public void testSingleRequestPending() {
+    List<DataRuleDefinition> dataRuleDefinitions = new ArrayList<>();
+    dataRuleDefinitions.add(new DataRuleDefinition(ID, "myRule", LANE + "::s", 100 /*Sampling %*/, 5,
+      "${record:value(\"/name\")==null}", true, "alertText", ThresholdType.COUNT, "2", 5, true, false, true,
+      System.currentTimeMillis()));
+    configure(dataRuleDefinitions);
+
+    List<Record> allRecords = TestUtil.createRecords(10);
+    for(int i = 0; i < 20; i++) {
+      productionObserver.observe(null, Collections.singletonMap(LANE + "::s", allRecords));
+    }
+    DataRulesEvaluationRequest request = getRequest();
+    Assert.assertTrue(observeRequests.isEmpty());
+
+    request.clearPending();
+    productionObserver.observe(null, Collections.singletonMap(LANE + "::s", allRecords));
+    Assert.assertSame(request, observeRequests.poll());
+    Assert.assertEquals(210, request.getLaneToDataRules().get(LANE + "::s").get(0).collect().getEvaluatedRecordCount());
+  }
+
+  private void configure(List<DataRuleDefinition> dataRuleDefinitions) {
+    Map<String, List<DataRuleDefinition>> laneToRuleDefinition = new HashMap<>();
+    laneToRuleDefinition.put(LANE + "::s", dataRuleDefinitions);
+    productionObserver.setConfiguration(new RulesConfigurationChangeRequest(null, new HashMap<String, String>(),
+      Collections.<String>emptySet(), laneToRuleDefinition, new HashMap<String, Integer>()));
+    productionObserver.reconfigure();
+    Assert.assertTrue(observeRequests.poll() instanceof RulesConfigurationChangeRequest);
+  }
+
+  private DataRulesEvaluationRequest getRequest() {
+    Object pending = observeRequests.poll();
+    if (pending != null) {
+      request = (DataRulesEvaluationRequest) pending;
+    }
+    return request;
+  }
+
+  private void collectSampledRecordsSize(Map<String, Integer> ruleIdToSampledRecordsSize) {
+    for(CompiledDataRule dataRule : getRequest().getLaneToDataRules().get(LANE + "::s")) {
+      String ruleId = dataRule.getDataRuleDefinition().getId();
+      Integer size = ruleIdToSampledRecordsSize.get(ruleId);
+      ruleIdToSampledRecordsSize.put(ruleId, (size == null ? 0 : size) + dataRule.collect().getSampledRecords().size());
+    }
+  }
 }
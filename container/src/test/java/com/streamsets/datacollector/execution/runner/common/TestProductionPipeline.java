@@ -87,10 +87,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Exchanger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class TestProductionPipeline {
 
@@ -939,4 +941,184 @@ public class TestProductionPipeline {
     future.get();
   }
 
+  /**
+   * Poll origin for the cooperative runs: the first recordBatches batches have a record, the following ones are empty
+   * and the origin is done after lastBatch batches.
+   */
+  private static class CooperativeSource extends BaseSource {
+    private final int recordBatches;
+    private final int lastBatch;
+    volatile int batches;
+    volatile Thread batchThread;
+    volatile String batchThreadName;
+
+    CooperativeSource(int recordBatches, int lastBatch) {
+      this.recordBatches = recordBatches;
+      this.lastBatch = lastBatch;
+    }
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      batchThread = Thread.currentThread();
+      batchThreadName = batchThread.getName();
+      int batch = batches + 1;
+      if (batch <= recordBatches) {
+        Record record = getContext().createRecord("c" + batch);
+        record.set(Field.create(batch));
+        batchMaker.addRecord(record);
+      }
+      batches = batch;
+      return (batch >= lastBatch) ? null : "o::" + batch;
+    }
+  }
+
+  private static class PassThroughProcessor extends BaseProcessor {
+    @Override
+    public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+      Iterator<Record> it = batch.getRecords();
+      while (it.hasNext()) {
+        batchMaker.addRecord(it.next());
+      }
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeRun() throws Exception {
+    CooperativeSource source = new CooperativeSource(3, 5);
+    CaptureTarget target = new CaptureTarget();
+    MockStages.setSourceCapture(source);
+    MockStages.setProcessorCapture(new PassThroughProcessor());
+    MockStages.setTargetCapture(target);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    PersistChangesStateListener listener = new PersistChangesStateListener();
+    pipeline.registerStatusListener(listener);
+
+    BatchScheduler scheduler = new BatchScheduler(true, 2, 100);
+    try {
+      CompletableFuture<Throwable> completion = new CompletableFuture<>();
+      pipeline.runCooperatively(scheduler, completion::complete);
+      Assert.assertNull(completion.get(20, TimeUnit.SECONDS));
+    } finally {
+      scheduler.shutdown();
+    }
+
+    // the batches ran on a scheduler thread, named as the pipeline runnable thread
+    Assert.assertNotSame(Thread.currentThread(), source.batchThread);
+    Assert.assertEquals(
+        Utils.format("{}-{}", ProductionPipelineRunnable.RUNNABLE_NAME, PIPELINE_NAME),
+        source.batchThreadName
+    );
+    Assert.assertEquals(5, source.batches);
+    Assert.assertEquals(3, target.records.size());
+    Assert.assertFalse(pipeline.wasStopped());
+    Assert.assertFalse(pipeline.isExecutionFailed());
+    Assert.assertEquals(
+        Arrays.asList(PipelineStatus.RUNNING, PipelineStatus.FINISHING, PipelineStatus.FINISHED),
+        listener.statuses
+    );
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeRunLatencyTarget() throws Exception {
+    MockStages.setSourceCapture(new CooperativeSource(1, 2));
+    MockStages.setProcessorCapture(new PassThroughProcessor());
+    MockStages.setTargetCapture(new CaptureTarget());
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    lastCreatedRunner.setSchedulingLatencyTarget(250);
+
+    BatchScheduler scheduler = Mockito.spy(new BatchScheduler(true, 1, 100));
+    try {
+      CompletableFuture<Throwable> completion = new CompletableFuture<>();
+      pipeline.runCooperatively(scheduler, completion::complete);
+      Assert.assertNull(completion.get(20, TimeUnit.SECONDS));
+    } finally {
+      scheduler.shutdown();
+    }
+
+    // the latency target of the pipeline overrides the one of the scheduler
+    Mockito.verify(scheduler).schedule(Mockito.any(BatchScheduler.Task.class), Mockito.eq(250L));
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeStopWhileWaiting() throws Exception {
+    CooperativeSource source = new CooperativeSource(0, Integer.MAX_VALUE);
+    MockStages.setSourceCapture(source);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    PersistChangesStateListener listener = new PersistChangesStateListener();
+    pipeline.registerStatusListener(listener);
+
+    BatchScheduler scheduler = new BatchScheduler(true, 1, 60000);
+    try {
+      CompletableFuture<Throwable> completion = new CompletableFuture<>();
+      pipeline.runCooperatively(scheduler, completion::complete);
+
+      // the idle wait doubles after every empty batch, after the 9th one the pipeline waits 2.56 seconds
+      while (source.batches < 9 || scheduler.getQueuedTasks() == 0) {
+        Thread.sleep(5);
+      }
+      int batches = source.batches;
+      pipeline.stop();
+
+      // the stop wakes the pipeline up, it completes without waiting nor running another batch
+      Assert.assertNull(completion.get(1, TimeUnit.SECONDS));
+      Assert.assertEquals(batches, source.batches);
+      Assert.assertEquals(0, scheduler.getQueuedTasks());
+    } finally {
+      scheduler.shutdown();
+    }
+    Assert.assertTrue(pipeline.wasStopped());
+    Assert.assertFalse(pipeline.isExecutionFailed());
+    Assert.assertEquals(Collections.singletonList(PipelineStatus.RUNNING), listener.statuses);
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeRerunOnNormalException() throws Exception {
+    SourceOffsetTrackerCapture capture = new SourceOffsetTrackerCapture() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        if (count++ < 2) {
+          return "o::" + count;
+        }
+        throw new RuntimeException();
+      }
+    };
+    verifyCooperativeRerunScenario(capture, PipelineStatus.RETRY);
+    Assert.assertEquals(3, capture.count);
+  }
+
+  @Test(timeout = 30000)
+  public void testCooperativeNoRerunOnJVMError() throws Exception {
+    SourceOffsetTrackerCapture capture = new SourceOffsetTrackerCapture() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        throw new OutOfMemoryError();
+      }
+    };
+    verifyCooperativeRerunScenario(capture, PipelineStatus.RUN_ERROR);
+  }
+
+  private void verifyCooperativeRerunScenario(SourceOffsetTrackerCapture capture, PipelineStatus finalStatus)
+      throws Exception {
+    PersistChangesStateListener listener = new PersistChangesStateListener();
+    MockStages.setSourceCapture(capture);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_MOST_ONCE, false, PipelineType.DEFAULT);
+    pipeline.registerStatusListener(listener);
+
+    BatchScheduler scheduler = new BatchScheduler(true, 1, 100);
+    Throwable error;
+    try {
+      CompletableFuture<Throwable> completion = new CompletableFuture<>();
+      pipeline.runCooperatively(scheduler, completion::complete);
+      error = completion.get(20, TimeUnit.SECONDS);
+    } finally {
+      scheduler.shutdown();
+    }
+
+    // the failure of the batch is given to the caller, as run() would throw it
+    Assert.assertNotNull(error);
+    Assert.assertTrue(pipeline.isExecutionFailed());
+    Assert.assertEquals(PipelineStatus.RUNNING_ERROR, listener.statuses.get(listener.statuses.size() - 2));
+    Assert.assertEquals(finalStatus, listener.statuses.get(listener.statuses.size() - 1));
+  }
+
 }
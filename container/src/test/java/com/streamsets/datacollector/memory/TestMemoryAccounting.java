@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMemoryAccounting {
+  private MetricRegistry metrics;
+  private Counter memoryConsumed;
+  private AtomicInteger heapWalks;
+
+  @Before
+  public void setUp() {
+    metrics = new MetricRegistry();
+    memoryConsumed = metrics.counter("stage.s1.memoryConsumed.counter");
+    heapWalks = new AtomicInteger();
+  }
+
+  private MemoryAccounting create(int verifyEvery) {
+    return new MemoryAccounting(metrics, "s1", memoryConsumed, () -> {
+      heapWalks.incrementAndGet();
+      return 5_000_000L;
+    }, verifyEvery);
+  }
+
+  private static List<Record> createRecords(int count) {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Record record = new RecordImpl("stage", "id::" + i, null, null);
+      record.set(Field.create(new byte[1000]));
+      records.add(record);
+    }
+    return records;
+  }
+
+  @Test
+  public void testStageBuffers() {
+    metrics.counter("custom.s1.memory.cache.0.counter").inc(3_000_000);
+    metrics.counter("custom.s1.memory.windows.1.counter").inc(2_000_000);
+    // not buffers of the stage
+    metrics.counter("custom.s1.records.0.counter").inc(1_000_000);
+    metrics.counter("custom.s2.memory.cache.0.counter").inc(1_000_000);
+
+    MemoryAccounting accounting = create(0);
+    Assert.assertEquals(5_000_000, accounting.getStageBuffers());
+    Assert.assertEquals(0, memoryConsumed.getCount());
+
+    accounting.batchCompleted(Collections.emptyMap());
+    Assert.assertEquals(5_000_000, accounting.getRetained());
+    Assert.assertEquals(5, memoryConsumed.getCount());
+
+    // buffers reported by runners that started after the accounting
+    metrics.counter("custom.s1.memory.cache.2.counter").inc(4_000_000);
+    accounting.run();
+    Assert.assertEquals(9, memoryConsumed.getCount());
+  }
+
+  @Test
+  public void testBatchCompleted() {
+    MemoryAccounting accounting = create(0);
+    List<Record> records = createRecords(2000);
+    accounting.batchCompleted(ImmutableMap.of("lane", records));
+    Assert.assertEquals(RecordSizeEstimator.estimate(records), accounting.getBatch());
+    Assert.assertTrue(accounting.getBatch() > 2000 * 1000);
+    Assert.assertEquals(accounting.getRetained() / 1000000, memoryConsumed.getCount());
+
+    // the records of the previous batch are not retained anymore
+    accounting.batchCompleted(Collections.emptyMap());
+    Assert.assertEquals(0, accounting.getBatch());
+    Assert.assertEquals(0, memoryConsumed.getCount());
+  }
+
+  @Test
+  public void testVerification() {
+    MemoryAccounting accounting = create(3);
+    for (int i = 0; i < 7; i++) {
+      accounting.run();
+    }
+    Assert.assertEquals(2, heapWalks.get());
+
+    accounting = create(0);
+    for (int i = 0; i < 7; i++) {
+      accounting.run();
+    }
+    Assert.assertEquals(2, heapWalks.get());
+  }
+}
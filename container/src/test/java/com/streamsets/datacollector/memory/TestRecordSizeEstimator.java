@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestRecordSizeEstimator {
+
+  @BeforeClass
+  public static void setupClass() throws Exception {
+    TestMemoryUsageCollector.initalizeMemoryUtility();
+  }
+
+  // field names of parsed records are not shared between records
+  private static String name(String name) {
+    return new String(name.toCharArray());
+  }
+
+  private static Record createRecord(int id) {
+    Record record = new RecordImpl("stage", "source::" + id, null, null);
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put(name("id"), Field.create(id));
+    map.put(name("name"), Field.create("name of the record " + id));
+    map.put(name("amount"), Field.create(new BigDecimal("123.45")));
+    map.put(name("timestamp"), Field.createDatetime(new Date()));
+    map.put(name("enabled"), Field.create(id % 2 == 0));
+    map.put(name("tags"), Field.create(Arrays.asList(Field.create("a" + id), Field.create("b" + id))));
+    Map<String, Field> nested = new HashMap<>();
+    nested.put(name("count"), Field.create((long) id));
+    nested.put(name("ratio"), Field.create(id / 3.0d));
+    map.put(name("nested"), Field.create(nested));
+    record.set(Field.createListMap(map));
+    record.getHeader().setAttribute("file", "/data/file-" + id + ".json");
+    return record;
+  }
+
+  private static void assertClose(long expected, long estimated) {
+    Assert.assertTrue(
+        "expected " + expected + " estimated " + estimated,
+        Math.abs(expected - estimated) <= expected / 5
+    );
+  }
+
+  // a batch amortizes the objects the walk counts once, like the field type enums and the cached boxed values
+  @Test
+  public void testBatchAgainstHeapWalk() throws Exception {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      records.add(createRecord(i));
+    }
+    assertClose(MemoryUsageCollector.getMemoryUsageOfForTests(records), RecordSizeEstimator.estimate(records));
+  }
+
+  @Test
+  public void testSampling() {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      records.add(createRecord(1));
+    }
+    Assert.assertEquals(100 * RecordSizeEstimator.estimate(records.get(0)), RecordSizeEstimator.estimate(records));
+    Assert.assertEquals(0, RecordSizeEstimator.estimate(Collections.<Record>emptyList()));
+
+    Map<String, List<Record>> stageOutput = ImmutableMap.of(
+        "lane1", records,
+        "lane2", records.subList(0, 10)
+    );
+    Assert.assertEquals(110 * RecordSizeEstimator.estimate(records.get(0)), RecordSizeEstimator.estimate(stageOutput));
+  }
+}
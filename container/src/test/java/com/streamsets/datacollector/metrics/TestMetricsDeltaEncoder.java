@@ -0,0 +1,263 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingTimeWindowReservoir;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestMetricsDeltaEncoder {
+
+  private ObjectMapper objectMapper;
+  private MetricRegistry metrics;
+  private MetricsDeltaEncoder encoder;
+
+  @Before
+  public void setUp() {
+    objectMapper = ObjectMapperFactory.getOneLine();
+    metrics = new MetricRegistry();
+    encoder = new MetricsDeltaEncoder(objectMapper);
+  }
+
+  private ObjectNode receive(ObjectNode received, Object subscriber) throws Exception {
+    String message = encoder.encode(subscriber, true);
+    if (message == null) {
+      return received;
+    }
+    return MetricsDeltaEncoder.apply(received, (ObjectNode) objectMapper.readTree(message));
+  }
+
+  // parsed numbers are not of the same node types as the ones converted from the metrics
+  private JsonNode normalize(JsonNode node) throws Exception {
+    return objectMapper.readTree(objectMapper.writeValueAsString(node));
+  }
+
+  private void registerStage(String stage, AtomicLong gaugeValue) {
+    metrics.counter(stage + ".inputRecords.counter");
+    metrics.counter(stage + ".outputRecords.counter");
+    metrics.register(stage + ".inputRecords.meter", new ExtendedMeter());
+    metrics.register(stage + ".outputRecords.meter", new ExtendedMeter());
+    metrics.histogram(stage + ".inputRecords.histogramM5");
+    metrics.register(stage + ".batchProcessing.timer", new Timer(new SlidingTimeWindowReservoir(60, TimeUnit.SECONDS)));
+    metrics.register(stage + ".runtime.gauge", (Gauge<Long>) gaugeValue::get);
+  }
+
+  @Test
+  public void testReconstruction() throws Exception {
+    AtomicLong gaugeValue = new AtomicLong();
+    registerStage("stage1", gaugeValue);
+    registerStage("stage2", gaugeValue);
+    Object subscriber = new Object();
+
+    encoder.update(metrics);
+    ObjectNode received = receive(null, subscriber);
+    Assert.assertFalse(received.has(MetricsDeltaEncoder.DELTA));
+    Assert.assertEquals(objectMapper.valueToTree(metrics).get("version"), received.get("version"));
+    Assert.assertEquals(normalize(encoder.getFullSnapshot()), received);
+
+    for (int i = 0; i < 5; i++) {
+      metrics.counter("stage1.inputRecords.counter").inc(i);
+      metrics.meter("stage2.outputRecords.meter").mark(10);
+      metrics.histogram("stage1.inputRecords.histogramM5").update(i * 100);
+      metrics.timer("stage2.batchProcessing.timer").update(i, TimeUnit.MILLISECONDS);
+      gaugeValue.incrementAndGet();
+      encoder.update(metrics);
+      received = receive(received, subscriber);
+      Assert.assertEquals(normalize(encoder.getFullSnapshot()), received);
+    }
+
+    // Counters, histograms and gauges are the same as the serialized registry, meters and timers differ on the mean
+    // rate only
+    JsonNode expected = normalize(objectMapper.valueToTree(metrics));
+    for (String section : new String[] {"counters", "histograms", "gauges"}) {
+      Assert.assertEquals(expected.get(section), received.get(section));
+    }
+    Assert.assertEquals(
+        expected.get("meters").get("stage2.outputRecords.meter").get("count"),
+        received.get("meters").get("stage2.outputRecords.meter").get("count")
+    );
+    Assert.assertEquals(
+        expected.get("timers").get("stage2.batchProcessing.timer").get("max"),
+        received.get("timers").get("stage2.batchProcessing.timer").get("max")
+    );
+  }
+
+  @Test
+  public void testDeltaContainsOnlyChanges() throws Exception {
+    AtomicLong gaugeValue = new AtomicLong();
+    registerStage("stage1", gaugeValue);
+    Object subscriber = new Object();
+    encoder.update(metrics);
+    encoder.encode(subscriber, true);
+
+    // nothing changed
+    encoder.update(metrics);
+    Assert.assertNull(encoder.encode(subscriber, true));
+
+    metrics.counter("stage1.outputRecords.counter").inc();
+    encoder.update(metrics);
+    JsonNode delta = objectMapper.readTree(encoder.encode(subscriber, true));
+    Assert.assertTrue(delta.get(MetricsDeltaEncoder.DELTA).asBoolean());
+    Assert.assertEquals(1, delta.get("counters").size());
+    Assert.assertEquals(1, delta.get("counters").get("stage1.outputRecords.counter").get("count").asLong());
+    Assert.assertFalse(delta.has("meters"));
+    Assert.assertFalse(delta.has("gauges"));
+
+    // a subscriber that missed some updates gets all the changes since its last message
+    Object other = new Object();
+    encoder.encode(other, true);
+    metrics.counter("stage1.inputRecords.counter").inc();
+    encoder.update(metrics);
+    encoder.encode(subscriber, true);
+    gaugeValue.set(5);
+    encoder.update(metrics);
+    delta = objectMapper.readTree(encoder.encode(other, true));
+    Assert.assertEquals(1, delta.get("counters").size());
+    Assert.assertEquals(1, delta.get("gauges").size());
+  }
+
+  @Test
+  public void testHistogramValuesChangeWithoutUpdates() throws Exception {
+    AtomicLong tick = new AtomicLong();
+    Clock clock = new Clock() {
+      @Override
+      public long getTick() {
+        return tick.get();
+      }
+    };
+    Histogram histogram = metrics.register(
+        "stage1.batchSize.histogram",
+        new Histogram(new SlidingTimeWindowReservoir(1, TimeUnit.SECONDS, clock))
+    );
+    histogram.update(10);
+    Object subscriber = new Object();
+    encoder.update(metrics);
+    ObjectNode received = receive(null, subscriber);
+    Assert.assertEquals(10, received.get("histograms").get("stage1.batchSize.histogram").get("max").asLong());
+
+    // the sample leaves the window, the count stays the same
+    tick.set(TimeUnit.SECONDS.toNanos(2));
+    encoder.update(metrics);
+    JsonNode delta = objectMapper.readTree(encoder.encode(subscriber, true));
+    JsonNode changed = delta.get("histograms").get("stage1.batchSize.histogram");
+    Assert.assertEquals(1, changed.get("count").asLong());
+    Assert.assertEquals(0, changed.get("max").asLong());
+
+    encoder.update(metrics);
+    Assert.assertNull(encoder.encode(subscriber, true));
+  }
+
+  @Test
+  public void testRemovedMetrics() throws Exception {
+    registerStage("stage1", new AtomicLong());
+    registerStage("stage2", new AtomicLong());
+    Object subscriber = new Object();
+    encoder.update(metrics);
+    ObjectNode received = receive(null, subscriber);
+
+    metrics.removeMatching((name, metric) -> name.startsWith("stage2."));
+    encoder.update(metrics);
+    JsonNode delta = objectMapper.readTree(encoder.encode(subscriber, true));
+    Assert.assertEquals(7, delta.get(MetricsDeltaEncoder.REMOVED).size());
+    received = MetricsDeltaEncoder.apply(received, (ObjectNode) delta);
+    Assert.assertEquals(normalize(encoder.getFullSnapshot()), received);
+    Assert.assertFalse(received.get("counters").has("stage2.inputRecords.counter"));
+
+    // already sent to every subscriber
+    encoder.update(metrics);
+    Assert.assertNull(encoder.encode(subscriber, true));
+  }
+
+  @Test
+  public void testForgottenSubscriber() throws Exception {
+    registerStage("stage1", new AtomicLong());
+    registerStage("stage2", new AtomicLong());
+    Object subscriber = new Object();
+    encoder.update(metrics);
+    ObjectNode received = receive(null, subscriber);
+
+    // the delta with the change and the removal is lost
+    metrics.counter("stage1.inputRecords.counter").inc();
+    metrics.removeMatching((name, metric) -> name.startsWith("stage2."));
+    encoder.update(metrics);
+    Assert.assertNotNull(encoder.encode(subscriber, true));
+    encoder.forget(subscriber);
+
+    encoder.update(metrics);
+    String message = encoder.encode(subscriber, true);
+    Assert.assertFalse(objectMapper.readTree(message).has(MetricsDeltaEncoder.DELTA));
+    received = MetricsDeltaEncoder.apply(received, (ObjectNode) objectMapper.readTree(message));
+    Assert.assertEquals(normalize(encoder.getFullSnapshot()), received);
+    Assert.assertFalse(received.get("counters").has("stage2.inputRecords.counter"));
+
+    // back to deltas
+    encoder.update(metrics);
+    Assert.assertNull(encoder.encode(subscriber, true));
+  }
+
+  @Test
+  public void testFullSnapshotSubscribers() throws Exception {
+    registerStage("stage1", new AtomicLong());
+    Object subscriber = new Object();
+    encoder.update(metrics);
+    String first = encoder.encode(subscriber, false);
+    encoder.update(metrics);
+    String second = encoder.encode(subscriber, false);
+    Assert.assertEquals(first, second);
+    Assert.assertFalse(objectMapper.readTree(second).has(MetricsDeltaEncoder.DELTA));
+    Assert.assertEquals(normalize(encoder.getFullSnapshot()), objectMapper.readTree(second));
+  }
+
+  @Test
+  public void testPayloadPerRefresh() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      registerStage("stage" + i, new AtomicLong(i));
+    }
+    Object subscriber = new Object();
+    encoder.update(metrics);
+    encoder.encode(subscriber, true);
+    ObjectMapper fullMapper = ObjectMapperFactory.get();
+
+    int refreshes = 200;
+    long fullBytes = 0;
+    long deltaBytes = 0;
+    for (int i = 0; i < refreshes; i++) {
+      // a couple of stages process records, the rest of the pipeline is idle
+      metrics.counter("stage" + (i % 2) + ".inputRecords.counter").inc();
+      metrics.counter("stage" + (i % 2) + ".outputRecords.counter").inc();
+
+      fullBytes += fullMapper.writer().writeValueAsString(metrics).length();
+      encoder.update(metrics);
+      deltaBytes += encoder.encode(subscriber, true).length();
+    }
+
+    Assert.assertTrue("full " + fullBytes + " delta " + deltaBytes, deltaBytes * 100 < fullBytes);
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package com.streamsets.datacollector.record.io;
 
+import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.el.ELVariables;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.record.io.RecordEncoding;
@@ -35,6 +36,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -86,6 +89,7 @@ public  class TestRecordWriterReaderFactory {
     testEncodingSelection(null, RecordEncodingConstants.JSON1_MAGIC_NUMBER);
     testEncodingSelection(RecordEncoding.JSON1.name(), RecordEncodingConstants.JSON1_MAGIC_NUMBER);
     testEncodingSelection(RecordEncoding.KRYO1.name(), RecordEncodingConstants.KRYO1_MAGIC_NUMBER);
+    testEncodingSelection(RecordEncoding.DICT1.name(), RecordEncodingConstants.DICT1_MAGIC_NUMBER);
   }
 
   private void testRecordWriterReader(RecordEncoding encoding) throws IOException {
@@ -204,6 +208,11 @@ public  class TestRecordWriterReaderFactory {
     testRecordWriterReader(RecordEncoding.KRYO1);
   }
 
+  @Test
+  public void testDictionaryRecordWriter() throws IOException {
+    testRecordWriterReader(RecordEncoding.DICT1);
+  }
+
   @Test
   public void testJsonRecorWithOffset() throws IOException {
     testRecordReaderWithOffset(RecordEncoding.JSON1);
@@ -214,6 +223,92 @@ public  class TestRecordWriterReaderFactory {
     testRecordReaderWithOffset(RecordEncoding.KRYO1);
   }
 
+  @Test
+  public void testDictionaryRecordWithOffset() throws IOException {
+    testRecordReaderWithOffset(RecordEncoding.DICT1);
+  }
+
+  @Test
+  public void testDictionaryAllTypes() throws IOException {
+    Date date = new Date();
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.DICT1, os);
+    RecordImpl record1 = new RecordImpl("stage", "source", null, null);
+    record1.getHeader().setAttribute("user", "value");
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put("boolean", Field.create(true));
+    map.put("char", Field.create('c'));
+    map.put("byte", Field.create((byte) -3));
+    map.put("short", Field.create((short) -300));
+    map.put("int", Field.create(Integer.MIN_VALUE));
+    map.put("long", Field.create(Long.MAX_VALUE));
+    map.put("float", Field.create(1.5f));
+    map.put("double", Field.create(-2.25d));
+    map.put("date", Field.create(Field.Type.DATE, date));
+    map.put("datetime", Field.create(Field.Type.DATETIME, date));
+    map.put("time", Field.create(Field.Type.TIME, date));
+    map.put("decimal", Field.create(new BigDecimal("-36.7147")));
+    map.put("string", Field.create("Hello"));
+    map.put("bytes", Field.create(new byte[] {1, 2, 3}));
+    map.put("zoned", Field.createZonedDateTime(ZonedDateTime.now(ZoneId.of("America/Los_Angeles"))));
+    map.put("nullString", Field.create(Field.Type.STRING, null));
+    map.put("nullMap", Field.create(Field.Type.MAP, null));
+    map.put("list", Field.create(ImmutableList.of(Field.create(1), Field.create("a"))));
+    record1.set(Field.createListMap(map));
+    writer.write(record1);
+
+    RecordImpl record2 = new RecordImpl("stage", "source", null, null);
+    writer.write(record2);
+    writer.close();
+
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(new ByteArrayInputStream(os.toByteArray()), 0,
+        1000);
+    Record read = reader.readRecord();
+    Assert.assertEquals(record1, read);
+    Assert.assertEquals("value", read.getHeader().getAttribute("user"));
+    Assert.assertEquals(Field.Type.LIST_MAP, read.get().getType());
+    Assert.assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(read.get().getValueAsListMap().keySet()));
+    read = reader.readRecord();
+    Assert.assertEquals(record2, read);
+    Assert.assertNull(read.get());
+    Assert.assertNull(reader.readRecord());
+    reader.close();
+  }
+
+  @Test
+  public void testDictionaryIsSmallerThanJson() throws IOException {
+    ByteArrayOutputStream jsonOs = new ByteArrayOutputStream();
+    ByteArrayOutputStream dictOs = new ByteArrayOutputStream();
+    RecordWriter jsonWriter = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.JSON1, jsonOs);
+    RecordWriter dictWriter = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.DICT1, dictOs);
+    for (int i = 0; i < 100; i++) {
+      RecordImpl record = new RecordImpl("stage", "source::" + i, null, null);
+      Map<String, Field> map = new HashMap<>();
+      map.put("customer_identifier", Field.create(i));
+      map.put("transaction_amount", Field.create(i * 1.5d));
+      map.put("transaction_description", Field.create("purchase"));
+      record.set(Field.create(map));
+      jsonWriter.write(record);
+      dictWriter.write(record);
+    }
+    jsonWriter.close();
+    dictWriter.close();
+    Assert.assertTrue(dictOs.size() * 2 < jsonOs.size());
+  }
+
+  @Test(expected = IOException.class)
+  public void testDictionaryMaxObjectLen() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.DICT1, os);
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    record.set(Field.create(new byte[2000]));
+    writer.write(record);
+    writer.close();
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(new ByteArrayInputStream(os.toByteArray()), 0,
+        1000);
+    reader.readRecord();
+  }
+
   @Test
   public void testDecimal() throws IOException {
     // We've picked this number because if it's casted to double, then it will lead to 36.7147000000000000483...
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.metrics.RollupMetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestStageStats {
+
+  private StageStats createStageStats(MetricRegistry metrics, boolean deferred) {
+    String key = "stage.s";
+    StageStats.Metrics stageMetrics = new StageStats.Metrics();
+    stageMetrics.processingTimer = MetricsConfigurator.createStageTimer(metrics, key + ".batchProcessing", "p", "0");
+    stageMetrics.inputRecordsMeter = MetricsConfigurator.createStageMeter(metrics, key + ".inputRecords", "p", "0");
+    stageMetrics.outputRecordsMeter = MetricsConfigurator.createStageMeter(metrics, key + ".outputRecords", "p", "0");
+    stageMetrics.errorRecordsMeter = MetricsConfigurator.createStageMeter(metrics, key + ".errorRecords", "p", "0");
+    stageMetrics.stageErrorMeter = MetricsConfigurator.createStageMeter(metrics, key + ".stageErrors", "p", "0");
+    stageMetrics.inputRecordsCounter = MetricsConfigurator.createStageCounter(metrics, key + ".inputRecords", "p", "0");
+    stageMetrics.outputRecordsCounter =
+        MetricsConfigurator.createStageCounter(metrics, key + ".outputRecords", "p", "0");
+    stageMetrics.errorRecordsCounter = MetricsConfigurator.createStageCounter(metrics, key + ".errorRecords", "p", "0");
+    stageMetrics.stageErrorCounter = MetricsConfigurator.createStageCounter(metrics, key + ".stageErrors", "p", "0");
+    stageMetrics.inputRecordsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(metrics, key + ".inputRecords", "p", "0");
+    stageMetrics.outputRecordsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(metrics, key + ".outputRecords", "p", "0");
+    stageMetrics.errorRecordsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(metrics, key + ".errorRecords", "p", "0");
+    stageMetrics.stageErrorsHistogram =
+        MetricsConfigurator.createStageHistogram5Min(metrics, key + ".stageErrors", "p", "0");
+    stageMetrics.outputRecordsPerLaneCounter = new Counter[] {
+        MetricsConfigurator.createStageCounter(metrics, key + ":a.outputRecords", "p", "0"),
+        MetricsConfigurator.createStageCounter(metrics, key + ":b.outputRecords", "p", "0")
+    };
+    stageMetrics.outputRecordsPerLaneMeter = new Meter[] {
+        MetricsConfigurator.createStageMeter(metrics, key + ":a.outputRecords", "p", "0"),
+        MetricsConfigurator.createStageMeter(metrics, key + ":b.outputRecords", "p", "0")
+    };
+    StageStats stats = new StageStats(stageMetrics, deferred);
+    if (deferred) {
+      ((RollupMetricRegistry) metrics).addRollup(stats);
+    }
+    return stats;
+  }
+
+  private void recordBatch(StageStats stats) {
+    stats.recordLane(0, 7);
+    stats.recordLane(1, 2);
+    stats.recordBatch(5, 10, 1, 9, 1);
+  }
+
+  private void assertMetrics(MetricRegistry metrics, long batches) {
+    Assert.assertEquals(batches * 10, MetricsConfigurator.getCounter(metrics, "stage.s.inputRecords").getCount());
+    Assert.assertEquals(batches * 9, MetricsConfigurator.getMeter(metrics, "stage.s.outputRecords").getCount());
+    Assert.assertEquals(batches, MetricsConfigurator.getHistogram(metrics, "stage.s.errorRecords").getCount());
+    Assert.assertEquals(batches, MetricsConfigurator.getCounter(metrics, "stage.s.stageErrors").getCount());
+    Assert.assertEquals(batches, MetricsConfigurator.getTimer(metrics, "stage.s.batchProcessing").getCount());
+    Assert.assertEquals(batches * 7, MetricsConfigurator.getCounter(metrics, "stage.s:a.outputRecords").getCount());
+    Assert.assertEquals(batches * 2, MetricsConfigurator.getMeter(metrics, "stage.s:b.outputRecords").getCount());
+  }
+
+  @Test
+  public void testRolledUpOnRegistryLookup() {
+    RollupMetricRegistry metrics = new RollupMetricRegistry();
+    StageStats stats = createStageStats(metrics, true);
+    Counter inputRecords = MetricsConfigurator.getCounter(metrics, "stage.s.inputRecords");
+
+    recordBatch(stats);
+    recordBatch(stats);
+    // the metrics are not updated by the runner thread
+    Assert.assertEquals(0, inputRecords.getCount());
+    assertMetrics(metrics, 2);
+
+    recordBatch(stats);
+    stats.run();
+    Assert.assertEquals(30, inputRecords.getCount());
+    assertMetrics(metrics, 3);
+
+    metrics.removeRollup(stats);
+    recordBatch(stats);
+    assertMetrics(metrics, 3);
+  }
+
+  @Test
+  public void testRolledUpWhenFull() {
+    RollupMetricRegistry metrics = new RollupMetricRegistry();
+    StageStats stats = createStageStats(metrics, true);
+    Counter inputRecords = MetricsConfigurator.getCounter(metrics, "stage.s.inputRecords");
+
+    for (int i = 0; i < StageStats.CAPACITY; i++) {
+      recordBatch(stats);
+    }
+    Assert.assertEquals(0, inputRecords.getCount());
+    recordBatch(stats);
+    Assert.assertEquals(StageStats.CAPACITY * 10, inputRecords.getCount());
+    assertMetrics(metrics, StageStats.CAPACITY + 1);
+  }
+
+  @Test
+  public void testNotDeferred() {
+    MetricRegistry metrics = new MetricRegistry();
+    StageStats stats = createStageStats(metrics, false);
+    Assert.assertFalse(stats.isDeferred());
+    recordBatch(stats);
+    assertMetrics(metrics, 1);
+  }
+
+  @Test
+  public void testConcurrentRollups() throws Exception {
+    RollupMetricRegistry metrics = new RollupMetricRegistry();
+    StageStats stats = createStageStats(metrics, true);
+    int batches = 100000;
+    Thread reader = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        metrics.rollup();
+      }
+    });
+    reader.start();
+    try {
+      for (int i = 0; i < batches; i++) {
+        recordBatch(stats);
+      }
+    } finally {
+      reader.interrupt();
+      reader.join();
+    }
+    assertMetrics(metrics, batches);
+  }
+}
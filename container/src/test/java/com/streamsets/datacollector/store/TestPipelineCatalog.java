@@ -0,0 +1,262 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class TestPipelineCatalog {
+  private static final int PIPELINES = 10000;
+
+  private static PipelineInfo createPipelineInfo(int i, Random random, long lastModified) {
+    Map<String, Object> metadata = null;
+    int labelIndex = random.nextInt(20);
+    if (labelIndex == 0) {
+      metadata = ImmutableMap.of("labels", ImmutableList.of("rare", "other"));
+    } else if (labelIndex < 10) {
+      metadata = ImmutableMap.of("labels", ImmutableList.of("common"));
+    }
+    return new PipelineInfo(
+        "pipeline" + i,
+        (i % 7 == 0) ? null : "Title " + random.nextInt(PIPELINES / 4),
+        "description",
+        new Date(random.nextInt(1000)),
+        new Date(lastModified),
+        "user" + random.nextInt(5),
+        "user",
+        "0",
+        UUID.randomUUID(),
+        true,
+        metadata,
+        "3.7.0",
+        "sdc"
+    );
+  }
+
+  private static PipelineCatalog createCatalog(List<PipelineInfo> pipelineInfos) {
+    PipelineCatalog catalog = new PipelineCatalog();
+    for (PipelineInfo pipelineInfo : pipelineInfos) {
+      catalog.put(pipelineInfo);
+    }
+    return catalog;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static PipelineCatalog.Page findBySorting(
+      List<PipelineInfo> pipelineInfos,
+      String filterText,
+      String label,
+      Predicate<PipelineInfo> filter,
+      PipelineCatalog.SortKey sortKey,
+      boolean descending,
+      int offset,
+      int len
+  ) {
+    List<PipelineInfo> filtered = pipelineInfos.stream()
+        .filter(p -> filterText == null || PipelineCatalog.getTitle(p).toLowerCase().contains(filterText.toLowerCase()))
+        .filter(p -> label == null ||
+            (p.getMetadata() != null && ((List<String>) p.getMetadata().get("labels")).contains(label)))
+        .filter(p -> filter == null || filter.test(p))
+        .sorted(descending ? sortKey.getComparator().reversed() : sortKey.getComparator())
+        .collect(Collectors.toList());
+    int end = (len < 0) ? filtered.size() : Math.min(filtered.size(), offset + len);
+    List<PipelineInfo> page = (offset < end) ? filtered.subList(offset, end) : Collections.emptyList();
+    return new PipelineCatalog.Page(page, filtered.size());
+  }
+
+  private static void assertPage(PipelineCatalog.Page expected, PipelineCatalog.Page actual) {
+    Assert.assertEquals(expected.getTotalCount(), actual.getTotalCount());
+    Assert.assertEquals(ids(expected.getPipelines()), ids(actual.getPipelines()));
+  }
+
+  private static List<String> ids(List<PipelineInfo> pipelineInfos) {
+    return pipelineInfos.stream().map(PipelineInfo::getPipelineId).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testFindMatchesSorting() {
+    Random random = new Random(0);
+    List<PipelineInfo> pipelineInfos = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      pipelineInfos.add(createPipelineInfo(i, random, random.nextInt(1000)));
+    }
+    PipelineCatalog catalog = createCatalog(pipelineInfos);
+    Assert.assertEquals(pipelineInfos.size(), catalog.size());
+
+    Predicate<PipelineInfo> oddFilter = p -> p.getPipelineId().hashCode() % 2 != 0;
+    for (PipelineCatalog.SortKey sortKey : PipelineCatalog.SortKey.values()) {
+      for (boolean descending : new boolean[]{false, true}) {
+        for (String label : new String[]{null, "rare", "common", "unknown"}) {
+          for (String filterText : new String[]{null, "title 1", "PIPELINE"}) {
+            for (Predicate<PipelineInfo> filter : ImmutableList.of(p -> true, oddFilter)) {
+              for (int[] range : new int[][]{{0, -1}, {0, 0}, {0, 50}, {100, 25}, {5000, 10}}) {
+                assertPage(
+                    findBySorting(pipelineInfos, filterText, label, filter, sortKey, descending, range[0], range[1]),
+                    catalog.find(filterText, label, filter, sortKey, descending, range[0], range[1])
+                );
+                assertPage(
+                    findBySorting(pipelineInfos, filterText, label, null, sortKey, descending, range[0], range[1]),
+                    catalog.find(filterText, label, null, sortKey, descending, range[0], range[1])
+                );
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testUpdateAndRemove() {
+    PipelineInfo p1 = new PipelineInfo("p1", "b", "", new Date(1), new Date(1), "user", "user", "0", UUID.randomUUID(),
+        true, ImmutableMap.of("labels", ImmutableList.of("l1")), "3.7.0", "sdc");
+    PipelineInfo p2 = new PipelineInfo("p2", "a", "", new Date(2), new Date(2), "user", "user", "0", UUID.randomUUID(),
+        true, null, "3.7.0", "sdc");
+    PipelineCatalog catalog = createCatalog(ImmutableList.of(p1, p2));
+
+    Assert.assertEquals(ImmutableList.of("p2", "p1"),
+        ids(catalog.find(null, null, null, PipelineCatalog.SortKey.TITLE, false, 0, -1).getPipelines()));
+    Assert.assertEquals(ImmutableList.of("p2", "p1"),
+        ids(catalog.find(null, null, null, PipelineCatalog.SortKey.LAST_MODIFIED, false, 0, -1).getPipelines()));
+    Assert.assertEquals(ImmutableList.of("p1"),
+        ids(catalog.find(null, "l1", null, PipelineCatalog.SortKey.NAME, false, 0, -1).getPipelines()));
+
+    // saving p1 again modifies it and moves the label
+    PipelineInfo p1Saved = new PipelineInfo(p1.getPipelineId(), "c", "", p1.getCreated(), new Date(3), "user", "user",
+        "0", p1.getUuid(), true, ImmutableMap.of("labels", ImmutableList.of("l2")), "3.7.0", "sdc");
+    catalog.put(p1Saved);
+    Assert.assertEquals(2, catalog.size());
+    Assert.assertSame(p1Saved, catalog.get("p1"));
+    Assert.assertEquals(ImmutableList.of("p1", "p2"),
+        ids(catalog.find(null, null, null, PipelineCatalog.SortKey.LAST_MODIFIED, false, 0, -1).getPipelines()));
+    Assert.assertEquals(0, catalog.find(null, "l1", null, PipelineCatalog.SortKey.NAME, false, 0, -1).getTotalCount());
+    Assert.assertEquals(1, catalog.find(null, "l2", null, PipelineCatalog.SortKey.NAME, false, 0, -1).getTotalCount());
+
+    catalog.remove("p1");
+    catalog.remove("unknown");
+    Assert.assertFalse(catalog.contains("p1"));
+    Assert.assertEquals(ImmutableList.of("p2"),
+        ids(catalog.find(null, null, null, PipelineCatalog.SortKey.CREATED, true, 0, -1).getPipelines()));
+    Assert.assertEquals(0, catalog.find(null, "l2", null, PipelineCatalog.SortKey.NAME, false, 0, -1).getTotalCount());
+
+    catalog.clear();
+    Assert.assertEquals(0, catalog.size());
+  }
+
+  @Test
+  public void testListingLargeCatalog() {
+    Random random = new Random(1);
+    List<PipelineInfo> pipelineInfos = new ArrayList<>();
+    for (int i = 0; i < PIPELINES; i++) {
+      pipelineInfos.add(createPipelineInfo(i, random, random.nextInt(PIPELINES)));
+    }
+    PipelineCatalog catalog = createCatalog(pipelineInfos);
+
+    // pages are found walking the indexes, they must be the pages of the sorted pipelines
+    for (PipelineCatalog.SortKey sortKey : PipelineCatalog.SortKey.values()) {
+      for (boolean descending : new boolean[]{false, true}) {
+        for (int offset : new int[]{0, 50, PIPELINES / 2, PIPELINES - 25}) {
+          PipelineCatalog.Page page = catalog.find(null, null, null, sortKey, descending, offset, 50);
+          Assert.assertEquals(PIPELINES, page.getTotalCount());
+          Assert.assertEquals(Math.min(50, PIPELINES - offset), page.getPipelines().size());
+          assertPage(findBySorting(pipelineInfos, null, null, null, sortKey, descending, offset, 50), page);
+        }
+        for (String label : new String[]{"rare", "common"}) {
+          assertPage(
+              findBySorting(pipelineInfos, null, label, null, sortKey, descending, 100, 50),
+              catalog.find(null, label, null, sortKey, descending, 100, 50)
+          );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentEdits() throws Exception {
+    Random random = new Random(2);
+    PipelineCatalog catalog = new PipelineCatalog();
+    for (int i = 0; i < PIPELINES; i++) {
+      catalog.put(createPipelineInfo(i, random, i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 2; t++) {
+        int writer = t;
+        futures.add(executor.submit(() -> {
+          Random writerRandom = new Random(writer);
+          for (int i = 0; i < 5000; i++) {
+            int id = writerRandom.nextInt(PIPELINES);
+            if (i % 10 == 0) {
+              catalog.remove("pipeline" + id);
+            } else {
+              catalog.put(createPipelineInfo(id, writerRandom, PIPELINES + writer * 5000 + i));
+            }
+          }
+        }));
+      }
+      for (int t = 0; t < 2; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 500; i++) {
+            PipelineCatalog.Page page = catalog.find(null, null, null, PipelineCatalog.SortKey.LAST_MODIFIED, false, 0,
+                100);
+            Assert.assertEquals(100, page.getPipelines().size());
+            Assert.assertEquals(page.getPipelines().stream().distinct().count(), page.getPipelines().size());
+            for (int j = 1; j < page.getPipelines().size(); j++) {
+              Assert.assertFalse(page.getPipelines().get(j - 1).getLastModified()
+                  .before(page.getPipelines().get(j).getLastModified()));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    // after the edits every index agrees with the pipelines in the catalog
+    List<PipelineInfo> pipelineInfos = catalog.getAll();
+    for (PipelineCatalog.SortKey sortKey : PipelineCatalog.SortKey.values()) {
+      for (String label : new String[]{null, "rare", "common"}) {
+        assertPage(
+            findBySorting(pipelineInfos, null, label, null, sortKey, false, 0, -1),
+            catalog.find(null, label, null, sortKey, false, 0, -1)
+        );
+      }
+    }
+  }
+
+}
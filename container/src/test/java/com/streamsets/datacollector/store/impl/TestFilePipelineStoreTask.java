@@ -16,6 +16,8 @@
 package com.streamsets.datacollector.store.impl;
 
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.streamsets.datacollector.config.DataRuleDefinition;
 import com.streamsets.datacollector.config.DriftRuleDefinition;
 import com.streamsets.datacollector.config.MetricElement;
@@ -30,6 +32,7 @@ import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.MockStages;
 import com.streamsets.datacollector.runner.preview.StageConfigurationBuilder;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -148,6 +151,39 @@ public class TestFilePipelineStoreTask {
     }
   }
 
+  @Test
+  public void testFindPipelines() throws Exception {
+    try {
+      store.init();
+      store.create("foo", "a", "Title B", "", false, false);
+      store.create("foo", "b", "Title A", "", false, false);
+      store.create("foo", "c", "Other", "", false, false);
+      store.saveMetadata("foo", "c", "0", ImmutableMap.of("labels", ImmutableList.of("label")));
+
+      PipelineCatalog.Page page = store.findPipelines(null, null, null, PipelineCatalog.SortKey.TITLE, false, 0, 2);
+      Assert.assertEquals(3, page.getTotalCount());
+      Assert.assertEquals("c", page.getPipelines().get(0).getPipelineId());
+      Assert.assertEquals("b", page.getPipelines().get(1).getPipelineId());
+
+      page = store.findPipelines("title", null, null, PipelineCatalog.SortKey.NAME, true, 1, -1);
+      Assert.assertEquals(2, page.getTotalCount());
+      Assert.assertEquals(1, page.getPipelines().size());
+      Assert.assertEquals("a", page.getPipelines().get(0).getPipelineId());
+
+      page = store.findPipelines(null, "label", null, PipelineCatalog.SortKey.NAME, false, 0, -1);
+      Assert.assertEquals(1, page.getTotalCount());
+      Assert.assertEquals("c", page.getPipelines().get(0).getPipelineId());
+
+      store.delete("c");
+      page = store.findPipelines(null, null, p -> !p.getPipelineId().equals("a"), PipelineCatalog.SortKey.NAME, false,
+          0, -1);
+      Assert.assertEquals(1, page.getTotalCount());
+      Assert.assertEquals("b", page.getPipelines().get(0).getPipelineId());
+    } finally {
+      store.stop();
+    }
+  }
+
   @Test(expected = PipelineStoreException.class)
   public void testCreateExistingPipeline() throws Exception {
     try {
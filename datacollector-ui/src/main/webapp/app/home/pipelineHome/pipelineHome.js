@@ -50,9 +50,10 @@ angular
     var destroyed = false;
     var pageHidden = false;
     var isWebSocketSupported;
-    var webSocketMetricsURL = $rootScope.common.webSocketBaseURL + 'rest/v1/webSocket?type=metrics&pipelineName=' +
-      routeParamPipelineName;
+    var webSocketMetricsURL = $rootScope.common.webSocketBaseURL + 'rest/v1/webSocket?type=metrics&delta=true' +
+      '&pipelineName=' + routeParamPipelineName;
     var metricsWebSocket;
+    var metricSections = ['gauges', 'counters', 'histograms', 'meters', 'timers'];
     var undoLimit = 10;
     var archive = [];
     var currArchivePos = null;
@@ -1649,6 +1650,26 @@ angular
       }, 1000);
     };
 
+    /**
+     * Returns new metrics object with the changes of the given metrics WebSocket message applied.
+     *
+     * @param metrics
+     * @param message
+     */
+    var applyMetricsMessage = function(metrics, message) {
+      if (!metrics || !message.delta) {
+        return message;
+      }
+      var updated = angular.extend({}, metrics);
+      angular.forEach(metricSections, function(section) {
+        updated[section] = angular.extend({}, metrics[section], message[section]);
+        angular.forEach(message.removed, function(name) {
+          delete updated[section][name];
+        });
+      });
+      return updated;
+    };
+
     /**
      * Fetch the Pipeline Status for every configured refresh interval.
      *
@@ -1664,15 +1685,17 @@ angular
           metricsWebSocket.close();
         }
 
-        // WebSocket to get Pipeline Metrics
+        // WebSocket to get Pipeline Metrics, the first message has all the metrics and the next ones only the
+        // metrics that changed
         metricsWebSocket = new WebSocket(webSocketMetricsURL);
+        var receivedMetrics;
 
         metricsWebSocket.onmessage = function (evt) {
-          var received_msg = evt.data;
+          receivedMetrics = applyMetricsMessage(receivedMetrics, JSON.parse(evt.data));
 
           if (!$scope.monitoringPaused) {
             $rootScope.$apply(function() {
-              $rootScope.common.pipelineMetrics = JSON.parse(received_msg);
+              $rootScope.common.pipelineMetrics = receivedMetrics;
             });
 
           }
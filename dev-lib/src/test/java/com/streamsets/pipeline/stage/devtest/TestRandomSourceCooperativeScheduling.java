@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.devtest;
+
+import com.streamsets.datacollector.execution.runner.common.BatchScheduler;
+import com.streamsets.pipeline.sdk.SourceRunner;
+import com.streamsets.pipeline.sdk.StageRunner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many random origins as poll pipelines sharing the few threads of a {@link BatchScheduler}.
+ */
+public class TestRandomSourceCooperativeScheduling {
+  private static final int PIPELINES = 500;
+  private static final int THREADS = 16;
+  private static final int RECORDS = 200;
+  private static final int BATCH_SIZE = 10;
+
+  // a batch per turn on the scheduler until the origin has generated all its records
+  private static class RandomSourceTask implements BatchScheduler.Task {
+    private final SourceRunner runner;
+    private final Set<String> threads;
+    private final List<Throwable> errors;
+    private final CountDownLatch done;
+    private String offset;
+    private int records;
+    private int batches;
+
+    RandomSourceTask(Set<String> threads, List<Throwable> errors, CountDownLatch done) throws Exception {
+      this.threads = threads;
+      this.errors = errors;
+      this.done = done;
+      runner = new SourceRunner.Builder(RandomSource.class)
+          .addConfiguration("maxRecordsToGenerate", RECORDS)
+          .addConfiguration("fields", "a,b")
+          .addConfiguration("delay", 0)
+          .addOutputLane("a")
+          .build();
+      runner.runInit();
+    }
+
+    @Override
+    public boolean runBatch() throws Exception {
+      threads.add(Thread.currentThread().getName());
+      StageRunner.Output output = runner.runProduce(offset, BATCH_SIZE);
+      int batchRecords = output.getRecords().get("a").size();
+      Assert.assertTrue(batchRecords <= BATCH_SIZE);
+      offset = output.getNewOffset();
+      records += batchRecords;
+      batches++;
+      return batchRecords > 0;
+    }
+
+    @Override
+    public boolean isDone() {
+      return records >= RECORDS;
+    }
+
+    @Override
+    public void done(Throwable error) {
+      try {
+        runner.runDestroy();
+      } catch (Throwable ex) {
+        error = (error == null) ? ex : error;
+      }
+      if (error != null) {
+        errors.add(error);
+      }
+      done.countDown();
+    }
+  }
+
+  @Test(timeout = 120000)
+  public void testManyPipelinesOnFewThreads() throws Exception {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    List<Throwable> errors = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(PIPELINES);
+    List<RandomSourceTask> tasks = new ArrayList<>();
+
+    BatchScheduler scheduler = new BatchScheduler(true, THREADS, 10);
+    try {
+      for (int i = 0; i < PIPELINES; i++) {
+        RandomSourceTask task = new RandomSourceTask(threads, errors, done);
+        tasks.add(task);
+        scheduler.schedule(task);
+      }
+      Assert.assertTrue(done.await(100, TimeUnit.SECONDS));
+    } finally {
+      scheduler.shutdown();
+    }
+
+    Assert.assertEquals(errors.toString(), 0, errors.size());
+    for (RandomSourceTask task : tasks) {
+      Assert.assertEquals(RECORDS, task.records);
+      Assert.assertTrue(task.batches >= RECORDS / BATCH_SIZE);
+    }
+    Assert.assertTrue(threads.toString(), threads.size() <= THREADS);
+    Assert.assertFalse(threads.contains(Thread.currentThread().getName()));
+  }
+
+}
@@ -94,6 +94,10 @@ public enum Errors implements ErrorCode {
   HADOOPFS_60("Invalid Data Format {}, should be {} for File Type {}."),
   HADOOPFS_61("You must specify at least one of Hadoop FS URI, Hadoop FS Configuration Directory or fs.defaultFS"),
   HADOOPFS_62("Can't resolve credential: {}"),
+  HADOOPFS_63("Parquet files need the Avro schema in the stage configuration or in the record header"),
+  HADOOPFS_64("Record '{}' can't be written to the ORC file: {}"),
+  HADOOPFS_65("Invalid ORC schema '{}': {}"),
+  HADOOPFS_66("Invalid ORC compression '{}', valid values are {}"),
 
   ;
 
@@ -29,16 +29,22 @@ import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.api.el.SdcEL;
 import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
 import com.streamsets.pipeline.config.TimeZoneChooserValues;
+import com.streamsets.pipeline.lib.converter.AvroParquetConstants;
 import com.streamsets.pipeline.lib.el.DataUtilEL;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.lib.el.TimeNowEL;
 import com.streamsets.pipeline.lib.hdfs.common.Errors;
 import com.streamsets.pipeline.lib.hdfs.common.HdfsBaseConfigBean;
+import com.streamsets.pipeline.lib.util.AvroTypeUtil;
+import com.streamsets.pipeline.lib.util.orcsdc.SdcToOrcRecordConverter;
 import com.streamsets.pipeline.stage.destination.hdfs.writer.ActiveRecordWriters;
 import com.streamsets.pipeline.stage.destination.hdfs.writer.RecordWriterManager;
 import com.streamsets.pipeline.stage.destination.lib.DataGeneratorFormatConfig;
+import org.apache.avro.Schema;
+import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -46,6 +52,9 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcConf;
+import org.apache.orc.TypeDescription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,8 +62,10 @@ import java.io.IOException;
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Properties;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -157,7 +168,7 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
     group = "OUTPUT_FILES",
     min = 0,
     dependsOn = "fileType",
-    triggeredByValue = {"TEXT", "SEQUENCE_FILE"}
+    triggeredByValue = {"TEXT", "SEQUENCE_FILE", "PARQUET", "ORC"}
   )
   public long maxRecordsPerFile;
 
@@ -171,7 +182,7 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
     group = "OUTPUT_FILES",
     min = 0,
     dependsOn = "fileType",
-    triggeredByValue = {"TEXT", "SEQUENCE_FILE"}
+    triggeredByValue = {"TEXT", "SEQUENCE_FILE", "PARQUET"}
   )
   public long maxFileSize;
 
@@ -188,7 +199,7 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
     elDefs = {TimeEL.class},
     evaluation = ConfigDef.Evaluation.EXPLICIT,
     dependsOn = "fileType",
-    triggeredByValue = {"TEXT", "SEQUENCE_FILE"}
+    triggeredByValue = {"TEXT", "SEQUENCE_FILE", "PARQUET", "ORC"}
   )
   public String idleTimeout;
 
@@ -261,6 +272,101 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
   @ValueChooserModel(HdfsSequenceFileCompressionTypeChooserValues.class)
   public HdfsSequenceFileCompressionType seqFileCompressionType;
 
+  @ConfigDef(
+    required = false,
+    type = ConfigDef.Type.STRING,
+    defaultValue = "",
+    label = "Parquet Compression Codec",
+    description = "Compression codec that will be used in Parquet. Valid values are for example 'SNAPPY' or 'GZIP'." +
+      " Empty value will use Parquet default.",
+    displayPosition = 191,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "PARQUET"
+  )
+  public String parquetCompressionCodec = "";
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "-1",
+    label = "Parquet Row Group Size",
+    description = "Bytes buffered in memory before a row group is written out. Use -1 to use the Parquet default.",
+    displayPosition = 192,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "PARQUET"
+  )
+  public int parquetRowGroupSize = -1;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "-1",
+    label = "Parquet Page Size",
+    description = "Page size that will be used in Parquet. Use -1 to use the Parquet default.",
+    displayPosition = 193,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "PARQUET"
+  )
+  public int parquetPageSize = -1;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "-1",
+    label = "Parquet Dictionary Page Size",
+    description = "Dictionary page size that will be used in Parquet. Use -1 to use the Parquet default.",
+    displayPosition = 194,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "PARQUET"
+  )
+  public int parquetDictionaryPageSize = -1;
+
+  @ConfigDef(
+    required = false,
+    type = ConfigDef.Type.STRING,
+    defaultValue = "",
+    label = "ORC Schema",
+    description = "ORC schema of the files, for example 'struct<id:bigint,name:string>'. Empty value will use the" +
+      " schema in the record header or the schema inferred from the fields of the first record of each file.",
+    displayPosition = 195,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "ORC"
+  )
+  public String orcSchema = "";
+
+  @ConfigDef(
+    required = false,
+    type = ConfigDef.Type.STRING,
+    defaultValue = "",
+    label = "ORC Compression",
+    description = "Compression that will be used in ORC. Valid values are for example 'SNAPPY' or 'ZLIB'." +
+      " Empty value will use ORC default.",
+    displayPosition = 196,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "ORC"
+  )
+  public String orcCompression = "";
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "" + SdcToOrcRecordConverter.DEFAULT_ORC_BATCH_SIZE,
+    label = "ORC Batch Size",
+    description = "Number of records that will be written per ORC writer batch.",
+    displayPosition = 197,
+    min = 1,
+    group = "OUTPUT_FILES",
+    dependsOn = "fileType",
+    triggeredByValue = "ORC"
+  )
+  public int orcBatchSize = SdcToOrcRecordConverter.DEFAULT_ORC_BATCH_SIZE;
+
   @ConfigDef(
     required = true,
     type = ConfigDef.Type.STRING,
@@ -459,6 +565,14 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
       fileNameEL = dataGeneratorFormatConfig.fileNameEL;
     }
 
+    if (fileType == HdfsFileType.PARQUET) {
+      validateStageForParquetFormat(context, issues);
+    }
+
+    if (fileType == HdfsFileType.ORC) {
+      validateStageForOrcFormat(context, issues);
+    }
+
     SequenceFile.CompressionType compressionType = (seqFileCompressionType != null)
       ? seqFileCompressionType.getType() : null;
     try {
@@ -527,6 +641,8 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
         if (idleTimeSecs > 0) {
           mgr.setIdleTimeoutSeconds(idleTimeSecs);
         }
+        configureParquet(mgr);
+        configureOrc(mgr);
 
         // We're skipping all hdfs-target-directory related validations if we're getting the configuration from header
         if(dirPathTemplateInHeader) {
@@ -585,6 +701,8 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
           if (idleTimeSecs > 0) {
             mgr.setIdleTimeoutSeconds(idleTimeSecs);
           }
+          configureParquet(mgr);
+          configureOrc(mgr);
 
           // validate if the lateRecordsDirPathTemplate can be resolved by Els constants
           if (mgr.validateDirTemplate(
@@ -846,6 +964,95 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
     }
   }
 
+  private void validateStageForParquetFormat(Stage.Context context, List<Stage.ConfigIssue> issues) {
+    if (dataFormat != DataFormat.AVRO) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.DATA_FORMAT.name(),
+              getConfigBeanPrefix() + "dataFormat",
+              Errors.HADOOPFS_60,
+              dataFormat.name(),
+              DataFormat.AVRO.getLabel(),
+              HdfsFileType.PARQUET.getLabel()
+          )
+      );
+    } else if (dataGeneratorFormatConfig.avroSchemaSource == DestinationAvroSchemaSource.REGISTRY) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.DATA_FORMAT.name(),
+              getConfigBeanPrefix() + "dataGeneratorFormatConfig.avroSchemaSource",
+              Errors.HADOOPFS_63
+          )
+      );
+    }
+  }
+
+  private void configureParquet(RecordWriterManager mgr) {
+    if (fileType != HdfsFileType.PARQUET) {
+      return;
+    }
+    Configuration parquetConf = new Configuration(hdfsConfiguration);
+    parquetConf.set(AvroParquetConstants.COMPRESSION_CODEC_NAME, parquetCompressionCodec == null ? "" : parquetCompressionCodec);
+    parquetConf.setInt(AvroParquetConstants.ROW_GROUP_SIZE, parquetRowGroupSize);
+    parquetConf.setInt(AvroParquetConstants.PAGE_SIZE, parquetPageSize);
+    parquetConf.setInt(AvroParquetConstants.DICTIONARY_PAGE_SIZE, parquetDictionaryPageSize);
+    Schema schema = null;
+    if (dataGeneratorFormatConfig.avroSchemaSource == DestinationAvroSchemaSource.INLINE) {
+      // Already validated by the data format config
+      schema = AvroTypeUtil.parseSchema(dataGeneratorFormatConfig.avroSchema);
+    }
+    mgr.setParquetConfiguration(parquetConf, schema);
+  }
+
+  private void validateStageForOrcFormat(Stage.Context context, List<Stage.ConfigIssue> issues) {
+    if (!StringUtils.isEmpty(orcSchema)) {
+      try {
+        TypeDescription schema = TypeDescription.fromString(orcSchema);
+        if (schema.getCategory() != TypeDescription.Category.STRUCT) {
+          throw new IllegalArgumentException("The schema must be a struct");
+        }
+      } catch (IllegalArgumentException ex) {
+        issues.add(
+            context.createConfigIssue(
+                Groups.OUTPUT_FILES.name(),
+                getConfigBeanPrefix() + "orcSchema",
+                Errors.HADOOPFS_65,
+                orcSchema,
+                ex.toString()
+            )
+        );
+      }
+    }
+    if (!StringUtils.isEmpty(orcCompression)) {
+      try {
+        CompressionKind.valueOf(orcCompression.toUpperCase());
+      } catch (IllegalArgumentException ex) {
+        issues.add(
+            context.createConfigIssue(
+                Groups.OUTPUT_FILES.name(),
+                getConfigBeanPrefix() + "orcCompression",
+                Errors.HADOOPFS_66,
+                orcCompression,
+                Arrays.toString(CompressionKind.values())
+            )
+        );
+      }
+    }
+  }
+
+  private void configureOrc(RecordWriterManager mgr) {
+    if (fileType != HdfsFileType.ORC) {
+      return;
+    }
+    Properties writerProperties = new Properties();
+    if (!StringUtils.isEmpty(orcCompression)) {
+      writerProperties.setProperty(OrcConf.COMPRESS.getAttribute(), orcCompression.toUpperCase());
+    }
+    // Already validated
+    TypeDescription schema = StringUtils.isEmpty(orcSchema) ? null : TypeDescription.fromString(orcSchema);
+    mgr.setOrcConfiguration(new Configuration(hdfsConfiguration), writerProperties, orcBatchSize, schema);
+  }
+
   protected boolean validateHadoopDir(final Stage.Context context, final String configName, final String configGroup,
       String dirPathTemplate, final List<Stage.ConfigIssue> issues) {
     if (!dirPathTemplate.startsWith("/")) {
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.upgrade.DataFormatUpgradeHelper;
+import com.streamsets.pipeline.lib.util.orcsdc.SdcToOrcRecordConverter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -50,6 +51,18 @@ public class HdfsTargetUpgrader implements StageUpgrader {
         // fall through
       case 3:
         upgradeV3ToV4(configs);
+        if (toVersion == 4) {
+          break;
+        }
+        // fall through
+      case 4:
+        upgradeV4ToV5(configs);
+        if (toVersion == 5) {
+          break;
+        }
+        // fall through
+      case 5:
+        upgradeV5ToV6(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -61,6 +74,33 @@ public class HdfsTargetUpgrader implements StageUpgrader {
     DataFormatUpgradeHelper.upgradeAvroGeneratorWithSchemaRegistrySupport(configs);
   }
 
+  private static void upgradeV4ToV5(List<Config> configs) {
+    addParquetConfigs("hdfsTargetConfigBean.", configs);
+  }
+
+  /**
+   * Adds the Parquet file type configs introduced to the shared Hadoop FS target config bean.
+   */
+  public static void addParquetConfigs(String configBeanPrefix, List<Config> configs) {
+    configs.add(new Config(configBeanPrefix + "parquetCompressionCodec", ""));
+    configs.add(new Config(configBeanPrefix + "parquetRowGroupSize", -1));
+    configs.add(new Config(configBeanPrefix + "parquetPageSize", -1));
+    configs.add(new Config(configBeanPrefix + "parquetDictionaryPageSize", -1));
+  }
+
+  private static void upgradeV5ToV6(List<Config> configs) {
+    addOrcConfigs("hdfsTargetConfigBean.", configs);
+  }
+
+  /**
+   * Adds the ORC file type configs introduced to the shared Hadoop FS target config bean.
+   */
+  public static void addOrcConfigs(String configBeanPrefix, List<Config> configs) {
+    configs.add(new Config(configBeanPrefix + "orcSchema", ""));
+    configs.add(new Config(configBeanPrefix + "orcCompression", ""));
+    configs.add(new Config(configBeanPrefix + "orcBatchSize", SdcToOrcRecordConverter.DEFAULT_ORC_BATCH_SIZE));
+  }
+
   private static void upgradeV1ToV2(List<Config> configs) {
 
     List<Config> configsToRemove = new ArrayList<>();
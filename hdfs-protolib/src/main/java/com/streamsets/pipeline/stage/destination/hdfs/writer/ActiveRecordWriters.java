@@ -27,8 +27,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
@@ -73,11 +73,11 @@ public class ActiveRecordWriters {
   private final RecordWriterManager manager;
 
   @VisibleForTesting
-  Map<String, RecordWriter> writers;
+  volatile Map<String, RecordWriter> writers;
   private DelayQueue<DelayedRecordWriter> cutOffQueue;
 
   public ActiveRecordWriters(RecordWriterManager manager) {
-    writers = new HashMap<>();
+    writers = new ConcurrentHashMap<>();
     cutOffQueue = new DelayQueue<>();
     this.manager = manager;
   }
@@ -96,10 +96,7 @@ public class ActiveRecordWriters {
         if (IS_TRACE_ENABLED) {
           LOG.trace("Purging '{}'", delayedWriter.getWriter().getPath());
         }
-        //We are fine no lock on writer needed.
-        synchronized (this) {
-          writers.remove(delayedWriter.getWriter().getPath().toString());
-        }
+        writers.remove(delayedWriter.getWriter().getPath().toString());
         manager.commitWriter(delayedWriter.getWriter());
       }
       delayedWriter = cutOffQueue.poll();
@@ -108,12 +105,8 @@ public class ActiveRecordWriters {
 
   public RecordWriter get(Date now, Date recordDate, Record record) throws StageException, IOException {
     String path = manager.getPath(recordDate, record).toString();
-    RecordWriter writer = null;
-
-    //We are fine no lock on writer needed.
-    synchronized (this) {
-      writer = writers.get(path);
-    }
+    // writers is a concurrent map, so the lookup for every record does not need to take the lock
+    RecordWriter writer = writers.get(path);
 
     if(writer != null && manager.shouldRoll(writer, record)) {
       release(writer, true);
@@ -128,10 +121,7 @@ public class ActiveRecordWriters {
         }
         writer.setActiveRecordWriters(this);
 
-        //We are fine no lock on writer needed.
-        synchronized(this) {
-          writers.put(path, writer);
-        }
+        writers.put(path, writer);
         cutOffQueue.add(new DelayedRecordWriter(writer));
       }
     }
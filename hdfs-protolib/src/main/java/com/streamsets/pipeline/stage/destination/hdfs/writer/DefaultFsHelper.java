@@ -25,14 +25,19 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.generator.StreamCloseEventHandler;
 import com.streamsets.pipeline.lib.hdfs.common.Errors;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.orc.OrcFile;
+import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -41,6 +46,7 @@ import java.util.concurrent.TimeUnit;
 
 final class DefaultFsHelper implements FsHelper {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultFsHelper.class);
+  static final String CORRUPT_FILE_PREFIX = "_corrupt_";
 
   // we use/reuse Path as they are expensive to create (it increases the performance by at least 3%)
   private final Path tempFilePath;
@@ -94,7 +100,12 @@ final class DefaultFsHelper implements FsHelper {
         if (globStatus != null) {
           for (FileStatus status : globStatus) {
             LOG.debug("Found uncommitted file '{}'", status.getPath());
-            recordWriterManager.renameToFinalName(fs, status.getPath());
+            if (isIncompleteFile(fs, status.getPath())) {
+              Path path = quarantine(fs, status.getPath());
+              LOG.warn("Found uncommitted file '{}' without footer, moved it to '{}'", status.getPath(), path);
+            } else {
+              recordWriterManager.renameToFinalName(fs, status.getPath());
+            }
           }
         }
       }
@@ -103,10 +114,59 @@ final class DefaultFsHelper implements FsHelper {
 
   @Override
   public void handleAlreadyExistingFile(FileSystem fs, Path tempPath) throws StageException, IOException {
+    if (isIncompleteFile(fs, tempPath)) {
+      Path path = quarantine(fs, tempPath);
+      LOG.warn("Path[{}] - Found previous file without footer, moved it to '{}'", tempPath, path);
+      return;
+    }
     Path path = recordWriterManager.renameToFinalName(fs, tempPath);
     LOG.warn("Path[{}] - Found previous file '{}', committing it", tempPath, path);
   }
 
+  /**
+   * The footer of Parquet and ORC files is written when the writer is closed, a temp file of these types left behind
+   * by a writer that was not closed can't be read and must not be committed.
+   */
+  private boolean isIncompleteFile(FileSystem fs, Path path) throws IOException {
+    switch (recordWriterManager.getFileType()) {
+      case PARQUET:
+        // leading magic, footer, footer length and trailing magic
+        return !hasMagicAtEnd(fs, path, ParquetFileWriter.MAGIC, 0, 2L * ParquetFileWriter.MAGIC.length + 4);
+      case ORC:
+        // leading magic, footer and postscript, the postscript ends with the magic and is followed by its length
+        byte[] magic = OrcFile.MAGIC.getBytes(StandardCharsets.UTF_8);
+        return !hasMagicAtEnd(fs, path, magic, 1, 2L * magic.length + 1);
+      default:
+        return false;
+    }
+  }
+
+  // whether the file is longer than minLength and has the magic followed by trailingBytes bytes at its end
+  private static boolean hasMagicAtEnd(FileSystem fs, Path path, byte[] magic, int trailingBytes, long minLength)
+      throws IOException {
+    long length = fs.getFileStatus(path).getLen();
+    if (length <= minLength) {
+      return false;
+    }
+    byte[] tail = new byte[magic.length];
+    try (FSDataInputStream in = fs.open(path)) {
+      in.readFully(length - trailingBytes - magic.length, tail);
+    }
+    return Arrays.equals(magic, tail);
+  }
+
+  /**
+   * Renames the file with a leading '_' so that it is ignored by the readers of the directory but kept around.
+   */
+  private Path quarantine(FileSystem fs, Path path) throws IOException {
+    Path corruptPath = new Path(path.getParent(), CORRUPT_FILE_PREFIX + UUID.randomUUID().toString() + "_" +
+        path.getName().substring(RecordWriterManager.TMP_FILE_PREFIX.length()));
+    if (!fs.rename(path, corruptPath)) {
+      throw new IOException(Utils.format("Could not rename '{}' to '{}'", path, corruptPath));
+    }
+    return corruptPath;
+  }
+
   @Override
   public Path renameAndGetPath(FileSystem fs, Path tempPath) throws IOException, StageException {
     Path finalPath =  new Path(tempPath.getParent(), (StringUtils.isEmpty(uniquePrefix) ? "" : (uniquePrefix + "_") ) + UUID.randomUUID().toString() + recordWriterManager.getExtension());
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.hdfs.writer;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.hdfs.common.Errors;
+import com.streamsets.pipeline.lib.util.orcsdc.SdcToOrcRecordConverter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.orc.TypeDescription;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Writes records straight into an ORC file with the {@link SdcToOrcRecordConverter}. The ORC schema comes from the
+ * configuration, or from the header or the fields of the first record written to the file. The ORC writer buffers
+ * stripes in memory and writes the footer on close, so flush() is a no-op and data only becomes durable when the
+ * file is closed.
+ */
+public class OrcDataGenerator implements DataGenerator {
+
+  private final SdcToOrcRecordConverter converter;
+
+  public OrcDataGenerator(
+      Path path,
+      Configuration conf,
+      Properties writerProperties,
+      int batchSize,
+      TypeDescription schema
+  ) throws IOException {
+    converter = new SdcToOrcRecordConverter(batchSize, writerProperties, conf);
+    converter.initializeWriter(schema, path);
+  }
+
+  @Override
+  public void write(Record record) throws IOException, DataGeneratorException {
+    try {
+      converter.addRecord(record);
+    } catch (IllegalArgumentException | IllegalStateException | ClassCastException ex) {
+      // the record does not match the ORC schema of the file
+      throw new DataGeneratorException(Errors.HADOOPFS_64, record.getHeader().getSourceId(), ex.toString(), ex);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+  }
+
+  @Override
+  public void close() throws IOException {
+    converter.closeWriter();
+  }
+}
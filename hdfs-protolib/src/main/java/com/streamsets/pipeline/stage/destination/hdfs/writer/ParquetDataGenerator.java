@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.hdfs.writer;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.avro.BaseAvroDataGenerator;
+import com.streamsets.pipeline.lib.util.AvroToParquetConverterUtil;
+import com.streamsets.pipeline.lib.util.AvroTypeUtil;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Writes records straight into a Parquet file. Records are converted with the Avro schema from the
+ * configuration or from the record header and buffered by the Parquet writer until a row group is full,
+ * so flush() is a no-op and data only becomes durable when the file is closed.
+ */
+public class ParquetDataGenerator extends BaseAvroDataGenerator {
+
+  private static final Flushable NO_OP_FLUSHABLE = () -> {};
+
+  private final Path path;
+  private final Configuration conf;
+  private ParquetWriter<GenericRecord> writer;
+
+  public ParquetDataGenerator(Path path, Configuration conf, Schema schema) throws IOException {
+    super(schema == null, schema, getDefaultValues(schema), null, null, 0);
+    this.path = path;
+    this.conf = conf;
+    if (schema != null) {
+      initialize();
+    }
+  }
+
+  private static Map<String, Object> getDefaultValues(Schema schema) throws IOException {
+    return schema == null ? null : AvroTypeUtil.getDefaultValuesFromSchema(schema, new HashSet<String>());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void initializeWriter() throws IOException {
+    writer = AvroToParquetConverterUtil.initializeWriter(path, schema, conf).withConf(conf).build();
+  }
+
+  @Override
+  protected void writeRecord(Record record) throws IOException, DataGeneratorException {
+    try {
+      writer.write((GenericRecord) AvroTypeUtil.sdcRecordToAvro(record, schema, defaultValueMap));
+    } catch (StageException e) {
+      throw new DataGeneratorException(e.getErrorCode(), e.getParams()); // params includes cause
+    }
+  }
+
+  /**
+   * Bytes written to the file plus the bytes buffered for the current row group.
+   */
+  public long getDataSize() {
+    return writer == null ? 0 : writer.getDataSize();
+  }
+
+  @Override
+  protected Flushable getFlushable() {
+    return NO_OP_FLUSHABLE;
+  }
+
+  @Override
+  protected Closeable getCloseable() {
+    return writer;
+  }
+}
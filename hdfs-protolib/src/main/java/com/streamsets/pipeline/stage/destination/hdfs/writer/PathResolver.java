@@ -78,6 +78,9 @@ public class PathResolver {
   private final ELEval freqEdgeElEval;
   private final ELEval pathEval;
   private boolean validated;
+  private ResolvedPathCache resolvedPathCache;
+  private volatile TimeBucket lastTimeBucket;
+  private volatile boolean noDateInTemplate;
 
   public PathResolver(Stage.Context context, String config, String pathTemplate, TimeZone timeZone) {
     this.context = context;
@@ -158,6 +161,23 @@ public class PathResolver {
     }
   }
 
+  /**
+   * Floor and ceiling of the last time range computed, any date within them shares the same edges.
+   */
+  private static class TimeBucket {
+    private final long floor;
+    private final long ceiling;
+
+    private TimeBucket(long floor, long ceiling) {
+      this.floor = floor;
+      this.ceiling = ceiling;
+    }
+
+    private boolean contains(long time) {
+      return floor <= time && time <= ceiling;
+    }
+  }
+
   private static class DateContext {
     private final Calendar original;
     private final Calendar adjusted;
@@ -317,6 +337,7 @@ public class PathResolver {
       try {
         incrementUnit = evaluateTimeIncrementUnit(config);
         incrementValue = evaluateTimeIncrementValue(config);
+        resolvedPathCache = ResolvedPathCache.create(pathTemplate);
       } catch (ELEvalException ex) {
         issues.add(context.createConfigIssue(group, qualifiedConfigName, Errors.HADOOPFS_35, ex.toString()));
         validated = false;
@@ -335,6 +356,24 @@ public class PathResolver {
 
   public Date getDate(Date date, boolean floorDate) {
     Utils.checkState(validated, Utils.formatL("PathTemplateEL for '{}' must be validated", pathTemplate));
+    if (noDateInTemplate) {
+      return null;
+    }
+    final TimeBucket bucket = lastTimeBucket;
+    if (bucket != null && bucket.contains(date.getTime())) {
+      return new Date(floorDate ? bucket.floor : bucket.ceiling);
+    }
+    final Date floor = computeDate(date, true);
+    if (floor == null) {
+      noDateInTemplate = true;
+      return null;
+    }
+    final Date ceiling = computeDate(date, false);
+    lastTimeBucket = new TimeBucket(floor.getTime(), ceiling.getTime());
+    return floorDate ? floor : ceiling;
+  }
+
+  private Date computeDate(Date date, boolean floorDate) {
     DateContext dc = new DateContext(date, timeZone);
     elVars.addContextVariable(DATE_CONTEXT, dc);
     try {
@@ -386,15 +425,27 @@ public class PathResolver {
 
   String resolvePath(Date date, Record record) throws StageException {
     try {
+      date = getFloorDate(date);
+      final List<Object> cacheKey = resolvedPathCache == null ?
+          null : resolvedPathCache.getKey(date == null ? null : date.getTime(), record);
+      if (cacheKey != null) {
+        final String path = resolvedPathCache.get(cacheKey);
+        if (path != null) {
+          return path;
+        }
+      }
       ELVars vars = context.createELVars();
       RecordEL.setRecordInContext(vars, record);
-      date = getFloorDate(date);
       if (date != null) {
         Calendar calendar = Calendar.getInstance(timeZone);
         calendar.setTime(date);
         TimeEL.setCalendarInContext(vars, calendar);
       }
-      return pathEval.eval(vars, pathTemplate, String.class);
+      final String path = pathEval.eval(vars, pathTemplate, String.class);
+      if (cacheKey != null && path != null) {
+        resolvedPathCache.put(cacheKey, path);
+      }
+      return path;
     } catch (ELEvalException ex) {
       throw new StageException(Errors.HADOOPFS_02, pathTemplate, ex.toString(), ex);
     }
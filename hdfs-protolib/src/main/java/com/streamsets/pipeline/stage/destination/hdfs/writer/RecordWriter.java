@@ -58,6 +58,10 @@ public class RecordWriter {
   private DataGenerator generator;
   private boolean textFile;
 
+  private ParquetDataGenerator parquetGenerator;
+  private boolean parquetFile;
+  private boolean orcFile;
+
   private SequenceFile.Writer seqWriter;
   private String keyEL;
   private ELEval keyElEval;
@@ -93,6 +97,23 @@ public class RecordWriter {
     this.idleTimeout = -1L;
   }
 
+  public RecordWriter(Path path, long timeToLiveMillis, ParquetDataGenerator parquetGenerator,
+                      DataGeneratorFactory generatorFactory) {
+    this(path, timeToLiveMillis, generatorFactory);
+    this.parquetGenerator = parquetGenerator;
+    generator = parquetGenerator;
+    parquetFile = true;
+    this.idleTimeout = -1L;
+  }
+
+  public RecordWriter(Path path, long timeToLiveMillis, OrcDataGenerator orcGenerator,
+                      DataGeneratorFactory generatorFactory) {
+    this(path, timeToLiveMillis, generatorFactory);
+    generator = orcGenerator;
+    orcFile = true;
+    this.idleTimeout = -1L;
+  }
+
   public RecordWriter(Path path, long timeToLiveMillis, SequenceFile.Writer seqWriter, String keyEL,
       DataGeneratorFactory generatorFactory, Target.Context context) {
     this(path, timeToLiveMillis, generatorFactory);
@@ -193,11 +214,14 @@ public class RecordWriter {
   }
 
   // due to buffering of underlying streams, the reported length may be less than the actual one up to the
-  // buffer size.
+  // buffer size. The length of ORC files is not known until they are closed.
   public long getLength() throws IOException {
     long length = -1;
+    if (orcFile) {
+      return length;
+    }
     if (generator != null) {
-      length = textOutputStream.getByteCount();
+      length = parquetFile ? parquetGenerator.getDataSize() : textOutputStream.getByteCount();
     } else if (seqWriter != null) {
       length = seqWriter.getLength();
     }
@@ -260,6 +284,14 @@ public class RecordWriter {
     return seqFile;
   }
 
+  public boolean isParquetFile() {
+    return parquetFile;
+  }
+
+  public boolean isOrcFile() {
+    return orcFile;
+  }
+
   public boolean isClosed() {
     closeLock.readLock().lock();
     boolean isClosed = (generator == null && seqWriter == null);
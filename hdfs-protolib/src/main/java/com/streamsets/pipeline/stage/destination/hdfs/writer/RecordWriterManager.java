@@ -37,6 +37,7 @@ import com.streamsets.pipeline.lib.hdfs.common.Errors;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsFileType;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsTarget;
 import com.streamsets.pipeline.stage.destination.hdfs.IdleClosedException;
+import org.apache.avro.Schema;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -44,6 +45,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.orc.TypeDescription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +55,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Properties;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -79,6 +82,12 @@ public class RecordWriterManager {
   private DataGeneratorFactory generatorFactory;
   private Target.Context context;
   private long idleTimeoutSeconds = -1L;
+  private Configuration parquetConf;
+  private Schema parquetSchema;
+  private Configuration orcConf;
+  private Properties orcWriterProperties;
+  private int orcBatchSize;
+  private TypeDescription orcSchema;
   private final boolean rollIfHeader;
   private final String rollHeaderName;
   private final FsHelper fsHelper;
@@ -144,6 +153,31 @@ public class RecordWriterManager {
     this.idleTimeoutSeconds = idleTimeoutSeconds;
   }
 
+  /**
+   * Configuration carrying the Parquet writer settings and the Avro schema used for Parquet files. A null schema
+   * means that the schema is taken from the header of the first record written to each file.
+   */
+  public void setParquetConfiguration(Configuration parquetConf, Schema parquetSchema) {
+    this.parquetConf = parquetConf;
+    this.parquetSchema = parquetSchema;
+  }
+
+  /**
+   * Configuration, writer properties, row batch size and schema used for ORC files. A null schema means that the
+   * schema is taken from the header or the fields of the first record written to each file.
+   */
+  public void setOrcConfiguration(
+      Configuration orcConf,
+      Properties orcWriterProperties,
+      int orcBatchSize,
+      TypeDescription orcSchema
+  ) {
+    this.orcConf = orcConf;
+    this.orcWriterProperties = orcWriterProperties;
+    this.orcBatchSize = orcBatchSize;
+    this.orcSchema = orcSchema;
+  }
+
   public long getCutOffMillis() {
     return cutOffMillis;
   }
@@ -181,6 +215,10 @@ public class RecordWriterManager {
     return extension.toString();
   }
 
+  HdfsFileType getFileType() {
+    return fileType;
+  }
+
   String getTempFileName() {
     return TMP_FILE_PREFIX + uniquePrefix + "_" + context.getRunnerId() + getExtension();
   }
@@ -280,6 +318,28 @@ public class RecordWriterManager {
           throw new StageException(Errors.HADOOPFS_46, compressionType.name(), unsatisfiedLinkError,
             unsatisfiedLinkError);
         }
+      case PARQUET:
+        Utils.checkNotNull(parquetConf, "parquetConf");
+        ParquetDataGenerator parquetGenerator = new ParquetDataGenerator(fs.makeQualified(path), parquetConf, parquetSchema);
+        RecordWriter parquetRecordWriter = new RecordWriter(path, timeToLiveMillis, parquetGenerator, generatorFactory);
+        if (idleTimeoutSeconds != -1) {
+          parquetRecordWriter.setIdleTimeout(idleTimeoutSeconds);
+        }
+        return parquetRecordWriter;
+      case ORC:
+        Utils.checkNotNull(orcConf, "orcConf");
+        OrcDataGenerator orcGenerator = new OrcDataGenerator(
+            fs.makeQualified(path),
+            orcConf,
+            orcWriterProperties,
+            orcBatchSize,
+            orcSchema
+        );
+        RecordWriter orcRecordWriter = new RecordWriter(path, timeToLiveMillis, orcGenerator, generatorFactory);
+        if (idleTimeoutSeconds != -1) {
+          orcRecordWriter.setIdleTimeout(idleTimeoutSeconds);
+        }
+        return orcRecordWriter;
       default:
         throw new UnsupportedOperationException(Utils.format("Unsupported file Type '{}'", fileType));
     }
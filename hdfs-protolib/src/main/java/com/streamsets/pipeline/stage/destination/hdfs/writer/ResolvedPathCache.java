@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.hdfs.writer;
+
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of resolved directories for directory templates whose result only depends on the time bucket and on a
+ * fixed set of record fields and header attributes.
+ *
+ * <p>The template is inspected once: if it only calls time functions, string functions and
+ * {@code record:value}/{@code record:attribute} (and their {@code OrDefault} variants) with literal arguments, the
+ * resolved directory is fully determined by the floor date of the record's time bucket plus the values of those
+ * fields and attributes, which then form the cache key.  Any other function makes the template non cacheable.</p>
+ */
+final class ResolvedPathCache {
+  private static final int MAX_ENTRIES = 10000;
+
+  private static final Set<String> CACHEABLE_FUNCTIONS = ImmutableSet.of(
+      "YYYY", "YY", "MM", "DD", "hh", "mm", "ss", "SSS", "every",
+      "record:value", "record:valueOrDefault", "record:attribute", "record:attributeOrDefault"
+  );
+  private static final String CACHEABLE_FUNCTION_PREFIX = "str:";
+
+  private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'|\"[^\"]*\"");
+  private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]*)}");
+  private static final Pattern FUNCTION_CALL = Pattern.compile("((?:[A-Za-z_]\\w*:)?[A-Za-z_]\\w*)\\s*\\(");
+  private static final Pattern RECORD_FUNCTION = Pattern.compile("record:(\\w+)\\s*\\(\\s*(?:'([^']*)'|\"([^\"]*)\")");
+
+  private final String[] fieldPaths;
+  private final String[] attributeNames;
+  private final Map<List<Object>, String> resolvedPaths = new ConcurrentHashMap<>();
+
+  private ResolvedPathCache(List<String> fieldPaths, List<String> attributeNames) {
+    this.fieldPaths = fieldPaths.toArray(new String[fieldPaths.size()]);
+    this.attributeNames = attributeNames.toArray(new String[attributeNames.size()]);
+  }
+
+  /**
+   * Returns a cache for the given template, or null if the resolved path could depend on anything else than the
+   * time bucket and literal record field paths or header attribute names.
+   */
+  static ResolvedPathCache create(String pathTemplate) {
+    List<String> fieldPaths = new ArrayList<>();
+    List<String> attributeNames = new ArrayList<>();
+    Matcher expression = EXPRESSION.matcher(pathTemplate);
+    while (expression.find()) {
+      String el = expression.group(1);
+
+      Matcher recordFunction = RECORD_FUNCTION.matcher(el);
+      int recordFunctions = 0;
+      while (recordFunction.find()) {
+        String argument = recordFunction.group(2) != null ? recordFunction.group(2) : recordFunction.group(3);
+        if (recordFunction.group(1).startsWith("value")) {
+          fieldPaths.add(argument);
+        } else {
+          attributeNames.add(argument);
+        }
+        recordFunctions++;
+      }
+
+      Matcher functionCall = FUNCTION_CALL.matcher(STRING_LITERAL.matcher(el).replaceAll("''"));
+      while (functionCall.find()) {
+        String function = functionCall.group(1);
+        if (function.startsWith("record:")) {
+          recordFunctions--;
+        }
+        if (!CACHEABLE_FUNCTIONS.contains(function) && !function.startsWith(CACHEABLE_FUNCTION_PREFIX)) {
+          return null;
+        }
+      }
+      if (recordFunctions != 0) {
+        // some record function did not get a literal argument
+        return null;
+      }
+    }
+    return new ResolvedPathCache(fieldPaths, attributeNames);
+  }
+
+  /**
+   * Builds the cache key for the given bucket and record, or returns null if the record values can't be used as
+   * part of a key.
+   */
+  List<Object> getKey(Long bucketFloorMillis, Record record) {
+    if (fieldPaths.length + attributeNames.length == 0) {
+      return Collections.singletonList(bucketFloorMillis);
+    }
+    if (record == null) {
+      return null;
+    }
+    Object[] key = new Object[1 + fieldPaths.length + attributeNames.length];
+    int i = 0;
+    key[i++] = bucketFloorMillis;
+    for (String fieldPath : fieldPaths) {
+      Field field = record.get(fieldPath);
+      Object value = field == null ? null : field.getValue();
+      if (value instanceof byte[] || value instanceof Map || value instanceof List) {
+        return null;
+      }
+      key[i++] = value;
+    }
+    for (String attributeName : attributeNames) {
+      key[i++] = record.getHeader().getAttribute(attributeName);
+    }
+    return Arrays.asList(key);
+  }
+
+  String get(List<Object> key) {
+    return resolvedPaths.get(key);
+  }
+
+  void put(List<Object> key, String path) {
+    if (resolvedPaths.size() >= MAX_ENTRIES) {
+      // buckets only move forward in time, so old entries are mostly dead weight
+      resolvedPaths.clear();
+    }
+    resolvedPaths.put(key, path);
+  }
+}
@@ -210,4 +210,41 @@ public class TestHdfsTargetUpgrader {
     Assert.assertTrue(configValues.containsKey("hdfsTargetConfigBean.rollHeaderName"));
     Assert.assertEquals("roll", configValues.get("hdfsTargetConfigBean.rollHeaderName"));
   }
+
+  @Test
+  public void testUpgradeV4ToV5() throws StageException {
+    List<Config> configs = new ArrayList<>();
+
+    HdfsTargetUpgrader hdfsTargetUpgrader = new HdfsTargetUpgrader();
+    hdfsTargetUpgrader.upgrade("a", "b", "c", 4, 5, configs);
+
+    Assert.assertEquals(4, configs.size());
+    HashMap<String, Object> configValues = new HashMap<>();
+    for(Config c : configs) {
+      configValues.put(c.getName(), c.getValue());
+    }
+
+    Assert.assertEquals("", configValues.get("hdfsTargetConfigBean.parquetCompressionCodec"));
+    Assert.assertEquals(-1, configValues.get("hdfsTargetConfigBean.parquetRowGroupSize"));
+    Assert.assertEquals(-1, configValues.get("hdfsTargetConfigBean.parquetPageSize"));
+    Assert.assertEquals(-1, configValues.get("hdfsTargetConfigBean.parquetDictionaryPageSize"));
+  }
+
+  @Test
+  public void testUpgradeV5ToV6() throws StageException {
+    List<Config> configs = new ArrayList<>();
+
+    HdfsTargetUpgrader hdfsTargetUpgrader = new HdfsTargetUpgrader();
+    hdfsTargetUpgrader.upgrade("a", "b", "c", 5, 6, configs);
+
+    Assert.assertEquals(3, configs.size());
+    HashMap<String, Object> configValues = new HashMap<>();
+    for(Config c : configs) {
+      configValues.put(c.getName(), c.getValue());
+    }
+
+    Assert.assertEquals("", configValues.get("hdfsTargetConfigBean.orcSchema"));
+    Assert.assertEquals("", configValues.get("hdfsTargetConfigBean.orcCompression"));
+    Assert.assertEquals(1024, configValues.get("hdfsTargetConfigBean.orcBatchSize"));
+  }
 }
@@ -15,7 +15,10 @@
  */
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import com.streamsets.pipeline.sdk.RecordCreator;
@@ -280,4 +283,38 @@ public class TestPathResolver {
     Assert.assertEquals(expected, got);
 
   }
+
+  @Test
+  public void testReuseTimeBucket() throws Exception {
+    PathResolver resolver = getPathTemplateEL("/${YYYY()}/${MM()}/${DD()}/${hh()}/${every(15, mm())}");
+
+    Date floor = parseDate("2015-01-20T14:15:00Z");
+    Date ceiling = new Date(parseDate("2015-01-20T14:30:00Z").getTime() - 1);
+    for (Date date : new Date[] {parseDate("2015-01-20T14:20:00Z"), floor, ceiling}) {
+      Assert.assertEquals(floor, resolver.getFloorDate(date));
+      Assert.assertEquals(ceiling, resolver.getCeilingDate(date));
+    }
+
+    // moving on to the next bucket
+    Date next = parseDate("2015-01-20T14:30:00Z");
+    Assert.assertEquals(next, resolver.getFloorDate(next));
+    Assert.assertEquals(new Date(parseDate("2015-01-20T14:45:00Z").getTime() - 1), resolver.getCeilingDate(next));
+    // and back
+    Assert.assertEquals(floor, resolver.getFloorDate(ceiling));
+  }
+
+  @Test
+  public void testResolvePathWithRecordValues() throws Exception {
+    PathResolver resolver = getPathTemplateEL("/${record:value('/a')}/${YYYY()}/${MM()}/${DD()}/${hh()}");
+    Date date = parseDate("2015-01-20T14:01:15Z");
+
+    Record record = RecordCreator.create();
+    record.set(Field.create(ImmutableMap.of("a", Field.create("x"))));
+    Assert.assertEquals("/x/2015/01/20/14", resolver.resolvePath(date, record));
+    Assert.assertEquals("/x/2015/01/20/14", resolver.resolvePath(date, record));
+
+    record.set("/a", Field.create("y"));
+    Assert.assertEquals("/y/2015/01/20/14", resolver.resolvePath(date, record));
+    Assert.assertEquals("/y/2015/01/20/15", resolver.resolvePath(parseDate("2015-01-20T15:01:15Z"), record));
+  }
 }
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
@@ -25,10 +26,13 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.util.orcsdc.OrcToSdcRecordConverter;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsDTarget;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsFileType;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -39,6 +43,8 @@ import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.hadoop.ParquetReader;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -53,6 +59,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.DateFormat;
@@ -62,8 +69,10 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
@@ -662,6 +671,203 @@ public class TestRecordWriterManager {
     Assert.assertEquals(totalTempFiles, ret);
   }
 
+  private static final String PARQUET_SCHEMA = "{\"type\": \"record\", \"name\": \"test\", \"fields\": [" +
+      "{\"name\": \"name\", \"type\": \"string\"}, {\"name\": \"id\", \"type\": \"int\"}]}";
+
+  private RecordWriterManager parquetManager(String dirPathTemplate, long cutOffSize) throws Exception {
+    RecordWriterManager mgr = managerBuilder()
+      .dirPathTemplate(dirPathTemplate)
+      .fileType(HdfsFileType.PARQUET)
+      .cutOffSecs(3600)
+      .cutOffSizeBytes(cutOffSize)
+      .build();
+    mgr.setParquetConfiguration(new Configuration(hdfsConf), new Schema.Parser().parse(PARQUET_SCHEMA));
+    return mgr;
+  }
+
+  private static Record createNameIdRecord(String name, int id) {
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("name", Field.create(name));
+    map.put("id", Field.create(id));
+    Record record = RecordCreator.create();
+    record.set(Field.create(map));
+    return record;
+  }
+
+  private static List<String> readParquetFile(Path path) throws IOException {
+    List<String> rows = new ArrayList<>();
+    try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(path).build()) {
+      GenericRecord row;
+      while ((row = reader.read()) != null) {
+        rows.add(row.get("name") + ":" + row.get("id"));
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  public void testParquetFileRolling() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(testDir.mkdirs());
+    RecordWriterManager mgr = parquetManager(testDir.getAbsolutePath(), 0);
+
+    Date now = getFixedDate();
+    List<Path> files = new ArrayList<>();
+    RecordWriter writer = null;
+    for (int i = 0; i < 5; i++) {
+      Record record = createNameIdRecord("a" + i, i);
+      if (writer == null) {
+        writer = mgr.getWriter(now, now, record);
+        Assert.assertTrue(writer.isParquetFile());
+      }
+      long length = writer.getLength();
+      writer.write(record);
+      Assert.assertTrue(writer.getLength() > length);
+      // rolls every 2 records
+      Assert.assertEquals(i % 2 == 1, mgr.isOverThresholds(writer));
+      if (mgr.isOverThresholds(writer)) {
+        files.add(mgr.commitWriter(writer));
+        writer = null;
+      }
+    }
+    files.add(mgr.commitWriter(writer));
+
+    Assert.assertEquals(3, files.size());
+    Assert.assertEquals(ImmutableList.of("a0:0", "a1:1"), readParquetFile(files.get(0)));
+    Assert.assertEquals(ImmutableList.of("a2:2", "a3:3"), readParquetFile(files.get(1)));
+    Assert.assertEquals(ImmutableList.of("a4:4"), readParquetFile(files.get(2)));
+  }
+
+  @Test
+  public void testParquetFileThresholdSize() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(testDir.mkdirs());
+    RecordWriterManager mgr = parquetManager(testDir.getAbsolutePath(), 1);
+
+    Date now = getFixedDate();
+    Record record = createNameIdRecord("a", 1);
+    RecordWriter writer = mgr.getWriter(now, now, record);
+    Assert.assertFalse(mgr.isOverThresholds(writer));
+    // the record is still buffered by the Parquet writer, the length includes it
+    writer.write(record);
+    Assert.assertTrue(writer.getLength() > 0);
+    Assert.assertTrue(mgr.isOverThresholds(writer));
+    Path path = mgr.commitWriter(writer);
+    Assert.assertEquals(ImmutableList.of("a:1"), readParquetFile(path));
+    Assert.assertTrue(new File(path.toUri().getPath()).length() > 0);
+  }
+
+  private RecordWriterManager orcManager(String dirPathTemplate) throws Exception {
+    RecordWriterManager mgr = managerBuilder()
+      .dirPathTemplate(dirPathTemplate)
+      .fileType(HdfsFileType.ORC)
+      .cutOffSecs(3600)
+      .build();
+    mgr.setOrcConfiguration(new Configuration(hdfsConf), new Properties(), 2, null);
+    return mgr;
+  }
+
+  private static List<String> readOrcFile(Path path) throws IOException {
+    List<String> rows = new ArrayList<>();
+    try (OrcToSdcRecordConverter reader = new OrcToSdcRecordConverter(path)) {
+      Record record = RecordCreator.create();
+      while (reader.populateRecord(record)) {
+        rows.add(record.get("/name").getValueAsString() + ":" + record.get("/id").getValueAsInteger());
+        record = RecordCreator.create();
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  public void testOrcFileRolling() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(testDir.mkdirs());
+    RecordWriterManager mgr = orcManager(testDir.getAbsolutePath());
+
+    Date now = getFixedDate();
+    List<Path> files = new ArrayList<>();
+    RecordWriter writer = null;
+    for (int i = 0; i < 5; i++) {
+      Record record = createNameIdRecord("a" + i, i);
+      if (writer == null) {
+        writer = mgr.getWriter(now, now, record);
+        Assert.assertTrue(writer.isOrcFile());
+      }
+      writer.write(record);
+      // rolls every 2 records, the length of ORC files is only known once they are closed
+      Assert.assertEquals(-1, writer.getLength());
+      Assert.assertEquals(i % 2 == 1, mgr.isOverThresholds(writer));
+      if (mgr.isOverThresholds(writer)) {
+        files.add(mgr.commitWriter(writer));
+        writer = null;
+      }
+    }
+    files.add(mgr.commitWriter(writer));
+
+    Assert.assertEquals(3, files.size());
+    Assert.assertEquals(ImmutableList.of("a0:0", "a1:1"), readOrcFile(files.get(0)));
+    Assert.assertEquals(ImmutableList.of("a2:2", "a3:3"), readOrcFile(files.get(1)));
+    Assert.assertEquals(ImmutableList.of("a4:4"), readOrcFile(files.get(2)));
+  }
+
+  private interface RowsReader {
+    List<String> read(Path path) throws IOException;
+  }
+
+  private void testCommitOldFiles(HdfsFileType fileType, byte[] incompleteContent, RowsReader rowsReader)
+      throws Exception {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    calendar.add(Calendar.HOUR, -2);
+    Date lastBatch = calendar.getTime();
+    ContextInfoCreator.setLastBatch(targetContext, lastBatch.getTime());
+
+    File testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(testDir.mkdirs());
+    String dirPathTemplate = testDir.getAbsolutePath() + "/${YY()}_${MM()}_${DD()}_${hh()}/${record:value('/')}";
+    RecordWriterManager mgr = (fileType == HdfsFileType.PARQUET)
+        ? parquetManager(dirPathTemplate, 0)
+        : orcManager(dirPathTemplate);
+    FileSystem fs = FileSystem.get(uri, hdfsConf);
+
+    // left by a writer that was not closed, there is no footer
+    File incomplete = new File(createTempFile(mgr, lastBatch, "a"));
+    Files.write(incomplete.toPath(), incompleteContent);
+
+    // closed but not renamed
+    File complete = new File(mgr.getDirPath(lastBatch, RecordCreator.create()) + "/b/" + mgr.getTempFileName());
+    RecordWriter writer = mgr.createWriter(fs, new Path(complete.getAbsolutePath()), 50000);
+    writer.write(createNameIdRecord("b", 2));
+    writer.close();
+
+    mgr.commitOldFiles(fs);
+
+    Assert.assertFalse(incomplete.exists());
+    File[] quarantined = incomplete.getParentFile().listFiles((dir, name) -> !name.startsWith("."));
+    Assert.assertEquals(1, quarantined.length);
+    Assert.assertTrue(quarantined[0].getName().startsWith(DefaultFsHelper.CORRUPT_FILE_PREFIX));
+
+    Assert.assertFalse(complete.exists());
+    File[] committed = complete.getParentFile().listFiles((dir, name) -> !name.startsWith("."));
+    Assert.assertEquals(1, committed.length);
+    Assert.assertFalse(committed[0].getName().startsWith("_"));
+    Assert.assertEquals(ImmutableList.of("b:2"), rowsReader.read(new Path(committed[0].getAbsolutePath())));
+  }
+
+  @Test
+  public void testCommitOldParquetFiles() throws Exception {
+    testCommitOldFiles(
+        HdfsFileType.PARQUET,
+        "PAR1".getBytes(StandardCharsets.UTF_8),
+        TestRecordWriterManager::readParquetFile
+    );
+  }
+
+  @Test
+  public void testCommitOldOrcFiles() throws Exception {
+    testCommitOldFiles(HdfsFileType.ORC, "ORC".getBytes(StandardCharsets.UTF_8), TestRecordWriterManager::readOrcFile);
+  }
+
   private String createTempFile(RecordWriterManager mgr, Date date, String subDir) throws Exception {
     String path = mgr.getDirPath(date, RecordCreator.create());
     path += "/" + subDir + "/";
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.hdfs.writer;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestResolvedPathCache {
+
+  @Test
+  public void testCacheableTemplates() {
+    Assert.assertNotNull(ResolvedPathCache.create("/foo"));
+    Assert.assertNotNull(ResolvedPathCache.create("/${YYYY()}/${MM()}/${DD()}/${hh()}/${every(15, mm())}"));
+    Assert.assertNotNull(ResolvedPathCache.create("/${record:value('/a')}/${str:toUpper(record:attribute(\"b\"))}"));
+    Assert.assertNotNull(ResolvedPathCache.create("/${record:valueOrDefault('/a(1)', 'none')}/${YY()}"));
+  }
+
+  @Test
+  public void testNonCacheableTemplates() {
+    Assert.assertNull(ResolvedPathCache.create("/${time:now()}"));
+    Assert.assertNull(ResolvedPathCache.create("/${record:id()}"));
+    Assert.assertNull(ResolvedPathCache.create("/${record:value(str:concat('/', 'a'))}"));
+    Assert.assertNull(ResolvedPathCache.create("/${uuid:uuid()}/${YYYY()}"));
+  }
+
+  @Test
+  public void testKey() {
+    ResolvedPathCache cache = ResolvedPathCache.create("/${record:value('/a')}/${record:attribute('b')}/${YYYY()}");
+    Record record = RecordCreator.create();
+    record.set(Field.create(ImmutableMap.of("a", Field.create(1))));
+    record.getHeader().setAttribute("b", "x");
+
+    List<Object> key = cache.getKey(10L, record);
+    Assert.assertEquals(key, cache.getKey(10L, record));
+    Assert.assertNotEquals(key, cache.getKey(11L, record));
+
+    cache.put(key, "/1/x/1970");
+    Assert.assertEquals("/1/x/1970", cache.get(cache.getKey(10L, record)));
+
+    record.getHeader().setAttribute("b", "y");
+    Assert.assertNull(cache.get(cache.getKey(10L, record)));
+
+    record.set("/a", Field.create(new byte[0]));
+    Assert.assertNull(cache.getKey(10L, record));
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column reading plan for a single {@link ResultSet}.
+ *
+ * The result set metadata is inspected once when the plan is created: every column gets a reader bound to its
+ * SQL type (or the user specified type), its output field name and, for decimals, its scale and precision
+ * attributes. Reading a row then only walks the prepared readers instead of re-resolving the metadata for every
+ * column of every row. The readers are the single place mapping SQL types to fields, single column conversions like
+ * {@link JdbcUtil#resultToField(ResultSetMetaData, ResultSet, int, int, int, DataType, UnknownTypeAction, boolean)}
+ * use them too.
+ */
+public final class ColumnReaderPlan {
+
+  @FunctionalInterface
+  interface ColumnReader {
+    Field read(ResultSet rs, int columnIndex) throws SQLException, IOException, StageException;
+  }
+
+  private static final class Column {
+    private final int index;
+    private final String name;
+    private final String label;
+    private final ColumnReader reader;
+
+    private Column(int index, String name, String label, ColumnReader reader) {
+      this.index = index;
+      this.name = name;
+      this.label = label;
+      this.reader = reader;
+    }
+  }
+
+  private final ResultSet resultSet;
+  private final int columnCount;
+  private final List<Column> columns;
+
+  private ColumnReaderPlan(ResultSet resultSet, int columnCount, List<Column> columns) {
+    this.resultSet = resultSet;
+    this.columnCount = columnCount;
+    this.columns = columns;
+  }
+
+  public static ColumnReaderPlan create(
+      ResultSet rs,
+      CommonSourceConfigBean commonSourceBean,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader
+  ) throws SQLException {
+    return create(
+        rs,
+        commonSourceBean.maxClobSize,
+        commonSourceBean.maxBlobSize,
+        Collections.emptyMap(),
+        unknownTypeAction,
+        recordHeader,
+        commonSourceBean.convertTimestampToString
+    );
+  }
+
+  public static ColumnReaderPlan create(
+      ResultSet rs,
+      int maxClobSize,
+      int maxBlobSize,
+      Map<String, DataType> columnsToTypes,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader,
+      boolean timestampToString
+  ) throws SQLException {
+    ResultSetMetaData md = rs.getMetaData();
+    int columnCount = md.getColumnCount();
+    List<Column> columns = new ArrayList<>(columnCount);
+
+    for (int i = 1; i <= columnCount; i++) {
+      String name = md.getColumnName(i);
+      if (recordHeader != null && recordHeader.contains(name)) {
+        continue;
+      }
+      DataType dataType = columnsToTypes.get(name);
+      columns.add(new Column(
+          i,
+          name,
+          md.getColumnLabel(i),
+          createReader(
+              md,
+              i,
+              maxClobSize,
+              maxBlobSize,
+              dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
+              unknownTypeAction,
+              timestampToString
+          )
+      ));
+    }
+
+    return new ColumnReaderPlan(rs, columnCount, columns);
+  }
+
+  /**
+   * Returns true if this plan was created for the given result set instance.
+   */
+  public boolean isFor(ResultSet rs) {
+    return resultSet == rs;
+  }
+
+  /**
+   * Number of columns of the result set, including the ones that are not read because they go to the header.
+   */
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  /**
+   * Reads the current row of the result set.
+   */
+  public LinkedHashMap<String, Field> readFields(
+      ResultSet rs,
+      ErrorRecordHandler errorRecordHandler
+  ) throws SQLException, StageException {
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(columnCount);
+
+    for (Column column : columns) {
+      try {
+        fields.put(column.label, column.reader.read(rs, column.index));
+      } catch (SQLException e) {
+        errorRecordHandler.onError(JdbcErrors.JDBC_13, e.getMessage(), e);
+      } catch (IOException e) {
+        errorRecordHandler.onError(JdbcErrors.JDBC_03, column.name, rs.getObject(column.index), e);
+      }
+    }
+
+    return fields;
+  }
+
+  /**
+   * Returns the reader converting the given column to a field. Resolves the metadata of the column, the reader can be
+   * reused for all the rows of the result set.
+   */
+  static ColumnReader createReader(
+      ResultSetMetaData md,
+      int columnIndex,
+      int maxClobSize,
+      int maxBlobSize,
+      DataType userSpecifiedType,
+      UnknownTypeAction unknownTypeAction,
+      boolean timestampToString
+  ) throws SQLException {
+    if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
+      // If user specifies the data type, overwrite the column type returned by database.
+      Field.Type type = Field.Type.valueOf(userSpecifiedType.getLabel());
+      return (rs, i) -> Field.create(type, rs.getObject(i));
+    }
+
+    // All types as of JDBC 2.0 are here:
+    // https://docs.oracle.com/javase/8/docs/api/constant-values.html#java.sql.Types.ARRAY
+    // Good source of recommended mappings is here:
+    // http://www.cs.mun.ca/java-api-1.5/guide/jdbc/getstart/mapping.html
+    int columnType = md.getColumnType(columnIndex);
+    switch (columnType) {
+      case Types.BIGINT:
+        return (rs, i) -> Field.create(Field.Type.LONG, rs.getObject(i));
+      case Types.BINARY:
+      case Types.LONGVARBINARY:
+      case Types.VARBINARY:
+        return (rs, i) -> Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(i));
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return (rs, i) -> Field.create(Field.Type.BOOLEAN, rs.getObject(i));
+      case Types.CHAR:
+      case Types.LONGNVARCHAR:
+      case Types.LONGVARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+      case Types.VARCHAR:
+        return (rs, i) -> Field.create(Field.Type.STRING, rs.getObject(i));
+      case Types.CLOB:
+      case Types.NCLOB:
+        return (rs, i) -> Field.create(Field.Type.STRING, JdbcUtil.getClobString(rs.getClob(i), maxClobSize));
+      case Types.BLOB:
+        return (rs, i) -> Field.create(Field.Type.BYTE_ARRAY, JdbcUtil.getBlobBytes(rs.getBlob(i), maxBlobSize));
+      case Types.DATE:
+        return (rs, i) -> Field.create(Field.Type.DATE, rs.getDate(i));
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        String scale = String.valueOf(md.getScale(columnIndex));
+        String precision = String.valueOf(md.getPrecision(columnIndex));
+        return (rs, i) -> {
+          Field field = Field.create(Field.Type.DECIMAL, rs.getBigDecimal(i));
+          field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, scale);
+          field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, precision);
+          return field;
+        };
+      case Types.DOUBLE:
+        return (rs, i) -> Field.create(Field.Type.DOUBLE, rs.getObject(i));
+      case Types.FLOAT:
+      case Types.REAL:
+        return (rs, i) -> Field.create(Field.Type.FLOAT, rs.getObject(i));
+      case Types.INTEGER:
+        return (rs, i) -> Field.create(Field.Type.INTEGER, rs.getObject(i));
+      case Types.ROWID:
+        return (rs, i) -> Field.create(Field.Type.STRING, rs.getRowId(i).toString());
+      case Types.SMALLINT:
+      case Types.TINYINT:
+        return (rs, i) -> Field.create(Field.Type.SHORT, rs.getObject(i));
+      case Types.TIME:
+        return (rs, i) -> Field.create(Field.Type.TIME, rs.getObject(i));
+      case Types.TIMESTAMP:
+        if (timestampToString) {
+          return (rs, i) -> Field.create(Field.Type.STRING, rs.getTimestamp(i).toString());
+        }
+        return (rs, i) -> {
+          final Timestamp timestamp = rs.getTimestamp(i);
+          Field field = Field.create(Field.Type.DATETIME, timestamp);
+          if (timestamp != null) {
+            final long actualNanos = timestamp.getNanos() % JdbcUtil.NANOS_TO_MILLIS_ADJUSTMENT;
+            if (actualNanos > 0) {
+              field.setAttribute(JdbcUtil.FIELD_ATTRIBUTE_NANOSECONDS, String.valueOf(actualNanos));
+            }
+          }
+          return field;
+        };
+      // Ugly hack until we can support LocalTime, LocalDate, LocalDateTime, etc.
+      case Types.TIME_WITH_TIMEZONE:
+        return (rs, i) -> {
+          OffsetTime offsetTime = rs.getObject(i, OffsetTime.class);
+          return Field.create(Field.Type.TIME, Date.from(offsetTime.atDate(LocalDate.MIN).toInstant()));
+        };
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+        return (rs, i) -> {
+          OffsetDateTime offsetDateTime = rs.getObject(i, OffsetDateTime.class);
+          return Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
+        };
+      //case Types.REF_CURSOR: // JDK8 only
+      case Types.SQLXML:
+      case Types.STRUCT:
+      case Types.ARRAY:
+      case Types.DATALINK:
+      case Types.DISTINCT:
+      case Types.JAVA_OBJECT:
+      case Types.NULL:
+      case Types.OTHER:
+      case Types.REF:
+      default:
+        if (unknownTypeAction == null) {
+          return (rs, i) -> null;
+        }
+        switch (unknownTypeAction) {
+          case STOP_PIPELINE:
+            // Fail on the first row read, same as when converting the row column by column
+            String label = md.getColumnLabel(columnIndex);
+            return (rs, i) -> {
+              throw new StageException(JdbcErrors.JDBC_37, columnType, label);
+            };
+          case CONVERT_TO_STRING:
+            return (rs, i) -> {
+              Object value = rs.getObject(i);
+              return Field.create(Field.Type.STRING, value != null ? value.toString() : null);
+            };
+          default:
+            throw new IllegalStateException("Unknown action: " + unknownTypeAction);
+        }
+    }
+  }
+}
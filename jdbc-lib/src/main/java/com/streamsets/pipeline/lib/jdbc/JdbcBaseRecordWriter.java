@@ -393,22 +393,27 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
 
     ResultSetMetaData md = resultSet.getMetaData();
     int numColumns = md.getColumnCount();
+    ColumnReaderPlan.ColumnReader[] readers = new ColumnReaderPlan.ColumnReader[numColumns + 1];
+    for (int i = 1; i <= numColumns; i++) {
+      // Assuming generated columns can't be CLOBs/BLOBs, so just pass
+      // zero for maxClobSize
+      readers[i] = ColumnReaderPlan.createReader(
+          md,
+          i,
+          0,
+          0,
+          DataType.USE_COLUMN_TYPE,
+          UnknownTypeAction.STOP_PIPELINE,
+          false
+      );
+    }
 
     while (resultSet.next()) {
       Record record = iter.next();
       // Process row
       for (int i = 1; i <= numColumns; i++) {
         try {
-          // Assuming generated columns can't be CLOBs/BLOBs, so just pass
-          // zero for maxClobSize
-          Field field = JdbcUtil.resultToField(
-            md,
-            resultSet,
-            i,
-            0,
-            0,
-            UnknownTypeAction.STOP_PIPELINE
-          );
+          Field field = readers[i].read(resultSet, i);
 
           if (field == null) {
             LOG.error(JdbcErrors.JDBC_03.getMessage(), md.getColumnName(i), resultSet.getObject(i));
@@ -0,0 +1,464 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.BaseEncoding;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC RecordWriter for PostgreSQL that streams records through the COPY protocol instead of batched
+ * statements.
+ *
+ * Consecutive records with the same operation and the same set of columns are grouped into a run. An INSERT run
+ * is copied straight into the target table. UPDATE and DELETE runs are copied into a temporary staging table
+ * and merged into the target table with a single UPDATE ... FROM or DELETE ... USING statement on the primary
+ * keys. A run is closed early when a primary key repeats, so that changes to the same row are applied in order.
+ *
+ * Values are sent as CSV text, so custom parameter expressions from the field to column mappings can't be applied
+ * (JDBC Producer rejects them) and LIST, MAP and LIST_MAP fields are sent to error.
+ *
+ * A failed statement aborts the whole transaction in PostgreSQL. When a run fails on a data error, its records are
+ * sent to error: with rollback on error all the changes of the batch done so far are rolled back and the records of
+ * all the runs written so far go to error too, otherwise only the changes of the failed run are rolled back to a
+ * savepoint. The following runs are still written.
+ */
+public class JdbcCopyRecordWriter extends JdbcBaseRecordWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcCopyRecordWriter.class);
+
+  private static final String STAGING_TABLE = "sdc_copy_staging";
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final Joiner COMMA_JOINER = Joiner.on(", ");
+  private static final Joiner AND_JOINER = Joiner.on(" AND ");
+  private static final DateTimeFormatter ZONED_DATETIME_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+  private final boolean caseSensitive;
+
+  /**
+   * Class constructor
+   *
+   * @param connectionString database connection string
+   * @param dataSource JDBC {@link DataSource} to get a connection from
+   * @param schema schema name
+   * @param tableName table name
+   * @param rollbackOnError whether to attempt rollback of failed queries
+   * @param customMappings any custom mappings the user provided
+   * @param defaultOpCode default operation code
+   * @param unsupportedAction what action to take if operation is not supported
+   * @param recordReader base JdbcRecordReader or one of the CDC record readers
+   * @param caseSensitive indicate whether to enclose the table name or not
+   * @throws StageException
+   */
+  public JdbcCopyRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      String schema,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive
+  ) throws StageException {
+    super(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        rollbackOnError,
+        customMappings,
+        defaultOpCode,
+        unsupportedAction,
+        recordReader,
+        null,
+        caseSensitive
+    );
+    this.caseSensitive = caseSensitive;
+  }
+
+  @Override
+  public List<OnRecordErrorException> writePerRecord(Iterator<Record> recordIterator) throws StageException {
+    throw new UnsupportedOperationException("JdbcCopyRecordWriter supports only batch write.");
+  }
+
+  @Override
+  public List<OnRecordErrorException> writeBatch(Iterator<Record> recordIterator) throws StageException {
+    List<OnRecordErrorException> errorRecords = new LinkedList<>();
+    if (!recordIterator.hasNext()) {
+      return errorRecords;
+    }
+
+    try (Connection connection = getDataSource().getConnection()) {
+      try {
+        List<Record> written = new ArrayList<>();
+        Run run = null;
+        while (recordIterator.hasNext()) {
+          Record record = recordIterator.next();
+          int opCode = getOperationCode(record, errorRecords);
+          if (opCode == OperationType.LOAD_CODE) {
+            opCode = OperationType.INSERT_CODE;
+          }
+          if (opCode <= 0) {
+            // Already handled as per the unsupported operation action
+            continue;
+          }
+
+          List<String> columns;
+          String[] row;
+          String key;
+          try {
+            key = opCode == OperationType.INSERT_CODE ? null : getPrimaryKey(record, opCode);
+            columns = getColumns(record, opCode);
+            if (columns.isEmpty()) {
+              throw new OnRecordErrorException(record, JdbcErrors.JDBC_22);
+            }
+            row = toRow(record, columns, opCode);
+          } catch (OnRecordErrorException e) {
+            errorRecords.add(e);
+            continue;
+          }
+
+          if (run != null && !run.accepts(opCode, columns, key)) {
+            processRun(connection, run, written, errorRecords);
+            run = null;
+          }
+          if (run == null) {
+            run = new Run(opCode, columns);
+          }
+          run.add(record, row, key);
+        }
+
+        if (run != null) {
+          processRun(connection, run, written, errorRecords);
+        }
+        connection.commit();
+      } catch (SQLException e) {
+        // A failed COPY aborts the whole transaction in PostgreSQL, so there is nothing left to commit.
+        LOG.debug("Error due to {}. Rollback the batch.", e.getMessage());
+        connection.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      handleSqlException(e);
+    }
+    return errorRecords;
+  }
+
+  /**
+   * Columns to copy for the given record. UPDATE and DELETE always carry the primary keys first so that the
+   * staging table can be joined with the target table.
+   */
+  private List<String> getColumns(Record record, int opCode) {
+    SortedMap<String, String> columnsToParameters = recordReader.getColumnsToParameters(
+        record,
+        opCode,
+        getColumnsToParameters(),
+        opCode == OperationType.UPDATE_CODE ? getColumnsToFieldNoPK() : getColumnsToFields()
+    );
+
+    switch (opCode) {
+      case OperationType.INSERT_CODE:
+        return new ArrayList<>(columnsToParameters.keySet());
+      case OperationType.DELETE_CODE:
+        return new ArrayList<>(getPrimaryKeyColumns());
+      default:
+        List<String> columns = new ArrayList<>(getPrimaryKeyColumns());
+        columns.addAll(columnsToParameters.keySet());
+        return columns;
+    }
+  }
+
+  private String[] toRow(Record record, List<String> columns, int opCode) throws OnRecordErrorException {
+    String[] row = new String[columns.size()];
+    for (int i = 0; i < row.length; i++) {
+      String column = columns.get(i);
+      Field field = record.get(recordReader.getFieldPath(column, getColumnsToFields(), opCode));
+      if (field == null) {
+        // Only primary keys can be missing here, the other columns come from the record itself
+        LOG.error("Primary key {} is missing in record", column);
+        throw new OnRecordErrorException(record, JdbcErrors.JDBC_19, column);
+      }
+      try {
+        row[i] = toCopyValue(field);
+      } catch (IllegalArgumentException e) {
+        LOG.error("Query failed unsupported type {}", e.getMessage());
+        throw new OnRecordErrorException(record, JdbcErrors.JDBC_05, field.getValue(), field.getType(), column);
+      }
+    }
+    return row;
+  }
+
+  private String getPrimaryKey(Record record, int opCode) throws OnRecordErrorException {
+    if (getPrimaryKeyColumns().isEmpty()) {
+      throw new OnRecordErrorException(record, JdbcErrors.JDBC_62, getTableName());
+    }
+    StringBuilder key = new StringBuilder();
+    for (String column : getPrimaryKeyColumns()) {
+      Field field = record.get(recordReader.getFieldPath(column, getColumnsToFields(), opCode));
+      key.append(field == null ? null : field.getValue()).append('\u0000');
+    }
+    return key.toString();
+  }
+
+  /**
+   * Writes the run, sending its records to error if it fails on a data error.
+   *
+   * @param written records written in the current transaction, the ones rolled back with rollback on error are sent
+   * to error too
+   */
+  private void processRun(
+      Connection connection,
+      Run run,
+      List<Record> written,
+      List<OnRecordErrorException> errorRecords
+  ) throws SQLException {
+    Savepoint savepoint = getRollbackOnError() ? null : connection.setSavepoint();
+    try {
+      writeRun(connection, run);
+    } catch (SQLException e) {
+      if (!JdbcUtil.isDataError(getConnectionString(), e)) {
+        throw e;
+      }
+      String formattedError = JdbcUtil.formatSqlException(e);
+      LOG.error(formattedError);
+      LOG.debug(formattedError, e);
+
+      List<Record> failedRecords = new ArrayList<>(run.records);
+      if (getRollbackOnError()) {
+        connection.rollback();
+        failedRecords.addAll(0, written);
+        written.clear();
+      } else {
+        connection.rollback(savepoint);
+      }
+      for (Record record : failedRecords) {
+        errorRecords.add(new OnRecordErrorException(record, JdbcErrors.JDBC_14, formattedError));
+      }
+      return;
+    }
+    if (savepoint != null) {
+      connection.releaseSavepoint(savepoint);
+    }
+    written.addAll(run.records);
+  }
+
+  private void writeRun(Connection connection, Run run) throws SQLException {
+    String columns = COMMA_JOINER.join(quote(run.columns, caseSensitive));
+    if (run.opCode == OperationType.INSERT_CODE) {
+      copy(connection, getTableName(), columns, run.rows);
+      return;
+    }
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(String.format(
+          "CREATE TEMPORARY TABLE %s ON COMMIT DROP AS SELECT %s FROM %s WITH NO DATA",
+          STAGING_TABLE,
+          columns,
+          getTableName()
+      ));
+      copy(connection, STAGING_TABLE, columns, run.rows);
+      String mergeQuery = generateMergeQuery(
+          run.opCode,
+          getTableName(),
+          getPrimaryKeyColumns(),
+          run.columns,
+          caseSensitive
+      );
+      if (mergeQuery != null) {
+        LOG.debug("Executing query: {}", mergeQuery);
+        statement.executeUpdate(mergeQuery);
+      }
+      statement.execute("DROP TABLE " + STAGING_TABLE);
+    }
+  }
+
+  private void copy(Connection connection, String table, String columns, List<String[]> rows) throws SQLException {
+    String copyQuery = String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)", table, columns);
+    LOG.debug("Executing query: {} for {} rows", copyQuery, rows.size());
+
+    PGCopyOutputStream out = new PGCopyOutputStream(
+        connection.unwrap(PGConnection.class),
+        copyQuery,
+        COPY_BUFFER_SIZE
+    );
+    try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      CSVPrinter printer = new CSVPrinter(writer, CSVFormat.POSTGRESQL_CSV);
+      for (String[] row : rows) {
+        printer.printRecord((Object[]) row);
+      }
+      printer.flush();
+    } catch (IOException e) {
+      if (out.isActive()) {
+        out.cancelCopy();
+      }
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw new SQLException(e.getMessage(), e);
+    }
+  }
+
+  private static List<String> quote(List<String> columns, boolean caseSensitive) {
+    if (!caseSensitive) {
+      return columns;
+    }
+    return columns.stream().map(column -> "\"" + column + "\"").collect(Collectors.toList());
+  }
+
+  /**
+   * Generate the statement merging the staging table into the target table.
+   *
+   * @return the query or null if there is nothing to merge (UPDATE of primary keys only)
+   */
+  static String generateMergeQuery(
+      int opCode,
+      String tableName,
+      List<String> primaryKeys,
+      List<String> columns,
+      boolean caseSensitive
+  ) {
+    List<String> joinConditions = new ArrayList<>(primaryKeys.size());
+    for (String key : quote(primaryKeys, caseSensitive)) {
+      joinConditions.add(String.format("t.%s = s.%s", key, key));
+    }
+
+    if (opCode == OperationType.DELETE_CODE) {
+      return String.format(
+          "DELETE FROM %s AS t USING %s AS s WHERE %s",
+          tableName,
+          STAGING_TABLE,
+          AND_JOINER.join(joinConditions)
+      );
+    }
+
+    List<String> assignments = new ArrayList<>();
+    for (String column : quote(columns.subList(primaryKeys.size(), columns.size()), caseSensitive)) {
+      assignments.add(String.format("%s = s.%s", column, column));
+    }
+    if (assignments.isEmpty()) {
+      return null;
+    }
+    return String.format(
+        "UPDATE %s AS t SET %s FROM %s AS s WHERE %s",
+        tableName,
+        COMMA_JOINER.join(assignments),
+        STAGING_TABLE,
+        AND_JOINER.join(joinConditions)
+    );
+  }
+
+  /**
+   * Convert field value to its text representation in COPY CSV format. Null values are returned as null.
+   *
+   * @throws IllegalArgumentException if the field type can't be sent through COPY
+   */
+  static String toCopyValue(Field field) {
+    Object value = field.getValue();
+    if (value == null) {
+      return null;
+    }
+    switch (field.getType()) {
+      case BOOLEAN:
+      case CHAR:
+      case STRING:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return value.toString();
+      case BYTE:
+        return "\\x" + BaseEncoding.base16().lowerCase().encode(new byte[]{(Byte) value});
+      case BYTE_ARRAY:
+        return "\\x" + BaseEncoding.base16().lowerCase().encode((byte[]) value);
+      case DECIMAL:
+        return ((BigDecimal) value).toPlainString();
+      case DATE:
+        return new SimpleDateFormat("yyyy-MM-dd").format(field.getValueAsDate());
+      case TIME:
+        return new SimpleDateFormat("HH:mm:ss.SSS").format(field.getValueAsTime());
+      case DATETIME:
+        // Same conversion as the statement based writers that bind the value with setTimestamp()
+        return new Timestamp(field.getValueAsDatetime().getTime()).toString();
+      case ZONED_DATETIME:
+        return ZONED_DATETIME_FORMAT.format(field.getValueAsZonedDateTime());
+      default:
+        throw new IllegalArgumentException(field.getType().name());
+    }
+  }
+
+  /**
+   * Consecutive records with the same operation and columns, copied with a single COPY statement.
+   */
+  private static class Run {
+    private final int opCode;
+    private final List<String> columns;
+    private final List<Record> records = new ArrayList<>();
+    private final List<String[]> rows = new ArrayList<>();
+    private final Set<String> keys = new HashSet<>();
+
+    private Run(int opCode, List<String> columns) {
+      this.opCode = opCode;
+      this.columns = columns;
+    }
+
+    private boolean accepts(int opCode, List<String> columns, String key) {
+      return this.opCode == opCode && this.columns.equals(columns) && (key == null || !keys.contains(key));
+    }
+
+    private void add(Record record, String[] row, String key) {
+      records.add(record);
+      rows.add(row);
+      if (key != null) {
+        keys.add(key);
+      }
+    }
+  }
+}
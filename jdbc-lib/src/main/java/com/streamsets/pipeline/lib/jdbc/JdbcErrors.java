@@ -111,6 +111,8 @@ public enum JdbcErrors implements ErrorCode {
   JDBC_86("Redo log files for the current session window are no longer available"),
   JDBC_87("Interrupted while waiting to read data"),
   JDBC_88("'{}' is not a valid decimal number"),
+  JDBC_89("PostgreSQL COPY can only be used with a PostgreSQL connection string: {}"),
+  JDBC_90("PostgreSQL COPY sends field values as they are, parameterized value '{}' of column '{}' is not supported"),
 
   JDBC_100("Could not enable partitioning for table {}: {}"),
   JDBC_101("Invalid partition size for table {}: {}"),
@@ -44,7 +44,57 @@ public final class JdbcRecordReaderWriterFactory {
       JdbcRecordReader recordReader,
       boolean caseSensitive
   ) throws StageException {
-    if (defaultOpCode == OperationType.LOAD_CODE) {
+    return createJdbcRecordWriter(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        customMappings,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        maxPrepStmtCache,
+        defaultOpCode,
+        unsupportedAction,
+        duplicateKeyAction,
+        recordReader,
+        caseSensitive,
+        false
+    );
+  }
+
+  // Called by JdbcTarget
+  public static JdbcRecordWriter createJdbcRecordWriter(
+      String connectionString,
+      HikariDataSource dataSource,
+      String schema,
+      String tableName,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      boolean rollbackOnError,
+      boolean useMultiRowOp,
+      int maxPrepStmtParameters,
+      int maxPrepStmtCache,
+      int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      DuplicateKeyAction duplicateKeyAction,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive,
+      boolean useCopy
+  ) throws StageException {
+    if (useCopy) {
+      return new JdbcCopyRecordWriter(
+          connectionString,
+          dataSource,
+          schema,
+          tableName,
+          rollbackOnError,
+          customMappings,
+          defaultOpCode,
+          unsupportedAction,
+          recordReader,
+          caseSensitive
+      );
+    } else if (defaultOpCode == OperationType.LOAD_CODE) {
       return new JdbcLoadRecordWriter(
           connectionString,
           dataSource,
@@ -37,7 +37,6 @@ import com.streamsets.pipeline.lib.event.CommonEvents;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableContextUtil;
 import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
-import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import com.streamsets.pipeline.stage.destination.jdbc.Groups;
 import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
 import com.streamsets.pipeline.stage.origin.jdbc.table.QuoteChar;
@@ -64,13 +63,9 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.OffsetDateTime;
-import java.time.OffsetTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -397,7 +392,7 @@ public class JdbcUtil {
     header.setAttribute(jdbcNameSpacePrefix + "tables", Joiner.on(",").join(tableNames));
   }
 
-  private static String getClobString(Clob data, int maxClobSize) throws IOException, SQLException {
+  static String getClobString(Clob data, int maxClobSize) throws IOException, SQLException {
     if (data == null) {
       return null;
     }
@@ -423,7 +418,7 @@ public class JdbcUtil {
     return sb.toString();
   }
 
-  private static byte[] getBlobBytes(Blob data, int maxBlobSize) throws IOException, SQLException {
+  static byte[] getBlobBytes(Blob data, int maxBlobSize) throws IOException, SQLException {
     if (data == null) {
       return null;
     }
@@ -479,127 +474,15 @@ public class JdbcUtil {
       UnknownTypeAction unknownTypeAction,
       boolean timestampToString
   ) throws SQLException, IOException, StageException {
-      Field field;
-      if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
-        // If user specifies the data type, overwrite the column type returned by database.
-        field = Field.create(Field.Type.valueOf(userSpecifiedType.getLabel()), rs.getObject(columnIndex));
-      } else {
-        // All types as of JDBC 2.0 are here:
-        // https://docs.oracle.com/javase/8/docs/api/constant-values.html#java.sql.Types.ARRAY
-        // Good source of recommended mappings is here:
-        // http://www.cs.mun.ca/java-api-1.5/guide/jdbc/getstart/mapping.html
-        switch (md.getColumnType(columnIndex)) {
-          case Types.BIGINT:
-            field = Field.create(Field.Type.LONG, rs.getObject(columnIndex));
-            break;
-          case Types.BINARY:
-          case Types.LONGVARBINARY:
-          case Types.VARBINARY:
-            field = Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(columnIndex));
-            break;
-          case Types.BIT:
-          case Types.BOOLEAN:
-            field = Field.create(Field.Type.BOOLEAN, rs.getObject(columnIndex));
-            break;
-          case Types.CHAR:
-          case Types.LONGNVARCHAR:
-          case Types.LONGVARCHAR:
-          case Types.NCHAR:
-          case Types.NVARCHAR:
-          case Types.VARCHAR:
-            field = Field.create(Field.Type.STRING, rs.getObject(columnIndex));
-            break;
-          case Types.CLOB:
-          case Types.NCLOB:
-            field = Field.create(Field.Type.STRING, getClobString(rs.getClob(columnIndex), maxClobSize));
-            break;
-          case Types.BLOB:
-            field = Field.create(Field.Type.BYTE_ARRAY, getBlobBytes(rs.getBlob(columnIndex), maxBlobSize));
-            break;
-          case Types.DATE:
-            field = Field.create(Field.Type.DATE, rs.getDate(columnIndex));
-            break;
-          case Types.DECIMAL:
-          case Types.NUMERIC:
-            field = Field.create(Field.Type.DECIMAL, rs.getBigDecimal(columnIndex));
-            field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, String.valueOf(rs.getMetaData().getScale(columnIndex)));
-            field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, String.valueOf(rs.getMetaData().getPrecision(columnIndex)));
-            break;
-          case Types.DOUBLE:
-            field = Field.create(Field.Type.DOUBLE, rs.getObject(columnIndex));
-            break;
-          case Types.FLOAT:
-          case Types.REAL:
-            field = Field.create(Field.Type.FLOAT, rs.getObject(columnIndex));
-            break;
-          case Types.INTEGER:
-            field = Field.create(Field.Type.INTEGER, rs.getObject(columnIndex));
-            break;
-          case Types.ROWID:
-            field = Field.create(Field.Type.STRING, rs.getRowId(columnIndex).toString());
-            break;
-          case Types.SMALLINT:
-          case Types.TINYINT:
-            field = Field.create(Field.Type.SHORT, rs.getObject(columnIndex));
-            break;
-          case Types.TIME:
-            field = Field.create(Field.Type.TIME, rs.getObject(columnIndex));
-            break;
-          case Types.TIMESTAMP:
-            final Timestamp timestamp = rs.getTimestamp(columnIndex);
-            if(timestampToString) {
-             field = Field.create(Field.Type.STRING, timestamp.toString());
-            } else {
-              field = Field.create(Field.Type.DATETIME, timestamp);
-              if (timestamp != null) {
-                final long actualNanos = timestamp.getNanos() % NANOS_TO_MILLIS_ADJUSTMENT;
-                if (actualNanos > 0) {
-                  field.setAttribute(FIELD_ATTRIBUTE_NANOSECONDS, String.valueOf(actualNanos));
-                }
-              }
-            }
-            break;
-          // Ugly hack until we can support LocalTime, LocalDate, LocalDateTime, etc.
-          case Types.TIME_WITH_TIMEZONE:
-            OffsetTime offsetTime = rs.getObject(columnIndex, OffsetTime.class);
-            field = Field.create(Field.Type.TIME, Date.from(offsetTime.atDate(LocalDate.MIN).toInstant()));
-            break;
-          case Types.TIMESTAMP_WITH_TIMEZONE:
-            OffsetDateTime offsetDateTime = rs.getObject(columnIndex, OffsetDateTime.class);
-            field = Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
-            break;
-          //case Types.REF_CURSOR: // JDK8 only
-          case Types.SQLXML:
-          case Types.STRUCT:
-          case Types.ARRAY:
-          case Types.DATALINK:
-          case Types.DISTINCT:
-          case Types.JAVA_OBJECT:
-          case Types.NULL:
-          case Types.OTHER:
-          case Types.REF:
-          default:
-            if(unknownTypeAction == null) {
-              return null;
-            }
-            switch (unknownTypeAction) {
-              case STOP_PIPELINE:
-                throw new StageException(JdbcErrors.JDBC_37, md.getColumnType(columnIndex), md.getColumnLabel(columnIndex));
-              case CONVERT_TO_STRING:
-                Object value = rs.getObject(columnIndex);
-                if(value != null) {
-                  field = Field.create(Field.Type.STRING, rs.getObject(columnIndex).toString());
-                } else {
-                  field = Field.create(Field.Type.STRING, null);
-                }
-                break;
-              default:
-                throw new IllegalStateException("Unknown action: " + unknownTypeAction);
-            }
-        }
-      }
-
-      return field;
+    return ColumnReaderPlan.createReader(
+        md,
+        columnIndex,
+        maxClobSize,
+        maxBlobSize,
+        userSpecifiedType,
+        unknownTypeAction,
+        timestampToString
+    ).read(rs, columnIndex);
   }
 
   public static LinkedHashMap<String, Field> resultSetToFields(
@@ -669,33 +552,15 @@ public class JdbcUtil {
       Set<String> recordHeader,
       boolean timestampToString
   ) throws SQLException, StageException {
-    ResultSetMetaData md = rs.getMetaData();
-    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(md.getColumnCount());
-
-    for (int i = 1; i <= md.getColumnCount(); i++) {
-      try {
-        if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
-          DataType dataType = columnsToTypes.get(md.getColumnName(i));
-          Field field = resultToField(
-              md,
-              rs,
-              i,
-              maxClobSize,
-              maxBlobSize,
-              dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
-              unknownTypeAction,
-              timestampToString
-          );
-          fields.put(md.getColumnLabel(i), field);
-        }
-      } catch (SQLException e) {
-        errorRecordHandler.onError(JdbcErrors.JDBC_13, e.getMessage(), e);
-      } catch (IOException e) {
-        errorRecordHandler.onError(JdbcErrors.JDBC_03, md.getColumnName(i), rs.getObject(i), e);
-      }
-    }
-
-    return fields;
+    return ColumnReaderPlan.create(
+        rs,
+        maxClobSize,
+        maxBlobSize,
+        columnsToTypes,
+        unknownTypeAction,
+        recordHeader,
+        timestampToString
+    ).readFields(rs, errorRecordHandler);
   }
 
   private static HikariConfig createDataSourceConfig(
@@ -99,13 +99,7 @@ public final class CTJdbcRunnable extends JdbcBaseRunnable {
   ) throws SQLException, StageException {
     ResultSetMetaData md = rs.getMetaData();
 
-    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-        rs,
-        commonSourceConfigBean,
-        errorRecordHandler,
-        tableJdbcConfigBean.unknownTypeAction,
-        recordHeader
-    );
+    LinkedHashMap<String, Field> fields = getColumnReaderPlan(rs, recordHeader).readFields(rs, errorRecordHandler);
 
     Map<String, String> columnOffsets = new HashMap<>();
 
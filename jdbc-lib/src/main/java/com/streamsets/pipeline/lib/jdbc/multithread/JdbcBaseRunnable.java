@@ -26,6 +26,7 @@ import com.streamsets.pipeline.api.ErrorCode;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.ToErrorContext;
+import com.streamsets.pipeline.lib.jdbc.ColumnReaderPlan;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.multithread.cache.JdbcTableReadContextInvalidationListener;
@@ -49,6 +50,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -218,6 +220,7 @@ public abstract class JdbcBaseRunnable implements Runnable, JdbcRunnable {
             }
           }
         }
+        final long batchStartNanos = System.nanoTime();
         updateGauge(JdbcBaseRunnable.Status.QUERYING_TABLE);
         tableReadContext = getOrLoadTableReadContext();
         ResultSet rs = tableReadContext.getResultSet();
@@ -259,6 +262,7 @@ public abstract class JdbcBaseRunnable implements Runnable, JdbcRunnable {
               recordCount,
               batchSize,
               resultSetEndReached,
+              System.nanoTime() - batchStartNanos,
               tableFinished,
               schemaFinished,
               schemaFinishedTables
@@ -415,6 +419,21 @@ public abstract class JdbcBaseRunnable implements Runnable, JdbcRunnable {
     return OffsetQueryUtil.getSourceKeyOffsetsRepresentation(offsets);
   }
 
+  /**
+   * Get the {@link ColumnReaderPlan} for the given result set, building it on the first row and keeping it
+   * in the current {@link TableReadContext} so that it is reused for all the remaining rows.
+   */
+  protected ColumnReaderPlan getColumnReaderPlan(ResultSet rs, Set<String> recordHeader) throws SQLException {
+    ColumnReaderPlan plan = tableReadContext == null ? null : tableReadContext.getColumnReaderPlan();
+    if (plan == null || !plan.isFor(rs)) {
+      plan = ColumnReaderPlan.create(rs, commonSourceConfigBean, tableJdbcConfigBean.unknownTypeAction, recordHeader);
+      if (tableReadContext != null) {
+        tableReadContext.setColumnReaderPlan(plan);
+      }
+    }
+    return plan;
+  }
+
   /**
    * Initialize the {@link TableJdbcELEvalContext} before generating a batch
    */
@@ -83,6 +83,10 @@ public final class MultithreadedTableProvider {
 
   private volatile boolean isNoMoreDataEventGeneratedAlready = false;
 
+  private final ConcurrentMap<TableContext, TableProgressStatistics> tableProgressStatistics = Maps.newConcurrentMap();
+  private volatile boolean workAwareScheduling = false;
+  private volatile Map<String, Object> tableProgressGauge;
+
   public MultithreadedTableProvider(
       Map<String, TableContext> tableContextMap,
       Queue<String> sortedTableOrder,
@@ -362,6 +366,25 @@ public final class MultithreadedTableProvider {
     return completedSchemasToTableContexts;
   }
 
+  /**
+   * When enabled, idle threads pick the queued partition whose table has the most estimated remaining work instead
+   * of the head of the shared queue.  Should only be enabled if the table order does not matter.
+   */
+  public void setWorkAwareScheduling(boolean workAwareScheduling) {
+    this.workAwareScheduling = workAwareScheduling;
+  }
+
+  /**
+   * Gauge that will be kept updated with per table progress, keyed by qualified table name.
+   */
+  public void setTableProgressGauge(Map<String, Object> tableProgressGauge) {
+    this.tableProgressGauge = tableProgressGauge;
+  }
+
+  TableProgressStatistics getTableProgressStatistics(TableContext tableContext) {
+    return tableProgressStatistics.computeIfAbsent(tableContext, t -> new TableProgressStatistics());
+  }
+
   @VisibleForTesting
   void offerToOwnedTablesQueue(TableRuntimeContext acquiredTableName, int threadNumber) {
     getOwnedTablesQueue().offerLast(acquiredTableName);
@@ -406,7 +429,10 @@ public final class MultithreadedTableProvider {
     }
 
     if (getOwnedTablesQueue().isEmpty()) {
-      TableRuntimeContext head = sharedAvailableTablesQueue.poll();
+      TableRuntimeContext head = pollSharedQueue();
+      if (head == null && createPartitionForBusiestTable()) {
+        head = pollSharedQueue();
+      }
       if (head != null) {
         offerToOwnedTablesQueue(head, threadNumber);
       }
@@ -415,6 +441,79 @@ public final class MultithreadedTableProvider {
     partitionFirstSharedQueueItemIfNeeded();
   }
 
+  /**
+   * Removes the next partition to work on from the shared queue.  Normally that is the head of the queue, but with
+   * {@link #workAwareScheduling} the partition of the table with the largest estimated remaining work is preferred
+   * (tables that have not been measured yet rank first, so the queue order is kept until there is data to go by).
+   */
+  @VisibleForTesting
+  TableRuntimeContext pollSharedQueue() {
+    if (!workAwareScheduling) {
+      return sharedAvailableTablesQueue.poll();
+    }
+    TableRuntimeContext selected = null;
+    long selectedRemainingNanos = -1;
+    final Map<TableContext, Long> remainingNanosPerTable = new HashMap<>();
+    for (TableRuntimeContext candidate : sharedAvailableTablesQueue) {
+      final long remainingNanos = remainingNanosPerTable.computeIfAbsent(
+          candidate.getSourceTableContext(),
+          this::estimateRemainingNanos
+      );
+      if (remainingNanos > selectedRemainingNanos) {
+        selected = candidate;
+        selectedRemainingNanos = remainingNanos;
+        if (remainingNanos == Long.MAX_VALUE) {
+          break;
+        }
+      }
+    }
+    if (selected != null && sharedAvailableTablesQueue.remove(selected)) {
+      return selected;
+    }
+    return sharedAvailableTablesQueue.poll();
+  }
+
+  private long estimateRemainingNanos(TableContext tableContext) {
+    int unfinishedPartitions = 0;
+    for (TableRuntimeContext partition : activeRuntimeContexts.get(tableContext)) {
+      if (!partition.isMarkedNoMoreData()) {
+        unfinishedPartitions++;
+      }
+    }
+    return getTableProgressStatistics(tableContext).estimateRemainingNanos(unfinishedPartitions);
+  }
+
+  /**
+   * Called when a thread has nothing owned and the shared queue is empty: rather than idling while other threads
+   * drain a large table, split off the next partition of the table with the most remaining work.
+   *
+   * @return true if at least one new partition was added to the shared queue
+   */
+  @VisibleForTesting
+  boolean createPartitionForBusiestTable() {
+    synchronized (partitionStateLock) {
+      TableRuntimeContext busiestLastPartition = null;
+      long busiestRemainingNanos = -1;
+      for (TableContext tableContext : activeRuntimeContexts.keySet()) {
+        final SortedSet<TableRuntimeContext> partitions = activeRuntimeContexts.get(tableContext);
+        if (partitions.isEmpty() || !isNewPartitionAllowed(partitions.last())) {
+          continue;
+        }
+        final long remainingNanos = estimateRemainingNanos(tableContext);
+        if (remainingNanos > busiestRemainingNanos) {
+          busiestLastPartition = partitions.last();
+          busiestRemainingNanos = remainingNanos;
+        }
+      }
+      if (busiestLastPartition == null) {
+        return false;
+      }
+      final int queuedBefore = sharedAvailableTablesQueue.size();
+      keepPartitioningIfNeeded(busiestLastPartition);
+      return sharedAvailableTablesQueue.size() > queuedBefore;
+    }
+  }
+
   /**
    * <p>Examines the first item ("head") im the shared partition queue, and adds a new partition if appropriate</p>
    * <p>A new partition will be created if the number of partitions for the head item's table is still less
@@ -609,10 +708,13 @@ public final class MultithreadedTableProvider {
 
   @VisibleForTesting
   TableRuntimeContext createNextPartition(TableRuntimeContext lastContext) {
-    TableRuntimeContext runtimeContext = TableRuntimeContext.createNextPartition(lastContext);
     TableContext tableContext = lastContext.getSourceTableContext();
+    TableProgressStatistics statistics = getTableProgressStatistics(tableContext);
+    double partitionSizeScale = statistics.getPartitionSizeScale();
+    TableRuntimeContext runtimeContext = TableRuntimeContext.createNextPartition(lastContext, partitionSizeScale);
 
     if (runtimeContext != null) {
+      statistics.partitionCreated(runtimeContext.getPartitionSequence(), partitionSizeScale);
       if (LOG.isDebugEnabled()) {
         LOG.debug(
             "Creating next partition (number {}) for thread '{}' to work on table '{}'",
@@ -710,6 +812,27 @@ public final class MultithreadedTableProvider {
     reportDataOrNoMoreData(tableRuntimeContext, recordCount, batchSize, resultSetEndReached, null, null, null);
   }
 
+  public void reportDataOrNoMoreData(
+      TableRuntimeContext tableRuntimeContext,
+      int recordCount,
+      int batchSize,
+      boolean resultSetEndReached,
+      AtomicBoolean tableFinished,
+      AtomicBoolean schemaFinished,
+      List<String> schemaFinishedTables
+  ) {
+    reportDataOrNoMoreData(
+        tableRuntimeContext,
+        recordCount,
+        batchSize,
+        resultSetEndReached,
+        0,
+        tableFinished,
+        schemaFinished,
+        schemaFinishedTables
+    );
+  }
+
   /**
    * Each {@link TableJdbcRunnable} worker thread can call this api to update
    * if there is data/no more data on the current table
@@ -719,6 +842,7 @@ public final class MultithreadedTableProvider {
       int recordCount,
       int batchSize,
       boolean resultSetEndReached,
+      long elapsedNanos,
       AtomicBoolean tableFinished,
       AtomicBoolean schemaFinished,
       List<String> schemaFinishedTables
@@ -732,6 +856,8 @@ public final class MultithreadedTableProvider {
 
     final boolean noMoreData = recordCount == 0 || resultSetEndReached;
 
+    updateTableProgress(tableRuntimeContext, recordCount, elapsedNanos, noMoreData);
+
     if (noMoreData) {
       tableRuntimeContext.setMarkedNoMoreData(true);
     }
@@ -786,6 +912,26 @@ public final class MultithreadedTableProvider {
     }
   }
 
+  private void updateTableProgress(
+      TableRuntimeContext tableRuntimeContext,
+      int recordCount,
+      long elapsedNanos,
+      boolean noMoreData
+  ) {
+    final TableContext sourceContext = tableRuntimeContext.getSourceTableContext();
+    final TableProgressStatistics statistics = getTableProgressStatistics(sourceContext);
+    if (tableRuntimeContext.isMarkedNoMoreData()) {
+      // partition was already drained once, so this is just the confirming pass
+      statistics.batchCompleted(recordCount, elapsedNanos);
+    } else {
+      statistics.batchCompleted(tableRuntimeContext.getPartitionSequence(), recordCount, elapsedNanos, noMoreData);
+    }
+    final Map<String, Object> gauge = tableProgressGauge;
+    if (gauge != null) {
+      gauge.put(sourceContext.getQualifiedName(), statistics.toString());
+    }
+  }
+
   /**
    * Used by the main thread {@link TableJdbcSource} to check whether all
    * tables have marked no more data
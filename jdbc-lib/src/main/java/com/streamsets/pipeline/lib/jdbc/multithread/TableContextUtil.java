@@ -511,7 +511,20 @@ public final class TableContextUtil {
       String column,
       String offset
   ) {
-    final String partitionSize = tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(column);
+    return generateNextPartitionOffset(
+        tableContext,
+        column,
+        offset,
+        tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(column)
+    );
+  }
+
+  public static String generateNextPartitionOffset(
+      TableContext tableContext,
+      String column,
+      String offset,
+      String partitionSize
+  ) {
     switch (tableContext.getOffsetColumnToType().get(column)) {
       case Types.TINYINT:
       case Types.SMALLINT:
@@ -549,6 +562,38 @@ public final class TableContextUtil {
     return null;
   }
 
+  /**
+   * Returns the configured partition size for the given offset column multiplied by scale, keeping the result
+   * valid for the column type (integral types are rounded and never drop below 1).
+   */
+  public static String scalePartitionSize(TableContext tableContext, String column, double scale) {
+    final String partitionSize = tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(column);
+    if (scale == 1.0 || partitionSize == null) {
+      return partitionSize;
+    }
+    switch (tableContext.getOffsetColumnToType().get(column)) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+        final double scaledInt = Math.round(Integer.parseInt(partitionSize) * scale);
+        return String.valueOf((int) Math.max(1, Math.min(scaledInt, Integer.MAX_VALUE)));
+      case Types.TIMESTAMP:
+      case Types.BIGINT:
+      case Types.TIME:
+      case Types.DATE:
+        return String.valueOf(Math.max(1, Math.round(Long.parseLong(partitionSize) * scale)));
+      case Types.FLOAT:
+      case Types.REAL:
+        return String.valueOf((float) (Float.parseFloat(partitionSize) * scale));
+      case Types.DOUBLE:
+        return String.valueOf(Double.parseDouble(partitionSize) * scale);
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+        return new BigDecimal(partitionSize).multiply(BigDecimal.valueOf(scale)).toPlainString();
+    }
+    return partitionSize;
+  }
+
   public static String getOffsetValueForTimestamp(Timestamp timestamp) {
     return getOffsetValueForTimestampParts(timestamp.getTime(), timestamp.getNanos());
   }
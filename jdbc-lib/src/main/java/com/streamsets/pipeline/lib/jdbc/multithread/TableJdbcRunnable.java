@@ -74,12 +74,7 @@ public final class TableJdbcRunnable extends JdbcBaseRunnable {
   ) throws SQLException, StageException {
     ResultSetMetaData md = rs.getMetaData();
 
-    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-        rs,
-        commonSourceConfigBean,
-        errorRecordHandler,
-        tableJdbcConfigBean.unknownTypeAction
-    );
+    LinkedHashMap<String, Field> fields = getColumnReaderPlan(rs, null).readFields(rs, errorRecordHandler);
 
     // TODO: change offset format here for incremental mode (finished=true if result set end reached)
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.multithread;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks observed throughput for a single table so that {@link MultithreadedTableProvider} can size new
+ * partitions and prefer the tables with the most remaining work.
+ *
+ * <p>Partition sizes are expressed as a scale relative to the configured partition size for the table.  Once
+ * enough time has been spent on the table, the scale is nudged (at most doubled or halved per finished partition)
+ * so that a single partition takes roughly {@link #TARGET_PARTITION_NANOS} for one thread to drain.</p>
+ */
+public final class TableProgressStatistics {
+  static final double MIN_PARTITION_SIZE_SCALE = 1.0 / 16;
+  static final double MAX_PARTITION_SIZE_SCALE = 16;
+  static final long TARGET_PARTITION_NANOS = TimeUnit.SECONDS.toNanos(10);
+  static final long MIN_OBSERVED_NANOS = TimeUnit.SECONDS.toNanos(1);
+  static final int MIN_FINISHED_PARTITIONS = 2;
+
+  private static final double SMOOTHING_FACTOR = 0.3;
+
+  private static class PartitionProgress {
+    private final double partitionSizeScale;
+    private long records;
+    private long nanos;
+
+    private PartitionProgress(double partitionSizeScale) {
+      this.partitionSizeScale = partitionSizeScale;
+    }
+  }
+
+  private final Map<Integer, PartitionProgress> inProgressPartitions = new HashMap<>();
+  private long records;
+  private long batches;
+  private long busyNanos;
+  private int finishedPartitions;
+  // smoothed time for one thread to drain a partition of the configured size
+  private double nanosPerConfiguredPartition;
+  private double partitionSizeScale = 1.0;
+
+  synchronized void partitionCreated(int partitionSequence, double partitionSizeScale) {
+    inProgressPartitions.put(partitionSequence, new PartitionProgress(partitionSizeScale));
+  }
+
+  /**
+   * Record the outcome of one batch read from the given partition.
+   *
+   * @param partitionSequence the partition the batch was read from
+   * @param recordCount number of records in the batch
+   * @param elapsedNanos time spent querying and reading the batch
+   * @param partitionFinished true if this is the first time the partition reported that it has no more data
+   */
+  synchronized void batchCompleted(int partitionSequence, int recordCount, long elapsedNanos, boolean partitionFinished) {
+    batchCompleted(recordCount, elapsedNanos);
+
+    PartitionProgress partition = inProgressPartitions.computeIfAbsent(
+        partitionSequence,
+        seq -> new PartitionProgress(1.0)
+    );
+    partition.records += recordCount;
+    partition.nanos += elapsedNanos;
+
+    if (partitionFinished) {
+      inProgressPartitions.remove(partitionSequence);
+      partitionFinished(partition);
+    }
+  }
+
+  /**
+   * Record a batch that does not belong to a partition still being measured (for instance the pass confirming that
+   * an already drained partition has no more data).
+   */
+  synchronized void batchCompleted(int recordCount, long elapsedNanos) {
+    records += recordCount;
+    batches++;
+    busyNanos += elapsedNanos;
+  }
+
+  private void partitionFinished(PartitionProgress partition) {
+    final double normalizedNanos = partition.nanos / partition.partitionSizeScale;
+    if (finishedPartitions == 0) {
+      nanosPerConfiguredPartition = normalizedNanos;
+    } else {
+      nanosPerConfiguredPartition =
+          SMOOTHING_FACTOR * normalizedNanos + (1 - SMOOTHING_FACTOR) * nanosPerConfiguredPartition;
+    }
+    finishedPartitions++;
+
+    if (isWarmedUp()) {
+      double desired = nanosPerConfiguredPartition > 0
+          ? TARGET_PARTITION_NANOS / nanosPerConfiguredPartition
+          : MAX_PARTITION_SIZE_SCALE;
+      desired = Math.min(Math.max(desired, partitionSizeScale / 2), partitionSizeScale * 2);
+      partitionSizeScale = Math.min(Math.max(desired, MIN_PARTITION_SIZE_SCALE), MAX_PARTITION_SIZE_SCALE);
+    }
+  }
+
+  /**
+   * @return true once enough work has been observed to trust the measured throughput
+   */
+  synchronized boolean isWarmedUp() {
+    return busyNanos >= MIN_OBSERVED_NANOS && finishedPartitions >= MIN_FINISHED_PARTITIONS;
+  }
+
+  /**
+   * @return the scale to apply to the configured partition size for the next partition of this table
+   */
+  synchronized double getPartitionSizeScale() {
+    return partitionSizeScale;
+  }
+
+  /**
+   * Estimates how long it would take a single thread to drain the given number of still active partitions, or
+   * {@link Long#MAX_VALUE} if the table has not been observed long enough to tell.
+   */
+  synchronized long estimateRemainingNanos(int activePartitions) {
+    if (!isWarmedUp()) {
+      return Long.MAX_VALUE;
+    }
+    return (long) (activePartitions * nanosPerConfiguredPartition * partitionSizeScale);
+  }
+
+  synchronized double getRecordsPerSecond() {
+    return busyNanos == 0 ? 0 : records * (double) TimeUnit.SECONDS.toNanos(1) / busyNanos;
+  }
+
+  @VisibleForTesting
+  synchronized long getRecords() {
+    return records;
+  }
+
+  @VisibleForTesting
+  synchronized int getFinishedPartitions() {
+    return finishedPartitions;
+  }
+
+  @VisibleForTesting
+  synchronized void setPartitionSizeScale(double partitionSizeScale) {
+    this.partitionSizeScale = partitionSizeScale;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "records=%d, batches=%d, records/sec=%.1f, finished partitions=%d, partition size scale=%.3f",
+        records,
+        batches,
+        getRecordsPerSecond(),
+        finishedPartitions,
+        partitionSizeScale
+    );
+  }
+}
@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.jdbc.multithread;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.jdbc.ColumnReaderPlan;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import org.apache.commons.lang3.tuple.Pair;
@@ -40,6 +41,7 @@ public final class TableReadContext {
   private final ResultSet rs;
   private final boolean neverEvict;
   private int numberOfBatches;
+  private ColumnReaderPlan columnReaderPlan;
 
   public TableReadContext(
       Connection connection,
@@ -130,6 +132,14 @@ public final class TableReadContext {
     this.numberOfBatches = numberOfBatches;
   }
 
+  public ColumnReaderPlan getColumnReaderPlan() {
+    return columnReaderPlan;
+  }
+
+  public void setColumnReaderPlan(ColumnReaderPlan columnReaderPlan) {
+    this.columnReaderPlan = columnReaderPlan;
+  }
+
   public boolean isNeverEvict() {
     return neverEvict;
   }
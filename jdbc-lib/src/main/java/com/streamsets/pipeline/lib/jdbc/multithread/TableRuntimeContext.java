@@ -451,6 +451,18 @@ public class TableRuntimeContext {
   }
 
   public static TableRuntimeContext createNextPartition(final TableRuntimeContext lastPartition) {
+    return createNextPartition(lastPartition, 1.0);
+  }
+
+  /**
+   * Creates the partition following lastPartition, with a width of the configured partition size multiplied by
+   * partitionSizeScale.  The new partition starts where lastPartition ends so that ranges stay contiguous even
+   * when partition sizes change along the way.
+   */
+  public static TableRuntimeContext createNextPartition(
+      final TableRuntimeContext lastPartition,
+      final double partitionSizeScale
+  ) {
     if (!lastPartition.isPartitioned()) {
       throw new IllegalStateException("lastPartition TableRuntimeContext was not partitioned");
     }
@@ -477,13 +489,20 @@ public class TableRuntimeContext {
 
     lastPartition.startingPartitionOffsets.forEach(
         (col, off) -> {
-          String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
+          String lastMaxOffset = lastPartition.maxPartitionOffsets.get(col);
+          String basedOnStartOffset = lastMaxOffset != null ?
+              lastMaxOffset : lastPartition.generateNextPartitionOffset(col, off);
           nextStartingOffsets.put(col, basedOnStartOffset);
         }
     );
 
     nextStartingOffsets.forEach(
-        (col, off) -> nextMaxOffsets.put(col, lastPartition.generateNextPartitionOffset(col, off))
+        (col, off) -> nextMaxOffsets.put(col, TableContextUtil.generateNextPartitionOffset(
+            lastPartition.sourceTableContext,
+            col,
+            off,
+            TableContextUtil.scalePartitionSize(lastPartition.sourceTableContext, col, partitionSizeScale)
+        ))
     );
 
 
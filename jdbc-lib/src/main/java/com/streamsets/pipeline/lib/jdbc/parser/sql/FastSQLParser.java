@@ -0,0 +1,480 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hand written parser for the INSERT, UPDATE and DELETE statements LogMiner generates as redo SQL.
+ *
+ * It accepts the same statements as {@link SQLParser} and returns the same column values as
+ * {@link SQLParserUtils#process}, but only handles the common shapes: quoted values, NULLs and (nested) function calls
+ * with such arguments. For anything else {@link #parse} returns null and the caller is expected to fall back to the
+ * Parboiled grammar. The column list of INSERT statements is cached per table, so that consecutive inserts into the
+ * same table do not parse and format the column names again.
+ *
+ * Instances are not thread safe.
+ */
+public class FastSQLParser {
+
+  private static final int MAX_CACHED_INSERT_PATTERNS = 1000;
+  private static final String NULL_STRING = "NULL";
+
+  private final boolean caseSensitive;
+  private final Map<String, InsertPattern> insertPatterns =
+      new LinkedHashMap<String, InsertPattern>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, InsertPattern> eldest) {
+          return size() > MAX_CACHED_INSERT_PATTERNS;
+        }
+      };
+
+  private String sql;
+  private int pos;
+
+  public FastSQLParser(boolean caseSensitive) {
+    this.caseSensitive = caseSensitive;
+  }
+
+  /**
+   * Parses the given redo SQL.
+   *
+   * @param sql redo SQL
+   * @param type one of the {@link OracleCDCOperationCode} constants
+   * @param allowNulls whether the columns in {@code columnsExpected} missing in the SQL should be added as nulls
+   * @param columnsExpected the columns of the table, can be null
+   * @return map of column names to values, or null if the SQL is not one of the shapes handled by this parser
+   */
+  public Map<String, String> parse(String sql, int type, boolean allowNulls, Set<String> columnsExpected) {
+    this.sql = sql;
+    this.pos = 0;
+    try {
+      Map<String, String> colVals = new HashMap<>();
+      boolean parsed;
+      switch (type) {
+        case OracleCDCOperationCode.INSERT_CODE:
+          parsed = insert(colVals);
+          break;
+        case OracleCDCOperationCode.UPDATE_CODE:
+        case OracleCDCOperationCode.SELECT_FOR_UPDATE_CODE:
+          parsed = update(colVals);
+          break;
+        case OracleCDCOperationCode.DELETE_CODE:
+          parsed = delete(colVals);
+          break;
+        default:
+          return null;
+      }
+      if (!parsed || !atEnd()) {
+        return null;
+      }
+      if (allowNulls && columnsExpected != null) {
+        columnsExpected.forEach(col -> colVals.putIfAbsent(col, null));
+      }
+      return colVals;
+    } finally {
+      this.sql = null;
+    }
+  }
+
+  private boolean insert(Map<String, String> colVals) {
+    whiteSpace();
+    if (!keyword("INSERT")) {
+      return false;
+    }
+    whiteSpace();
+    if (!keyword("INTO")) {
+      return false;
+    }
+    whiteSpace();
+    final int tableStart = pos;
+    if (!schemaAndTable()) {
+      return false;
+    }
+    final String table = sql.substring(tableStart, pos);
+
+    String[] names;
+    InsertPattern pattern = insertPatterns.get(table);
+    if (pattern != null && sql.startsWith(pattern.header, pos)) {
+      names = pattern.names;
+      pos += pattern.header.length();
+    } else {
+      final int headerStart = pos;
+      names = insertColumnNames();
+      if (names == null) {
+        return false;
+      }
+      insertPatterns.put(table, new InsertPattern(sql.substring(headerStart, pos), names));
+    }
+    whiteSpace();
+
+    int i = 0;
+    do {
+      if (i > 0) {
+        whiteSpace();
+      }
+      final int valueStart = pos;
+      if (i >= names.length || !value()) {
+        return false;
+      }
+      putIfNotPresent(colVals, names[i++], formatValue(sql.substring(valueStart, pos)));
+    } while (nextDelimiter(','));
+
+    if (i != names.length || !character(')')) {
+      return false;
+    }
+    whiteSpace();
+    return true;
+  }
+
+  /**
+   * Parses the part of an insert statement from the column list up to and including the opening parenthesis of the
+   * values list.
+   */
+  private String[] insertColumnNames() {
+    whiteSpace();
+    if (!character('(')) {
+      return null;
+    }
+    List<String> names = new ArrayList<>();
+    do {
+      whiteSpace();
+      String name = columnName();
+      if (name == null) {
+        return null;
+      }
+      names.add(name);
+    } while (nextDelimiter(','));
+    whiteSpace();
+    if (!character(')')) {
+      return null;
+    }
+    whiteSpace();
+    if (!keyword("VALUES")) {
+      return null;
+    }
+    whiteSpace();
+    if (!character('(')) {
+      return null;
+    }
+    return names.toArray(new String[names.size()]);
+  }
+
+  private boolean update(Map<String, String> colVals) {
+    whiteSpace();
+    if (!keyword("UPDATE")) {
+      return false;
+    }
+    whiteSpace();
+    if (!schemaAndTable()) {
+      return false;
+    }
+    tableAlias();
+    whiteSpace();
+    if (!keyword("SET") || !columnNameValue(colVals)) {
+      return false;
+    }
+    while (nextDelimiter(',')) {
+      if (!columnNameValue(colVals)) {
+        return false;
+      }
+    }
+    whiteSpace();
+    return whereClause(colVals);
+  }
+
+  private boolean delete(Map<String, String> colVals) {
+    whiteSpace();
+    if (!keyword("DELETE")) {
+      return false;
+    }
+    whiteSpace();
+    if (!keyword("FROM")) {
+      return false;
+    }
+    whiteSpace();
+    if (!schemaAndTable()) {
+      return false;
+    }
+    tableAlias();
+    whiteSpace();
+    return whereClause(colVals);
+  }
+
+  private boolean whereClause(Map<String, String> colVals) {
+    if (!keyword("WHERE")) {
+      return true;
+    }
+    if (!columnNameValue(colVals)) {
+      return false;
+    }
+    while (true) {
+      final int start = pos;
+      whiteSpace();
+      if (!keyword("AND")) {
+        pos = start;
+        return true;
+      }
+      if (!columnNameValue(colVals)) {
+        return false;
+      }
+    }
+  }
+
+  private boolean columnNameValue(Map<String, String> colVals) {
+    whiteSpace();
+    final String name = aliasedColumnName();
+    if (name == null) {
+      return false;
+    }
+    whiteSpace();
+    if (!character('=') && !keyword("IS")) {
+      return false;
+    }
+    whiteSpace();
+    final int valueStart = pos;
+    if (!value()) {
+      return false;
+    }
+    putIfNotPresent(colVals, name, formatValue(sql.substring(valueStart, pos)));
+    whiteSpace();
+    return true;
+  }
+
+  private void tableAlias() {
+    while (true) {
+      final int start = pos;
+      whiteSpace();
+      if (keywordAhead("SET") || keywordAhead("WHERE") || letters() == pos) {
+        pos = start;
+        return;
+      }
+      pos = letters();
+      whiteSpace();
+    }
+  }
+
+  private String aliasedColumnName() {
+    final int aliasEnd = letters();
+    if (aliasEnd > pos && aliasEnd < sql.length() && sql.charAt(aliasEnd) == '.') {
+      pos = aliasEnd + 1;
+    }
+    return columnName();
+  }
+
+  private String columnName() {
+    final String name;
+    if (sql.regionMatches(true, pos, "ROWID", 0, 5)) {
+      name = sql.substring(pos, pos + 5);
+      pos += 5;
+    } else {
+      final int end = identifierEnd();
+      if (end < 0) {
+        return null;
+      }
+      name = sql.substring(pos + 1, end - 1);
+      pos = end;
+    }
+    return caseSensitive ? name : name.toUpperCase();
+  }
+
+  private boolean schemaAndTable() {
+    int end = identifierEnd();
+    if (end < 0) {
+      return false;
+    }
+    pos = end;
+    if (!character('.')) {
+      return false;
+    }
+    end = identifierEnd();
+    if (end < 0) {
+      return false;
+    }
+    pos = end;
+    return true;
+  }
+
+  /**
+   * Returns the end of the double quoted identifier starting at the current position, or -1 if there isn't one. The
+   * grammar allows quote characters to be escaped within identifiers, those are left for the Parboiled parser.
+   */
+  private int identifierEnd() {
+    if (pos >= sql.length() || sql.charAt(pos) != '"') {
+      return -1;
+    }
+    final int close = sql.indexOf('"', pos + 1);
+    if (close < 0 || sql.lastIndexOf('\'', close) > pos) {
+      return -1;
+    }
+    return close + 1;
+  }
+
+  /**
+   * Advances past a column value: NULL, a single quoted string, or a function whose arguments are column values.
+   */
+  private boolean value() {
+    final int nameEnd = functionNameEnd();
+    if (nameEnd > pos && nameEnd < sql.length() && sql.charAt(nameEnd) == '(') {
+      pos = nameEnd + 1;
+      if (character(')')) {
+        return true;
+      }
+      if (!value()) {
+        return false;
+      }
+      while (nextDelimiter(',')) {
+        whiteSpace();
+        if (!value()) {
+          return false;
+        }
+      }
+      return character(')');
+    }
+    if (keyword(NULL_STRING)) {
+      return true;
+    }
+    if (!character('\'')) {
+      return false;
+    }
+    final int length = sql.length();
+    while (pos < length) {
+      if (sql.charAt(pos) == '\'') {
+        if (pos + 1 < length && sql.charAt(pos + 1) == '\'') {
+          pos += 2;
+        } else {
+          pos++;
+          return true;
+        }
+      } else {
+        pos++;
+      }
+    }
+    return false;
+  }
+
+  private static String formatValue(String value) {
+    if (NULL_STRING.equalsIgnoreCase(value)) {
+      return null;
+    }
+    String returnValue = value.charAt(0) == '\'' ? value.substring(1, value.length() - 1) : value;
+    return returnValue.indexOf("''") < 0 ? returnValue : returnValue.replace("''", "'");
+  }
+
+  private static void putIfNotPresent(Map<String, String> colVals, String name, String value) {
+    if (!colVals.containsKey(name)) {
+      colVals.put(name, value);
+    }
+  }
+
+  /**
+   * Advances past the given delimiter if it is the next non whitespace character, otherwise the position is not
+   * changed.
+   */
+  private boolean nextDelimiter(char delimiter) {
+    final int start = pos;
+    whiteSpace();
+    if (character(delimiter)) {
+      return true;
+    }
+    pos = start;
+    return false;
+  }
+
+  private boolean atEnd() {
+    whiteSpace();
+    character(';');
+    whiteSpace();
+    return pos == sql.length();
+  }
+
+  private boolean character(char c) {
+    if (pos < sql.length() && sql.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean keyword(String keyword) {
+    if (keywordAhead(keyword)) {
+      pos += keyword.length();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean keywordAhead(String keyword) {
+    return sql.regionMatches(true, pos, keyword, 0, keyword.length());
+  }
+
+  private int letters() {
+    int end = pos;
+    while (end < sql.length() && isLetter(sql.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+  private int functionNameEnd() {
+    int end = pos;
+    while (end < sql.length()) {
+      final char c = sql.charAt(end);
+      if (!isLetter(c) && !(c >= '0' && c <= '9') && c != '_') {
+        break;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  private void whiteSpace() {
+    while (pos < sql.length()) {
+      switch (sql.charAt(pos)) {
+        case ' ':
+        case '\n':
+        case '\t':
+        case '\r':
+        case '\f':
+          pos++;
+          break;
+        default:
+          return;
+      }
+    }
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private static class InsertPattern {
+    private final String header;
+    private final String[] names;
+
+    private InsertPattern(String header, String[] names) {
+      this.header = header;
+      this.names = names;
+    }
+  }
+}
@@ -41,7 +41,7 @@ import java.util.List;
 
 @GenerateResourceBundle
 @StageDef(
-    version = 6,
+    version = 7,
     label = "JDBC Producer",
     description = "Insert, update, and delete data to a JDBC destination.",
     upgrader = JdbcTargetUpgrader.class,
@@ -177,6 +177,18 @@ public class JdbcDTarget extends DTarget {
   )
   public int maxPrepStmtCache;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Use PostgreSQL COPY",
+      description = "Load records with the PostgreSQL COPY command. Updates and deletes are copied to a temporary " +
+          "table and merged into the destination table. Requires a PostgreSQL connection.",
+      displayPosition = 65,
+      group = "JDBC"
+  )
+  public boolean usePostgresCopy;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.BOOLEAN,
@@ -205,7 +217,8 @@ public class JdbcDTarget extends DTarget {
         changeLogFormat,
         defaultOperation,
         unsupportedAction,
-        hikariConfigBean
+        hikariConfigBean,
+        usePostgresCopy
     );
   }
 }
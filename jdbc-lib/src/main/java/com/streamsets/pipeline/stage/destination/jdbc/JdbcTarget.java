@@ -55,6 +55,9 @@ public class JdbcTarget extends BaseTarget {
 
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
+  private static final String POSTGRES_CONNECTION_PREFIX = "jdbc:postgresql:";
+  private static final String CUSTOM_MAPPINGS = "columnNames";
+  private static final String DEFAULT_PARAM_VALUE = "?";
 
   private final boolean rollbackOnError;
   private final boolean useMultiRowOp;
@@ -79,6 +82,7 @@ public class JdbcTarget extends BaseTarget {
   private final int defaultOpCode;
   private final UnsupportedOperationAction unsupportedAction;
   private final DuplicateKeyAction duplicateKeyAction;
+  private final boolean usePostgresCopy;
 
   class RecordWriterLoader extends CacheLoader<String, JdbcRecordWriter> {
     @Override
@@ -97,7 +101,8 @@ public class JdbcTarget extends BaseTarget {
           unsupportedAction,
           duplicateKeyAction,
           JdbcRecordReaderWriterFactory.createRecordReader(changeLogFormat),
-          caseSensitive
+          caseSensitive,
+          usePostgresCopy
       );
     }
   }
@@ -117,6 +122,38 @@ public class JdbcTarget extends BaseTarget {
       final JDBCOperationType defaultOperation,
       final UnsupportedOperationAction unsupportedAction,
       final HikariPoolConfigBean hikariConfigBean
+  ) {
+    this(
+        schema,
+        tableNameTemplate,
+        customMappings,
+        caseSensitive,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        maxPrepStmtCache,
+        changeLogFormat,
+        defaultOperation,
+        unsupportedAction,
+        hikariConfigBean,
+        false
+    );
+  }
+
+  public JdbcTarget(
+      final String schema,
+      final String tableNameTemplate,
+      final List<JdbcFieldColumnParamMapping> customMappings,
+      final boolean caseSensitive,
+      final boolean rollbackOnError,
+      final boolean useMultiRowOp,
+      int maxPrepStmtParameters,
+      int maxPrepStmtCache,
+      final ChangeLogFormat changeLogFormat,
+      final JDBCOperationType defaultOperation,
+      final UnsupportedOperationAction unsupportedAction,
+      final HikariPoolConfigBean hikariConfigBean,
+      final boolean usePostgresCopy
   ) {
     this(
         schema,
@@ -131,7 +168,8 @@ public class JdbcTarget extends BaseTarget {
         defaultOperation.getCode(),
         unsupportedAction,
         null, // no support for duplicate-key errors
-        hikariConfigBean
+        hikariConfigBean,
+        usePostgresCopy
     );
   }
 
@@ -149,6 +187,40 @@ public class JdbcTarget extends BaseTarget {
       UnsupportedOperationAction unsupportedAction,
       DuplicateKeyAction duplicateKeyAction,
       HikariPoolConfigBean hikariConfigBean
+  ) {
+    this(
+        schema,
+        tableNameTemplate,
+        customMappings,
+        caseSensitive,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        maxPrepStmtCache,
+        changeLogFormat,
+        defaultOpCode,
+        unsupportedAction,
+        duplicateKeyAction,
+        hikariConfigBean,
+        false
+    );
+  }
+
+  public JdbcTarget(
+      final String schema,
+      final String tableNameTemplate,
+      final List<JdbcFieldColumnParamMapping> customMappings,
+      final boolean caseSensitive,
+      final boolean rollbackOnError,
+      final boolean useMultiRowOp,
+      int maxPrepStmtParameters,
+      int maxPrepStmtCache,
+      final ChangeLogFormat changeLogFormat,
+      final int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      DuplicateKeyAction duplicateKeyAction,
+      HikariPoolConfigBean hikariConfigBean,
+      boolean usePostgresCopy
   ) {
     this.schema = schema;
     this.tableNameTemplate = tableNameTemplate;
@@ -162,6 +234,7 @@ public class JdbcTarget extends BaseTarget {
     this.defaultOpCode = defaultOpCode;
     this.unsupportedAction = unsupportedAction;
     this.duplicateKeyAction = duplicateKeyAction;
+    this.usePostgresCopy = usePostgresCopy;
     this.hikariConfigBean = hikariConfigBean;
     this.dynamicTableName = JdbcUtil.isElString(tableNameTemplate);
 
@@ -190,6 +263,29 @@ public class JdbcTarget extends BaseTarget {
 
     issues = hikariConfigBean.validateConfigs(context, issues);
 
+    if (usePostgresCopy && !hikariConfigBean.getConnectionString().startsWith(POSTGRES_CONNECTION_PREFIX)) {
+      issues.add(context.createConfigIssue(
+          Groups.JDBC.name(),
+          CONNECTION_STRING,
+          JdbcErrors.JDBC_89,
+          hikariConfigBean.getConnectionString()
+      ));
+    }
+
+    if (usePostgresCopy && customMappings != null) {
+      for (JdbcFieldColumnParamMapping mapping : customMappings) {
+        if (mapping.paramValue != null && !DEFAULT_PARAM_VALUE.equals(mapping.paramValue.trim())) {
+          issues.add(context.createConfigIssue(
+              Groups.JDBC.name(),
+              CUSTOM_MAPPINGS,
+              JdbcErrors.JDBC_90,
+              mapping.paramValue,
+              mapping.columnName
+          ));
+        }
+      }
+    }
+
     if (dynamicTableName) {
       tableNameVars = getContext().createELVars();
       tableNameEval = context.createELEval(JdbcUtil.TABLE_NAME);
@@ -39,6 +39,7 @@ import com.streamsets.pipeline.lib.jdbc.multithread.TableContextUtil;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableJdbcRunnable;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableOrderProvider;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableOrderProviderFactory;
+import com.streamsets.pipeline.lib.jdbc.multithread.TableOrderStrategy;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableReadContext;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableRuntimeContext;
 import com.streamsets.pipeline.stage.origin.jdbc.table.PartitioningMode;
@@ -76,6 +77,7 @@ public abstract class AbstractTableJdbcSource extends BasePushSource {
   private static final Joiner NEW_LINE_JOINER = Joiner.on("\n");
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
+  private static final String TABLE_PROGRESS = "Table Progress";
 
   private final HikariPoolConfigBean hikariConfigBean;
   private final CommonSourceConfigBean commonSourceConfigBean;
@@ -298,6 +300,11 @@ public abstract class AbstractTableJdbcSource extends BasePushSource {
               numberOfThreads,
               tableJdbcConfigBean.batchTableStrategy
           );
+          // without an explicit table order, idle threads are free to go after whichever table has the most work left
+          this.tableOrderProvider.setWorkAwareScheduling(
+              tableJdbcConfigBean.tableOrderStrategy == TableOrderStrategy.NONE
+          );
+          this.tableOrderProvider.setTableProgressGauge(getContext().createGauge(TABLE_PROGRESS).getValue());
         } else {
           this.tableOrderProvider.setTableContextMap(allTableContexts, tableOrderProvider.getOrderedTables());
         }
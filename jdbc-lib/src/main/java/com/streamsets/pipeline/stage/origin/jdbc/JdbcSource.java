@@ -32,6 +32,7 @@ import com.streamsets.pipeline.api.lineage.LineageEventType;
 import com.streamsets.pipeline.api.lineage.LineageSpecificAttribute;
 import com.streamsets.pipeline.lib.event.CommonEvents;
 import com.streamsets.pipeline.lib.event.EventCreator;
+import com.streamsets.pipeline.lib.jdbc.ColumnReaderPlan;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
@@ -112,6 +113,7 @@ public class JdbcSource extends BaseSource {
   private HikariDataSource dataSource = null;
   private Connection connection = null;
   private ResultSet resultSet = null;
+  private ColumnReaderPlan columnReaderPlan = null;
   private long lastQueryCompletedTime = 0L;
   private String preparedQuery;
   private String hashedQuery;
@@ -542,13 +544,10 @@ public class JdbcSource extends BaseSource {
     ResultSetMetaData md = resultSet.getMetaData();
     int numColumns = md.getColumnCount();
 
-    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-        resultSet,
-        commonSourceConfigBean,
-        errorRecordHandler,
-        unknownTypeAction,
-        null
-    );
+    if (columnReaderPlan == null || !columnReaderPlan.isFor(resultSet)) {
+      columnReaderPlan = ColumnReaderPlan.create(resultSet, commonSourceConfigBean, unknownTypeAction, null);
+    }
+    LinkedHashMap<String, Field> fields = columnReaderPlan.readFields(resultSet, errorRecordHandler);
 
     if (fields.size() != numColumns) {
       errorRecordHandler.onError(JdbcErrors.JDBC_35, fields.size(), numColumns);
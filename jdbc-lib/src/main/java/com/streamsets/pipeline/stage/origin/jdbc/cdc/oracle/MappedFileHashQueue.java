@@ -0,0 +1,530 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Transaction buffer that keeps the records of a transaction on the heap until their estimated size exceeds the spill
+ * threshold, and appends all further records to memory mapped segment files using a compact binary encoding.
+ *
+ * The buffer is an append-only log: records are only added at the tail and removed at the head, so both buffering a
+ * large transaction and reading it back at commit time are sequential. Segments are unmapped and deleted as soon as they
+ * have been consumed.
+ */
+public class MappedFileHashQueue implements HashQueue<RecordSequence> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MappedFileHashQueue.class);
+
+  static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+
+  private static final byte SSN_DECIMAL = 0;
+  private static final byte SSN_STRING = 1;
+  private static final int NULL_LENGTH = -1;
+
+  // releases the mapping of a segment right away instead of when the buffer is garbage collected, null if the JVM
+  // doesn't give access to it
+  private static final Consumer<ByteBuffer> UNMAPPER = createUnmapper();
+
+  private final File directory;
+  private final long spillThreshold;
+  private final int segmentSize;
+
+  private final ArrayDeque<RecordSequence> inMemory = new ArrayDeque<>();
+  private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+  private final Set<RsIdSsn> keys = new HashSet<>();
+  private long inMemorySize = 0;
+  private int spilled = 0;
+  private int segmentCount = 0;
+  private RecordSequence tail;
+  private ByteBuffer encoded = ByteBuffer.allocate(4096);
+
+  /**
+   * @param directory directory the segment files of this transaction are created in, only created when needed
+   * @param spillThreshold estimated size in bytes of the records kept on the heap before spilling to disk
+   */
+  public MappedFileHashQueue(File directory, long spillThreshold) {
+    this(directory, spillThreshold, SEGMENT_SIZE);
+  }
+
+  @VisibleForTesting
+  MappedFileHashQueue(File directory, long spillThreshold, int segmentSize) {
+    this.directory = directory;
+    this.spillThreshold = spillThreshold;
+    this.segmentSize = segmentSize;
+  }
+
+  @Override
+  public RecordSequence tail() {
+    return tail;
+  }
+
+  @Override
+  public int size() {
+    return inMemory.size() + spilled;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof RecordSequence && keys.contains(getKey((RecordSequence) o));
+  }
+
+  @Override
+  public boolean add(RecordSequence record) {
+    if (!keys.add(getKey(record))) {
+      return false;
+    }
+    tail = record;
+    long recordSize = estimateHeapSize(record);
+    // once records have been spilled, all further records go to disk as well to keep the order
+    if (spilled == 0 && inMemorySize + recordSize <= spillThreshold) {
+      inMemory.add(record);
+      inMemorySize += recordSize;
+    } else {
+      append(record);
+      spilled++;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean offer(RecordSequence record) {
+    return add(record);
+  }
+
+  @Override
+  public RecordSequence remove() {
+    RecordSequence record;
+    if (!inMemory.isEmpty()) {
+      record = inMemory.remove();
+      inMemorySize -= estimateHeapSize(record);
+    } else if (spilled > 0) {
+      Segment segment = segments.getFirst();
+      record = segment.read(segment.readPosition);
+      segment.readPosition = segment.nextPosition(segment.readPosition);
+      spilled--;
+      if (segment.readPosition == segment.writePosition && (spilled == 0 || segments.size() > 1)) {
+        segments.removeFirst().delete();
+      }
+    } else {
+      throw new NoSuchElementException();
+    }
+    removed(record);
+    return record;
+  }
+
+  private void removed(RecordSequence record) {
+    keys.remove(getKey(record));
+    if (isEmpty()) {
+      tail = null;
+    }
+  }
+
+  @Override
+  public RecordSequence poll() {
+    return isEmpty() ? null : remove();
+  }
+
+  @Override
+  public RecordSequence element() {
+    if (!inMemory.isEmpty()) {
+      return inMemory.getFirst();
+    } else if (spilled > 0) {
+      Segment segment = segments.getFirst();
+      return segment.read(segment.readPosition);
+    }
+    throw new NoSuchElementException();
+  }
+
+  @Override
+  public RecordSequence peek() {
+    return isEmpty() ? null : element();
+  }
+
+  @NotNull
+  @Override
+  public Iterator<RecordSequence> iterator() {
+    return new MappedFileHashQueueIterator();
+  }
+
+  @NotNull
+  @Override
+  public Object[] toArray() {
+    throw new UnsupportedOperationException();
+  }
+
+  @NotNull
+  @Override
+  public <T> T[] toArray(@NotNull T[] a) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean containsAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(@NotNull Collection<? extends RecordSequence> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean retainAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    inMemory.clear();
+    keys.clear();
+    inMemorySize = 0;
+    spilled = 0;
+    tail = null;
+    while (!segments.isEmpty()) {
+      segments.removeFirst().delete();
+    }
+  }
+
+  @Override
+  public void close() {
+    clear();
+    if (segmentCount > 0) {
+      FileUtils.deleteQuietly(directory);
+    }
+  }
+
+  @Override
+  public void completeInserts() {
+    // appended records can be read right away, there is nothing to flush
+  }
+
+  @VisibleForTesting
+  int getSegmentCount() {
+    return segments.size();
+  }
+
+  @VisibleForTesting
+  static boolean canUnmap() {
+    return UNMAPPER != null;
+  }
+
+  private static Consumer<ByteBuffer> createUnmapper() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      try {
+        // Java 9 and later
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        Object unsafe = theUnsafe.get(null);
+        return buffer -> invoke(invokeCleaner, unsafe, buffer);
+      } catch (NoSuchMethodException ex) {
+        // Java 8
+        Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+        return buffer -> invoke(clean, invoke(cleaner, buffer));
+      }
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      LOG.debug("Transaction buffer segments will be unmapped when garbage collected: {}", ex.toString(), ex);
+      return null;
+    }
+  }
+
+  private static Object invoke(Method method, Object target, Object... args) {
+    try {
+      return method.invoke(target, args);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static RsIdSsn getKey(RecordSequence record) {
+    return new RsIdSsn(record.rsId, record.ssn.toString());
+  }
+
+  private static long estimateHeapSize(RecordSequence record) {
+    long size = 64 + 2L * record.sqlString.length();
+    if (record.headers != null) {
+      for (Map.Entry<String, String> header : record.headers.entrySet()) {
+        size += 64 + 2L * header.getKey().length() + (header.getValue() == null ? 0 : 2L * header.getValue().length());
+      }
+    }
+    return size;
+  }
+
+  private void append(RecordSequence record) {
+    encode(record);
+    int length = encoded.remaining();
+    Segment segment = segments.peekLast();
+    try {
+      if (segment == null || segment.buffer.capacity() - segment.writePosition < length) {
+        if (segmentCount == 0) {
+          Files.createDirectories(directory.toPath());
+        }
+        segment = new Segment(new File(directory, "segment-" + segmentCount++), Math.max(segmentSize, length));
+        segments.add(segment);
+      }
+    } catch (IOException ex) {
+      LOG.error("Error while creating transaction buffer segment in {}", directory, ex);
+      throw new RuntimeException(ex);
+    }
+    segment.buffer.position(segment.writePosition);
+    segment.buffer.put(encoded);
+    segment.writePosition += length;
+  }
+
+  /**
+   * Encodes the record as its length followed by the fields, strings as UTF-8 bytes prefixed by their length.
+   */
+  private void encode(RecordSequence record) {
+    encoded.clear();
+    encoded.putInt(0);
+    ensureCapacity(8);
+    encoded.putInt(record.seq);
+    encoded.putInt(record.opCode);
+    putString(record.rsId);
+    ensureCapacity(1);
+    encoded.put(record.ssn instanceof BigDecimal ? SSN_DECIMAL : SSN_STRING);
+    putString(record.ssn.toString());
+    if (record.timestamp == null) {
+      ensureCapacity(8);
+      encoded.putLong(Long.MIN_VALUE);
+    } else {
+      ensureCapacity(12);
+      encoded.putLong(record.timestamp.toEpochSecond(ZoneOffset.UTC));
+      encoded.putInt(record.timestamp.getNano());
+    }
+    putString(record.sqlString);
+    ensureCapacity(4);
+    if (record.headers == null) {
+      encoded.putInt(NULL_LENGTH);
+    } else {
+      encoded.putInt(record.headers.size());
+      for (Map.Entry<String, String> header : record.headers.entrySet()) {
+        putString(header.getKey());
+        putString(header.getValue());
+      }
+    }
+    encoded.putInt(0, encoded.position() - 4);
+    encoded.flip();
+  }
+
+  private void putString(String value) {
+    if (value == null) {
+      ensureCapacity(4);
+      encoded.putInt(NULL_LENGTH);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      ensureCapacity(4 + bytes.length);
+      encoded.putInt(bytes.length);
+      encoded.put(bytes);
+    }
+  }
+
+  private void ensureCapacity(int bytes) {
+    if (encoded.remaining() < bytes) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(encoded.capacity() * 2, encoded.position() + bytes));
+      encoded.flip();
+      grown.put(encoded);
+      encoded = grown;
+    }
+  }
+
+  private static RecordSequence decode(ByteBuffer buffer) {
+    int seq = buffer.getInt();
+    int opCode = buffer.getInt();
+    String rsId = getString(buffer);
+    byte ssnType = buffer.get();
+    String ssnString = getString(buffer);
+    Object ssn = ssnType == SSN_DECIMAL ? new BigDecimal(ssnString) : ssnString;
+    LocalDateTime timestamp = null;
+    long epochSecond = buffer.getLong();
+    if (epochSecond != Long.MIN_VALUE) {
+      timestamp = LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(), ZoneOffset.UTC);
+    }
+    String sql = getString(buffer);
+    Map<String, String> headers = null;
+    int headerCount = buffer.getInt();
+    if (headerCount != NULL_LENGTH) {
+      headers = new HashMap<>(headerCount * 2);
+      for (int i = 0; i < headerCount; i++) {
+        headers.put(getString(buffer), getString(buffer));
+      }
+    }
+    return new RecordSequence(headers, sql, seq, opCode, rsId, ssn, timestamp);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Segment {
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private int writePosition = 0;
+    private int readPosition = 0;
+    private boolean deleted = false;
+
+    private Segment(File file, int size) throws IOException {
+      this.file = file;
+      try (FileChannel channel = FileChannel.open(
+          file.toPath(),
+          StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.READ,
+          StandardOpenOption.WRITE
+      )) {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      }
+    }
+
+    private RecordSequence read(int position) {
+      checkNotDeleted();
+      ByteBuffer view = buffer.duplicate();
+      view.limit(position + 4 + buffer.getInt(position));
+      view.position(position + 4);
+      return decode(view);
+    }
+
+    private int nextPosition(int position) {
+      checkNotDeleted();
+      return position + 4 + buffer.getInt(position);
+    }
+
+    // the buffer must not be accessed once unmapped, it would crash the JVM
+    private void checkNotDeleted() {
+      if (deleted) {
+        throw new IllegalStateException(Utils.format("Transaction buffer segment {} has been deleted", file));
+      }
+    }
+
+    private void delete() {
+      deleted = true;
+      if (UNMAPPER != null) {
+        try {
+          UNMAPPER.accept(buffer);
+        } catch (RuntimeException ex) {
+          LOG.debug("Could not unmap transaction buffer segment {}: {}", file, ex.toString(), ex);
+        }
+      }
+      if (!file.delete()) {
+        LOG.warn("Could not delete transaction buffer segment {}", file);
+      }
+    }
+  }
+
+  /**
+   * Iterates over the records without consuming them. Like for the other buffers, remove() always removes the head of
+   * the queue, which is the only way the CDC origin uses it.
+   */
+  private class MappedFileHashQueueIterator implements Iterator<RecordSequence> {
+    private final Iterator<RecordSequence> inMemoryIterator = inMemory.iterator();
+    private final Iterator<Segment> segmentIterator = segments.iterator();
+    private Segment segment;
+    private int position;
+    private int remaining = spilled;
+    private boolean lastFromMemory;
+
+    @Override
+    public boolean hasNext() {
+      return inMemoryIterator.hasNext() || remaining > 0;
+    }
+
+    @Override
+    public RecordSequence next() {
+      lastFromMemory = inMemoryIterator.hasNext();
+      if (lastFromMemory) {
+        return inMemoryIterator.next();
+      }
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+      if (segment == null) {
+        segment = segmentIterator.next();
+        position = segment.readPosition;
+      }
+      while (position == segment.writePosition) {
+        segment = segmentIterator.next();
+        position = segment.readPosition;
+      }
+      RecordSequence record = segment.read(position);
+      position = segment.nextPosition(position);
+      remaining--;
+      return record;
+    }
+
+    @Override
+    public void remove() {
+      if (lastFromMemory) {
+        RecordSequence record = inMemory.getFirst();
+        inMemoryIterator.remove();
+        inMemorySize -= estimateHeapSize(record);
+        removed(record);
+      } else {
+        MappedFileHashQueue.this.remove();
+      }
+    }
+  }
+}
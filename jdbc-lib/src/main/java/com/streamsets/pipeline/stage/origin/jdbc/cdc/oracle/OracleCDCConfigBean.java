@@ -17,7 +17,6 @@ package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
 
 import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
-import com.streamsets.pipeline.api.Dependency;
 import com.streamsets.pipeline.api.ValueChooserModel;
 import com.streamsets.pipeline.config.TimeZoneChooserValues;
 import com.streamsets.pipeline.lib.el.TimeEL;
@@ -111,6 +110,21 @@ public class OracleCDCConfigBean {
   @ValueChooserModel(BufferingChooserValues.class)
   public BufferingValues bufferLocation;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Transaction Spill Threshold (KB)",
+      description = "Records of a buffered transaction are kept in memory up to this size, and written to memory " +
+          "mapped files on disk beyond it",
+      displayPosition = 95,
+      group = "CDC",
+      defaultValue = "1024",
+      min = 0,
+      dependsOn = "bufferLocation",
+      triggeredByValue = "ON_DISK"
+  )
+  public int txnSpillThreshold;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.BOOLEAN,
@@ -242,12 +256,10 @@ public class OracleCDCConfigBean {
       description = "Number of threads to use to parse",
       displayPosition = 6,
       group = "ADVANCED",
-      dependencies = {
-          @Dependency(configName = "parseQuery", triggeredByValues = "true"),
-          @Dependency(configName = "bufferLocally", triggeredByValues = "true")
-          // during non-local buffering we receive committed transactions in the order that oracle chooses,
-          // so we can't parallelize it
-      },
+      // without local buffering, committed transactions are parsed in parallel as well and reassembled in the order
+      // that oracle returns them
+      dependsOn = "parseQuery",
+      triggeredByValue = "true",
       defaultValue = "1",
       min = 1
   )
@@ -32,6 +32,7 @@ import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.PrecisionAndScale;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.DateTimeColumnHandler;
+import com.streamsets.pipeline.lib.jdbc.parser.sql.FastSQLParser;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.ParseUtil;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLListener;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLParser;
@@ -74,8 +75,10 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -202,6 +205,7 @@ public class OracleCDCSource extends BaseSource {
   private PreparedStatement selectFromLogMnrContents;
   private static final int MISSING_LOG_FILE = 1291;
   private static final int QUERY_TIMEOUT = 1013;
+  private static final int MAX_PENDING_RECORDS_PER_PARSING_THREAD = 100;
 
   private final Lock bufferedRecordsLock = new ReentrantLock();
   private final BlockingQueue<StageException> stageExceptions = new LinkedBlockingQueue<>(1);
@@ -286,7 +290,12 @@ public class OracleCDCSource extends BaseSource {
   private final ThreadLocal<SQLParser> sqlParser =
       ThreadLocal.withInitial(() -> Parboiled.createParser(SQLParser.class));
 
+  private final ThreadLocal<FastSQLParser> fastSqlParser =
+      ThreadLocal.withInitial(() -> new FastSQLParser(configBean.baseConfigBean.caseSensitive));
+
   private ExecutorService parsingExecutor;
+  // Records read without local buffering whose redo SQL is being parsed, only accessed by the generation thread.
+  private final Deque<FutureWrapper> pendingRecords = new ArrayDeque<>();
 
   public OracleCDCSource(HikariPoolConfigBean hikariConf, OracleCDCConfigBean oracleCDCConfigBean) {
     this.configBean = oracleCDCConfigBean;
@@ -595,14 +604,22 @@ public class OracleCDCSource extends BaseSource {
                 if (configBean.keepOriginalQuery) {
                   attributes.put(QUERY_KEY, queryString);
                 }
-                try {
-                  Record record = generateRecord(queryString, attributes, op);
-                  if (record != null && record.getEscapedFieldPaths().size() > 0) {
-                    recordQueue.put(new RecordOffset(record, offset));
+                if (parsingExecutor != null) {
+                  // Parse on the parsing threads, emitParsedRecords hands the records over in the order they were read
+                  final Future<Record> recordFuture =
+                      parsingExecutor.submit(() -> generateRecord(queryString, attributes, op));
+                  pendingRecords.add(new FutureWrapper(recordFuture, queryString, offset));
+                  emitParsedRecords(false);
+                } else {
+                  try {
+                    Record record = generateRecord(queryString, attributes, op);
+                    if (record != null && record.getEscapedFieldPaths().size() > 0) {
+                      recordQueue.put(new RecordOffset(record, offset));
+                    }
+                  } catch (UnparseableSQLException ex) {
+                    LOG.error("Parsing failed", ex);
+                    unparseable.offer(queryString);
                   }
-                } catch (UnparseableSQLException ex) {
-                  LOG.error("Parsing failed", ex);
-                  unparseable.offer(queryString);
                 }
               } else {
                 bufferedRecordsLock.lock();
@@ -628,7 +645,10 @@ public class OracleCDCSource extends BaseSource {
               if (op == ROLLBACK_CODE || scnDecimal.compareTo(lastCommitSCN) < 0) {
                 bufferedRecordsLock.lock();
                 try {
-                  bufferedRecords.remove(key);
+                  HashQueue<RecordSequence> records = bufferedRecords.remove(key);
+                  if (records != null) {
+                    records.close();
+                  }
                 } finally {
                   bufferedRecordsLock.unlock();
                 }
@@ -648,6 +668,8 @@ public class OracleCDCSource extends BaseSource {
                 }
               }
             } else {
+              // DDLs can change the table schemas used while parsing, so let the records read so far through first
+              emitParsedRecords(true);
               offset = new Offset(version, tsDate, scn, 0);
               boolean sendSchema = false;
               // Commit/rollback in Preview will also end up here, so don't really do any of the following in preview
@@ -669,6 +691,7 @@ public class OracleCDCSource extends BaseSource {
             query.setLength(0);
           }
         }
+        emitParsedRecords(true);
       } catch (SQLException ex) {
         error = true;
         // force a restart from the same timestamp.
@@ -697,6 +720,7 @@ public class OracleCDCSource extends BaseSource {
         error = true;
         addToStageExceptionsQueue(new StageException(JDBC_52, ex));
       } finally {
+        discardPendingRecords();
         // If an incomplete batch is seen, it means we are going to move the window forward
         // Ending this session and starting a new one helps reduce PGA memory usage.
         try {
@@ -737,6 +761,48 @@ public class OracleCDCSource extends BaseSource {
     }
   }
 
+  /**
+   * Hands the records whose redo SQL has been parsed over to the record queue, in the order they were read from
+   * LogMiner. Unless {@code waitForAll} is set, this only waits for the oldest pending records when there are too many
+   * of them in flight.
+   */
+  private void emitParsedRecords(boolean waitForAll) throws InterruptedException, StageException {
+    final int maxPendingRecords = configBean.parseThreadPoolSize * MAX_PENDING_RECORDS_PER_PARSING_THREAD;
+    while (!pendingRecords.isEmpty() &&
+        (waitForAll || pendingRecords.size() > maxPendingRecords || pendingRecords.peek().future.isDone())) {
+      FutureWrapper pending = pendingRecords.remove();
+      try {
+        Record record = pending.future.get();
+        if (record != null && record.getEscapedFieldPaths().size() > 0) {
+          RecordOffset recordOffset = new RecordOffset(record, pending.offset);
+          while (!recordQueue.offer(recordOffset, 1, TimeUnit.SECONDS)) {
+            if (getContext().isStopped()) {
+              return;
+            }
+          }
+        }
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof UnparseableSQLException) {
+          LOG.error("Parsing failed", cause);
+          unparseable.offer(pending.sql);
+        } else if (cause instanceof StageException) {
+          throw (StageException) cause;
+        } else {
+          throw new StageException(JDBC_52, cause);
+        }
+      }
+    }
+  }
+
+  private void discardPendingRecords() {
+    if (!pendingRecords.isEmpty()) {
+      LOG.warn("Discarding {} records that were not yet handed over", pendingRecords.size());
+      pendingRecords.forEach(pending -> pending.future.cancel(true));
+      pendingRecords.clear();
+    }
+  }
+
   private void resetConnectionsQuietly() {
     try {
       resetDBConnectionsIfRequired();
@@ -781,14 +847,18 @@ public class OracleCDCSource extends BaseSource {
         if (configBean.allowNulls && table.isNotEmpty()) {
           columnsExpected = tableSchemas.get(table).keySet();
         }
-        columns = SQLParserUtils.process(
-            sqlParser.get(),
-            sql,
-            operationCode,
-            configBean.allowNulls,
-            configBean.baseConfigBean.caseSensitive,
-            columnsExpected
-        );
+        // The hand written parser handles the common statement shapes, anything else goes to the Parboiled grammar
+        columns = fastSqlParser.get().parse(sql, operationCode, configBean.allowNulls, columnsExpected);
+        if (columns == null) {
+          columns = SQLParserUtils.process(
+              sqlParser.get(),
+              sql,
+              operationCode,
+              configBean.allowNulls,
+              configBean.baseConfigBean.caseSensitive,
+              columnsExpected
+          );
+        }
       } else {
         // Walk it and attach our sqlListener
         sqlListener.get().reset();
@@ -1366,18 +1436,16 @@ public class OracleCDCSource extends BaseSource {
       }
     }
 
-    if (configBean.bufferLocally) {
-      if (configBean.parseQuery) {
-        parsingExecutor = Executors.newFixedThreadPool(
-            configBean.parseThreadPoolSize,
-            new ThreadFactoryBuilder().setNameFormat("Oracle CDC Origin Parse Thread - %d").build()
-        );
-      } else {
-        parsingExecutor =
-            Executors.newSingleThreadExecutor(
-                new ThreadFactoryBuilder().setNameFormat("Oracle CDC Origin Parse Thread - %d").build()
-        );
-      }
+    if (configBean.parseQuery) {
+      parsingExecutor = Executors.newFixedThreadPool(
+          configBean.parseThreadPoolSize,
+          new ThreadFactoryBuilder().setNameFormat("Oracle CDC Origin Parse Thread - %d").build()
+      );
+    } else if (configBean.bufferLocally) {
+      parsingExecutor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactoryBuilder().setNameFormat("Oracle CDC Origin Parse Thread - %d").build()
+      );
     }
 
     if (configBean.txnWindow >= configBean.logminerWindow) {
@@ -1742,6 +1810,7 @@ public class OracleCDCSource extends BaseSource {
             }
           }
           txnDiscarded.incrementAndGet();
+          entry.getValue().close();
           iter.remove();
         }
       }
@@ -1776,13 +1845,8 @@ public class OracleCDCSource extends BaseSource {
   }
 
   private HashQueue<RecordSequence> createTransactionBuffer(String txnId) {
-    try {
-      return configBean.bufferLocation == BufferingValues.IN_MEMORY ? new InMemoryHashQueue<>() :
-          new FileBackedHashQueue<>(new File(txnBufferLocation, txnId));
-    } catch (IOException ex) {
-      LOG.error("Error while creating transaction buffer", ex);
-      throw new RuntimeException(ex);
-    }
+    return configBean.bufferLocation == BufferingValues.IN_MEMORY ? new InMemoryHashQueue<>() :
+        new MappedFileHashQueue(new File(txnBufferLocation, txnId), configBean.txnSpillThreshold * 1024L);
   }
 
   private class TransactionIdKey {
@@ -1858,11 +1922,20 @@ public class OracleCDCSource extends BaseSource {
     final Future<Record> future;
     final String sql;
     final int seq;
+    final Offset offset;
 
     public FutureWrapper(Future<Record> future, String sql, int seq) {
       this.future = future;
       this.sql = sql;
       this.seq = seq;
+      this.offset = null;
+    }
+
+    public FutureWrapper(Future<Record> future, String sql, Offset offset) {
+      this.future = future;
+      this.sql = sql;
+      this.seq = 0;
+      this.offset = offset;
     }
   }
 
@@ -22,9 +22,9 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.ColumnReaderPlan;
 import com.streamsets.pipeline.lib.jdbc.DataType;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
-import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import org.slf4j.Logger;
@@ -33,7 +33,6 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -89,19 +88,21 @@ public class JdbcLookupLoader extends CacheLoader<String, Optional<List<Map<Stri
       t.stop();
       t = null;
 
+      ColumnReaderPlan plan = ColumnReaderPlan.create(
+        resultSet,
+        maxClobSize,
+        maxBlobSize,
+        columnsToTypes,
+        UnknownTypeAction.STOP_PIPELINE,
+        null,
+        false
+      );
+      int numColumns = plan.getColumnCount();
+
       // Process whole result set and load it to the memory
       while(resultSet.next()) {
-        ResultSetMetaData md = resultSet.getMetaData();
-
-        LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(resultSet,
-          maxClobSize,
-          maxBlobSize,
-          columnsToTypes,
-          errorRecordHandler,
-          UnknownTypeAction.STOP_PIPELINE
-        );
+        LinkedHashMap<String, Field> fields = plan.readFields(resultSet, errorRecordHandler);
 
-        int numColumns = md.getColumnCount();
         if (fields.size() != numColumns) {
           throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
         }
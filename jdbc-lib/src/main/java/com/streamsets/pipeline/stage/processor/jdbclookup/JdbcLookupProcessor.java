@@ -36,6 +36,8 @@ import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcFieldColumnMapping;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.memory.MemoryAccountant;
+import com.streamsets.pipeline.lib.memory.SizeEstimator;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
@@ -75,6 +77,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
   private static final String COLUMN_MAPPINGS = "columnMappings";
+  private static final int CACHE_SAMPLE_SIZE = 16;
   private final CacheConfig cacheConfig;
 
   private ELEval queryEval;
@@ -95,6 +98,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private LoadingCache<String, Optional<List<Map<String, Field>>>> cache;
   private Optional<List<Map<String, Field>>> defaultValue;
   private CacheCleaner cacheCleaner;
+  private MemoryAccountant cacheAccountant;
   private final MissingValuesBehavior missingValuesBehavior;
 
   private List<ExecutorService> generationExecutors = new ArrayList<>();
@@ -148,6 +152,9 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     if (issues.isEmpty()) {
       cache = buildCache();
       cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
+      if (MemoryAccountant.isEnabled(getContext())) {
+        cacheAccountant = new MemoryAccountant(getContext(), "lookupCache");
+      }
       if (cacheConfig.enabled) {
         preprocessThreads = Math.min(hikariConfigBean.minIdle, Runtime.getRuntime().availableProcessors()-1);
         preprocessThreads = Math.max(preprocessThreads, 1);
@@ -295,6 +302,32 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
     //Normal processing per record
     super.process(batch, batchMaker);
+    if (cacheAccountant != null) {
+      cacheAccountant.set(estimateCacheSize());
+    }
+  }
+
+  /**
+   * Estimates the cache from a sample of its entries, the results of the lookups have the same columns.
+   */
+  private long estimateCacheSize() {
+    long count = cache.size();
+    int samples = 0;
+    long sampled = 0;
+    for (Map.Entry<String, Optional<List<Map<String, Field>>>> entry : cache.asMap().entrySet()) {
+      sampled += SizeEstimator.ofString(entry.getKey());
+      if (entry.getValue().isPresent()) {
+        List<Map<String, Field>> rows = entry.getValue().get();
+        sampled += SizeEstimator.ofArrayList(rows.size());
+        for (Map<String, Field> row : rows) {
+          sampled += SizeEstimator.ofFields(row, false);
+        }
+      }
+      if (++samples == CACHE_SAMPLE_SIZE) {
+        break;
+      }
+    }
+    return (samples == 0) ? 0 : sampled * count / samples;
   }
 
   /** {@inheritDoc} */
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes through the COPY protocol of a real PostgreSQL server and reads the rows back.
+ */
+public class JdbcCopyRecordWriterIT {
+  private static final String SCHEMA = "test";
+  private static final String TABLE = "copy_table";
+
+  @ClassRule
+  public static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:9.6");
+
+  private static HikariDataSource dataSource;
+
+  @BeforeClass
+  public static void setUpClass() {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(postgres.getJdbcUrl());
+    config.setUsername(postgres.getUsername());
+    config.setPassword(postgres.getPassword());
+    // same as the JDBC Producer, the writer commits the batches itself
+    config.setAutoCommit(false);
+    dataSource = new HikariDataSource(config);
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    dataSource.close();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+      statement.execute(
+          "CREATE TABLE " + SCHEMA + "." + TABLE + " (p_id INT NOT NULL, msg VARCHAR(20), PRIMARY KEY(p_id))"
+      );
+      connection.commit();
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + SCHEMA + "." + TABLE);
+      connection.commit();
+    }
+  }
+
+  private static JdbcCopyRecordWriter createWriter(boolean rollbackOnError) throws Exception {
+    return new JdbcCopyRecordWriter(
+        postgres.getJdbcUrl(),
+        dataSource,
+        SCHEMA,
+        TABLE,
+        rollbackOnError,
+        new LinkedList<>(),
+        OperationType.INSERT_CODE,
+        UnsupportedOperationAction.DISCARD,
+        new JdbcRecordReader(),
+        false
+    );
+  }
+
+  private static Record createRecord(int opCode, int id, String msg) {
+    Record record = RecordCreator.create();
+    record.getHeader().setAttribute(OperationType.SDC_OPERATION_TYPE, String.valueOf(opCode));
+    Map<String, Field> fields = new LinkedHashMap<>();
+    fields.put("p_id", Field.create(id));
+    fields.put("msg", Field.create(Field.Type.STRING, msg));
+    record.set(Field.create(fields));
+    return record;
+  }
+
+  private static Map<Integer, String> readRows() throws Exception {
+    Map<Integer, String> rows = new LinkedHashMap<>();
+    try (
+        Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT p_id, msg FROM " + SCHEMA + "." + TABLE + " ORDER BY p_id")
+    ) {
+      while (resultSet.next()) {
+        rows.put(resultSet.getInt(1), resultSet.getString(2));
+      }
+      connection.commit();
+    }
+    return rows;
+  }
+
+  private static List<Record> getRecords(List<OnRecordErrorException> errors) {
+    List<Record> records = new ArrayList<>();
+    for (OnRecordErrorException error : errors) {
+      records.add(error.getRecord());
+    }
+    return records;
+  }
+
+  @Test
+  public void testSpecialCharactersAndNulls() throws Exception {
+    Map<Integer, String> expected = new LinkedHashMap<>();
+    expected.put(1, "a,b");
+    expected.put(2, "say \"hi\"");
+    expected.put(3, "two\nlines\r\n");
+    expected.put(4, "back\\slash \\N");
+    expected.put(5, "ünïcødé ✓");
+    expected.put(6, "");
+    expected.put(7, null);
+    expected.put(8, "NULL");
+
+    List<Record> records = new ArrayList<>();
+    for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+      records.add(createRecord(OperationType.INSERT_CODE, entry.getKey(), entry.getValue()));
+    }
+    List<OnRecordErrorException> errors = createWriter(false).writeBatch(records.iterator());
+
+    Assert.assertEquals(0, errors.size());
+    // an empty string and a NULL stay different
+    Assert.assertEquals(expected, readRows());
+
+    // updates and deletes go through the staging table
+    errors = createWriter(false).writeBatch(ImmutableList.of(
+        createRecord(OperationType.UPDATE_CODE, 1, null),
+        createRecord(OperationType.UPDATE_CODE, 7, "\"quoted\", again"),
+        createRecord(OperationType.DELETE_CODE, 2, null)
+    ).iterator());
+
+    Assert.assertEquals(0, errors.size());
+    expected.put(1, null);
+    expected.put(7, "\"quoted\", again");
+    expected.remove(2);
+    Assert.assertEquals(expected, readRows());
+  }
+
+  @Test
+  public void testDataErrorRollsBackRun() throws Exception {
+    Record insert1 = createRecord(OperationType.INSERT_CODE, 1, "a");
+    Record tooLong = createRecord(OperationType.INSERT_CODE, 2, "longer than twenty characters");
+    Record delete = createRecord(OperationType.DELETE_CODE, 1, null);
+    Record insert2 = createRecord(OperationType.INSERT_CODE, 3, "c");
+
+    List<OnRecordErrorException> errors = createWriter(false).writeBatch(
+        ImmutableList.of(insert1, tooLong, delete, insert2).iterator()
+    );
+
+    // only the failed run is rolled back, the following runs are still written
+    Assert.assertEquals(ImmutableList.of(insert1, tooLong), getRecords(errors));
+    for (OnRecordErrorException error : errors) {
+      Assert.assertEquals(JdbcErrors.JDBC_14, error.getErrorCode());
+    }
+    Map<Integer, String> expected = new LinkedHashMap<>();
+    expected.put(3, "c");
+    Assert.assertEquals(expected, readRows());
+  }
+
+  @Test
+  public void testRollbackOnError() throws Exception {
+    Record insert1 = createRecord(OperationType.INSERT_CODE, 1, "a");
+    Record delete1 = createRecord(OperationType.DELETE_CODE, 5, null);
+    Record tooLong = createRecord(OperationType.INSERT_CODE, 2, "longer than twenty characters");
+    Record insert2 = createRecord(OperationType.INSERT_CODE, 3, "c");
+
+    List<OnRecordErrorException> errors = createWriter(true).writeBatch(
+        ImmutableList.of(insert1, delete1, tooLong, insert2).iterator()
+    );
+
+    // the records written before the failure are rolled back with it, the following ones are still written
+    Assert.assertEquals(ImmutableList.of(insert1, delete1, tooLong), getRecords(errors));
+    for (OnRecordErrorException error : errors) {
+      Assert.assertEquals(JdbcErrors.JDBC_14, error.getErrorCode());
+    }
+    Map<Integer, String> expected = new LinkedHashMap<>();
+    expected.put(3, "c");
+    Assert.assertEquals(expected, readRows());
+  }
+
+}
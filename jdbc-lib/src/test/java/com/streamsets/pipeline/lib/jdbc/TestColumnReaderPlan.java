@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+public class TestColumnReaderPlan {
+  private Connection connection;
+  private ErrorRecordHandler errorRecordHandler;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = DriverManager.getConnection("jdbc:h2:mem:columnReaderPlan", "sa", "sa");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE PLAN_TEST (P_ID INT NOT NULL, NAME VARCHAR(32), PRICE DECIMAL(10, 2), " +
+              "TS TIMESTAMP, PRIMARY KEY(P_ID))"
+      );
+      statement.execute("INSERT INTO PLAN_TEST VALUES (1, 'a', 1.50, '2018-01-01 00:00:00.123456')");
+      statement.execute("INSERT INTO PLAN_TEST VALUES (2, 'b', 22.25, NULL)");
+    }
+    errorRecordHandler = Mockito.mock(ErrorRecordHandler.class);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS PLAN_TEST");
+    }
+    connection.close();
+  }
+
+  @Test
+  public void testReadRows() throws Exception {
+    try (
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("SELECT P_ID, NAME, PRICE, TS AS WHEN FROM PLAN_TEST ORDER BY P_ID")
+    ) {
+      ColumnReaderPlan plan = ColumnReaderPlan.create(
+          rs,
+          0,
+          0,
+          Collections.emptyMap(),
+          UnknownTypeAction.STOP_PIPELINE,
+          null,
+          false
+      );
+      Assert.assertTrue(plan.isFor(rs));
+      Assert.assertEquals(4, plan.getColumnCount());
+
+      Assert.assertTrue(rs.next());
+      LinkedHashMap<String, Field> fields = plan.readFields(rs, errorRecordHandler);
+      Assert.assertEquals(ImmutableSet.of("P_ID", "NAME", "PRICE", "WHEN"), fields.keySet());
+      Assert.assertEquals(Field.Type.INTEGER, fields.get("P_ID").getType());
+      Assert.assertEquals(1, fields.get("P_ID").getValueAsInteger());
+      Assert.assertEquals("a", fields.get("NAME").getValueAsString());
+      Assert.assertEquals(new BigDecimal("1.50"), fields.get("PRICE").getValueAsDecimal());
+      Assert.assertEquals("2", fields.get("PRICE").getAttribute(HeaderAttributeConstants.ATTR_SCALE));
+      Assert.assertEquals("10", fields.get("PRICE").getAttribute(HeaderAttributeConstants.ATTR_PRECISION));
+      Assert.assertEquals(Field.Type.DATETIME, fields.get("WHEN").getType());
+      Assert.assertEquals("456000", fields.get("WHEN").getAttribute(JdbcUtil.FIELD_ATTRIBUTE_NANOSECONDS));
+
+      // Same plan is reused for the next row
+      Assert.assertTrue(rs.next());
+      fields = plan.readFields(rs, errorRecordHandler);
+      Assert.assertEquals(2, fields.get("P_ID").getValueAsInteger());
+      Assert.assertEquals(new BigDecimal("22.25"), fields.get("PRICE").getValueAsDecimal());
+      Assert.assertEquals("2", fields.get("PRICE").getAttribute(HeaderAttributeConstants.ATTR_SCALE));
+      Assert.assertNull(fields.get("WHEN").getValue());
+      Assert.assertNull(fields.get("WHEN").getAttribute(JdbcUtil.FIELD_ATTRIBUTE_NANOSECONDS));
+    }
+    Mockito.verifyZeroInteractions(errorRecordHandler);
+  }
+
+  @Test
+  public void testUserTypesAndHeaderColumns() throws Exception {
+    try (
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("SELECT P_ID, NAME, PRICE FROM PLAN_TEST ORDER BY P_ID")
+    ) {
+      ColumnReaderPlan plan = ColumnReaderPlan.create(
+          rs,
+          0,
+          0,
+          ImmutableMap.of("P_ID", DataType.STRING),
+          UnknownTypeAction.STOP_PIPELINE,
+          ImmutableSet.of("PRICE"),
+          false
+      );
+      Assert.assertEquals(3, plan.getColumnCount());
+
+      Assert.assertTrue(rs.next());
+      LinkedHashMap<String, Field> fields = plan.readFields(rs, errorRecordHandler);
+      Assert.assertEquals(ImmutableSet.of("P_ID", "NAME"), fields.keySet());
+      Assert.assertEquals(Field.Type.STRING, fields.get("P_ID").getType());
+      Assert.assertEquals("1", fields.get("P_ID").getValueAsString());
+    }
+    Mockito.verifyZeroInteractions(errorRecordHandler);
+  }
+
+  @Test
+  public void testPlanIsBoundToResultSet() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      ColumnReaderPlan plan;
+      try (ResultSet rs = statement.executeQuery("SELECT P_ID FROM PLAN_TEST")) {
+        plan = ColumnReaderPlan.create(rs, 0, 0, Collections.emptyMap(), null, null, false);
+      }
+      try (ResultSet rs = statement.executeQuery("SELECT P_ID FROM PLAN_TEST")) {
+        Assert.assertFalse(plan.isFor(rs));
+      }
+    }
+  }
+}
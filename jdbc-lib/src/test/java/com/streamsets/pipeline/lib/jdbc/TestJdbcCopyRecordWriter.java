@@ -0,0 +1,302 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.LinkedList;
+import java.util.List;
+
+public class TestJdbcCopyRecordWriter {
+  private static final String CONNECTION_STRING = "jdbc:h2:mem:copy";
+
+  private HikariDataSource metadataSource;
+  private Connection metadataConnection;
+  private DataSource dataSource;
+  private Connection connection;
+  private CopyIn copyIn;
+  private List<String> copies;
+  private ByteArrayOutputStream copyData;
+
+  @Before
+  public void setUp() throws Exception {
+    // H2 gives the table metadata to the writer, the batches go through a mocked PostgreSQL connection
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(CONNECTION_STRING);
+    config.setUsername("sa");
+    config.setPassword("sa");
+    metadataSource = new HikariDataSource(config);
+    metadataConnection = metadataSource.getConnection();
+    try (Statement statement = metadataConnection.createStatement()) {
+      statement.execute("CREATE SCHEMA IF NOT EXISTS TEST");
+      statement.execute("CREATE TABLE IF NOT EXISTS TEST.COPY_TABLE (P_ID INT NOT NULL, MSG VARCHAR(255), PRIMARY KEY(P_ID))");
+    }
+
+    copies = new ArrayList<>();
+    copyIn = Mockito.mock(CopyIn.class);
+    Mockito.when(copyIn.isActive()).thenReturn(true);
+    Mockito.doAnswer(invocation -> {
+      Object[] args = invocation.getArguments();
+      copyData.write((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+      return null;
+    }).when(copyIn).writeToCopy(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+    Mockito.when(copyIn.endCopy()).thenAnswer(invocation -> {
+      String data = new String(copyData.toByteArray(), StandardCharsets.UTF_8);
+      copies.add(data);
+      if (data.contains("data error")) {
+        throw new SQLException("value too long", "22001");
+      } else if (data.contains("connection error")) {
+        throw new SQLException("connection lost", "08006");
+      }
+      return 1L;
+    });
+    CopyManager copyManager = Mockito.mock(CopyManager.class);
+    Mockito.when(copyManager.copyIn(Mockito.anyString())).thenAnswer(invocation -> {
+      copyData = new ByteArrayOutputStream();
+      return copyIn;
+    });
+    PGConnection pgConnection = Mockito.mock(PGConnection.class);
+    Mockito.when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+
+    connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+    Mockito.when(connection.createStatement()).thenReturn(Mockito.mock(Statement.class));
+    Mockito.when(connection.setSavepoint()).thenReturn(Mockito.mock(Savepoint.class));
+
+    dataSource = Mockito.mock(DataSource.class);
+    Mockito.when(dataSource.getConnection()).thenAnswer(invocation -> metadataSource.getConnection());
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    try (Statement statement = metadataConnection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS TEST.COPY_TABLE");
+    }
+    metadataConnection.close();
+    metadataSource.close();
+  }
+
+  private JdbcCopyRecordWriter createWriter(boolean rollbackOnError) throws Exception {
+    JdbcCopyRecordWriter writer = new JdbcCopyRecordWriter(
+        CONNECTION_STRING,
+        dataSource,
+        "TEST",
+        "COPY_TABLE",
+        rollbackOnError,
+        new LinkedList<>(),
+        OperationType.INSERT_CODE,
+        UnsupportedOperationAction.DISCARD,
+        new JdbcRecordReader(),
+        false
+    );
+    Mockito.when(dataSource.getConnection()).thenReturn(connection);
+    return writer;
+  }
+
+  private static Record createRecord(int opCode, int id, Field msg) {
+    Record record = RecordCreator.create();
+    record.getHeader().setAttribute(OperationType.SDC_OPERATION_TYPE, String.valueOf(opCode));
+    record.set(Field.create(ImmutableMap.of("P_ID", Field.create(id), "MSG", msg)));
+    return record;
+  }
+
+  private static Record createRecord(int opCode, int id, String msg) {
+    return createRecord(opCode, id, Field.create(msg));
+  }
+
+  private static List<Record> getRecords(List<OnRecordErrorException> errors) {
+    List<Record> records = new ArrayList<>();
+    for (OnRecordErrorException error : errors) {
+      records.add(error.getRecord());
+    }
+    return records;
+  }
+
+  @Test
+  public void testWriteBatchErrorRecords() throws Exception {
+    JdbcCopyRecordWriter writer = createWriter(false);
+    Record insert1 = createRecord(OperationType.INSERT_CODE, 1, "a");
+    Record insert2 = createRecord(OperationType.INSERT_CODE, 2, "data error");
+    Record delete = createRecord(OperationType.DELETE_CODE, 5, "b");
+    Record unsupported = createRecord(
+        OperationType.INSERT_CODE,
+        3,
+        Field.create(Collections.singletonMap("a", Field.create(1)))
+    );
+    Record insert3 = createRecord(OperationType.INSERT_CODE, 4, "c");
+
+    List<OnRecordErrorException> errors = writer.writeBatch(
+        ImmutableList.of(insert1, insert2, delete, unsupported, insert3).iterator()
+    );
+
+    Assert.assertEquals(ImmutableList.of(insert1, insert2, unsupported), getRecords(errors));
+    Assert.assertEquals(JdbcErrors.JDBC_14, errors.get(0).getErrorCode());
+    Assert.assertEquals(JdbcErrors.JDBC_14, errors.get(1).getErrorCode());
+    Assert.assertEquals(JdbcErrors.JDBC_05, errors.get(2).getErrorCode());
+    Assert.assertEquals(
+        ImmutableList.of("\"a\",\"1\"\n\"data error\",\"2\"\n", "\"5\"\n", "\"c\",\"4\"\n"),
+        copies
+    );
+    // only the failed run is rolled back
+    Mockito.verify(connection, Mockito.times(3)).setSavepoint();
+    Mockito.verify(connection, Mockito.times(1)).rollback(Mockito.any(Savepoint.class));
+    Mockito.verify(connection, Mockito.never()).rollback();
+    Mockito.verify(connection).commit();
+  }
+
+  @Test
+  public void testWriteBatchRollbackOnError() throws Exception {
+    JdbcCopyRecordWriter writer = createWriter(true);
+    Record insert1 = createRecord(OperationType.INSERT_CODE, 1, "a");
+    Record delete1 = createRecord(OperationType.DELETE_CODE, 5, "b");
+    Record insert2 = createRecord(OperationType.INSERT_CODE, 2, "data error");
+    Record delete2 = createRecord(OperationType.DELETE_CODE, 6, "c");
+
+    List<OnRecordErrorException> errors = writer.writeBatch(
+        ImmutableList.of(insert1, delete1, insert2, delete2).iterator()
+    );
+
+    // the records written before the failure are rolled back with it, the following ones are still written
+    Assert.assertEquals(ImmutableList.of(insert1, delete1, insert2), getRecords(errors));
+    for (OnRecordErrorException error : errors) {
+      Assert.assertEquals(JdbcErrors.JDBC_14, error.getErrorCode());
+    }
+    Assert.assertEquals(
+        ImmutableList.of("\"a\",\"1\"\n", "\"5\"\n", "\"data error\",\"2\"\n", "\"6\"\n"),
+        copies
+    );
+    Mockito.verify(connection, Mockito.never()).setSavepoint();
+    Mockito.verify(connection).rollback();
+    Mockito.verify(connection).commit();
+  }
+
+  @Test
+  public void testWriteBatchNonDataError() throws Exception {
+    JdbcCopyRecordWriter writer = createWriter(false);
+    try {
+      writer.writeBatch(ImmutableList.of(createRecord(OperationType.INSERT_CODE, 1, "connection error")).iterator());
+      Assert.fail("Expected StageException");
+    } catch (StageException e) {
+      Assert.assertEquals(JdbcErrors.JDBC_14, e.getErrorCode());
+    }
+    Mockito.verify(connection).rollback();
+    Mockito.verify(connection, Mockito.never()).commit();
+  }
+
+  @Test
+  public void testToCopyValue() {
+    Assert.assertNull(JdbcCopyRecordWriter.toCopyValue(Field.create(Field.Type.STRING, null)));
+    Assert.assertEquals("", JdbcCopyRecordWriter.toCopyValue(Field.create("")));
+    Assert.assertEquals("a,\"b\"", JdbcCopyRecordWriter.toCopyValue(Field.create("a,\"b\"")));
+    Assert.assertEquals("true", JdbcCopyRecordWriter.toCopyValue(Field.create(true)));
+    Assert.assertEquals("42", JdbcCopyRecordWriter.toCopyValue(Field.create(42L)));
+    Assert.assertEquals("1.5", JdbcCopyRecordWriter.toCopyValue(Field.create(1.5d)));
+    Assert.assertEquals("10000000000",
+        JdbcCopyRecordWriter.toCopyValue(Field.create(new BigDecimal("1E+10"))));
+    Assert.assertEquals("\\x00ff10",
+        JdbcCopyRecordWriter.toCopyValue(Field.create(new byte[]{0x00, (byte) 0xff, 0x10})));
+  }
+
+  @Test
+  public void testToCopyValueDates() {
+    Calendar calendar = new GregorianCalendar(2018, Calendar.MARCH, 4, 5, 6, 7);
+    calendar.set(Calendar.MILLISECOND, 89);
+
+    Assert.assertEquals("2018-03-04",
+        JdbcCopyRecordWriter.toCopyValue(Field.create(Field.Type.DATE, calendar.getTime())));
+    Assert.assertEquals("05:06:07.089",
+        JdbcCopyRecordWriter.toCopyValue(Field.create(Field.Type.TIME, calendar.getTime())));
+    Assert.assertEquals(new Timestamp(calendar.getTimeInMillis()).toString(),
+        JdbcCopyRecordWriter.toCopyValue(Field.create(Field.Type.DATETIME, calendar.getTime())));
+    Assert.assertEquals("2018-03-04T05:06:07+02:00",
+        JdbcCopyRecordWriter.toCopyValue(
+            Field.createZonedDateTime(ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 0, ZoneOffset.ofHours(2)))
+        )
+    );
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testToCopyValueUnsupportedType() {
+    JdbcCopyRecordWriter.toCopyValue(Field.create(Collections.singletonMap("a", Field.create(1))));
+  }
+
+  @Test
+  public void testMergeQuery() {
+    Assert.assertEquals(
+        "DELETE FROM s.t AS t USING sdc_copy_staging AS s WHERE t.ID = s.ID AND t.ID2 = s.ID2",
+        JdbcCopyRecordWriter.generateMergeQuery(
+            OperationType.DELETE_CODE,
+            "s.t",
+            ImmutableList.of("ID", "ID2"),
+            ImmutableList.of("ID", "ID2"),
+            false
+        )
+    );
+    Assert.assertEquals(
+        "UPDATE \"t\" AS t SET \"A\" = s.\"A\", \"B\" = s.\"B\" FROM sdc_copy_staging AS s WHERE t.\"ID\" = s.\"ID\"",
+        JdbcCopyRecordWriter.generateMergeQuery(
+            OperationType.UPDATE_CODE,
+            "\"t\"",
+            ImmutableList.of("ID"),
+            ImmutableList.of("ID", "A", "B"),
+            true
+        )
+    );
+    // Nothing to update when the record only carries the primary key
+    Assert.assertNull(
+        JdbcCopyRecordWriter.generateMergeQuery(
+            OperationType.UPDATE_CODE,
+            "t",
+            ImmutableList.of("ID"),
+            ImmutableList.of("ID"),
+            false
+        )
+    );
+  }
+}
@@ -836,6 +836,60 @@ public class TestMultithreadedTableProvider {
     assertEquals(offset, table.getOffset());
   }
 
+  @Test
+  public void adaptivePartitionSizeKeepsRangesContiguous() throws InterruptedException {
+    String offsetCol = "col";
+    TableContext table1 = createTableContext("db", "table1", offsetCol, "100", 5, true);
+    MultithreadedTableProvider provider = createTableProvider(1, table1, BatchTableStrategy.SWITCH_TABLES);
+
+    TableRuntimeContext part1 = provider.getActiveRuntimeContexts().get(table1).first();
+    assertThat(part1.getMaxPartitionOffsets(), offsetMapOf(offsetCol, "100"));
+
+    provider.getTableProgressStatistics(table1).setPartitionSizeScale(0.5);
+    TableRuntimeContext part2 = provider.createNextPartition(part1);
+    assertThat(part2.getStartingPartitionOffsets(), offsetMapOf(offsetCol, "100"));
+    assertThat(part2.getMaxPartitionOffsets(), offsetMapOf(offsetCol, "150"));
+
+    provider.getTableProgressStatistics(table1).setPartitionSizeScale(2);
+    TableRuntimeContext part3 = provider.createNextPartition(part2);
+    assertThat(part3.getStartingPartitionOffsets(), offsetMapOf(offsetCol, "150"));
+    assertThat(part3.getMaxPartitionOffsets(), offsetMapOf(offsetCol, "350"));
+  }
+
+  @Test
+  public void workAwareSchedulingPrefersLargestRemainingWork() throws InterruptedException {
+    TableContext small = createTableContext("db", "small", "col", "100", 1, false);
+    TableContext large = createTableContext("db", "large", "col", "100", 1, false);
+    MultithreadedTableProvider provider = createProvider(Arrays.asList(
+        new TableRuntimeContext(small, false, false, TableRuntimeContext.NON_PARTITIONED_SEQUENCE, null, null),
+        new TableRuntimeContext(large, false, false, TableRuntimeContext.NON_PARTITIONED_SEQUENCE, null, null)
+    ));
+    provider.setWorkAwareScheduling(true);
+
+    TableProgressStatistics smallStats = provider.getTableProgressStatistics(small);
+    TableProgressStatistics largeStats = provider.getTableProgressStatistics(large);
+
+    // nothing measured yet, so the shared queue order wins
+    TableRuntimeContext first = provider.pollSharedQueue();
+    assertThat(first.getSourceTableContext(), equalTo(small));
+    provider.getSharedAvailableTablesQueue().offer(first);
+    TableRuntimeContext second = provider.pollSharedQueue();
+    assertThat(second.getSourceTableContext(), equalTo(large));
+    provider.getSharedAvailableTablesQueue().offer(second);
+
+    for (int i = 1; i <= TableProgressStatistics.MIN_FINISHED_PARTITIONS; i++) {
+      smallStats.batchCompleted(i, 10, TableProgressStatistics.MIN_OBSERVED_NANOS, true);
+      largeStats.batchCompleted(i, 10000, TableProgressStatistics.MIN_OBSERVED_NANOS * 100, true);
+    }
+    assertThat(smallStats.isWarmedUp(), equalTo(true));
+    assertThat(largeStats.isWarmedUp(), equalTo(true));
+
+    // the small table is at the head of the queue, but the large one has more work left
+    assertThat(provider.getSharedAvailableTablesQueue().peek().getSourceTableContext(), equalTo(small));
+    assertThat(provider.pollSharedQueue().getSourceTableContext(), equalTo(large));
+    assertThat(provider.pollSharedQueue().getSourceTableContext(), equalTo(small));
+  }
+
   private void assertLoadedPartitions(
       Map<TableRuntimeContext, Map<String, String>> partitionsAndOffsets,
       MultithreadedTableProvider provider
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.multithread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTableProgressStatistics {
+
+  @Test
+  public void testNoAdjustmentUntilWarmedUp() {
+    TableProgressStatistics statistics = new TableProgressStatistics();
+    statistics.batchCompleted(1, 100, 1000, true);
+    statistics.batchCompleted(2, 100, 1000, true);
+    statistics.batchCompleted(3, 100, 1000, true);
+
+    Assert.assertFalse(statistics.isWarmedUp());
+    Assert.assertEquals(1.0, statistics.getPartitionSizeScale(), 0);
+    Assert.assertEquals(Long.MAX_VALUE, statistics.estimateRemainingNanos(3));
+    Assert.assertEquals(300, statistics.getRecords());
+    Assert.assertEquals(3, statistics.getFinishedPartitions());
+  }
+
+  @Test
+  public void testFastPartitionsGrow() {
+    TableProgressStatistics statistics = new TableProgressStatistics();
+    long fast = TableProgressStatistics.TARGET_PARTITION_NANOS / 100;
+    double previousScale = statistics.getPartitionSizeScale();
+    for (int seq = 1; seq <= 20; seq++) {
+      double scale = statistics.getPartitionSizeScale();
+      statistics.partitionCreated(seq, scale);
+      statistics.batchCompleted(seq, 1000, (long) (fast * scale), true);
+      Assert.assertTrue(statistics.getPartitionSizeScale() <= previousScale * 2);
+      previousScale = statistics.getPartitionSizeScale();
+    }
+    Assert.assertEquals(TableProgressStatistics.MAX_PARTITION_SIZE_SCALE, statistics.getPartitionSizeScale(), 0);
+  }
+
+  @Test
+  public void testSlowPartitionsShrink() {
+    TableProgressStatistics statistics = new TableProgressStatistics();
+    long slow = TableProgressStatistics.TARGET_PARTITION_NANOS * 4;
+    for (int seq = 1; seq <= 20; seq++) {
+      double scale = statistics.getPartitionSizeScale();
+      statistics.partitionCreated(seq, scale);
+      // split across two batches, only the last one finishes the partition
+      statistics.batchCompleted(seq, 500, (long) (slow * scale / 2), false);
+      statistics.batchCompleted(seq, 500, (long) (slow * scale / 2), true);
+    }
+    Assert.assertEquals(0.25, statistics.getPartitionSizeScale(), 0.01);
+    Assert.assertTrue(statistics.getRecordsPerSecond() > 0);
+  }
+}
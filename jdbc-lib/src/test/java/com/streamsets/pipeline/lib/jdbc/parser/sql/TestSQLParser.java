@@ -292,23 +292,34 @@ public class TestSQLParser {
   }
 
 
-  @Test
-  public void testSQL() throws Exception {
-    SQLParser parser = Parboiled.createParser(SQLParser.class);
-    Map<String, String> colVals;
-    int code;
+  private int getOperationCode() {
     if (sql.startsWith("insert")) {
-      code = OracleCDCOperationCode.INSERT_CODE;
+      return OracleCDCOperationCode.INSERT_CODE;
     } else if (sql.startsWith("delete")) {
-      code = OracleCDCOperationCode.DELETE_CODE;
+      return OracleCDCOperationCode.DELETE_CODE;
     } else {
-      code = OracleCDCOperationCode.UPDATE_CODE;
+      return OracleCDCOperationCode.UPDATE_CODE;
     }
-    colVals = SQLParserUtils.process(parser, sql, code, false, false, null);
+  }
+
+  @Test
+  public void testSQL() throws Exception {
+    SQLParser parser = Parboiled.createParser(SQLParser.class);
+    Map<String, String> colVals;
+    colVals = SQLParserUtils.process(parser, sql, getOperationCode(), false, false, null);
 
     Assert.assertEquals(expected, colVals);
   }
 
+  @Test
+  public void testFastSQLParser() throws Exception {
+    FastSQLParser parser = new FastSQLParser(false);
+    Assert.assertEquals(expected, parser.parse(sql, getOperationCode(), false, null));
+    // second time around inserts are served by the cached column list
+    Assert.assertEquals(expected, parser.parse(sql, getOperationCode(), false, null));
+    Assert.assertEquals(expected, parser.parse(sql + ";", getOperationCode(), false, null));
+  }
+
   @Test
   public void testSQLWithNulls() throws Exception {
     String sqlInternal = " update \"SYS\".\"MANYCOLS\" set \"SALARY=\" = NULL, \"NAME\" = 'New Name' " +
@@ -338,6 +349,40 @@ public class TestSQLParser {
       }
     };
     Assert.assertEquals(exp, colVals);
+    Assert.assertEquals(exp, new FastSQLParser(false).parse(sqlInternal, code, true, expectedFields));
+  }
+
+  @Test
+  public void testFastSQLParserFallsBack() throws Exception {
+    FastSQLParser parser = new FastSQLParser(false);
+    // unquoted values, escaped quotes in identifiers and trailing garbage are left to the Parboiled parser
+    String unquoted = "insert into \"SYS\".\"T\"(\"ID\") values (10)";
+    Assert.assertNull(parser.parse(unquoted, OracleCDCOperationCode.INSERT_CODE, false, null));
+    String escapedIdentifier = "insert into \"SYS\".\"T\"(\"I'\"D\") values ('10')";
+    Assert.assertNull(parser.parse(escapedIdentifier, OracleCDCOperationCode.INSERT_CODE, false, null));
+    String notNull = "delete from \"SYS\".\"T\" where \"ID\" IS NOT NULL";
+    Assert.assertNull(parser.parse(notNull, OracleCDCOperationCode.DELETE_CODE, false, null));
+    String invalid = " update \"SYS\".\"MANYCOLS\" set why are we testing this";
+    Assert.assertNull(parser.parse(invalid, OracleCDCOperationCode.UPDATE_CODE, false, null));
+    String ddl = "create table \"SYS\".\"T\" (\"ID\" NUMBER)";
+    Assert.assertNull(parser.parse(ddl, OracleCDCOperationCode.DDL_CODE, false, null));
+
+    String sqlEscaped = "update \"SYS\".\"T\" set \"NAME\" = 'O''Brien' where \"ID\" = '1'";
+    Map<String, String> expected = new HashMap<>();
+    expected.put("ID", "1");
+    expected.put("NAME", "O'Brien");
+    Assert.assertEquals(expected, parser.parse(sqlEscaped, OracleCDCOperationCode.UPDATE_CODE, false, null));
+    Assert.assertEquals(
+        expected,
+        SQLParserUtils.process(
+            Parboiled.createParser(SQLParser.class),
+            sqlEscaped,
+            OracleCDCOperationCode.UPDATE_CODE,
+            false,
+            false,
+            null
+        )
+    );
   }
 
   @Test
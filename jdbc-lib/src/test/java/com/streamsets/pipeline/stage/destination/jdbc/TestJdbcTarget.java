@@ -633,6 +633,39 @@ public class TestJdbcTarget {
     assertEquals(1, issues.size());
   }
 
+  @Test
+  public void testPostgresCopyCustomParameters() throws Exception {
+    List<JdbcFieldColumnParamMapping> fieldMappings = ImmutableList.of(
+        new JdbcFieldColumnParamMapping("[0]", "P_ID"),
+        new JdbcFieldColumnParamMapping("[1]", "FIRST_NAME", "UPPER(?)"),
+        new JdbcFieldColumnParamMapping("[2]", "LAST_NAME"),
+        new JdbcFieldColumnParamMapping("[3]", "TS")
+    );
+
+    Target target = new JdbcTarget(
+        schema,
+        tableName,
+        fieldMappings,
+        caseSensitive,
+        false,
+        false,
+        JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+        PreparedStatementCache.UNLIMITED_CACHE,
+        ChangeLogFormat.NONE,
+        JDBCOperationType.INSERT,
+        UnsupportedOperationAction.DISCARD,
+        createConfigBean(h2ConnectionString, username, password),
+        true
+    );
+    TargetRunner targetRunner = new TargetRunner.Builder(JdbcDTarget.class, target).build();
+
+    // COPY needs a PostgreSQL connection and can't apply the custom parameter
+    List<Stage.ConfigIssue> issues = targetRunner.runValidateConfigs();
+    assertEquals(2, issues.size());
+    assertTrue(issues.get(0).toString().contains(JdbcErrors.JDBC_89.name()));
+    assertTrue(issues.get(1).toString().contains(JdbcErrors.JDBC_90.name()));
+  }
+
   @Test
   public void testBadCredentials() throws Exception {
     List<JdbcFieldColumnParamMapping> fieldMappings = ImmutableList.of(
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class TestMappedFileHashQueue {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = new File(Files.createTempDirectory("txn-buffer").toFile(), "txn");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteQuietly(dir.getParentFile());
+  }
+
+  private static RecordSequence createRecord(int seq) {
+    Map<String, String> headers = new HashMap<>(ImmutableMap.of("oracle.cdc.scn", String.valueOf(1000 + seq)));
+    headers.put("oracle.cdc.rowId", null);
+    return new RecordSequence(
+        headers,
+        "insert into \"SYS\".\"T\"(\"ID\",\"NAME\") values ('" + seq + "','näme " + seq + "')",
+        seq,
+        1,
+        "0x0000" + seq,
+        new BigDecimal(seq),
+        LocalDateTime.of(2018, 6, 1, 10, 0, 0, seq * 1000)
+    );
+  }
+
+  private static void assertRecord(int seq, RecordSequence actual) {
+    RecordSequence expected = createRecord(seq);
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(expected.seq, actual.seq);
+    Assert.assertEquals(expected.opCode, actual.opCode);
+    Assert.assertEquals(expected.sqlString, actual.sqlString);
+    Assert.assertEquals(expected.headers, actual.headers);
+    Assert.assertEquals(expected.timestamp, actual.timestamp);
+  }
+
+  @Test
+  public void testInMemoryBelowThreshold() throws Exception {
+    MappedFileHashQueue queue = new MappedFileHashQueue(dir, 1024 * 1024);
+    for (int i = 1; i <= 10; i++) {
+      Assert.assertTrue(queue.add(createRecord(i)));
+    }
+    Assert.assertFalse(queue.add(createRecord(5)));
+    Assert.assertEquals(10, queue.size());
+    Assert.assertEquals(0, queue.getSegmentCount());
+    Assert.assertFalse(dir.exists());
+    Assert.assertEquals(10, queue.tail().seq);
+
+    for (int i = 1; i <= 10; i++) {
+      assertRecord(i, queue.remove());
+    }
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertNull(queue.tail());
+    queue.close();
+  }
+
+  @Test
+  public void testSpillToSegments() throws Exception {
+    // small threshold and segments, so that the records spill over several segments
+    MappedFileHashQueue queue = new MappedFileHashQueue(dir, 1024, 1024);
+    for (int i = 1; i <= 100; i++) {
+      queue.add(createRecord(i));
+    }
+    queue.completeInserts();
+    Assert.assertEquals(100, queue.size());
+    Assert.assertTrue(queue.getSegmentCount() > 1);
+    Assert.assertTrue(queue.contains(createRecord(70)));
+    Assert.assertFalse(queue.contains(createRecord(101)));
+    assertRecord(1, queue.peek());
+
+    // iterating does not consume the records
+    int seq = 1;
+    for (RecordSequence record : queue) {
+      assertRecord(seq++, record);
+    }
+    Assert.assertEquals(101, seq);
+    Assert.assertEquals(100, queue.size());
+
+    // removing through the iterator consumes the head, both the in memory and the spilled part
+    Iterator<RecordSequence> iterator = queue.iterator();
+    for (int i = 1; i <= 50; i++) {
+      assertRecord(i, iterator.next());
+      iterator.remove();
+    }
+    Assert.assertEquals(50, queue.size());
+    Assert.assertFalse(queue.contains(createRecord(20)));
+
+    for (int i = 51; i <= 100; i++) {
+      assertRecord(i, queue.remove());
+    }
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertEquals(0, queue.getSegmentCount());
+    Assert.assertNull(queue.poll());
+
+    // the queue keeps working after it has been emptied
+    queue.add(createRecord(200));
+    assertRecord(200, queue.remove());
+
+    queue.close();
+    Assert.assertFalse(dir.exists());
+  }
+
+  @Test
+  public void testConsumedSegmentsAreReleased() throws Exception {
+    Assert.assertTrue(MappedFileHashQueue.canUnmap());
+    MappedFileHashQueue queue = new MappedFileHashQueue(dir, 0, 1024);
+    for (int i = 1; i <= 100; i++) {
+      queue.add(createRecord(i));
+    }
+    int segmentCount = queue.getSegmentCount();
+    Assert.assertEquals(segmentCount, dir.list().length);
+
+    for (int i = 1; i <= 50; i++) {
+      assertRecord(i, queue.remove());
+    }
+    // the consumed segments are unmapped and their files deleted
+    Assert.assertTrue(queue.getSegmentCount() < segmentCount);
+    Assert.assertEquals(queue.getSegmentCount(), dir.list().length);
+
+    for (int i = 51; i <= 100; i++) {
+      assertRecord(i, queue.remove());
+    }
+    queue.close();
+    Assert.assertFalse(dir.exists());
+  }
+
+  @Test
+  public void testRecordLargerThanSegment() throws Exception {
+    MappedFileHashQueue queue = new MappedFileHashQueue(dir, 0, 128);
+    for (int i = 1; i <= 3; i++) {
+      queue.add(createRecord(i));
+    }
+    Assert.assertEquals(3, queue.getSegmentCount());
+    for (int i = 1; i <= 3; i++) {
+      assertRecord(i, queue.remove());
+    }
+    queue.close();
+  }
+}
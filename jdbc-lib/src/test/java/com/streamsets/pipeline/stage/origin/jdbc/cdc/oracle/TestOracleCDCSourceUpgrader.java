@@ -107,4 +107,14 @@ public class TestOracleCDCSourceUpgrader {
     configs = new OracleCDCSourceUpgrader().upgrade("a", "b", "v", 8, 9, configs);
     Assert.assertTrue(configs.isEmpty());
   }
+
+  @Test
+  public void upgradeV9TOV10() throws Exception {
+    List<Config> configs = new ArrayList<>(1);
+
+    configs = new OracleCDCSourceUpgrader().upgrade("a", "b", "v", 9, 10, configs);
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals(configs.get(0).getName(), "oracleCDCConfigBean.txnSpillThreshold");
+    Assert.assertEquals(configs.get(0).getValue(), 1024);
+  }
 }
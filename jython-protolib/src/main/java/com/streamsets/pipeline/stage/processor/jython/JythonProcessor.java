@@ -61,6 +61,12 @@ public class JythonProcessor extends AbstractScriptingProcessor {
       super(scriptEngine, context);
     }
 
+    @Override
+    protected boolean useFieldViews() {
+      // scripts expect Python dictionaries and lists
+      return false;
+    }
+
     @Override
     public void putInMap(Object obj, Object key, Object value) {
       ((PyDictionary) obj).put(key, value);
@@ -105,12 +105,26 @@ public class KuduConfigBean {
   @ValueChooserModel(ConsistencyModeChooserValues.class)
   public ConsistencyMode consistencyMode;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "MANUAL_FLUSH",
+      label = "Flush Mode",
+      description = "Manual sends the records of each table when the table is done. Background sends the records" +
+          " while the batch is written, whenever the mutation buffer fills up. In both modes the batch completes" +
+          " once all its records are written.",
+      displayPosition = 12,
+      group = "ADVANCED"
+  )
+  @ValueChooserModel(KuduFlushModeChooserValues.class)
+  public KuduFlushMode flushMode = KuduFlushMode.MANUAL_FLUSH;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
       label = "Mutation Buffer Space (records)",
-      description = "Sets the buffer size that Kudu client uses for a single batch. Should be greater than or" +
-        " equal to the number of records in the batch passed from the pipeline.",
+      description = "Sets the buffer size that Kudu client uses. With manual flush mode, it should be greater than" +
+        " or equal to the number of records in the batch passed from the pipeline.",
       defaultValue = "1000",
       displayPosition = 15,
       group = "ADVANCED"
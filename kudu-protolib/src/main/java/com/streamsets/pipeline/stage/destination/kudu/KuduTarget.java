@@ -58,6 +58,7 @@ import org.apache.kudu.client.Operation;
 import org.apache.kudu.client.OperationResponse;
 import org.apache.kudu.client.PartialRow;
 import org.apache.kudu.client.RowError;
+import org.apache.kudu.client.RowErrorsAndOverflowStatus;
 import org.apache.kudu.client.SessionConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -65,9 +66,11 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -324,7 +327,10 @@ public class KuduTarget extends BaseTarget {
       );
     }
     session.setMutationBufferSpace(configBean.mutationBufferSpace);
-    session.setFlushMode(SessionConfiguration.FlushMode.MANUAL_FLUSH);
+    session.setFlushMode(isBackgroundFlush()
+        ? SessionConfiguration.FlushMode.AUTO_FLUSH_BACKGROUND
+        : SessionConfiguration.FlushMode.MANUAL_FLUSH
+    );
     return session;
   }
 
@@ -410,6 +416,8 @@ public class KuduTarget extends BaseTarget {
     );
 
     KuduSession session = Preconditions.checkNotNull(kuduSession, KUDU_SESSION);
+    // maps the row errors back to the records, operations are compared by identity
+    Map<Operation, Record> operationToRecord = new IdentityHashMap<>();
 
     for (String tableName : partitions.keySet()) {
 
@@ -421,7 +429,6 @@ public class KuduTarget extends BaseTarget {
         }
       }
 
-      Map<String, Record> keyToRecordMap = new HashMap<>();
       Iterator<Record> it = partitions.get(tableName).iterator();
 
       KuduTable table;
@@ -474,12 +481,14 @@ public class KuduTarget extends BaseTarget {
           if (operation != null) {
             PartialRow row = operation.getRow();
             recordConverter.convert(record, row, opCode);
-            LOG.trace("Parameters in query: OpCode:{}, {}",
-                opCode,
-                operation.getRow().toString()
-            );
+            if (LOG.isTraceEnabled()) {
+              LOG.trace("Parameters in query: OpCode:{}, {}",
+                  opCode,
+                  operation.getRow().toString()
+              );
+            }
             try {
-              keyToRecordMap.put(operation.getRow().stringifyRowKey(), record);
+              operationToRecord.put(operation, record);
               session.apply(operation);
             } catch (IllegalStateException ex) {
               // IllegalStateException is thrown when there is issue in column values
@@ -494,37 +503,71 @@ public class KuduTarget extends BaseTarget {
           errorRecordHandler.onError(new OnRecordErrorException(record, Errors.KUDU_03, ex.getMessage(), ex));
         }
       }
-      // from here, executed at the end of batch
-      try {
-        List<RowError> rowErrors = Collections.emptyList();
-        List<OperationResponse> responses = session.flush();
-        if (responses != null) {
-          rowErrors = OperationResponse.collectErrors(responses);
-        }
-        // log ALL errors then process them
-        for (RowError error : rowErrors) {
-          LOG.warn(Errors.KUDU_03.getMessage(), error.toString());
+      if (!isBackgroundFlush()) {
+        // the mutation buffer is sized for the records of one table
+        flush(session, operationToRecord);
+      }
+    }
+    if (isBackgroundFlush()) {
+      // the batch is committed once all its records are written
+      flush(session, operationToRecord);
+    }
+  }
+
+  private boolean isBackgroundFlush() {
+    return configBean.flushMode == KuduFlushMode.AUTO_FLUSH_BACKGROUND;
+  }
+
+  /**
+   * Waits for all the operations applied to the session to be written and handles their row errors.
+   */
+  private void flush(KuduSession session, Map<Operation, Record> operationToRecord) throws StageException {
+    try {
+      List<RowError> rowErrors = Collections.emptyList();
+      List<OperationResponse> responses = session.flush();
+      if (isBackgroundFlush()) {
+        // row errors of the operations flushed in the background are collected by the session
+        RowErrorsAndOverflowStatus pendingErrors = session.getPendingErrors();
+        if (pendingErrors.isOverflowed()) {
+          // some row errors were dropped, they can't be sent to error so the batch must be retried
+          throw new StageException(Errors.KUDU_16, pendingErrors.getRowErrors().length);
         }
-        for (RowError error : rowErrors) {
-          Operation operation = error.getOperation();
-          String rowKey = operation.getRow().stringifyRowKey();
-          Record errorRecord = keyToRecordMap.get(rowKey);
-          if (error.getErrorStatus().isAlreadyPresent()) {
-            // Failed due to inserting duplicate row key
-            errorRecordHandler.onError(new OnRecordErrorException(errorRecord, Errors.KUDU_08, rowKey));
-          } else if (error.getErrorStatus().isNotFound()) {
-            // Row key not found error, mostly for update and delete operations.
-            errorRecordHandler.onError(new OnRecordErrorException(errorRecord, Errors.KUDU_15, rowKey));
-          } else {
-            // Failure is most likely caused by setting, network, or corrupted table.
-            // Worth throwing StageException.
-            throw new StageException(Errors.KUDU_03, error.toString());
-          }
+        rowErrors = Arrays.asList(pendingErrors.getRowErrors());
+      } else if (responses != null) {
+        rowErrors = OperationResponse.collectErrors(responses);
+      }
+      // log ALL errors then process them
+      for (RowError error : rowErrors) {
+        LOG.warn(Errors.KUDU_03.getMessage(), error.toString());
+      }
+      for (RowError error : rowErrors) {
+        Operation operation = error.getOperation();
+        Record errorRecord = operationToRecord.get(operation);
+        if (error.getErrorStatus().isAlreadyPresent()) {
+          // Failed due to inserting duplicate row key
+          errorRecordHandler.onError(new OnRecordErrorException(
+              errorRecord,
+              Errors.KUDU_08,
+              operation.getRow().stringifyRowKey()
+          ));
+        } else if (error.getErrorStatus().isNotFound()) {
+          // Row key not found error, mostly for update and delete operations.
+          errorRecordHandler.onError(new OnRecordErrorException(
+              errorRecord,
+              Errors.KUDU_15,
+              operation.getRow().stringifyRowKey()
+          ));
+        } else {
+          // Failure is most likely caused by setting, network, or corrupted table.
+          // Worth throwing StageException.
+          throw new StageException(Errors.KUDU_03, error.toString());
         }
-      } catch (KuduException ex) {
-        LOG.error(Errors.KUDU_03.getMessage(), ex.toString(), ex);
-        throw new StageException(Errors.KUDU_03, ex.getMessage(), ex);
       }
+    } catch (KuduException ex) {
+      LOG.error(Errors.KUDU_03.getMessage(), ex.toString(), ex);
+      throw new StageException(Errors.KUDU_03, ex.getMessage(), ex);
+    } finally {
+      operationToRecord.clear();
     }
   }
 
@@ -35,6 +35,7 @@ public enum Errors implements ErrorCode {
   KUDU_13("Operation not supported: {}"),
   KUDU_14("Unknown action for unsupported operation: {}"),
   KUDU_15("Row key '{}' not found"),
+  KUDU_16("Too many row errors to send the records to error, {} row errors were kept"),
 
   KUDU_30("Column mappings must be specified for lookup processor"),
   KUDU_31("No rows found"),
@@ -28,6 +28,7 @@ import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.TargetRunner;
+import com.streamsets.pipeline.stage.lib.kudu.Errors;
 import com.streamsets.pipeline.stage.lib.kudu.KuduFieldMappingConfig;
 import junit.framework.Assert;
 import org.apache.kudu.ColumnSchema;
@@ -40,9 +41,13 @@ import org.apache.kudu.client.KuduSession;
 import org.apache.kudu.client.KuduTable;
 import org.apache.kudu.client.Operation;
 import org.apache.kudu.client.PartialRow;
+import org.apache.kudu.client.RowError;
+import org.apache.kudu.client.RowErrorsAndOverflowStatus;
+import org.apache.kudu.client.Status;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.api.support.membermodification.MemberMatcher;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
@@ -62,20 +67,25 @@ import java.util.List;
     KuduClient.class,
     KuduTable.class,
     KuduSession.class,
-    Operation.class
+    Operation.class,
+    RowError.class,
+    RowErrorsAndOverflowStatus.class,
+    Status.class
     })
 @PowerMockIgnore({ "javax.net.ssl.*" })
 public class TestKuduTarget {
 
   private static final String KUDU_MASTER = "localhost:7051";
+  private static final long FLUSH_LATENCY_MS = 100;
   private final String tableName = "test";
+  private Schema schema;
+  private KuduSession session;
 
   @Before
   public void setup() {
 
-    final KuduClient client = new KuduClient.KuduClientBuilder(KUDU_MASTER).build();
-
-    // Create a dummy kuduSession
+    // Create a dummy kuduSession, applying and flushing operations does nothing
+    session = PowerMockito.mock(KuduSession.class);
     PowerMockito.replace(
         MemberMatcher.method(
             KuduTarget.class,
@@ -85,7 +95,7 @@ public class TestKuduTarget {
     ).with(new InvocationHandler() {
       @Override
       public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        return client.newSession();
+        return session;
       }
     });
 
@@ -94,7 +104,7 @@ public class TestKuduTarget {
     columns.add(new ColumnSchema.ColumnSchemaBuilder("key", Type.INT32).key(true).build());
     columns.add(new ColumnSchema.ColumnSchemaBuilder("value", Type.STRING).build());
     columns.add(new ColumnSchema.ColumnSchemaBuilder("name", Type.STRING).build());
-    final Schema schema = new Schema(columns);
+    schema = new Schema(columns);
 
     // Mock KuduTable class
     KuduTable table = PowerMockito.mock(KuduTable.class);
@@ -109,17 +119,6 @@ public class TestKuduTarget {
     Insert insert = PowerMockito.mock(Insert.class);
     PowerMockito.when(table.newInsert()).thenReturn(insert);
     PowerMockito.when(insert.getRow()).thenReturn(PowerMockito.mock(PartialRow.class));
-
-    // Mock KuduSession class
-    PowerMockito.suppress(PowerMockito.method(
-        KuduSession.class,
-        "apply",
-        Operation.class
-    ));
-    PowerMockito.suppress(PowerMockito.method(
-        KuduSession.class,
-        "flush"
-    ));
   }
 
   @Test
@@ -430,6 +429,153 @@ public class TestKuduTarget {
   }
 
 
+  /**
+   * Makes the session flushes take a while and the table create a new operation for every record.
+   * The operations applied to the session are added to the given list.
+   */
+  private void mockOperations(final List<Operation> applied) throws Exception {
+    PowerMockito.when(session.apply(Mockito.any(Operation.class))).thenAnswer(invocation -> {
+      applied.add((Operation) invocation.getArguments()[0]);
+      return null;
+    });
+    PowerMockito.when(session.flush()).thenAnswer(invocation -> {
+      Thread.sleep(FLUSH_LATENCY_MS);
+      return Collections.emptyList();
+    });
+
+    KuduTable table = PowerMockito.mock(KuduTable.class);
+    PowerMockito.when(table.getSchema()).thenReturn(schema);
+    PowerMockito.when(table.newInsert()).thenAnswer(invocation -> {
+      Insert insert = PowerMockito.mock(Insert.class);
+      PowerMockito.when(insert.getRow()).thenReturn(PowerMockito.mock(PartialRow.class));
+      return insert;
+    });
+    PowerMockito.stub(PowerMockito.method(KuduClient.class, "openTable")).toReturn(table);
+  }
+
+  private RowError mockRowError(Operation operation, boolean alreadyPresent) {
+    Status status = PowerMockito.mock(Status.class);
+    PowerMockito.when(status.isAlreadyPresent()).thenReturn(alreadyPresent);
+    PowerMockito.when(status.isNotFound()).thenReturn(!alreadyPresent);
+    RowError error = PowerMockito.mock(RowError.class);
+    PowerMockito.when(error.getErrorStatus()).thenReturn(status);
+    PowerMockito.when(error.getOperation()).thenReturn(operation);
+    return error;
+  }
+
+  private static List<Record> createRecords(String table, int count) {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Record record = RecordCreator.create();
+      LinkedHashMap<String, Field> field = new LinkedHashMap<>();
+      field.put("key", Field.create(i));
+      field.put("value", Field.create("value"));
+      field.put("name", Field.create(table));
+      record.set(Field.createListMap(field));
+      record.getHeader().setAttribute("tableName", table);
+      records.add(record);
+    }
+    return records;
+  }
+
+  /**
+   * In background flush mode the session is flushed once per batch, whatever the number of tables, and the row
+   * errors collected by the session are mapped back to their records.
+   */
+  @Test
+  public void testBackgroundFlushRowErrors() throws Exception {
+    final List<Operation> applied = new ArrayList<>();
+    mockOperations(applied);
+    RowErrorsAndOverflowStatus pendingErrors = PowerMockito.mock(RowErrorsAndOverflowStatus.class);
+    PowerMockito.when(pendingErrors.isOverflowed()).thenReturn(false);
+    PowerMockito.when(pendingErrors.getRowErrors()).thenAnswer(invocation -> new RowError[] {
+        mockRowError(applied.get(1), true),
+        mockRowError(applied.get(3), false)
+    });
+    PowerMockito.when(session.getPendingErrors()).thenReturn(pendingErrors);
+
+    KuduTarget target = new KuduTarget(new KuduConfigBeanBuilder()
+        .setMaster(KUDU_MASTER)
+        .setTableName("${record:attribute('tableName')}")
+        .setDefaultOperation(KuduOperationType.INSERT)
+        .setUnsupportedAction(UnsupportedOperationAction.DISCARD)
+        .setFlushMode(KuduFlushMode.AUTO_FLUSH_BACKGROUND)
+        .build()
+    );
+    TargetRunner targetRunner = getTargetRunner(target);
+    targetRunner.runInit();
+    try {
+      List<Record> records = new ArrayList<>(createRecords("t1", 3));
+      records.addAll(createRecords("t2", 2));
+      targetRunner.runWrite(records);
+
+      Assert.assertEquals(5, applied.size());
+      Mockito.verify(session, Mockito.times(1)).flush();
+      List<Record> errors = targetRunner.getErrorRecords();
+      Assert.assertEquals(2, errors.size());
+      Assert.assertEquals(Errors.KUDU_08.name(), errors.get(0).getHeader().getErrorCode());
+      Assert.assertEquals(Errors.KUDU_15.name(), errors.get(1).getHeader().getErrorCode());
+      // row keys are only built for the rows that failed
+      Mockito.verify(applied.get(0).getRow(), Mockito.never()).stringifyRowKey();
+      Mockito.verify(applied.get(1).getRow(), Mockito.times(1)).stringifyRowKey();
+    } finally {
+      targetRunner.runDestroy();
+    }
+  }
+
+  /**
+   * Row errors dropped by the session can't be sent to error, the batch fails to be retried.
+   */
+  @Test(expected = StageException.class)
+  public void testBackgroundFlushRowErrorsOverflow() throws Exception {
+    mockOperations(new ArrayList<>());
+    RowErrorsAndOverflowStatus pendingErrors = PowerMockito.mock(RowErrorsAndOverflowStatus.class);
+    PowerMockito.when(pendingErrors.isOverflowed()).thenReturn(true);
+    PowerMockito.when(pendingErrors.getRowErrors()).thenReturn(new RowError[0]);
+    PowerMockito.when(session.getPendingErrors()).thenReturn(pendingErrors);
+
+    KuduTarget target = new KuduTarget(new KuduConfigBeanBuilder()
+        .setMaster(KUDU_MASTER)
+        .setTableName(tableName)
+        .setDefaultOperation(KuduOperationType.INSERT)
+        .setUnsupportedAction(UnsupportedOperationAction.DISCARD)
+        .setFlushMode(KuduFlushMode.AUTO_FLUSH_BACKGROUND)
+        .build()
+    );
+    TargetRunner targetRunner = getTargetRunner(target);
+    targetRunner.runInit();
+    try {
+      targetRunner.runWrite(createRecords(tableName, 2));
+    } finally {
+      targetRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testManualFlushPerTable() throws Exception {
+    List<Operation> applied = new ArrayList<>();
+    mockOperations(applied);
+
+    TargetRunner targetRunner = getTargetRunner(
+        "${record:attribute('tableName')}",
+        KuduOperationType.INSERT,
+        UnsupportedOperationAction.DISCARD
+    );
+    targetRunner.runInit();
+    try {
+      List<Record> records = new ArrayList<>(createRecords("t1", 3));
+      records.addAll(createRecords("t2", 2));
+      targetRunner.runWrite(records);
+
+      Assert.assertEquals(5, applied.size());
+      Mockito.verify(session, Mockito.times(2)).flush();
+      Mockito.verify(session, Mockito.never()).getPendingErrors();
+      Assert.assertTrue(targetRunner.getErrorRecords().isEmpty());
+    } finally {
+      targetRunner.runDestroy();
+    }
+  }
+
   private TargetRunner getTargetRunner(String tableName,
                                        KuduOperationType defaultOperation,
                                        UnsupportedOperationAction action)
@@ -457,6 +603,7 @@ public class TestKuduTarget {
     KuduOperationType defaultOperation;
     List<KuduFieldMappingConfig> mapping;
     UnsupportedOperationAction unsupportedAction;
+    KuduFlushMode flushMode = KuduFlushMode.MANUAL_FLUSH;
 
     public KuduConfigBeanBuilder setMaster(String master) {
       this.kuduMaster = master;
@@ -478,6 +625,11 @@ public class TestKuduTarget {
       return this;
     }
 
+    public KuduConfigBeanBuilder setFlushMode(KuduFlushMode flushMode) {
+      this.flushMode = flushMode;
+      return this;
+    }
+
     public KuduConfigBean build() {
       KuduConfigBean conf = new KuduConfigBean();
       conf.kuduMaster = kuduMaster;
@@ -485,6 +637,7 @@ public class TestKuduTarget {
       conf.defaultOperation = KuduOperationType.INSERT;
       conf.fieldMappingConfigs = mapping;
       conf.unsupportedAction = unsupportedAction;
+      conf.flushMode = flushMode;
       return conf;
     }
   }
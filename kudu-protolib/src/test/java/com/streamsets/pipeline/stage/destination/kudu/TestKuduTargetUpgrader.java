@@ -51,4 +51,14 @@ public class TestKuduTargetUpgrader {
     Assert.assertEquals("kuduConfigBean.numWorkers", addedConf2.getName());
     Assert.assertEquals(0, addedConf2.getValue());
   }
+
+  @Test
+  public void testUpgradeV5toV6() throws StageException {
+    List<Config> configs = new ArrayList<>();
+    KuduTargetUpgrader upgrader = new KuduTargetUpgrader();
+    List<Config> upgradedConfigs = upgrader.upgrade("lib", "stage", "stageInst", 5, 6, configs);
+    Assert.assertEquals(1, upgradedConfigs.size());
+    Assert.assertEquals("kuduConfigBean.flushMode", upgradedConfigs.get(0).getName());
+    Assert.assertEquals(KuduFlushMode.MANUAL_FLUSH, upgradedConfigs.get(0).getValue());
+  }
 }
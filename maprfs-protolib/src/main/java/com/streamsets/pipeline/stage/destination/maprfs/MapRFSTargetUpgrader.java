@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.upgrade.DataFormatUpgradeHelper;
+import com.streamsets.pipeline.stage.destination.hdfs.HdfsTargetUpgrader;
 
 import java.util.List;
 
@@ -31,6 +32,18 @@ public class MapRFSTargetUpgrader implements StageUpgrader {
     switch (fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
+        if (toVersion == 2) {
+          break;
+        }
+        // fall through
+      case 2:
+        upgradeV2ToV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
+        // fall through
+      case 3:
+        upgradeV3ToV4(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -41,4 +54,12 @@ public class MapRFSTargetUpgrader implements StageUpgrader {
   private static void upgradeV1ToV2(List<Config> configs) {
     DataFormatUpgradeHelper.upgradeAvroGeneratorWithSchemaRegistrySupport(configs);
   }
+
+  private static void upgradeV2ToV3(List<Config> configs) {
+    HdfsTargetUpgrader.addParquetConfigs("hdfsTargetConfigBean.", configs);
+  }
+
+  private static void upgradeV3ToV4(List<Config> configs) {
+    HdfsTargetUpgrader.addOrcConfigs("hdfsTargetConfigBean.", configs);
+  }
 }
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.lib.parser.net.netflow;
 
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.ipfix.IpfixDecoder;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Decoder;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Message;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder;
@@ -52,6 +53,7 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
   private boolean readVersion = false;
   private NetflowV5Decoder netflowV5Decoder;
   private NetflowV9Decoder netflowV9Decoder;
+  private IpfixDecoder ipfixDecoder;
   // END ReplayingDecoder state vars
 
   // Netflow v9 decoder parameters
@@ -164,6 +166,12 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
         }
         versionSpecificNetflowDecoder = netflowV9Decoder;
         break;
+      case IpfixDecoder.IPFIX_VERSION:
+        if (ipfixDecoder == null) {
+          ipfixDecoder = new IpfixDecoder(this, outputValuesMode, templateCacheProvider);
+        }
+        versionSpecificNetflowDecoder = ipfixDecoder;
+        break;
       default:
         resetStateVariables();
         throw new OnRecordErrorException(Errors.NETFLOW_00, version);
@@ -186,11 +194,12 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
   }
 
   public static String ipV4ToString(int ip) {
-    return String.format("%d.%d.%d.%d",
-      (ip >> 24 & 0xff),
-      (ip >> 16 & 0xff),
-      (ip >> 8 & 0xff),
-      (ip & 0xff));
+    return new StringBuilder(15)
+      .append(ip >> 24 & 0xff).append('.')
+      .append(ip >> 16 & 0xff).append('.')
+      .append(ip >> 8 & 0xff).append('.')
+      .append(ip & 0xff)
+      .toString();
   }
 
   @NotNull
@@ -212,6 +221,9 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
     if (netflowV9Decoder != null) {
       netflowV9Decoder.resetState();
     }
+    if (ipfixDecoder != null) {
+      ipfixDecoder.resetState();
+    }
   }
 
   /**
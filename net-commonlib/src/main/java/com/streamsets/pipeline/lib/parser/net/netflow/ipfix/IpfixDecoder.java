@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.ipfix;
+
+import com.google.common.cache.Cache;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.NetflowCommonDecoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.VersionSpecificNetflowDecoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplateCacheKey;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9TemplateCacheProvider;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Decodes IPFIX (RFC 7011), a.k.a. Netflow v10, messages.
+ *
+ * IPFIX reuses the v9 template mechanism, so templates are compiled into the same {@link FlowSetTemplate} plans,
+ * share the template cache with v9 and produce {@link NetflowV9Message}s (with version 10). Information element ids
+ * below 32768 match the v9 field types; enterprise specific elements are kept as raw bytes. Unlike v9, the header
+ * carries the total message length, so the whole message is read at once and then decoded without checkpoints.
+ */
+public class IpfixDecoder implements VersionSpecificNetflowDecoder<NetflowV9Message> {
+  private static final Logger LOG = LoggerFactory.getLogger(IpfixDecoder.class);
+
+  public static final int IPFIX_VERSION = 10;
+
+  private static final int HEADER_SIZE = 16;
+  private static final int TEMPLATE_SET_ID = 2;
+  private static final int OPTIONS_TEMPLATE_SET_ID = 3;
+  private static final int MIN_DATA_SET_ID = 256;
+  private static final int ENTERPRISE_BIT = 0x8000;
+
+  private final NetflowCommonDecoder parentDecoder;
+  private final OutputValuesMode outputValuesMode;
+  private final Cache<FlowSetTemplateCacheKey, FlowSetTemplate> flowSetTemplateCache;
+
+  // BEGIN state vars
+  private Integer messageLength = null;
+  private byte[] messageBytes = null;
+  // END state vars
+
+  public IpfixDecoder(
+      NetflowCommonDecoder parentDecoder,
+      OutputValuesMode outputValuesMode,
+      NetflowV9TemplateCacheProvider templateCacheProvider
+  ) {
+    this.parentDecoder = parentDecoder;
+    this.outputValuesMode = outputValuesMode;
+    this.flowSetTemplateCache = templateCacheProvider.getFlowSetTemplateCache();
+  }
+
+  @Override
+  public List<NetflowV9Message> parse(
+      int netflowVersion,
+      int packetLength,
+      boolean packetLengthCheck,
+      ByteBuf buf,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    if (messageLength == null) {
+      messageLength = buf.readUnsignedShort();
+      parentDecoder.doCheckpoint();
+    }
+    if (messageLength < HEADER_SIZE) {
+      throw new OnRecordErrorException(Errors.NETFLOW_01, Utils.format("Message length is invalid: {}", messageLength));
+    }
+    if (packetLengthCheck && packetLength < messageLength) {
+      throw new OnRecordErrorException(
+          Errors.NETFLOW_01,
+          Utils.format("Message length {} exceeds the packet length {}", messageLength, packetLength)
+      );
+    }
+    if (messageBytes == null) {
+      // everything after the version and length fields
+      final byte[] bytes = new byte[messageLength - 4];
+      buf.readBytes(bytes);
+      messageBytes = bytes;
+      parentDecoder.doCheckpoint();
+    }
+
+    final List<NetflowV9Message> result = decodeMessage(Unpooled.wrappedBuffer(messageBytes), sender, recipient);
+    resetState();
+    return result;
+  }
+
+  private List<NetflowV9Message> decodeMessage(
+      ByteBuf message,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    final long exportTime = message.readUnsignedInt();
+    final long sequenceNumber = message.readUnsignedInt();
+    final byte[] observationDomainBytes = new byte[4];
+    message.getBytes(message.readerIndex(), observationDomainBytes);
+    final long observationDomainId = message.readUnsignedInt();
+
+    final List<NetflowV9Message> result = new LinkedList<>();
+    while (message.readableBytes() >= 4) {
+      final int setId = message.readUnsignedShort();
+      final int setLength = message.readUnsignedShort();
+      if (setLength < 4 || setLength - 4 > message.readableBytes()) {
+        throw new OnRecordErrorException(Errors.NETFLOW_01, Utils.format("Set length is invalid: {}", setLength));
+      }
+      final ByteBuf set = message.readSlice(setLength - 4);
+
+      if (setId == TEMPLATE_SET_ID) {
+        readTemplates(set, FlowKind.FLOWSET, observationDomainBytes, sender);
+      } else if (setId == OPTIONS_TEMPLATE_SET_ID) {
+        readTemplates(set, FlowKind.OPTIONS, observationDomainBytes, sender);
+      } else if (setId < MIN_DATA_SET_ID) {
+        throw new OnRecordErrorException(Errors.NETFLOW_17, setId);
+      } else {
+        final FlowSetTemplate template = getTemplate(observationDomainBytes, sender, setId);
+        if (template == null) {
+          throw new OnRecordErrorException(Errors.NETFLOW_11, setId);
+        }
+        // anything shorter than a record at the end of the set is padding
+        while (set.readableBytes() > 0 && set.readableBytes() >= template.getTotalFieldsLength()) {
+          final List<NetflowV9Field> fields = template.decodeRecord(set, outputValuesMode);
+
+          final NetflowV9Message msg = new NetflowV9Message();
+          msg.setNetflowVersion(IPFIX_VERSION);
+          msg.setSender(sender);
+          msg.setRecipient(recipient);
+          msg.setFlowKind(template.getTemplateKind());
+          msg.setOutputValuesMode(outputValuesMode);
+          msg.setUnixSeconds(exportTime);
+          msg.setSequenceNumber(sequenceNumber);
+          msg.setSourceId(observationDomainId);
+          msg.setSourceIdBytes(observationDomainBytes);
+          msg.setFields(fields);
+          msg.setFlowTemplateId(setId);
+          result.add(msg);
+        }
+      }
+    }
+
+    for (NetflowV9Message msg : result) {
+      msg.setFlowRecordCount(result.size());
+    }
+    return result;
+  }
+
+  private void readTemplates(
+      ByteBuf set,
+      FlowKind kind,
+      byte[] observationDomainBytes,
+      InetSocketAddress sender
+  ) throws OnRecordErrorException {
+    // template ID and field count, a withdrawal record is only made of them, also for options templates
+    while (set.readableBytes() >= 4) {
+      final int templateId = set.readUnsignedShort();
+      final int fieldCount = set.readUnsignedShort();
+      final FlowSetTemplateCacheKey cacheKey = new FlowSetTemplateCacheKey(
+          kind,
+          observationDomainBytes,
+          sender,
+          templateId
+      );
+      if (fieldCount == 0) {
+        // template withdrawal
+        flowSetTemplateCache.invalidate(cacheKey);
+        continue;
+      }
+      if (kind == FlowKind.OPTIONS) {
+        if (set.readableBytes() < 2) {
+          // padding
+          break;
+        }
+        // scope field count
+        set.skipBytes(2);
+      }
+
+      final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        if (set.readableBytes() < 4) {
+          throw new OnRecordErrorException(
+              Errors.NETFLOW_01,
+              Utils.format("Template {} is truncated after {} of its {} fields", templateId, i, fieldCount)
+          );
+        }
+        int typeId = set.readUnsignedShort();
+        final int length = set.readUnsignedShort();
+        if ((typeId & ENTERPRISE_BIT) != 0) {
+          if (set.readableBytes() < 4) {
+            throw new OnRecordErrorException(
+                Errors.NETFLOW_01,
+                Utils.format("Template {} is truncated in the enterprise number of field {}", templateId, i)
+            );
+          }
+          typeId &= ~ENTERPRISE_BIT;
+          fieldTemplates.add(NetflowV9FieldTemplate.getEnterpriseFieldTemplate(set.readUnsignedInt(), typeId, length));
+        } else {
+          // IPFIX scope fields are regular information elements, unlike the dedicated v9 scope field types
+          fieldTemplates.add(new NetflowV9FieldTemplate(typeId, length));
+        }
+      }
+
+      final FlowSetTemplate template = new FlowSetTemplate(kind, templateId, fieldTemplates);
+      if (template.getTotalFieldsLength() == 0) {
+        // its data records would take no bytes, a data set could never be consumed
+        throw new OnRecordErrorException(
+            Errors.NETFLOW_01,
+            Utils.format("Template {} has only zero length fields", templateId)
+        );
+      }
+      flowSetTemplateCache.put(cacheKey, template);
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("Cached new IPFIX {} template {} with {} fields", kind, cacheKey, fieldCount);
+      }
+    }
+  }
+
+  private FlowSetTemplate getTemplate(byte[] observationDomainBytes, InetSocketAddress sender, int templateId) {
+    FlowSetTemplate template = flowSetTemplateCache.getIfPresent(
+        new FlowSetTemplateCacheKey(FlowKind.FLOWSET, observationDomainBytes, sender, templateId)
+    );
+    if (template == null) {
+      template = flowSetTemplateCache.getIfPresent(
+          new FlowSetTemplateCacheKey(FlowKind.OPTIONS, observationDomainBytes, sender, templateId)
+      );
+    }
+    return template;
+  }
+
+  @Override
+  public void resetState() {
+    messageLength = null;
+    messageBytes = null;
+  }
+}
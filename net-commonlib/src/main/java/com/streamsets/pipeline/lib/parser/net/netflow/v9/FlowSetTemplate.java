@@ -16,14 +16,24 @@
 
 package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import io.netty.buffer.ByteBuf;
+
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A received (options) template, compiled into a decoding plan: the field templates carry their SDC field names
+ * and value decoders, so a data record is decoded by walking the plan once without any per field lookups.
+ */
 public class FlowSetTemplate {
 
   private final FlowKind templateKind;
   private final int templateId;
   private final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>();
+  private final NetflowV9FieldTemplate[] plan;
   private final int totalFieldsLength;
 
   public FlowSetTemplate(FlowKind templateKind, int templateId, List<NetflowV9FieldTemplate> fieldTemplates) {
@@ -33,12 +43,18 @@ public class FlowSetTemplate {
     if (fieldTemplates != null) {
       this.fieldTemplates.addAll(fieldTemplates);
       for (NetflowV9FieldTemplate template : fieldTemplates) {
-        totalLength += template.getLength();
+        // variable length fields take at least their one byte length prefix
+        totalLength += template.isVariableLength() ? 1 : template.getLength();
       }
     }
+    plan = this.fieldTemplates.toArray(new NetflowV9FieldTemplate[0]);
     totalFieldsLength = totalLength;
   }
 
+  public FlowKind getTemplateKind() {
+    return templateKind;
+  }
+
   public int getTemplateId() {
     return templateId;
   }
@@ -47,7 +63,35 @@ public class FlowSetTemplate {
     return fieldTemplates;
   }
 
+  /**
+   * Minimum number of bytes a data record for this template occupies.
+   */
   public int getTotalFieldsLength() {
     return totalFieldsLength;
   }
+
+  /**
+   * Reads one data record for this template from the buffer.
+   */
+  public List<NetflowV9Field> decodeRecord(
+      ByteBuf buf,
+      OutputValuesMode outputValuesMode
+  ) throws OnRecordErrorException {
+    final boolean interpret = outputValuesMode != OutputValuesMode.RAW_ONLY;
+    final List<NetflowV9Field> fields = new ArrayList<>(plan.length);
+    for (NetflowV9FieldTemplate fieldTemplate : plan) {
+      int length = fieldTemplate.getLength();
+      if (fieldTemplate.isVariableLength()) {
+        length = buf.readUnsignedByte();
+        if (length == 255) {
+          length = buf.readUnsignedShort();
+        }
+      }
+      final byte[] rawBytes = new byte[length];
+      buf.readBytes(rawBytes);
+      final Field interpretedValueField = interpret ? fieldTemplate.getValueDecoder().decode(rawBytes) : null;
+      fields.add(new NetflowV9Field(fieldTemplate, rawBytes, interpretedValueField));
+    }
+    return fields;
+  }
 }
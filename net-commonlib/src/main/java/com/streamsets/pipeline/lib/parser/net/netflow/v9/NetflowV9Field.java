@@ -47,10 +47,6 @@ public class NetflowV9Field {
   }
 
   public String getSdcFieldName() {
-    if (fieldTemplate.getType() != null) {
-      return fieldTemplate.getType().name();
-    } else {
-      return String.format("type_%d", fieldTemplate.getTypeId());
-    }
+    return fieldTemplate.getSdcFieldName();
   }
 }
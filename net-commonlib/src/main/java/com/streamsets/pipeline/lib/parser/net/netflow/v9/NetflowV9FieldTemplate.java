@@ -18,10 +18,19 @@ package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
 public class NetflowV9FieldTemplate {
 
+  /**
+   * Field length that marks an IPFIX variable length field (RFC 7011, section 7), whose actual length is encoded
+   * in front of every value.
+   */
+  public static final int VARIABLE_LENGTH = 65535;
+
   private final NetflowV9FieldType type;
 
   private final int typeId;
   private final int length;
+  private final long enterpriseNumber;
+  private final String sdcFieldName;
+  private final NetflowV9FieldValueDecoder valueDecoder;
 
   public NetflowV9FieldTemplate(int typeId, int length) {
     this(NetflowV9FieldType.getTypeForId(typeId), typeId, length);
@@ -31,10 +40,31 @@ public class NetflowV9FieldTemplate {
     return new NetflowV9FieldTemplate(NetflowV9FieldType.getScopeTypeForId(scopeTypeId), scopeTypeId, length);
   }
 
+  /**
+   * Template for an IPFIX enterprise specific information element, which is never interpreted.
+   */
+  public static NetflowV9FieldTemplate getEnterpriseFieldTemplate(long enterpriseNumber, int typeId, int length) {
+    return new NetflowV9FieldTemplate(null, typeId, length, enterpriseNumber);
+  }
+
   public NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length) {
+    this(type, typeId, length, 0);
+  }
+
+  private NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length, long enterpriseNumber) {
     this.type = type;
     this.typeId = typeId;
     this.length = length;
+    this.enterpriseNumber = enterpriseNumber;
+    // resolved once per template so that data records only need to look them up
+    if (enterpriseNumber != 0) {
+      this.sdcFieldName = String.format("enterprise_%d_type_%d", enterpriseNumber, typeId);
+    } else if (type != null) {
+      this.sdcFieldName = type.name();
+    } else {
+      this.sdcFieldName = String.format("type_%d", typeId);
+    }
+    this.valueDecoder = NetflowV9Decoder.getValueDecoder(type, typeId);
   }
 
   public NetflowV9FieldType getType() {
@@ -48,4 +78,20 @@ public class NetflowV9FieldTemplate {
   public int getLength() {
     return length;
   }
+
+  public boolean isVariableLength() {
+    return length == VARIABLE_LENGTH;
+  }
+
+  public long getEnterpriseNumber() {
+    return enterpriseNumber;
+  }
+
+  public String getSdcFieldName() {
+    return sdcFieldName;
+  }
+
+  public NetflowV9FieldValueDecoder getValueDecoder() {
+    return valueDecoder;
+  }
 }
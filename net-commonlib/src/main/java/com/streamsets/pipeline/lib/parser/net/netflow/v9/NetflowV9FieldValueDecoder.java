@@ -0,0 +1,28 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v9;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+
+/**
+ * Converts the raw bytes of a single flow field into its interpreted SDC {@link Field}. Resolved once per field
+ * template, so decoding a data record doesn't need to switch over the field type again.
+ */
+@FunctionalInterface
+public interface NetflowV9FieldValueDecoder {
+  Field decode(byte[] rawBytes) throws OnRecordErrorException;
+}
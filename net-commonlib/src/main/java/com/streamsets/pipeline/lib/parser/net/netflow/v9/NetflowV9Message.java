@@ -45,6 +45,7 @@ public class NetflowV9Message extends BaseNetflowMessage {
   public static final String FIELD_SENDER = "sender";
   public static final String FIELD_RECIPIENT = "recipient";
 
+  private int netflowVersion = 9;
   private OutputValuesMode outputValuesMode;
   private int flowRecordCount = 0;
   private long systemUptimeMs = 0;
@@ -179,7 +180,7 @@ public class NetflowV9Message extends BaseNetflowMessage {
   }
 
   public LinkedHashMap<String, Field> createFieldsMap(boolean rawValues) {
-    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(getFields().size() * 2);
     getFields().forEach(field -> fields.put(
         field.getSdcFieldName(),
         rawValues ? Field.create(field.getRawValue()) : field.getInterpretedValueField()
@@ -207,6 +208,13 @@ public class NetflowV9Message extends BaseNetflowMessage {
 
   @Override
   public int getNetflowVersion() {
-    return 9;
+    return netflowVersion;
+  }
+
+  /**
+   * IPFIX messages share the v9 message layout, see {@link com.streamsets.pipeline.lib.parser.net.netflow.ipfix.IpfixDecoder}.
+   */
+  public void setNetflowVersion(int netflowVersion) {
+    this.netflowVersion = netflowVersion;
   }
 }
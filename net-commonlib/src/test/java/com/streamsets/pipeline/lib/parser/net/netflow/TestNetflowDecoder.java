@@ -29,6 +29,7 @@ import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.testing.RandomTestUtils;
 import com.streamsets.testing.ValueAccessor;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.apache.commons.lang3.RandomUtils;
@@ -39,6 +40,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -510,6 +512,198 @@ public class TestNetflowDecoder {
     }
   }
 
+  @Test
+  public void ipfixTemplateAndData() throws Exception {
+    final byte[] bytes = getIpfixMessageBytes();
+    for (boolean randomlySlice : new boolean[] {false, true}) {
+      EmbeddedChannel ch = new EmbeddedChannel(makeNetflowDecoder());
+      writeBytesToChannel(ch, bytes, randomlySlice);
+
+      final List<NetflowV9Message> messages = new LinkedList<>();
+      Object object;
+      while ((object = ch.readInbound()) != null) {
+        assertThat(object, instanceOf(NetflowV9Message.class));
+        messages.add((NetflowV9Message) object);
+      }
+      ch.finish();
+
+      assertThat(messages, hasSize(2));
+      for (int i = 0; i < messages.size(); i++) {
+        final NetflowV9Message msg = messages.get(i);
+        assertThat(msg.getNetflowVersion(), equalTo(10));
+        assertThat(msg.getFlowKind(), equalTo(FlowKind.FLOWSET));
+        assertThat(msg.getFlowTemplateId(), equalTo(256));
+        assertThat(msg.getFlowRecordCount(), equalTo(2));
+        assertThat(msg.getUnixSeconds(), equalTo(1500000000L));
+        assertThat(msg.getSequenceNumber(), equalTo(42L));
+        assertThat(msg.getSourceId(), equalTo(7L));
+
+        final List<NetflowV9Field> fields = msg.getFields();
+        assertThat(fields, hasSize(5));
+        assertThat(fields.get(0).getInterpretedValueField(), fieldWithValue("10.0.0." + (i + 1)));
+        assertThat(fields.get(1).getInterpretedValueField(), fieldWithValue(8080 + i));
+        assertThat(fields.get(2).getInterpretedValueField(), fieldWithValue(PROTOCOL_TCP));
+        assertThat(fields.get(3).getInterpretedValueField(), fieldWithValue(i == 0 ? "eth0" : "wlan12"));
+        assertThat(fields.get(4).getSdcFieldName(), equalTo("enterprise_9_type_5"));
+        assertThat(fields.get(4).getRawValue(), equalTo(new byte[] {0x12, (byte) (0x34 + i)}));
+      }
+    }
+  }
+
+  private byte[] getIpfixMessageBytes() {
+    final ByteBuf templateSet = Unpooled.buffer();
+    // template id 256 with 5 fields
+    templateSet.writeShort(256).writeShort(5);
+    // sourceIPv4Address, sourceTransportPort and protocolIdentifier
+    templateSet.writeShort(8).writeShort(4);
+    templateSet.writeShort(7).writeShort(2);
+    templateSet.writeShort(4).writeShort(1);
+    // interfaceName, variable length
+    templateSet.writeShort(82).writeShort(65535);
+    // enterprise specific element 5 of PEN 9
+    templateSet.writeShort(0x8000 | 5).writeShort(2).writeInt(9);
+
+    final ByteBuf dataSet = Unpooled.buffer();
+    final String[] ifNames = new String[] {"eth0", "wlan12"};
+    for (int i = 0; i < ifNames.length; i++) {
+      dataSet.writeBytes(new byte[] {10, 0, 0, (byte) (i + 1)});
+      dataSet.writeShort(8080 + i);
+      dataSet.writeByte(PROTOCOL_TCP);
+      dataSet.writeByte(ifNames[i].length());
+      dataSet.writeBytes(ifNames[i].getBytes(StandardCharsets.UTF_8));
+      dataSet.writeByte(0x12).writeByte(0x34 + i);
+    }
+    // padding
+    dataSet.writeByte(0);
+
+    final ByteBuf message = Unpooled.buffer();
+    final int length = 16 + 4 + templateSet.readableBytes() + 4 + dataSet.readableBytes();
+    message.writeShort(10).writeShort(length);
+    message.writeInt(1500000000).writeInt(42).writeInt(7);
+    message.writeShort(2).writeShort(4 + templateSet.readableBytes()).writeBytes(templateSet);
+    message.writeShort(256).writeShort(4 + dataSet.readableBytes()).writeBytes(dataSet);
+
+    final byte[] bytes = new byte[message.readableBytes()];
+    message.readBytes(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void ipfixOptionsTemplateWithdrawal() throws Exception {
+    final NetflowCommonDecoder decoder = makeNetflowDecoder();
+    final InetSocketAddress sender = InetSocketAddress.createUnresolved("hostA", 1234);
+    final List<BaseNetflowMessage> messages = new LinkedList<>();
+
+    decoder.decodeStandaloneBuffer(
+        getIpfixMessage(
+            getIpfixSet(3, Unpooled.wrappedBuffer(getIpfixOptionsTemplate(257), getIpfixOptionsTemplate(258))),
+            getIpfixSet(257, getIpfixOptionsRecord(1)),
+            getIpfixSet(258, getIpfixOptionsRecord(2))
+        ),
+        messages,
+        sender,
+        null
+    );
+    assertThat(messages, hasSize(2));
+    for (BaseNetflowMessage message : messages) {
+      assertThat(((NetflowV9Message) message).getFlowKind(), equalTo(FlowKind.OPTIONS));
+    }
+
+    // a withdrawal record is only made of the template id and a 0 field count, followed here by another template
+    messages.clear();
+    decoder.decodeStandaloneBuffer(
+        getIpfixMessage(
+            getIpfixSet(3, Unpooled.wrappedBuffer(getIpfixWithdrawal(257), getIpfixOptionsTemplate(259))),
+            getIpfixSet(258, getIpfixOptionsRecord(3)),
+            getIpfixSet(259, getIpfixOptionsRecord(4))
+        ),
+        messages,
+        sender,
+        null
+    );
+    assertThat(messages, hasSize(2));
+    assertThat(((NetflowV9Message) messages.get(1)).getFlowTemplateId(), equalTo(259));
+    assertThat(((NetflowV9Message) messages.get(1)).getFields(), hasSize(2));
+
+    // a set with a single withdrawal record
+    messages.clear();
+    decoder.decodeStandaloneBuffer(getIpfixMessage(getIpfixSet(3, getIpfixWithdrawal(258))), messages, sender, null);
+    assertThat(messages, hasSize(0));
+
+    for (int templateId : new int[] {257, 258}) {
+      try {
+        decoder.decodeStandaloneBuffer(
+            getIpfixMessage(getIpfixSet(templateId, getIpfixOptionsRecord(5))),
+            messages,
+            sender,
+            null
+        );
+        fail("Template " + templateId + " should have been withdrawn");
+      } catch (OnRecordErrorException ex) {
+        assertThat(ex.getErrorCode(), equalTo(Errors.NETFLOW_11));
+      }
+    }
+  }
+
+  @Test
+  public void ipfixMalformedTemplates() throws Exception {
+    final NetflowCommonDecoder decoder = makeNetflowDecoder();
+    final InetSocketAddress sender = InetSocketAddress.createUnresolved("hostA", 1234);
+    final List<BaseNetflowMessage> messages = new LinkedList<>();
+
+    final ByteBuf[] templateSets = {
+        // zero length fields only, its data records would take no bytes
+        getIpfixSet(2, Unpooled.buffer().writeShort(256).writeShort(2).writeShort(1).writeShort(0).writeShort(2)
+            .writeShort(0)),
+        // 3 fields announced, a single field spec
+        getIpfixSet(2, Unpooled.buffer().writeShort(256).writeShort(3).writeShort(1).writeShort(4)),
+        // enterprise bit without the enterprise number
+        getIpfixSet(2, Unpooled.buffer().writeShort(256).writeShort(1).writeShort(0x8001).writeShort(4)),
+    };
+    for (ByteBuf templateSet : templateSets) {
+      try {
+        decoder.decodeStandaloneBuffer(
+            getIpfixMessage(templateSet, getIpfixSet(256, Unpooled.buffer().writeInt(1))),
+            messages,
+            sender,
+            null
+        );
+        fail("The template should have been rejected");
+      } catch (OnRecordErrorException ex) {
+        assertThat(ex.getErrorCode(), equalTo(Errors.NETFLOW_01));
+      }
+      assertThat(messages, hasSize(0));
+    }
+  }
+
+  private static ByteBuf getIpfixOptionsTemplate(int templateId) {
+    // 2 fields, the first one is the scope: ingressInterface and octetDeltaCount
+    return Unpooled.buffer()
+        .writeShort(templateId).writeShort(2).writeShort(1)
+        .writeShort(10).writeShort(4)
+        .writeShort(1).writeShort(4);
+  }
+
+  private static ByteBuf getIpfixWithdrawal(int templateId) {
+    return Unpooled.buffer().writeShort(templateId).writeShort(0);
+  }
+
+  private static ByteBuf getIpfixOptionsRecord(int value) {
+    return Unpooled.buffer().writeInt(value).writeInt(value * 1000);
+  }
+
+  private static ByteBuf getIpfixSet(int setId, ByteBuf content) {
+    return Unpooled.buffer().writeShort(setId).writeShort(4 + content.readableBytes()).writeBytes(content);
+  }
+
+  private static ByteBuf getIpfixMessage(ByteBuf... sets) {
+    final ByteBuf message = Unpooled.buffer();
+    final ByteBuf content = Unpooled.wrappedBuffer(sets);
+    message.writeShort(10).writeShort(16 + content.readableBytes());
+    message.writeInt(1500000000).writeInt(42).writeInt(7);
+    return message.writeBytes(content);
+  }
+
   @Test
   public void senderAndReceiver() throws IOException, OnRecordErrorException {
     final NetflowCommonDecoder decoder = makeNetflowDecoder();
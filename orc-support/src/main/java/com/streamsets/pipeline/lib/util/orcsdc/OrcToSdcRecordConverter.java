@@ -33,6 +33,7 @@ import org.apache.hadoop.hive.ql.exec.vector.StructColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.UnionColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
@@ -46,9 +47,11 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 
 public class OrcToSdcRecordConverter implements AutoCloseable {
 
@@ -61,19 +64,60 @@ public class OrcToSdcRecordConverter implements AutoCloseable {
   private boolean fileExhausted;
   private final RecordReader rows;
   private VectorizedRowBatch readerBatch;
+  private final boolean[] includedColumns;
 
   public OrcToSdcRecordConverter(Path orcFilePath) throws IOException {
-    final Configuration readerConf = new Configuration();
+    this(orcFilePath, new Configuration(), null, null);
+  }
+
+  /**
+   * Reads only the given top level columns (all of them when null) and lets the reader skip stripes and row groups
+   * whose statistics can't satisfy the predicate (no filtering when null). Predicate pushdown works at row group
+   * granularity, so records from a matching row group are still all produced and need to be filtered downstream.
+   */
+  public OrcToSdcRecordConverter(
+      Path orcFilePath,
+      Configuration readerConf,
+      Collection<String> columns,
+      SearchArgument predicate
+  ) throws IOException {
     final OrcFile.ReaderOptions fileReaderOptions = OrcFile.readerOptions(readerConf);
     this.orcFilePath = orcFilePath;
     reader = OrcFile.createReader(this.orcFilePath, fileReaderOptions);
 
-    // TODO: support various parameters to Reader.Options via options passed into constructor?
-    // final Reader.Options rowReaderOptions = new Reader.Options();
+    final TypeDescription schema = reader.getSchema();
+    final Reader.Options rowReaderOptions = reader.options();
+    includedColumns = getIncludedColumns(schema, columns);
+    if (includedColumns != null) {
+      rowReaderOptions.include(includedColumns);
+    }
+    if (predicate != null) {
+      rowReaderOptions.searchArgument(predicate, schema.getFieldNames().toArray(new String[0]));
+    }
+
+    rows = reader.rows(rowReaderOptions);
+    readerBatch = schema.createRowBatch();
+  }
 
-    // for now, just use default options
-    rows = reader.rows();
-    readerBatch = reader.getSchema().createRowBatch();
+  private static boolean[] getIncludedColumns(TypeDescription schema, Collection<String> columns) {
+    if (columns == null) {
+      return null;
+    }
+    final boolean[] include = new boolean[schema.getMaximumId() + 1];
+    // the root struct always needs to be read
+    include[schema.getId()] = true;
+    final List<String> fieldNames = schema.getFieldNames();
+    for (String column : columns) {
+      final int index = fieldNames.indexOf(column);
+      if (index < 0) {
+        throw new IllegalArgumentException(String.format("Column %s does not exist in ORC schema %s", column, schema));
+      }
+      final TypeDescription child = schema.getChildren().get(index);
+      for (int id = child.getId(); id <= child.getMaximumId(); id++) {
+        include[id] = true;
+      }
+    }
+    return include;
   }
 
   public boolean populateRecord(Record record) throws IOException {
@@ -99,7 +143,7 @@ public class OrcToSdcRecordConverter implements AutoCloseable {
     } else {
       // we are already in a batch
       if (rowNumber < readerBatch.size) {
-        populateRecordFromRow(record, reader.getSchema(), readerBatch, rowNumber);
+        populateRecordFromRow(record, reader.getSchema(), readerBatch, rowNumber, includedColumns);
         rowNumber++;
         return true;
       } else {
@@ -114,11 +158,15 @@ public class OrcToSdcRecordConverter implements AutoCloseable {
       Record record,
       TypeDescription schema,
       VectorizedRowBatch batch,
-      int rowNum
+      int rowNum,
+      boolean[] includedColumns
   ) {
     record.getHeader().setAttribute(ORC_SCHEMA_RECORD_ATTRIBUTE, schema.toString());
     record.set(Field.create(new LinkedHashMap<>()));
     for (int c = 0; c < batch.numCols; c++) {
+      if (includedColumns != null && !includedColumns[schema.getChildren().get(c).getId()]) {
+        continue;
+      }
       populateRecordFromRow(record, "/" + schema.getFieldNames().get(c), schema.getChildren().get(c), batch.cols[c], rowNum);
     }
   }
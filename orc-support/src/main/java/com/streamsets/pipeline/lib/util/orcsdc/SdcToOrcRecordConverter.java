@@ -0,0 +1,354 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util.orcsdc;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.util.AvroTypeUtil;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.MapColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.StructColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Writes SDC records straight into an ORC file without going through Avro first.
+ *
+ * Records are copied column by column into a {@link VectorizedRowBatch} that is handed to the ORC writer once it
+ * holds orcBatchSize rows. The writer itself buffers the batches and cuts stripes by size (orc.stripe.size in the
+ * writer properties). The ORC schema is either given up front, taken from the "orcSchema" header attribute of the
+ * first record (as produced by {@link OrcToSdcRecordConverter}) or inferred from the first record's fields.
+ */
+public class SdcToOrcRecordConverter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SdcToOrcRecordConverter.class);
+
+  public static final int DEFAULT_ORC_BATCH_SIZE = VectorizedRowBatch.DEFAULT_SIZE;
+
+  private static final int DEFAULT_DECIMAL_PRECISION = 38;
+  private static final int DEFAULT_DECIMAL_SCALE = 18;
+  private static final int NANOS_PER_MILLI = 1000 * 1000;
+
+  private final int orcBatchSize;
+  private final Properties orcWriterProperties;
+  private final Configuration configuration;
+  private Path orcOutputFile;
+  private TypeDescription orcSchema;
+  private VectorizedRowBatch batch;
+  private Writer writer;
+
+  public SdcToOrcRecordConverter(int orcBatchSize, Properties orcWriterProperties, Configuration configuration) {
+    this.orcBatchSize = orcBatchSize;
+    this.orcWriterProperties = orcWriterProperties;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Prepares writing into the given file. With a null schema the writer is only opened once the first record
+   * arrives and its schema is known.
+   */
+  public void initializeWriter(TypeDescription orcSchema, Path orcOutputFile) throws IOException {
+    this.orcOutputFile = orcOutputFile;
+    if (orcSchema != null) {
+      openWriter(orcSchema);
+    }
+  }
+
+  private void openWriter(TypeDescription orcSchema) throws IOException {
+    if (orcSchema.getCategory() != TypeDescription.Category.STRUCT) {
+      throw new IllegalArgumentException(String.format("ORC schema must be a struct, got %s", orcSchema));
+    }
+    this.orcSchema = orcSchema;
+    batch = orcSchema.createRowBatch(orcBatchSize);
+    LOG.debug("Creating ORC writer at: {}", orcOutputFile);
+    writer = OrcFile.createWriter(
+        orcOutputFile,
+        OrcFile.writerOptions(orcWriterProperties, configuration).setSchema(orcSchema)
+    );
+  }
+
+  public TypeDescription getOrcSchema() {
+    return orcSchema;
+  }
+
+  public void addRecord(Record record) throws IOException {
+    if (writer == null) {
+      openWriter(getOrcSchema(record));
+    }
+
+    final int row = batch.size;
+    final Field root = record.get();
+    final Map<String, Field> fields = root == null ? null : root.getValueAsMap();
+    for (int c = 0; c < batch.numCols; c++) {
+      Field field = fields == null ? null : fields.get(orcSchema.getFieldNames().get(c));
+      addToVector(orcSchema.getChildren().get(c), batch.cols[c], field, row);
+    }
+    batch.size++;
+
+    if (batch.size == batch.getMaxSize()) {
+      writer.addRowBatch(batch);
+      batch.reset();
+    }
+  }
+
+  public void closeWriter() throws IOException {
+    if (writer == null) {
+      return;
+    }
+    if (batch.size != 0) {
+      writer.addRowBatch(batch);
+      batch.reset();
+    }
+    writer.close();
+    writer = null;
+    orcSchema = null;
+  }
+
+  /**
+   * Schema for the given record: the one recorded in its header, or one inferred from its fields.
+   */
+  public static TypeDescription getOrcSchema(Record record) {
+    String schemaInHeader = record.getHeader().getAttribute(OrcToSdcRecordConverter.ORC_SCHEMA_RECORD_ATTRIBUTE);
+    if (schemaInHeader != null && !schemaInHeader.isEmpty()) {
+      return TypeDescription.fromString(schemaInHeader);
+    }
+    Field root = record.get();
+    if (root == null || !root.getType().isOneOf(Field.Type.MAP, Field.Type.LIST_MAP)) {
+      throw new IllegalArgumentException(String.format(
+          "Record %s must have a map as root field to be written as ORC",
+          record.getHeader().getSourceId()
+      ));
+    }
+    return getOrcType(root);
+  }
+
+  private static TypeDescription getOrcType(Field field) {
+    switch (field.getType()) {
+      case BOOLEAN:
+        return TypeDescription.createBoolean();
+      case BYTE:
+      case CHAR:
+        return TypeDescription.createByte();
+      case SHORT:
+        return TypeDescription.createShort();
+      case INTEGER:
+        return TypeDescription.createInt();
+      case LONG:
+        return TypeDescription.createLong();
+      case FLOAT:
+        return TypeDescription.createFloat();
+      case DOUBLE:
+        return TypeDescription.createDouble();
+      case DECIMAL:
+        return TypeDescription.createDecimal()
+            .withPrecision(getIntAttribute(field, AvroTypeUtil.LOGICAL_TYPE_ATTR_PRECISION, DEFAULT_DECIMAL_PRECISION))
+            .withScale(getIntAttribute(field, AvroTypeUtil.LOGICAL_TYPE_ATTR_SCALE, DEFAULT_DECIMAL_SCALE));
+      case BYTE_ARRAY:
+        return TypeDescription.createBinary();
+      case DATE:
+        return TypeDescription.createDate();
+      case DATETIME:
+      case ZONED_DATETIME:
+        return TypeDescription.createTimestamp();
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        Field first = null;
+        if (list != null) {
+          for (Field item : list) {
+            if (item != null && item.getValue() != null) {
+              first = item;
+              break;
+            }
+          }
+        }
+        return TypeDescription.createList(first == null ? TypeDescription.createString() : getOrcType(first));
+      case MAP:
+      case LIST_MAP:
+        TypeDescription struct = TypeDescription.createStruct();
+        Map<String, Field> map = field.getValueAsMap();
+        if (map != null) {
+          for (Map.Entry<String, Field> entry : map.entrySet()) {
+            Field child = entry.getValue();
+            struct.addField(
+                entry.getKey(),
+                child == null ? TypeDescription.createString() : getOrcType(child)
+            );
+          }
+        }
+        return struct;
+      case STRING:
+      case TIME:
+      default:
+        return TypeDescription.createString();
+    }
+  }
+
+  private static int getIntAttribute(Field field, String name, int defaultValue) {
+    String value = field.getAttribute(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      LOG.debug("Ignoring non numeric attribute {}='{}'", name, value);
+      return defaultValue;
+    }
+  }
+
+  private static void setNull(ColumnVector colVector, int vectorPos) {
+    colVector.isNull[vectorPos] = true;
+    colVector.noNulls = false;
+  }
+
+  public static void addToVector(TypeDescription type, ColumnVector colVector, Field field, int vectorPos) {
+    if (field == null || field.getValue() == null) {
+      setNull(colVector, vectorPos);
+      return;
+    }
+    colVector.isNull[vectorPos] = false;
+
+    switch (type.getCategory()) {
+      case BOOLEAN:
+        ((LongColumnVector) colVector).vector[vectorPos] = field.getValueAsBoolean() ? 1 : 0;
+        break;
+      case BYTE:
+        ((LongColumnVector) colVector).vector[vectorPos] = field.getValueAsByte();
+        break;
+      case SHORT:
+        ((LongColumnVector) colVector).vector[vectorPos] = field.getValueAsShort();
+        break;
+      case INT:
+        ((LongColumnVector) colVector).vector[vectorPos] = field.getValueAsInteger();
+        break;
+      case LONG:
+        ((LongColumnVector) colVector).vector[vectorPos] = field.getValueAsLong();
+        break;
+      case FLOAT:
+        ((DoubleColumnVector) colVector).vector[vectorPos] = field.getValueAsFloat();
+        break;
+      case DOUBLE:
+        ((DoubleColumnVector) colVector).vector[vectorPos] = field.getValueAsDouble();
+        break;
+      case VARCHAR:
+      case CHAR:
+      case STRING:
+        byte[] bytes = field.getValueAsString().getBytes(StandardCharsets.UTF_8);
+        ((BytesColumnVector) colVector).setRef(vectorPos, bytes, 0, bytes.length);
+        break;
+      case BINARY:
+        byte[] binary = field.getValueAsByteArray();
+        ((BytesColumnVector) colVector).setRef(vectorPos, binary, 0, binary.length);
+        break;
+      case DATE:
+        ((LongColumnVector) colVector).vector[vectorPos] = DateWritable.millisToDays(field.getValueAsDate().getTime());
+        break;
+      case TIMESTAMP:
+        TimestampColumnVector tsColVec = (TimestampColumnVector) colVector;
+        long millis;
+        int nanos;
+        if (field.getType() == Field.Type.ZONED_DATETIME) {
+          millis = field.getValueAsZonedDateTime().toInstant().toEpochMilli();
+          nanos = field.getValueAsZonedDateTime().getNano();
+        } else {
+          Date date = field.getValueAsDatetime();
+          millis = date.getTime();
+          nanos = (int) Math.floorMod(millis, 1000L) * NANOS_PER_MILLI;
+        }
+        tsColVec.time[vectorPos] = millis;
+        tsColVec.nanos[vectorPos] = nanos;
+        break;
+      case DECIMAL:
+        BigDecimal decimal = field.getValueAsDecimal();
+        HiveDecimal hiveDecimal = HiveDecimal.create(decimal);
+        if (hiveDecimal == null) {
+          setNull(colVector, vectorPos);
+        } else {
+          ((DecimalColumnVector) colVector).set(vectorPos, hiveDecimal);
+        }
+        break;
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        ListColumnVector listColVec = (ListColumnVector) colVector;
+        int listOffset = listColVec.childCount;
+        listColVec.offsets[vectorPos] = listOffset;
+        listColVec.lengths[vectorPos] = list.size();
+        listColVec.childCount += list.size();
+        listColVec.child.ensureSize(listColVec.childCount, true);
+        TypeDescription elementType = type.getChildren().get(0);
+        for (int i = 0; i < list.size(); i++) {
+          addToVector(elementType, listColVec.child, list.get(i), listOffset + i);
+        }
+        break;
+      case MAP:
+        Map<String, Field> entries = field.getValueAsMap();
+        MapColumnVector mapColVec = (MapColumnVector) colVector;
+        int mapOffset = mapColVec.childCount;
+        mapColVec.offsets[vectorPos] = mapOffset;
+        mapColVec.lengths[vectorPos] = entries.size();
+        mapColVec.childCount += entries.size();
+        mapColVec.keys.ensureSize(mapColVec.childCount, true);
+        mapColVec.values.ensureSize(mapColVec.childCount, true);
+        int entryPos = mapOffset;
+        for (Map.Entry<String, Field> entry : entries.entrySet()) {
+          addToVector(type.getChildren().get(0), mapColVec.keys, Field.create(entry.getKey()), entryPos);
+          addToVector(type.getChildren().get(1), mapColVec.values, entry.getValue(), entryPos);
+          entryPos++;
+        }
+        break;
+      case STRUCT:
+        Map<String, Field> structFields = field.getValueAsMap();
+        StructColumnVector structColVec = (StructColumnVector) colVector;
+        for (int i = 0; i < type.getFieldNames().size(); i++) {
+          addToVector(
+              type.getChildren().get(i),
+              structColVec.fields[i],
+              structFields.get(type.getFieldNames().get(i)),
+              vectorPos
+          );
+        }
+        break;
+      default:
+        throw new IllegalStateException(String.format(
+            "ORC type %s is not supported for field of type %s",
+            type.getCategory().getName(),
+            field.getType()
+        ));
+    }
+  }
+}
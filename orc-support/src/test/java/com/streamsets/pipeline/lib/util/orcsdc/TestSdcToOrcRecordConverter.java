@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util.orcsdc;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.orc.TypeDescription;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+
+public class TestSdcToOrcRecordConverter {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path createTempFile() {
+    return new Path(new File(tempFolder.getRoot(), String.format("sdc-output-%d.orc", System.nanoTime())).getAbsolutePath());
+  }
+
+  private static Record createRecord(long id, String name) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put("id", Field.create(id));
+    map.put("name", Field.create(name));
+    map.put("amount", Field.create(new BigDecimal("12.50")));
+    map.put("tags", Field.create(ImmutableList.of(Field.create("a"), Field.create("b"))));
+    record.set(Field.create(map));
+    return record;
+  }
+
+  private Path writeRecords(int count) throws IOException {
+    Path path = createTempFile();
+    SdcToOrcRecordConverter converter = new SdcToOrcRecordConverter(2, new Properties(), new Configuration());
+    converter.initializeWriter(null, path);
+    for (int i = 1; i <= count; i++) {
+      converter.addRecord(createRecord(i, "name" + i));
+    }
+    Assert.assertEquals(
+        "struct<id:bigint,name:string,amount:decimal(38,18),tags:array<string>>",
+        converter.getOrcSchema().toString()
+    );
+    converter.closeWriter();
+    return path;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path path = writeRecords(5);
+
+    try (OrcToSdcRecordConverter reader = new OrcToSdcRecordConverter(path)) {
+      for (int i = 1; i <= 5; i++) {
+        Record record = RecordCreator.create();
+        Assert.assertTrue(reader.populateRecord(record));
+        Assert.assertEquals(i, record.get("/id").getValueAsLong());
+        Assert.assertEquals("name" + i, record.get("/name").getValueAsString());
+        Assert.assertEquals(0, new BigDecimal("12.50").compareTo(record.get("/amount").getValueAsDecimal()));
+      }
+      Assert.assertFalse(reader.populateRecord(RecordCreator.create()));
+    }
+  }
+
+  @Test
+  public void testSchemaFromHeader() throws IOException {
+    Record record = createRecord(1, "name");
+    record.getHeader().setAttribute(OrcToSdcRecordConverter.ORC_SCHEMA_RECORD_ATTRIBUTE, "struct<id:int,name:string>");
+    Assert.assertEquals(
+        TypeDescription.fromString("struct<id:int,name:string>"),
+        SdcToOrcRecordConverter.getOrcSchema(record)
+    );
+  }
+
+  @Test
+  public void testColumnProjection() throws IOException {
+    Path path = writeRecords(3);
+
+    try (OrcToSdcRecordConverter reader = new OrcToSdcRecordConverter(
+        path,
+        new Configuration(),
+        ImmutableList.of("name"),
+        null
+    )) {
+      Record record = RecordCreator.create();
+      Assert.assertTrue(reader.populateRecord(record));
+      Assert.assertEquals("name1", record.get("/name").getValueAsString());
+      Assert.assertFalse(record.has("/id"));
+      Assert.assertFalse(record.has("/tags"));
+    }
+  }
+
+  @Test
+  public void testPredicatePushdown() throws IOException {
+    Path path = writeRecords(3);
+
+    SearchArgument noMatch = SearchArgumentFactory.newBuilder()
+        .startAnd()
+        .lessThan("id", PredicateLeaf.Type.LONG, 0L)
+        .end()
+        .build();
+    try (OrcToSdcRecordConverter reader = new OrcToSdcRecordConverter(path, new Configuration(), null, noMatch)) {
+      Assert.assertFalse(reader.populateRecord(RecordCreator.create()));
+    }
+
+    SearchArgument match = SearchArgumentFactory.newBuilder()
+        .startAnd()
+        .lessThan("id", PredicateLeaf.Type.LONG, 2L)
+        .end()
+        .build();
+    try (OrcToSdcRecordConverter reader = new OrcToSdcRecordConverter(path, new Configuration(), null, match)) {
+      // the whole row group matches, filtering individual rows is left to the caller
+      int count = 0;
+      while (reader.populateRecord(RecordCreator.create())) {
+        count++;
+      }
+      Assert.assertEquals(3, count);
+    }
+  }
+}
@@ -19,16 +19,23 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.FileRef;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.impl.CreateByRef;
 
 import javax.script.ScriptEngine;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -112,6 +119,16 @@ public class ScriptObjectFactory {
     return elements;
   }
 
+  /**
+   * Returns if maps and lists of records are handed to scripts as views backed by the record fields, see
+   * {@link FieldMapView} and {@link FieldListView}. Records come back with the same fields either way. Factories
+   * whose scripting language needs its own map and list objects (i.e. overriding {@link #createMap(boolean)} or
+   * {@link #createArray(List)}) must return <code>false</code>.
+   */
+  protected boolean useFieldViews() {
+    return true;
+  }
+
   @SuppressWarnings("unchecked")
   protected Object fieldToScript(Field field) {
     Object scriptObject = null;
@@ -121,6 +138,10 @@ public class ScriptObjectFactory {
         switch (field.getType()) {
           case MAP:
           case LIST_MAP:
+            if (useFieldViews()) {
+              scriptObject = new FieldMapView(field);
+              break;
+            }
             Map<String, Field> fieldMap = (Map<String, Field>) scriptObject;
             Object scriptMap = createMap(field.getType() == Field.Type.LIST_MAP);
             for (Map.Entry<String, Field> entry : fieldMap.entrySet()) {
@@ -129,6 +150,10 @@ public class ScriptObjectFactory {
             scriptObject = scriptMap;
             break;
           case LIST:
+            if (useFieldViews()) {
+              scriptObject = new FieldListView(field);
+              break;
+            }
             List<Field> fieldArray = (List<Field>) scriptObject;
             List scripArrayElements = new ArrayList();
             for (Field aFieldArray : fieldArray) {
@@ -180,7 +205,9 @@ public class ScriptObjectFactory {
   @SuppressWarnings("unchecked")
   protected Field scriptToField(Object scriptObject, Record record, String path) {
     Field field;
-    if (scriptObject != null) {
+    if (scriptObject instanceof FieldView) {
+      field = ((FieldView) scriptObject).toField(record, path);
+    } else if (scriptObject != null) {
       if (scriptObject instanceof Map) {
         Map<String, Object> scriptMap = (Map<String, Object>) scriptObject;
         LinkedHashMap<String, Field> fieldMap = new LinkedHashMap<>();
@@ -252,4 +279,414 @@ public class ScriptObjectFactory {
   protected FileRef getFileRefFromScriptFileRef(ScriptFileRef scriptObject) {
     return ((ScriptFileRefImpl)scriptObject).fileRef;
   }
+
+  /**
+   * A map or list handed to a script that is backed by a record field.
+   */
+  protected interface FieldView {
+
+    /**
+     * Returns the field for the current contents of the view, the original field if the script did not change it.
+     */
+    Field toField(Record record, String path);
+
+  }
+
+  /*
+    Field views avoid converting the whole field tree of a record to script objects and back when the script only
+    touches part of it.
+
+    Until the script writes to a view, reads go straight to the backing field and nested maps and lists are wrapped
+    in views as they are accessed. Those views are kept, so changes done through them are seen when the record is
+    converted back. The first write, or any iteration, copies the entries of that single level into a script side
+    map/list, nested fields are still handed out as views.
+
+    When converting back, untouched fields are returned as they are as long as the eager conversion would give the
+    same field, otherwise they get the field the eager conversion gives (i.e. DATE and TIME fields come back as
+    DATETIME and attributes are dropped), so scripts see the same behavior with and without views. A backing field is
+    only handed out once, if the script places the same view in more than one spot the other spots get a copy of it.
+  */
+  private class FieldMapView extends AbstractMap<String, Object> implements MapInfo, FieldView {
+    private final Field field;
+    private final Map<String, Field> fields;
+    private final Map<String, Object> views;
+    private Map<String, Object> values;
+    private Map<String, Object> initialValues;
+    private boolean handedOut;
+
+    @SuppressWarnings("unchecked")
+    FieldMapView(Field field) {
+      this.field = field;
+      this.fields = (Map<String, Field>) field.getValue();
+      views = new HashMap<>();
+    }
+
+    @Override
+    public boolean isListMap() {
+      return field.getType() == Field.Type.LIST_MAP;
+    }
+
+    private Map<String, Object> materialize() {
+      if (values == null) {
+        values = new LinkedHashMap<>();
+        for (String key : fields.keySet()) {
+          values.put(key, getOriginal(key));
+        }
+        initialValues = new HashMap<>(values);
+      }
+      return values;
+    }
+
+    private Object getOriginal(String key) {
+      Object value = views.get(key);
+      if (value == null) {
+        value = fieldToScript(fields.get(key));
+        if (value instanceof FieldView) {
+          views.put(key, value);
+        }
+      }
+      return value;
+    }
+
+    @Override
+    public int size() {
+      return (values == null) ? fields.size() : values.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return (values == null) ? fields.containsKey(key) : values.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (values != null) {
+        return values.get(key);
+      }
+      return fields.containsKey(key) ? getOriginal((String) key) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+      return materialize().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+      materialize().putAll(map);
+    }
+
+    @Override
+    public void clear() {
+      materialize().clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+      return materialize().keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+      return materialize().values();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return materialize().entrySet();
+    }
+
+    @Override
+    public Field toField(Record record, String path) {
+      Map<String, Field> newFields = null;
+      if (values == null) {
+        // only views handed to the script may have changed
+        for (Map.Entry<String, Field> entry : fields.entrySet()) {
+          Field original = entry.getValue();
+          Object view = views.get(entry.getKey());
+          String entryPath = composeMapPath(path, entry.getKey());
+          Field newField = (view != null) ? scriptToField(view, record, entryPath) : untouched(original, record, entryPath);
+          if (newField != original) {
+            if (newFields == null) {
+              newFields = new LinkedHashMap<>(fields);
+            }
+            newFields.put(entry.getKey(), newField);
+          }
+        }
+      } else {
+        newFields = new LinkedHashMap<>();
+        boolean changed = values.size() != fields.size();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+          Field original = fields.get(entry.getKey());
+          Object value = entry.getValue();
+          Field newField;
+          if (original != null && value != null && !(value instanceof FieldView) &&
+              value == initialValues.get(entry.getKey())) {
+            newField = untouched(original, record, composeMapPath(path, entry.getKey()));
+          } else {
+            newField = scriptToField(value, record, composeMapPath(path, entry.getKey()));
+          }
+          changed |= newField != original;
+          newFields.put(entry.getKey(), newField);
+        }
+        if (!changed) {
+          newFields = null;
+        }
+      }
+      if (newFields == null) {
+        if (!hasAttributes(field)) {
+          return handOut();
+        }
+        newFields = new LinkedHashMap<>(fields);
+      }
+      LinkedHashMap<String, Field> map = (LinkedHashMap<String, Field>) newFields;
+      return createByRef(() -> isListMap() ? Field.createListMap(map) : Field.create(map));
+    }
+
+    private Field handOut() {
+      if (handedOut) {
+        return copy(field);
+      }
+      handedOut = true;
+      return field;
+    }
+  }
+
+  private class FieldListView extends AbstractList<Object> implements FieldView {
+    private final Field field;
+    private final List<Field> fields;
+    private final Object[] views;
+    private List<Object> values;
+    private Object[] initialValues;
+    private boolean handedOut;
+
+    @SuppressWarnings("unchecked")
+    FieldListView(Field field) {
+      this.field = field;
+      this.fields = (List<Field>) field.getValue();
+      views = new Object[fields.size()];
+    }
+
+    private List<Object> materialize() {
+      if (values == null) {
+        values = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+          values.add(getOriginal(i));
+        }
+        initialValues = values.toArray();
+      }
+      return values;
+    }
+
+    private Object getOriginal(int index) {
+      Object value = views[index];
+      if (value == null) {
+        value = fieldToScript(fields.get(index));
+        if (value instanceof FieldView) {
+          views[index] = value;
+        }
+      }
+      return value;
+    }
+
+    @Override
+    public int size() {
+      return (values == null) ? fields.size() : values.size();
+    }
+
+    @Override
+    public Object get(int index) {
+      if (values != null) {
+        return values.get(index);
+      }
+      if (index < 0 || index >= fields.size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fields.size());
+      }
+      return getOriginal(index);
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+      return materialize().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+      materialize().add(index, element);
+      modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+      modCount++;
+      return materialize().remove(index);
+    }
+
+    @Override
+    public Field toField(Record record, String path) {
+      List<Field> newFields = null;
+      if (values == null) {
+        // only views handed to the script may have changed
+        for (int i = 0; i < views.length; i++) {
+          Field original = fields.get(i);
+          String elementPath = composeArrayPath(path, i);
+          Field newField = (views[i] != null) ?
+              scriptToField(views[i], record, elementPath) :
+              untouched(original, record, elementPath);
+          if (newField != original) {
+            if (newFields == null) {
+              newFields = new ArrayList<>(fields);
+            }
+            newFields.set(i, newField);
+          }
+        }
+      } else {
+        // elements may have moved, untouched elements are only kept at their original index
+        newFields = new ArrayList<>(values.size());
+        boolean changed = values.size() != fields.size();
+        for (int i = 0; i < values.size(); i++) {
+          Field original = (i < fields.size()) ? fields.get(i) : null;
+          Object value = values.get(i);
+          Field newField;
+          if (original != null && value != null && !(value instanceof FieldView) && value == initialValues[i]) {
+            newField = untouched(original, record, composeArrayPath(path, i));
+          } else {
+            newField = scriptToField(value, record, composeArrayPath(path, i));
+          }
+          changed |= newField != original;
+          newFields.add(newField);
+        }
+        if (!changed) {
+          newFields = null;
+        }
+      }
+      if (newFields == null) {
+        if (!hasAttributes(field)) {
+          return handOut();
+        }
+        newFields = new ArrayList<>(fields);
+      }
+      List<Field> list = newFields;
+      return createByRef(() -> Field.create(list));
+    }
+
+    private Field handOut() {
+      if (handedOut) {
+        return copy(field);
+      }
+      handedOut = true;
+      return field;
+    }
+  }
+
+  /**
+   * Returns the field the eager conversion gives for a field the script did not touch, the field itself if the
+   * conversion does not change it. Walks the nested fields without allocating anything unless one of them changes.
+   */
+  @SuppressWarnings("unchecked")
+  private Field untouched(Field field, Record record, String path) {
+    Object value = field.getValue();
+    if (value == null) {
+      return hasAttributes(field) ? scriptToField(null, record, path) : field;
+    }
+    switch (field.getType()) {
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> fieldMap = (Map<String, Field>) value;
+        LinkedHashMap<String, Field> newMap = null;
+        for (Map.Entry<String, Field> entry : fieldMap.entrySet()) {
+          Field newField = untouched(entry.getValue(), record, composeMapPath(path, entry.getKey()));
+          if (newField != entry.getValue()) {
+            if (newMap == null) {
+              newMap = new LinkedHashMap<>(fieldMap);
+            }
+            newMap.put(entry.getKey(), newField);
+          }
+        }
+        if (newMap == null && !hasAttributes(field)) {
+          return field;
+        }
+        LinkedHashMap<String, Field> map = (newMap != null) ? newMap : new LinkedHashMap<>(fieldMap);
+        boolean isListMap = field.getType() == Field.Type.LIST_MAP;
+        return createByRef(() -> isListMap ? Field.createListMap(map) : Field.create(map));
+      case LIST:
+        List<Field> fieldList = (List<Field>) value;
+        List<Field> newList = null;
+        for (int i = 0; i < fieldList.size(); i++) {
+          Field newField = untouched(fieldList.get(i), record, composeArrayPath(path, i));
+          if (newField != fieldList.get(i)) {
+            if (newList == null) {
+              newList = new ArrayList<>(fieldList);
+            }
+            newList.set(i, newField);
+          }
+        }
+        if (newList == null && !hasAttributes(field)) {
+          return field;
+        }
+        List<Field> list = (newList != null) ? newList : new ArrayList<>(fieldList);
+        return createByRef(() -> Field.create(list));
+      case DATE:
+      case TIME:
+      case ZONED_DATETIME:
+        // the script gets the value only, the type is lost
+        return scriptToField(fieldToScript(field), record, path);
+      default:
+        return hasAttributes(field) ? scriptToField(fieldToScript(field), record, path) : field;
+    }
+  }
+
+  private static boolean hasAttributes(Field field) {
+    Map<String, String> attributes = field.getAttributes();
+    return attributes != null && !attributes.isEmpty();
+  }
+
+  // the fields are either new or handed out once, there is no need for Field to copy them again
+  private static Field createByRef(Callable<Field> creator) {
+    try {
+      return CreateByRef.call(creator);
+    } catch (Exception ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Field copy(Field field) {
+    Object value = field.getValue();
+    if (value != null) {
+      switch (field.getType()) {
+        case MAP:
+        case LIST_MAP:
+          LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+          for (Map.Entry<String, Field> entry : ((Map<String, Field>) value).entrySet()) {
+            map.put(entry.getKey(), copy(entry.getValue()));
+          }
+          value = map;
+          break;
+        case LIST:
+          List<Field> list = new ArrayList<>();
+          for (Field element : (List<Field>) value) {
+            list.add(copy(element));
+          }
+          value = list;
+          break;
+        default:
+          break;
+      }
+    }
+    Map<String, String> attributes = field.getAttributes();
+    return (attributes == null) ?
+        Field.create(field.getType(), value) :
+        Field.create(field.getType(), value, new HashMap<>(attributes));
+  }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.scripting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestScriptObjectFactory {
+
+  private static Record createRecord() {
+    LinkedHashMap<String, Field> inner = new LinkedHashMap<>();
+    inner.put("x", Field.create(1));
+    inner.put("y", Field.createDatetime(new Date(0)));
+    LinkedHashMap<String, Field> root = new LinkedHashMap<>();
+    root.put("a", Field.createListMap(inner));
+    root.put("b", Field.create(ImmutableList.of(Field.create("s1"), Field.create("s2"))));
+    root.put("c", Field.create("c"));
+    Record record = RecordCreator.create();
+    record.set(Field.create(root));
+    return record;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUntouchedFieldsAreNotConverted() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null, null);
+    Record record = createRecord();
+    Field root = record.get();
+
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Map<String, Object> value = (Map<String, Object>) scriptRecord.value;
+    Assert.assertEquals(3, value.size());
+    Assert.assertEquals("c", value.get("c"));
+    Map<String, Object> a = (Map<String, Object>) value.get("a");
+    Assert.assertTrue(((ScriptObjectFactory.MapInfo) a).isListMap());
+    Assert.assertEquals(1, a.get("x"));
+    Assert.assertEquals("s2", ((List<Object>) value.get("b")).get(1));
+
+    Assert.assertSame(root, factory.getRecord(scriptRecord).get());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNestedWrites() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null, null);
+    Record record = createRecord();
+    Field originalA = record.get("/a");
+    Field originalB = record.get("/b");
+
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Map<String, Object> value = (Map<String, Object>) scriptRecord.value;
+    ((Map<String, Object>) value.get("a")).put("z", "new");
+    ((List<Object>) value.get("b")).add("s3");
+
+    Record result = factory.getRecord(scriptRecord);
+    Assert.assertEquals(Field.Type.LIST_MAP, result.get("/a").getType());
+    Assert.assertEquals("new", result.get("/a/z").getValueAsString());
+    Assert.assertEquals(3, result.get("/a").getValueAsListMap().size());
+    // untouched fields keep their instance
+    Assert.assertSame(originalA.getValueAsListMap().get("y"), result.get("/a/y"));
+    Assert.assertNotSame(originalB, result.get("/b"));
+    Assert.assertEquals(3, result.get("/b").getValueAsList().size());
+    Assert.assertEquals("s3", result.get("/b[2]").getValueAsString());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRootWritesAndRemovals() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null, null);
+    Record record = createRecord();
+
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Map<String, Object> value = (Map<String, Object>) scriptRecord.value;
+    value.remove("c");
+    value.put("d", 5L);
+    ((List<Object>) value.get("b")).remove(0);
+
+    Record result = factory.getRecord(scriptRecord);
+    Assert.assertEquals(ImmutableList.of("a", "b", "d"), ImmutableList.copyOf(result.get().getValueAsMap().keySet()));
+    Assert.assertEquals(Field.create(5L), result.get("/d"));
+    Assert.assertEquals(ImmutableList.of(Field.create("s2")), result.get("/b").getValueAsList());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSameViewPlacedTwice() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null, null);
+    Record record = createRecord();
+    Field originalA = record.get("/a");
+
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Map<String, Object> value = (Map<String, Object>) scriptRecord.value;
+    value.put("copy", value.get("a"));
+
+    Record result = factory.getRecord(scriptRecord);
+    Assert.assertSame(originalA, result.get("/a"));
+    Assert.assertNotSame(originalA, result.get("/copy"));
+    Assert.assertEquals(originalA, result.get("/copy"));
+  }
+
+  private static Record createRecordWithTypesLostByScripts() {
+    Field date = Field.createDate(new Date(0));
+    date.setAttribute("attr", "date");
+    Field decimal = Field.create(new BigDecimal("1.5"));
+    decimal.setAttribute("scale", "1");
+    LinkedHashMap<String, Field> inner = new LinkedHashMap<>();
+    inner.put("date", date);
+    inner.put("time", Field.createTime(new Date(1000)));
+    inner.put("nullTime", Field.createTime(null));
+    inner.put("decimal", decimal);
+    inner.put("list", Field.create(ImmutableList.of(Field.createDate(new Date(2000)), Field.create(2))));
+    Field innerField = Field.createListMap(inner);
+    innerField.setAttribute("attr", "map");
+    LinkedHashMap<String, Field> root = new LinkedHashMap<>();
+    root.put("untouched", innerField);
+    root.put("read", Field.create(ImmutableList.of(Field.createDate(new Date(3000)))));
+    root.put("written", Field.create(new LinkedHashMap<>(ImmutableMap.of("date", Field.createDate(new Date(4000))))));
+    Record record = RecordCreator.create();
+    record.set(Field.create(root));
+    return record;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Field runScript(ScriptObjectFactory factory) {
+    ScriptRecord scriptRecord = factory.createScriptRecord(createRecordWithTypesLostByScripts());
+    Map<String, Object> value = (Map<String, Object>) scriptRecord.value;
+    ((List<Object>) value.get("read")).get(0);
+    ((Map<String, Object>) value.get("written")).put("x", 1);
+    return factory.getRecord(scriptRecord).get();
+  }
+
+  @Test
+  public void testSameFieldsAsWithoutFieldViews() {
+    ScriptObjectFactory eagerFactory = new ScriptObjectFactory(null, null) {
+      @Override
+      protected boolean useFieldViews() {
+        return false;
+      }
+    };
+    Field expected = runScript(eagerFactory);
+    Field result = runScript(new ScriptObjectFactory(null, null));
+
+    Assert.assertEquals(expected, result);
+    Assert.assertEquals(Field.Type.DATETIME, result.getValueAsMap().get("untouched").getValueAsListMap().get("date").getType());
+    Field untouched = result.getValueAsMap().get("untouched");
+    Assert.assertEquals(Field.Type.LIST_MAP, untouched.getType());
+    Assert.assertNull(untouched.getAttributes());
+    Assert.assertNull(untouched.getValueAsListMap().get("decimal").getAttributes());
+    Assert.assertEquals(Field.Type.TIME, untouched.getValueAsListMap().get("nullTime").getType());
+    Assert.assertEquals(Field.Type.DATETIME, untouched.getValueAsListMap().get("list").getValueAsList().get(0).getType());
+    Assert.assertEquals(Field.Type.DATETIME, result.getValueAsMap().get("read").getValueAsList().get(0).getType());
+    Assert.assertEquals(Field.Type.DATETIME, result.getValueAsMap().get("written").getValueAsMap().get("date").getType());
+  }
+
+  @Test
+  public void testWithoutFieldViews() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null, null) {
+      @Override
+      protected boolean useFieldViews() {
+        return false;
+      }
+    };
+    Record record = createRecord();
+    Field root = record.get();
+
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Assert.assertTrue(scriptRecord.value instanceof LinkedHashMap);
+    Field result = factory.getRecord(scriptRecord).get();
+    Assert.assertNotSame(root, result);
+    Assert.assertEquals("c", result.getValueAsMap().get("c").getValueAsString());
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.memory;
+
+import com.codahale.metrics.Counter;
+import com.streamsets.pipeline.api.Stage;
+
+/**
+ * Reports the memory a stage retains across batches, like caches or aggregation windows, for the memory accounting
+ * of the data collector.
+ * <p/>
+ * Each buffer is kept in a custom counter of the stage named {@code memory.<buffer>}, the data collector adds up the
+ * counters of the stage to the memory consumed by it when {@code monitor.memory.mode} is {@code accounting}. The
+ * accountants must be created in the {@code init()} of the stage, only if {@link #isEnabled(Stage.Context)}, so the
+ * stage does not estimate its buffers when nothing reads them. A buffer shared by all the runners of a multithreaded
+ * pipeline must be reported by one of them only.
+ */
+public class MemoryAccountant {
+  public static final String METRIC_PREFIX = "memory.";
+
+  // stage config set by the data collector, see Stage.Context#getConfig()
+  public static final String ACCOUNTING_CONFIG = "monitor.memory.accounting";
+
+  /**
+   * Returns if the data collector accounts the memory of the stage.
+   */
+  public static boolean isEnabled(Stage.Context context) {
+    return Boolean.parseBoolean(context.getConfig(ACCOUNTING_CONFIG));
+  }
+
+  private final Counter retained;
+
+  public MemoryAccountant(Stage.Context context, String buffer) {
+    this.retained = context.createCounter(METRIC_PREFIX + buffer);
+  }
+
+  /**
+   * Sets the bytes currently retained by the buffer.
+   */
+  public void set(long bytes) {
+    retained.inc(bytes - retained.getCount());
+  }
+
+  public void add(long bytes) {
+    retained.inc(bytes);
+  }
+
+  public void release(long bytes) {
+    retained.dec(bytes);
+  }
+
+  public long get() {
+    return retained.getCount();
+  }
+}
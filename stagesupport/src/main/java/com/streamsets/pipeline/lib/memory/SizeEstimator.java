@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.memory;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap retained by fields and by the usual containers of stage buffers without walking the heap.
+ * <p/>
+ * The estimates assume a 64 bit JVM with compressed references, and count every object as owned, even the ones that
+ * could be shared or cached by the JVM (like small boxed numbers).
+ */
+public final class SizeEstimator {
+  static final int OBJECT_HEADER = 12;
+  static final int REFERENCE = 4;
+  static final int ARRAY_HEADER = 16;
+
+  // String object: header, value array reference, hash and coder
+  static final long STRING = align(OBJECT_HEADER + REFERENCE + 4 + 4);
+  // Field object: header, type, value and attributes references
+  static final long FIELD = align(OBJECT_HEADER + 3 * REFERENCE);
+  // HashMap.Node and LinkedHashMap.Entry objects
+  static final long HASH_MAP_ENTRY = align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+  static final long LINKED_HASH_MAP_ENTRY = align(OBJECT_HEADER + 4 + 5 * REFERENCE);
+  // HashMap: table and views references, size, mod count, threshold and load factor
+  static final long HASH_MAP = align(OBJECT_HEADER + 4 * REFERENCE + 4 * 4);
+  // LinkedHashMap: plus head and tail references and the access order flag
+  static final long LINKED_HASH_MAP = align(OBJECT_HEADER + 6 * REFERENCE + 4 * 4 + 1);
+  static final long ARRAY_LIST = align(OBJECT_HEADER + 2 * 4 + REFERENCE);
+  static final long BOXED_INT = align(OBJECT_HEADER + 4);
+  static final long BOXED_LONG = align(OBJECT_HEADER + 8);
+  // java.util.Date: fast time and calendar reference
+  static final long DATE = align(OBJECT_HEADER + 8 + REFERENCE);
+  // ZonedDateTime with its LocalDateTime, LocalDate and LocalTime, the zone is shared
+  static final long ZONED_DATE_TIME = 4 * align(OBJECT_HEADER + 3 * REFERENCE);
+  // BigDecimal with a compact unscaled value
+  static final long BIG_DECIMAL = align(OBJECT_HEADER + 8 + 2 * 4 + 2 * REFERENCE);
+  static final long BIG_INTEGER = align(OBJECT_HEADER + 4 * 4 + 2 * 4 + REFERENCE);
+
+  // Java 9 and later store Latin-1 strings with one byte per character
+  private static final int BYTES_PER_CHAR =
+      System.getProperty("java.specification.version", "").startsWith("1.") ? 2 : 1;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private SizeEstimator() {}
+
+  public static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+  public static long ofArray(int length, int elementSize) {
+    return align(ARRAY_HEADER + (long) length * elementSize);
+  }
+
+  public static long ofString(String string) {
+    return (string == null) ? 0 : STRING + ofArray(string.length(), BYTES_PER_CHAR);
+  }
+
+  /**
+   * Estimates a hash map with the given number of entries, without its keys and values.
+   */
+  public static long ofHashMap(int entries, boolean linked) {
+    long size = linked ? LINKED_HASH_MAP : HASH_MAP;
+    if (entries > 0) {
+      int capacity = Integer.highestOneBit(Math.max((int) (entries / LOAD_FACTOR), 1) * 2 - 1);
+      size += ofArray(Math.max(capacity, 16), REFERENCE) + entries * (linked ? LINKED_HASH_MAP_ENTRY : HASH_MAP_ENTRY);
+    }
+    return size;
+  }
+
+  /**
+   * Estimates an array list with the given number of elements, without the elements themselves.
+   */
+  public static long ofArrayList(int elements) {
+    return ARRAY_LIST + ofArray(elements, REFERENCE);
+  }
+
+  /**
+   * Estimates a field including its attributes and, for maps and lists, all the nested fields.
+   */
+  @SuppressWarnings("unchecked")
+  public static long ofField(Field field) {
+    if (field == null) {
+      return 0;
+    }
+    long size = FIELD;
+    Map<String, String> attributes = field.getAttributes();
+    if (attributes != null) {
+      size += ofStringMap(attributes, true);
+    }
+    Object value = field.getValue();
+    if (value == null) {
+      return size;
+    }
+    switch (field.getType()) {
+      case BOOLEAN:
+      case CHAR:
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case FLOAT:
+        return size + BOXED_INT;
+      case LONG:
+      case DOUBLE:
+        return size + BOXED_LONG;
+      case DATE:
+      case DATETIME:
+      case TIME:
+        return size + DATE;
+      case ZONED_DATETIME:
+        return size + ZONED_DATE_TIME;
+      case DECIMAL:
+        return size + ofDecimal((BigDecimal) value);
+      case STRING:
+        return size + ofString((String) value);
+      case BYTE_ARRAY:
+        return size + ofArray(((byte[]) value).length, 1);
+      case MAP:
+      case LIST_MAP:
+        return size + ofFields((Map<String, Field>) value, field.getType() == Field.Type.LIST_MAP);
+      case LIST:
+        List<Field> list = (List<Field>) value;
+        size += ofArrayList(list.size());
+        for (Field element : list) {
+          size += ofField(element);
+        }
+        return size;
+      default:
+        // FILE_REF, the content is not kept in memory
+        return size + align(OBJECT_HEADER + 2 * REFERENCE);
+    }
+  }
+
+  /**
+   * Estimates a map of fields, like the value of a map field or a row of a lookup cache.
+   */
+  public static long ofFields(Map<String, Field> fields, boolean linked) {
+    long size = ofHashMap(fields.size(), linked);
+    for (Map.Entry<String, Field> entry : fields.entrySet()) {
+      size += ofString(entry.getKey()) + ofField(entry.getValue());
+    }
+    return size;
+  }
+
+  static long ofStringMap(Map<String, String> map, boolean linked) {
+    long size = ofHashMap(map.size(), linked);
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      size += ofString(entry.getKey()) + ofString(entry.getValue());
+    }
+    return size;
+  }
+
+  private static long ofDecimal(BigDecimal decimal) {
+    // unscaled values of up to 18 digits are kept in a long, larger ones in a BigInteger
+    if (decimal.precision() <= 18) {
+      return BIG_DECIMAL;
+    }
+    int magnitudeInts = (int) (decimal.precision() * Math.log(10) / Math.log(2) / 32) + 1;
+    return BIG_DECIMAL + BIG_INTEGER + ofArray(magnitudeInts, 4);
+  }
+}
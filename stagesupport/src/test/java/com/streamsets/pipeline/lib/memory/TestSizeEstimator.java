@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.memory;
+
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestSizeEstimator {
+
+  @Test
+  public void testAlign() {
+    Assert.assertEquals(0, SizeEstimator.align(0));
+    Assert.assertEquals(16, SizeEstimator.align(12));
+    Assert.assertEquals(16, SizeEstimator.align(16));
+    Assert.assertEquals(24, SizeEstimator.align(17));
+  }
+
+  @Test
+  public void testKnownSizes() {
+    // the sizes the JVM reports for 64 bit with compressed references
+    Assert.assertEquals(16, SizeEstimator.BOXED_INT);
+    Assert.assertEquals(24, SizeEstimator.BOXED_LONG);
+    Assert.assertEquals(24, SizeEstimator.STRING);
+    Assert.assertEquals(24, SizeEstimator.FIELD);
+    Assert.assertEquals(32, SizeEstimator.HASH_MAP_ENTRY);
+    Assert.assertEquals(40, SizeEstimator.LINKED_HASH_MAP_ENTRY);
+    Assert.assertEquals(48, SizeEstimator.HASH_MAP);
+    Assert.assertEquals(56, SizeEstimator.LINKED_HASH_MAP);
+    Assert.assertEquals(24, SizeEstimator.ARRAY_LIST);
+    Assert.assertEquals(56, SizeEstimator.ofArray(10, 4));
+    Assert.assertEquals(1040, SizeEstimator.ofArray(1024, 1));
+  }
+
+  @Test
+  public void testScalarFields() {
+    Assert.assertEquals(40, SizeEstimator.ofField(Field.create(1)));
+    Assert.assertEquals(40, SizeEstimator.ofField(Field.create(true)));
+    Assert.assertEquals(48, SizeEstimator.ofField(Field.create(1L)));
+    Assert.assertEquals(48, SizeEstimator.ofField(Field.create(1.0d)));
+    Assert.assertEquals(48, SizeEstimator.ofField(Field.createDate(new Date())));
+    Assert.assertEquals(64, SizeEstimator.ofField(Field.create(new BigDecimal("1.5"))));
+    Assert.assertEquals(24 + 1040, SizeEstimator.ofField(Field.create(new byte[1024])));
+    Assert.assertEquals(24, SizeEstimator.ofField(Field.create(Field.Type.STRING, null)));
+    Assert.assertEquals(24 + SizeEstimator.ofString("abc"), SizeEstimator.ofField(Field.create("abc")));
+    Assert.assertEquals(0, SizeEstimator.ofField(null));
+    Assert.assertEquals(0, SizeEstimator.ofString(null));
+  }
+
+  @Test
+  public void testStrings() {
+    // a 3 character string fits in the minimum array with both 1 and 2 bytes per character
+    Assert.assertEquals(48, SizeEstimator.ofString("abc"));
+    Assert.assertTrue(SizeEstimator.ofString("abcdefghijklmnopqrstuvwxyz") > SizeEstimator.ofString("abc"));
+  }
+
+  @Test
+  public void testBigDecimalWithLargePrecision() {
+    long small = SizeEstimator.ofField(Field.create(new BigDecimal("123456789012345678")));
+    long large = SizeEstimator.ofField(Field.create(new BigDecimal("1234567890123456789012345678901234567890")));
+    Assert.assertEquals(64, small);
+    Assert.assertTrue(large > small + SizeEstimator.BIG_INTEGER);
+  }
+
+  @Test
+  public void testHashMaps() {
+    Assert.assertEquals(48, SizeEstimator.ofHashMap(0, false));
+    // default capacity of 16 buckets
+    Assert.assertEquals(48 + 80 + 32, SizeEstimator.ofHashMap(1, false));
+    Assert.assertEquals(48 + 80 + 12 * 32, SizeEstimator.ofHashMap(12, false));
+    // resized to 32 buckets
+    Assert.assertEquals(48 + 144 + 13 * 32, SizeEstimator.ofHashMap(13, false));
+    Assert.assertEquals(56 + 80 + 40, SizeEstimator.ofHashMap(1, true));
+  }
+
+  @Test
+  public void testNestedFields() {
+    Field a = Field.create(1);
+    Field b = Field.create(2L);
+    Map<String, Field> mapValue = new HashMap<>();
+    mapValue.put("a", a);
+    mapValue.put("b", b);
+    long map = SizeEstimator.ofField(Field.create(mapValue));
+    Assert.assertEquals(
+        24 + SizeEstimator.ofHashMap(2, false) + 2 * SizeEstimator.ofString("a") + 40 + 48,
+        map
+    );
+
+    LinkedHashMap<String, Field> listMapValue = new LinkedHashMap<>(mapValue);
+    long listMap = SizeEstimator.ofField(Field.createListMap(listMapValue));
+    Assert.assertEquals(map + SizeEstimator.ofHashMap(2, true) - SizeEstimator.ofHashMap(2, false), listMap);
+
+    List<Field> listValue = new ArrayList<>();
+    listValue.add(a);
+    listValue.add(b);
+    long list = SizeEstimator.ofField(Field.create(listValue));
+    Assert.assertEquals(24 + SizeEstimator.ofArrayList(2) + 40 + 48, list);
+  }
+
+  @Test
+  public void testAttributes() {
+    Field field = Field.create(1);
+    field.setAttribute("k", "v");
+    Assert.assertEquals(
+        40 + SizeEstimator.ofHashMap(1, true) + 2 * SizeEstimator.ofString("k"),
+        SizeEstimator.ofField(field)
+    );
+  }
+}